@@ -2,6 +2,7 @@ package stsarena;
 
 import basemod.BaseMod;
 import basemod.interfaces.EditStringsSubscriber;
+import basemod.interfaces.PostDrawSubscriber;
 import basemod.interfaces.PostDungeonInitializeSubscriber;
 import basemod.interfaces.PostInitializeSubscriber;
 import basemod.interfaces.PostRenderSubscriber;
@@ -9,12 +10,16 @@ import basemod.interfaces.PostUpdateSubscriber;
 import basemod.interfaces.PreUpdateSubscriber;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.evacipated.cardcrawl.modthespire.lib.SpireInitializer;
+import com.megacrit.cardcrawl.cards.AbstractCard;
 import com.megacrit.cardcrawl.core.CardCrawlGame;
 import com.megacrit.cardcrawl.dungeons.AbstractDungeon;
 import com.megacrit.cardcrawl.helpers.input.InputHelper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import stsarena.arena.ArenaRunner;
+import stsarena.arena.LoadoutCatalog;
+import stsarena.arena.LoadoutConfig;
+import stsarena.arena.PrototypeCache;
 import stsarena.arena.SaveFileManager;
 import stsarena.communication.ArenaBackCommand;
 import stsarena.communication.ArenaCommand;
@@ -51,7 +56,7 @@ import stsarena.screens.LoadoutCreatorScreen;
  * - Practice specific fights without playing through the full game
  */
 @SpireInitializer
-public class STSArena implements EditStringsSubscriber, PostInitializeSubscriber, PostDungeonInitializeSubscriber, PreUpdateSubscriber, PostUpdateSubscriber, PostRenderSubscriber {
+public class STSArena implements EditStringsSubscriber, PostInitializeSubscriber, PostDungeonInitializeSubscriber, PostDrawSubscriber, PreUpdateSubscriber, PostUpdateSubscriber, PostRenderSubscriber {
 
     public static final Logger logger = LogManager.getLogger(STSArena.class.getName());
     public static final String MOD_ID = "stsarena";
@@ -64,9 +69,6 @@ public class STSArena implements EditStringsSubscriber, PostInitializeSubscriber
     public static ArenaStatsScreen statsScreen;
     public static ArenaResultsScreen resultsScreen;
 
-    // Flag to trigger fight start on next update (gives game time to initialize)
-    private static boolean pendingFightStart = false;
-
     // Flag to return to arena selection after returning to main menu
     private static boolean returnToArenaOnMainMenu = false;
 
@@ -143,6 +145,17 @@ public class STSArena implements EditStringsSubscriber, PostInitializeSubscriber
         // Initialize the database
         ArenaDatabase.getInstance();
 
+        // Runs still missing an outcome were cut off by a crash (crash recovery)
+        ArenaRepository.getInstance().abandonOrphanedRuns();
+
+        // Index the card/relic pools now that every mod has registered its content
+        LoadoutCatalog.rebuild();
+        PrototypeCache.clear();
+
+        // Let loadout search match card and relic names in the player's language
+        ArenaRepository.getInstance().updateDisplayNamesAsync(
+            LoadoutConfig.getCardDisplayNames(), LoadoutConfig.getRelicDisplayNames());
+
         // Initialize the screens
         historyScreen = new ArenaHistoryScreen();
         encounterSelectScreen = new ArenaEncounterSelectScreen();
@@ -166,19 +179,19 @@ public class STSArena implements EditStringsSubscriber, PostInitializeSubscriber
 
     /**
      * Called after a dungeon is initialized.
-     * We now apply loadout directly in ArenaRunner.startFight(), so just set the flag.
+     * An arena fight is entered on the next update, once the game has finished initializing.
      */
     @Override
     public void receivePostDungeonInitialize() {
-        logger.info("=== ARENA: receivePostDungeonInitialize called ===");
-        logger.info("ARENA: ArenaRunner.isArenaRunInProgress() = " + ArenaRunner.isArenaRunInProgress());
-        if (ArenaRunner.isArenaRunInProgress()) {
-            logger.info("ARENA: Setting pendingFightStart = true");
-            pendingFightStart = true;
-        }
+        ArenaRunner.onDungeonInitialized();
+    }
 
-        // Clear the resumingNormalRun flag now that the dungeon is initialized
-        ArenaRunner.clearResumingNormalRun();
+    /**
+     * Called after a card is drawn. The first draw of an arena fight ends its setup timing.
+     */
+    @Override
+    public void receivePostDraw(AbstractCard card) {
+        ArenaRunner.onCardDrawn();
     }
 
     /**
@@ -230,21 +243,8 @@ public class STSArena implements EditStringsSubscriber, PostInitializeSubscriber
      */
     @Override
     public void receivePostUpdate() {
-        if (pendingFightStart) {
-            logger.info("=== ARENA: receivePostUpdate - pendingFightStart is true ===");
-            logger.info("ARENA: ArenaRunner.isArenaRunInProgress() = " + ArenaRunner.isArenaRunInProgress());
-            if (ArenaRunner.isArenaRunInProgress()) {
-                pendingFightStart = false;
-                logger.info("ARENA: Calling ArenaRunner.startPendingFight()");
-                ArenaRunner.startPendingFight();
-            } else {
-                logger.info("ARENA: ArenaRunner not in progress, resetting pendingFightStart");
-                pendingFightStart = false;
-            }
-        }
-
-        // Check if arena fight ended and we need to return to main menu
-        ArenaRunner.checkPendingReturnToMainMenu();
+        // Whatever the fight session scheduled (entering the fight, a restart from the menu)
+        ArenaRunner.update();
 
         // Check if we should open the loadout editor after returning to main menu (retry deck tweaks)
         if (pendingLoadoutEditorRecord != null &&
@@ -260,25 +260,6 @@ public class STSArena implements EditStringsSubscriber, PostInitializeSubscriber
             return;  // Don't also open encounter select
         }
 
-        // Check if we should restart an arena fight after returning to main menu
-        // This is used when restarting from imperfect victory where direct mode change doesn't work
-        boolean hasPending = ArenaRunner.hasPendingArenaRestart();
-        boolean hasMenuScreen = CardCrawlGame.mainMenuScreen != null;
-        boolean noPlayer = AbstractDungeon.player == null;
-        boolean notLoading = !CardCrawlGame.loadingSave;
-
-        if (hasPending) {
-            logger.info("ARENA: hasPendingArenaRestart=true, checking conditions: mainMenuScreen=" +
-                hasMenuScreen + ", player==null=" + noPlayer + ", !loadingSave=" + notLoading);
-        }
-
-        if (hasPending && hasMenuScreen && noPlayer && notLoading) {
-            returnToArenaOnMainMenu = false;  // Clear this flag since we're starting a fight instead
-            logger.info("ARENA: Returned to main menu, executing pending arena restart");
-            ArenaRunner.checkPendingArenaRestart();
-            return;  // Don't also open encounter select
-        }
-
         // Check if we should return to arena selection after returning to main menu
         // We detect main menu by: mainMenuScreen exists, no dungeon active, not loading
         if (returnToArenaOnMainMenu &&
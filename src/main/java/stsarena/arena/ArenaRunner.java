@@ -11,52 +11,23 @@ import com.megacrit.cardcrawl.saveAndContinue.SaveAndContinue;
 import com.megacrit.cardcrawl.saveAndContinue.SaveFile;
 import com.megacrit.cardcrawl.screens.GameOverScreen;
 import stsarena.STSArena;
-import stsarena.data.ArenaDatabase;
 import stsarena.data.ArenaRepository;
 import stsarena.screens.ArenaLoadoutSelectScreen;
 
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Handles starting arena fights with custom loadouts.
+ *
+ * All fight state lives in one {@link FightSession}. Game events reach it through
+ * {@link #onDungeonInitialized()}, {@link #onCardDrawn()} and the record/leave methods;
+ * {@link #update()} only does work for the states that scheduled some.
  */
 public class ArenaRunner {
 
-    private static RandomLoadoutGenerator.GeneratedLoadout pendingLoadout;
-    private static String pendingEncounter;
-    private static boolean arenaRunInProgress = false;
-
-    // Flag to indicate current run is an arena run (used to disable saving)
-    private static boolean isArenaRun = false;
-
-    // Current run tracking
-    private static long currentLoadoutDbId = -1;
-    private static long currentRunDbId = -1;
-    private static RandomLoadoutGenerator.GeneratedLoadout currentLoadout;
-    private static String currentEncounter;
-
-    // Combat tracking
-    private static int combatStartHp = 0;
-    private static List<String> potionsUsedThisCombat = new ArrayList<>();
-    private static boolean tookDamageThisCombat = false;
-
-    // Flag to trigger return to main menu after arena fight ends
-    private static boolean pendingReturnToMainMenu = false;
-
-    // Flag and data for pending arena restart (used when restarting from imperfect victory)
-    private static boolean pendingArenaRestart = false;
-    private static RandomLoadoutGenerator.GeneratedLoadout pendingRestartLoadout = null;
-    private static String pendingRestartEncounter = null;
-    private static long pendingRestartLoadoutDbId = -1;
-
-    // Track if arena was started from a normal run (Practice in Arena button)
-    private static boolean startedFromNormalRun = false;
-
-    // Flag to indicate we're in the middle of resuming a normal run
-    // Used to prevent ClearArenaOnMainMenuPatch from clearing state during transition
-    private static boolean resumingNormalRun = false;
-    private static com.megacrit.cardcrawl.characters.AbstractPlayer.PlayerClass normalRunPlayerClass = null;
+    private static final FightSession session = new FightSession();
 
     /**
      * Start a random arena fight from the main menu.
@@ -73,14 +44,42 @@ public class ArenaRunner {
 
     /**
      * Start an arena fight with a specific loadout and encounter.
-     * Uses save file approach to properly initialize game state.
+     * Loads a staged arena save to properly initialize game state.
      */
     public static void startFight(RandomLoadoutGenerator.GeneratedLoadout loadout, String encounter) {
         STSArena.logger.info("=== ARENA: startFight() called ===");
         STSArena.logger.info("ARENA: Loadout: " + loadout.name + ", Encounter: " + encounter);
-        STSArena.logger.info("ARENA: BEFORE - arenaRunInProgress=" + arenaRunInProgress + ", isArenaRun=" + isArenaRun);
 
-        // Close any open arena screens to ensure clean transition
+        closeArenaScreens();
+
+        STSArena.logger.info("Starting arena: " + loadout.playerClass + " vs " + encounter);
+
+        // Queue the loadout upsert - it completes on the database writer thread.
+        // A loadout played before (a restart, a saved loadout) keeps its row and its history.
+        CompletableFuture<Long> loadoutDbId = FightSession.NO_DB_ID;
+        try {
+            loadoutDbId = ArenaRepository.getInstance().upsertLoadoutAsync(loadout);
+        } catch (Exception e) {
+            STSArena.logger.error("ARENA: Failed to queue loadout save for database: " + e.getMessage(), e);
+        }
+
+        beginFight(loadout, encounter, loadoutDbId);
+
+        // Once saved, the loadout becomes the selection so subsequent fights use the same one.
+        // update() applies it on the game thread, unless the player has picked another by then.
+        session.selectionUpdate = loadoutDbId;
+        session.selectionAtStart = ArenaLoadoutSelectScreen.selectedSavedLoadout;
+        session.randomAtStart = ArenaLoadoutSelectScreen.useNewRandomLoadout;
+
+        if (loadArenaSave(loadout, encounter)) {
+            STSArena.logger.info("Arena save staged, transitioning to load it");
+        }
+    }
+
+    /**
+     * Close any open arena screens to ensure a clean transition into the fight.
+     */
+    private static void closeArenaScreens() {
         if (STSArena.encounterSelectScreen != null && STSArena.encounterSelectScreen.isOpen) {
             STSArena.logger.info("ARENA: Closing encounter select screen before starting fight");
             STSArena.encounterSelectScreen.close();
@@ -89,63 +88,49 @@ public class ArenaRunner {
             STSArena.logger.info("ARENA: Closing loadout select screen before starting fight");
             STSArena.loadoutSelectScreen.close();
         }
+    }
 
-        pendingLoadout = loadout;
-        pendingEncounter = encounter;
-        arenaRunInProgress = true;
-        isArenaRun = true;
-        STSArena.logger.info("ARENA: AFTER setting flags - arenaRunInProgress=" + arenaRunInProgress + ", isArenaRun=" + isArenaRun);
-
-        // Store for later tracking
-        currentLoadout = loadout;
-        currentEncounter = encounter;
-        combatStartHp = loadout.currentHp;
-        potionsUsedThisCombat.clear();
-        tookDamageThisCombat = false;
-
-        STSArena.logger.info("Starting arena: " + loadout.playerClass + " vs " + encounter);
+    /**
+     * Make this loadout and encounter the session's fight, start timing the attempt and
+     * queue its run insert behind the loadout's.
+     */
+    private static void beginFight(RandomLoadoutGenerator.GeneratedLoadout loadout, String encounter,
+                                   CompletableFuture<Long> loadoutDbId) {
+        session.loadout = loadout;
+        session.encounter = encounter;
+        session.loadoutDbId = loadoutDbId;
+        session.selectionUpdate = null;
+        session.beginAttempt(FightSession.State.LOADING);
 
-        // Save loadout to database
-        STSArena.logger.info("ARENA: About to save loadout to database...");
         try {
-            STSArena.logger.info("ARENA: Getting database instance...");
-            ArenaDatabase db = ArenaDatabase.getInstance();
-            STSArena.logger.info("ARENA: Database instance: " + db);
-            ArenaRepository repo = new ArenaRepository(db);
-            STSArena.logger.info("ARENA: Calling saveLoadout...");
-            currentLoadoutDbId = repo.saveLoadout(loadout);
-            STSArena.logger.info("ARENA: saveLoadout returned: " + currentLoadoutDbId);
-            if (currentLoadoutDbId > 0) {
-                // Start tracking the run
-                STSArena.logger.info("ARENA: Calling startArenaRun...");
-                currentRunDbId = repo.startArenaRun(currentLoadoutDbId, encounter, loadout.currentHp);
-                STSArena.logger.info("ARENA: Arena run started with DB ID: " + currentRunDbId);
-
-                // Update loadout selection state so subsequent fights use the same loadout
-                ArenaRepository.LoadoutRecord savedRecord = repo.getLoadoutById(currentLoadoutDbId);
-                if (savedRecord != null) {
-                    ArenaLoadoutSelectScreen.selectedSavedLoadout = savedRecord;
-                    ArenaLoadoutSelectScreen.useNewRandomLoadout = false;
-                    STSArena.logger.info("ARENA: Updated loadout selection to use saved loadout: " + savedRecord.name);
-                }
-            } else {
-                STSArena.logger.error("ARENA: saveLoadout failed, returned: " + currentLoadoutDbId);
-            }
+            ArenaRepository repo = ArenaRepository.getInstance();
+            session.runDbId = repo.startArenaRunAsync(loadoutDbId, encounter, loadout.currentHp);
+            STSArena.logger.info("ARENA: Arena run queued");
         } catch (Exception e) {
-            STSArena.logger.error("ARENA: Failed to save arena run to database: " + e.getMessage(), e);
-            e.printStackTrace();
+            session.runDbId = FightSession.NO_DB_ID;
+            STSArena.logger.error("ARENA: Failed to start arena run", e);
         }
-        STSArena.logger.info("ARENA: Database save section complete. currentRunDbId=" + currentRunDbId);
+    }
 
-        // Backup any existing save file before creating arena save
-        SaveFileManager.backupOriginalSave(loadout.playerClass);
+    /**
+     * Stage the arena save and send the game through CHAR_SELECT to load it, the way
+     * resumeGame() does. The session stays LOADING until the dungeon is initialized.
+     * Returns false (with the session cleared) if the player's save couldn't be backed up
+     * or the arena save couldn't be staged.
+     */
+    private static boolean loadArenaSave(RandomLoadoutGenerator.GeneratedLoadout loadout, String encounter) {
+        // Back up the real save: arena saves are never written, but ending a run deletes the autosave
+        if (!SaveFileManager.backupOriginalSave(loadout.playerClass)) {
+            STSArena.logger.error("Failed to back up the original save, not starting the arena fight");
+            clearArenaRun();
+            return false;
+        }
 
-        // Create arena save file
-        String savePath = ArenaSaveManager.createArenaSave(loadout, encounter);
-        if (savePath == null) {
-            STSArena.logger.error("Failed to create arena save file");
-            clearPendingState();
-            return;
+        // Stage the arena save for the game to load
+        if (!ArenaSaveManager.stageArenaSave(loadout, encounter)) {
+            STSArena.logger.error("Failed to stage arena save");
+            clearArenaRun();
+            return false;
         }
 
         // Set up the game to load the save - mimic what resumeGame() does
@@ -168,48 +153,113 @@ public class ArenaRunner {
         // Set mode to CHAR_SELECT - the game will see fadedOut=true and
         // transition to GAMEPLAY, loading the save
         CardCrawlGame.mode = CardCrawlGame.GameMode.CHAR_SELECT;
-
-        STSArena.logger.info("Arena save created, transitioning to load it");
-        STSArena.logger.info("ARENA: END startFight() - arenaRunInProgress=" + arenaRunInProgress + ", isArenaRun=" + isArenaRun);
+        return true;
     }
 
     /**
-     * Start the pending fight.
-     * Called from PostUpdateSubscriber after the dungeon is fully initialized.
+     * Do the work the session has scheduled for this update, if any.
+     * Called from STSArena's update loop; most states schedule nothing.
      */
-    public static void startPendingFight() {
-        STSArena.logger.info("=== ARENA: startPendingFight called ===");
-        STSArena.logger.info("ARENA: arenaRunInProgress=" + arenaRunInProgress + ", pendingEncounter=" + pendingEncounter);
+    public static void update() {
+        if (session.selectionUpdate != null && session.selectionUpdate.isDone()) {
+            applySavedLoadoutSelection();
+        }
 
-        if (!arenaRunInProgress) {
-            STSArena.logger.info("ARENA: Skipping - arenaRunInProgress is false");
+        switch (session.getState()) {
+            case DUNGEON_READY:
+                enterPendingFight();
+                break;
+            case RESTARTING:
+                // The menu is only usable once the old dungeon is gone and nothing is loading
+                if (CardCrawlGame.mainMenuScreen != null &&
+                    AbstractDungeon.player == null &&
+                    !CardCrawlGame.loadingSave) {
+                    restartFromMainMenu();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Select the row the fight's loadout was saved to, now that the upsert has finished.
+     * Runs on the game thread, where the loadout screen reads its selection.
+     */
+    private static void applySavedLoadoutSelection() {
+        long savedId = resolveDbId(session.selectionUpdate);
+        session.selectionUpdate = null;
+        if (savedId <= 0) {
+            STSArena.logger.error("ARENA: upsertLoadout failed, returned: " + savedId);
             return;
         }
-        if (pendingEncounter == null) {
-            STSArena.logger.info("ARENA: Skipping - pendingEncounter is null");
+        if (ArenaLoadoutSelectScreen.selectedSavedLoadout != session.selectionAtStart ||
+            ArenaLoadoutSelectScreen.useNewRandomLoadout != session.randomAtStart) {
+            // The player has chosen a different loadout since the fight started
             return;
         }
 
-        STSArena.logger.info("ARENA: Will transition to fight: " + pendingEncounter);
-        STSArena.logger.info("ARENA: CardCrawlGame.mode = " + CardCrawlGame.mode);
+        ArenaRepository.LoadoutRecord savedRecord = ArenaRepository.getInstance().getLoadoutById(savedId);
+        if (savedRecord != null) {
+            ArenaLoadoutSelectScreen.selectedSavedLoadout = savedRecord;
+            ArenaLoadoutSelectScreen.useNewRandomLoadout = false;
+            STSArena.logger.info("ARENA: Updated loadout selection to use saved loadout: " + savedRecord.name);
+        }
+    }
 
-        try {
-            transitionToFight(pendingEncounter);
-        } catch (Exception e) {
-            STSArena.logger.error("ARENA: Exception in transitionToFight", e);
-        } finally {
-            STSArena.logger.info("ARENA: Clearing pending state");
-            clearPendingState();
+    /**
+     * The game finished building a dungeon. An arena save enters its fight on the next
+     * update (gives the game time to finish initializing); a resumed normal run is done.
+     */
+    public static void onDungeonInitialized() {
+        switch (session.getState()) {
+            case LOADING:
+                session.moveTo(FightSession.State.DUNGEON_READY);
+                break;
+            case RESUMING_NORMAL_RUN:
+                STSArena.logger.info("ARENA: Normal run resume complete");
+                session.moveTo(FightSession.State.IDLE);
+                break;
+            default:
+                break;
         }
     }
 
     /**
-     * Clear the pending loadout and encounter state.
+     * A card was drawn. The first draw after entering the fight room marks the fight as started.
      */
-    private static void clearPendingState() {
-        pendingLoadout = null;
-        pendingEncounter = null;
-        arenaRunInProgress = false;
+    public static void onCardDrawn() {
+        if (session.getState() == FightSession.State.ENTERING_FIGHT) {
+            session.moveTo(FightSession.State.IN_COMBAT);
+        }
+    }
+
+    /**
+     * The arena run is on its way back to the main menu (retreat, continue, or the run
+     * ended). The run still counts as an arena run so patches keep skipping normal game
+     * flow during the async transition; ClearArenaOnMainMenuPatch clears it once the
+     * MainMenuScreen is created.
+     */
+    public static void onLeavingToMainMenu() {
+        if (session.isArenaRun()) {
+            session.moveTo(FightSession.State.LEAVING);
+        }
+    }
+
+    /**
+     * Enter the fight room of the session's encounter.
+     */
+    private static void enterPendingFight() {
+        String encounter = session.encounter;
+        STSArena.logger.info("ARENA: Will transition to fight: " + encounter +
+            ", CardCrawlGame.mode = " + CardCrawlGame.mode);
+        session.moveTo(FightSession.State.ENTERING_FIGHT);
+
+        try {
+            transitionToFight(encounter);
+        } catch (Exception e) {
+            STSArena.logger.error("ARENA: Exception in transitionToFight", e);
+        }
     }
 
     /**
@@ -292,22 +342,14 @@ public class ArenaRunner {
      * Check if an arena run is currently being set up.
      */
     public static boolean isArenaRunInProgress() {
-        return arenaRunInProgress;
-    }
-
-    /**
-     * Set whether an arena run is currently being set up.
-     * Used by patches that need to clear this flag without clearing the full arena state.
-     */
-    public static void setArenaRunInProgress(boolean inProgress) {
-        arenaRunInProgress = inProgress;
+        return session.isSettingUp();
     }
 
     /**
      * Check if we have a pending loadout to apply.
      */
     public static boolean hasPendingLoadout() {
-        return pendingLoadout != null;
+        return session.isSettingUp();
     }
 
     /**
@@ -315,7 +357,7 @@ public class ArenaRunner {
      * Used to disable saving for arena runs.
      */
     public static boolean isArenaRun() {
-        return isArenaRun;
+        return session.isArenaRun();
     }
 
     /**
@@ -323,18 +365,21 @@ public class ArenaRunner {
      * Used by ClearArenaOnMainMenuPatch to avoid clearing state during transition.
      */
     public static boolean isResumingNormalRun() {
-        return resumingNormalRun;
+        return session.getState() == FightSession.State.RESUMING_NORMAL_RUN;
     }
 
     /**
-     * Clear the resumingNormalRun flag.
-     * Called after the normal run dungeon is fully initialized.
+     * The state of the current fight session.
      */
-    public static void clearResumingNormalRun() {
-        if (resumingNormalRun) {
-            STSArena.logger.info("ARENA: Normal run resume complete, clearing resumingNormalRun flag");
-            resumingNormalRun = false;
-        }
+    public static FightSession.State getFightState() {
+        return session.getState();
+    }
+
+    /**
+     * Milliseconds from the current attempt's request to each state it has reached.
+     */
+    public static Map<FightSession.State, Long> getFightTimeline() {
+        return session.getTimeline();
     }
 
     /**
@@ -342,7 +387,7 @@ public class ArenaRunner {
      * Used for imperfect victory detection to compare against end-of-combat HP.
      */
     public static int getCombatStartHp() {
-        return combatStartHp;
+        return session.combatStartHp;
     }
 
     /**
@@ -350,8 +395,8 @@ public class ArenaRunner {
      * Called from DamageCommand and can be called from damage-tracking patches.
      */
     public static void recordDamageTaken() {
-        if (isArenaRun) {
-            tookDamageThisCombat = true;
+        if (session.isArenaRun()) {
+            session.tookDamage = true;
             STSArena.logger.info("ARENA: Recorded damage taken this combat");
         }
     }
@@ -362,49 +407,38 @@ public class ArenaRunner {
      * comparing HP values at end of combat (since relics may heal the player).
      */
     public static boolean didTakeDamageThisCombat() {
-        return tookDamageThisCombat;
+        return session.tookDamage;
     }
 
     /**
-     * Clear the arena run flag. Called when returning to main menu.
+     * Clear the arena run. Called when returning to main menu.
      * Also restores the original save file if one was backed up.
+     *
+     * A restart or a retry edit went to the main menu on purpose; those keep their
+     * loadout and encounter so they can start the fight again from there.
      */
     public static void clearArenaRun() {
-        STSArena.logger.info("=== ARENA: clearArenaRun() called ===");
-        STSArena.logger.info("ARENA: BEFORE clear - arenaRunInProgress=" + arenaRunInProgress + ", isArenaRun=" + isArenaRun);
+        STSArena.logger.info("=== ARENA: clearArenaRun() called in state " + session.getState() + " ===");
         // Log stack trace to see who called us
         STSArena.logger.info("ARENA: clearArenaRun called from: " + new Exception().getStackTrace()[1]);
 
         // Restore the original save file (or delete arena save if there was no original)
         SaveFileManager.restoreOriginalSave();
+        ArenaSaveManager.clearStagedSave();
 
         // Reset the loadingSave flag - we set this to true when starting arena fights
         // If we don't reset it, the next "new" game will try to load a save file
         CardCrawlGame.loadingSave = false;
 
-        isArenaRun = false;
-        arenaRunInProgress = false;
-        resumingNormalRun = false;
-        startedFromNormalRun = false;
-        normalRunPlayerClass = null;
-        currentRunDbId = -1;
-        currentLoadoutDbId = -1;
-        currentLoadout = null;
-        currentEncounter = null;
-        tookDamageThisCombat = false;
-
-        // Clear pending state too
-        pendingLoadout = null;
-        pendingEncounter = null;
-        pendingReturnToMainMenu = false;
+        session.leaveArenaRun();
     }
 
     /**
      * Record a potion being used during combat.
      */
     public static void recordPotionUsed(String potionId) {
-        if (isArenaRun && potionId != null) {
-            potionsUsedThisCombat.add(potionId);
+        if (session.isArenaRun() && potionId != null) {
+            session.potionsUsed.add(potionId);
             STSArena.logger.info("ARENA: Recorded potion used: " + potionId);
         }
     }
@@ -416,19 +450,20 @@ public class ArenaRunner {
      *                  to allow the VictoryScreen to show "Try Again?" option.
      */
     public static void recordVictory(boolean imperfect) {
-        STSArena.logger.info("ARENA: recordVictory called - isArenaRun=" + isArenaRun + ", currentRunDbId=" + currentRunDbId + ", imperfect=" + imperfect);
-        if (!isArenaRun || currentRunDbId < 0) {
+        STSArena.logger.info("ARENA: recordVictory called - state=" + session.getState() + ", imperfect=" + imperfect);
+        if (!session.isArenaRun() || session.runDbId == FightSession.NO_DB_ID) {
             STSArena.logger.info("ARENA: recordVictory skipped - conditions not met");
             return;
         }
+        session.moveTo(FightSession.State.ENDED);
 
         STSArena.logger.info("ARENA: Recording victory!");
 
         ArenaRepository.ArenaRunOutcome outcome = new ArenaRepository.ArenaRunOutcome();
         outcome.result = ArenaRepository.ArenaRunOutcome.RunResult.VICTORY;
         outcome.endingHp = AbstractDungeon.player != null ? AbstractDungeon.player.currentHealth : 0;
-        outcome.potionsUsed = new ArrayList<>(potionsUsedThisCombat);
-        outcome.damageTaken = combatStartHp - outcome.endingHp;
+        outcome.potionsUsed = new ArrayList<>(session.potionsUsed);
+        outcome.damageTaken = session.combatStartHp - outcome.endingHp;
 
         // Try to get combat stats from the game
         if (AbstractDungeon.actionManager != null) {
@@ -445,20 +480,20 @@ public class ArenaRunner {
         }
 
         try {
-            ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
-            repo.completeArenaRun(currentRunDbId, outcome);
-            STSArena.logger.info("ARENA: Victory recorded - HP: " + outcome.endingHp + ", Potions used: " + outcome.potionsUsed.size());
+            ArenaRepository repo = ArenaRepository.getInstance();
+            repo.completeArenaRunAsync(session.runDbId, outcome);
+            STSArena.logger.info("ARENA: Victory queued - HP: " + outcome.endingHp + ", Potions used: " + outcome.potionsUsed.size());
         } catch (Exception e) {
             STSArena.logger.error("Failed to record victory", e);
         }
 
-        // Note: For both perfect and imperfect victories, we DO NOT set pendingReturnToMainMenu here.
+        // Note: For both perfect and imperfect victories, we DO NOT return to the menu here.
         // The return to menu is handled by:
         // - ArenaSkipCombatRewardScreenPatch for perfect victories (when reward screen opens)
         // - ArenaVictoryScreenPatch buttons for imperfect victories (user choice)
-        // Setting pendingReturnToMainMenu here would cause a race condition where the
-        // arena state gets cleared before CombatRewardScreen.open() is called, allowing
-        // the normal game flow to continue and show the map screen.
+        // Leaving here would cause a race condition where the arena state gets cleared
+        // before CombatRewardScreen.open() is called, allowing the normal game flow to
+        // continue and show the map screen.
     }
 
     /**
@@ -473,17 +508,18 @@ public class ArenaRunner {
      * Complete the current arena run with defeat.
      */
     public static void recordDefeat() {
-        if (!isArenaRun || currentRunDbId < 0) {
+        if (!session.isArenaRun() || session.runDbId == FightSession.NO_DB_ID) {
             return;
         }
+        session.moveTo(FightSession.State.ENDED);
 
         STSArena.logger.info("ARENA: Recording defeat!");
 
         ArenaRepository.ArenaRunOutcome outcome = new ArenaRepository.ArenaRunOutcome();
         outcome.result = ArenaRepository.ArenaRunOutcome.RunResult.DEFEAT;
         outcome.endingHp = 0;
-        outcome.potionsUsed = new ArrayList<>(potionsUsedThisCombat);
-        outcome.damageTaken = combatStartHp;
+        outcome.potionsUsed = new ArrayList<>(session.potionsUsed);
+        outcome.damageTaken = session.combatStartHp;
 
         // Try to get combat stats
         if (AbstractDungeon.actionManager != null) {
@@ -500,9 +536,9 @@ public class ArenaRunner {
         }
 
         try {
-            ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
-            repo.completeArenaRun(currentRunDbId, outcome);
-            STSArena.logger.info("ARENA: Defeat recorded - Damage dealt: " + outcome.damageDealt);
+            ArenaRepository repo = ArenaRepository.getInstance();
+            repo.completeArenaRunAsync(session.runDbId, outcome);
+            STSArena.logger.info("ARENA: Defeat queued - Damage dealt: " + outcome.damageDealt);
         } catch (Exception e) {
             STSArena.logger.error("Failed to record defeat", e);
         }
@@ -512,62 +548,116 @@ public class ArenaRunner {
     }
 
     /**
-     * Get the current run's database ID.
+     * Get the current run's database ID, waiting for its queued write if needed.
+     * Callers that only report the ID should use {@link #peekCurrentRunDbId()}.
      */
     public static long getCurrentRunDbId() {
-        return currentRunDbId;
+        return resolveDbId(session.runDbId);
+    }
+
+    /**
+     * The current run's database ID if its insert has finished, otherwise -1.
+     * Never waits; for logging and status output.
+     */
+    public static long peekCurrentRunDbId() {
+        return peekDbId(session.runDbId);
     }
 
     /**
      * Get the current loadout name for display.
      */
     public static String getCurrentLoadoutName() {
-        return currentLoadout != null ? currentLoadout.name : null;
+        return session.loadout != null ? session.loadout.name : null;
     }
 
     /**
-     * Get the current loadout's database ID.
+     * Get the current loadout's database ID, waiting for its queued write if needed.
+     * Callers that only report the ID should use {@link #peekCurrentLoadoutDbId()}.
      */
     public static long getCurrentLoadoutDbId() {
-        return currentLoadoutDbId;
+        return resolveDbId(session.loadoutDbId);
     }
 
     /**
-     * Check if we need to return to main menu after an arena fight.
-     * Called from STSArena's update loop.
-     *
-     * NOTE: This should never actually trigger anymore. The pendingReturnToMainMenu flag
-     * is no longer set by recordVictory() to avoid race conditions. Return to menu is now
-     * handled by ArenaSkipCombatRewardScreenPatch when CombatRewardScreen.open() is called.
-     * This method is kept as a safety net in case something unexpected sets the flag.
+     * The current loadout's database ID if its upsert has finished, otherwise -1.
+     * Never waits; for logging and status output.
+     */
+    public static long peekCurrentLoadoutDbId() {
+        return peekDbId(session.loadoutDbId);
+    }
+
+    /**
+     * Resolve an ID produced by a queued database write, or -1 if the write failed.
+     * Nothing asks for these IDs until well after the fight starts, by which point the
+     * writer has long since applied the insert, so this does not wait in practice.
+     */
+    private static long resolveDbId(CompletableFuture<Long> dbId) {
+        try {
+            Long id = dbId.join();
+            return id != null ? id : -1;
+        } catch (Exception e) {
+            STSArena.logger.error("ARENA: Queued database write failed", e);
+            return -1;
+        }
+    }
+
+    /**
+     * An ID produced by a queued database write, or -1 while it is pending or if it failed.
      */
-    public static void checkPendingReturnToMainMenu() {
-        if (!pendingReturnToMainMenu) {
+    private static long peekDbId(CompletableFuture<Long> dbId) {
+        if (!dbId.isDone() || dbId.isCompletedExceptionally()) {
+            return -1;
+        }
+        Long id = dbId.join();
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Retry the current fight with the same loadout and encounter, from the results,
+     * victory or death screen.
+     *
+     * When the loaded dungeon already matches the loadout (same character and ascension,
+     * which it does after any arena fight) the player is reset in place and a fresh
+     * MonsterRoom entered, without writing a save or leaving the dungeon. Otherwise, or
+     * if the reset fails, falls back to scheduleArenaRestart().
+     */
+    public static void retryCurrentFight() {
+        RandomLoadoutGenerator.GeneratedLoadout loadout = session.loadout;
+        String encounter = session.encounter;
+        if (!session.isArenaRun() || encounter == null || !WarmRestart.canRestart(loadout)) {
+            scheduleArenaRestart();
             return;
         }
 
-        // This should not happen - log a warning
-        STSArena.logger.info("ARENA: WARNING - pendingReturnToMainMenu was unexpectedly true. " +
-            "This indicates a code path that should be reviewed. Proceeding with return to menu.");
-        pendingReturnToMainMenu = false;
+        STSArena.logger.info("=== ARENA: retryCurrentFight() - warm restart for loadout: " + loadout.name +
+            ", encounter: " + encounter + " ===");
 
         try {
-            // Clear the arena run state
-            clearArenaRun();
+            WarmRestart.resetPlayer(loadout);
+        } catch (Exception e) {
+            STSArena.logger.error("ARENA: Warm restart failed, restarting through the main menu", e);
+            scheduleArenaRestart();
+            return;
+        }
 
-            // Use the game's death screen mechanism to return to main menu
-            // This properly handles all cleanup
-            AbstractDungeon.getCurrRoom().phase = AbstractRoom.RoomPhase.COMPLETE;
+        // A new attempt against the same loadout, already in its dungeon
+        session.beginAttempt(FightSession.State.ENTERING_FIGHT);
+        try {
+            ArenaRepository repo = ArenaRepository.getInstance();
+            session.runDbId = repo.startArenaRunAsync(session.loadoutDbId, encounter, loadout.currentHp);
+            STSArena.logger.info("ARENA: New arena run queued");
+        } catch (Exception e) {
+            session.runDbId = FightSession.NO_DB_ID;
+            STSArena.logger.error("ARENA: Failed to start arena run", e);
+        }
 
-            // Trigger return to main menu like abandoning a run
-            Settings.isTrial = false;
-            Settings.isDailyRun = false;
-            Settings.isEndless = false;
+        // A defeat asked to go back to arena selection; we're staying in the dungeon instead
+        STSArena.clearReturnToArenaOnMainMenu();
 
-            CardCrawlGame.startOver();
-        } catch (Exception e) {
-            STSArena.logger.error("ARENA: Error returning to main menu", e);
+        if (AbstractDungeon.getCurrRoom() != null) {
+            AbstractDungeon.getCurrRoom().phase = AbstractRoom.RoomPhase.COMPLETE;
         }
+        transitionToFight(encounter);
     }
 
     /**
@@ -577,28 +667,17 @@ public class ArenaRunner {
      */
     public static void scheduleArenaRestart() {
         STSArena.logger.info("=== ARENA: scheduleArenaRestart() called ===");
-        STSArena.logger.info("ARENA: currentLoadout=" + currentLoadout + ", currentEncounter=" + currentEncounter);
+        STSArena.logger.info("ARENA: currentLoadout=" + session.loadout + ", currentEncounter=" + session.encounter);
 
-        if (currentLoadout == null || currentEncounter == null) {
+        if (session.loadout == null || session.encounter == null) {
             STSArena.logger.error("Cannot schedule arena restart - no current loadout/encounter stored");
             return;
         }
 
-        STSArena.logger.info("ARENA: Scheduling arena restart for loadout: " + currentLoadout.name +
-            ", encounter: " + currentEncounter);
-
-        // Store the loadout/encounter for restart after returning to main menu
-        // IMPORTANT: Store these BEFORE calling clearArenaRun() which clears currentLoadout/currentEncounter
-        pendingArenaRestart = true;
-        pendingRestartLoadout = currentLoadout;
-        pendingRestartEncounter = currentEncounter;
-        pendingRestartLoadoutDbId = currentLoadoutDbId;
+        STSArena.logger.info("ARENA: Scheduling arena restart for loadout: " + session.loadout.name +
+            ", encounter: " + session.encounter);
 
-        STSArena.logger.info("ARENA: pendingArenaRestart=" + pendingArenaRestart +
-            ", pendingRestartLoadout=" + (pendingRestartLoadout != null ? pendingRestartLoadout.name : "null") +
-            ", pendingRestartEncounter=" + pendingRestartEncounter);
-
-        // Return to main menu - the arena will be restarted when main menu is reached
+        // Return to main menu - update() restarts the fight once the main menu is reached
         Settings.isTrial = false;
         Settings.isDailyRun = false;
         Settings.isEndless = false;
@@ -608,47 +687,29 @@ public class ArenaRunner {
             AbstractDungeon.getCurrRoom().phase = AbstractRoom.RoomPhase.COMPLETE;
         }
 
-        // Clear arena state and return to main menu
+        // RESTARTING keeps the loadout and encounter through clearArenaRun()
+        session.moveTo(FightSession.State.RESTARTING);
         clearArenaRun();
         STSArena.setReturnToArenaOnMainMenu();  // This ensures we go to arena selection
         CardCrawlGame.startOver();
     }
 
     /**
-     * Check if there's a pending arena restart and execute it.
-     * Called from STSArena.receivePostUpdate() when at main menu.
+     * Start the fight a restart went to the main menu for.
      */
-    public static void checkPendingArenaRestart() {
-        STSArena.logger.info("=== ARENA: checkPendingArenaRestart() called ===");
-        STSArena.logger.info("ARENA: pendingArenaRestart=" + pendingArenaRestart +
-            ", pendingRestartLoadout=" + (pendingRestartLoadout != null ? pendingRestartLoadout.name : "null") +
-            ", pendingRestartEncounter=" + pendingRestartEncounter);
-
-        if (!pendingArenaRestart || pendingRestartLoadout == null || pendingRestartEncounter == null) {
-            STSArena.logger.info("ARENA: checkPendingArenaRestart - conditions not met, returning early");
-            return;
-        }
-
-        STSArena.logger.info("ARENA: Executing pending arena restart");
+    private static void restartFromMainMenu() {
+        STSArena.logger.info("ARENA: Returned to main menu, executing pending arena restart");
 
-        // Clear the pending flag
-        RandomLoadoutGenerator.GeneratedLoadout loadout = pendingRestartLoadout;
-        String encounter = pendingRestartEncounter;
-        long loadoutDbId = pendingRestartLoadoutDbId;
-        pendingArenaRestart = false;
-        pendingRestartLoadout = null;
-        pendingRestartEncounter = null;
-        pendingRestartLoadoutDbId = -1;
-
-        // Start the arena fight (using startFight which will create a new DB entry)
-        startFight(loadout, encounter);
-    }
+        // Starting a fight instead of showing arena selection
+        STSArena.clearReturnToArenaOnMainMenu();
 
-    /**
-     * Check if there's a pending arena restart.
-     */
-    public static boolean hasPendingArenaRestart() {
-        return pendingArenaRestart;
+        // Same loadout row as the fight being restarted; nothing to save
+        RandomLoadoutGenerator.GeneratedLoadout loadout = session.loadout;
+        String encounter = session.encounter;
+        beginFight(loadout, encounter, session.loadoutDbId);
+        if (loadArenaSave(loadout, encounter)) {
+            STSArena.logger.info("Arena restart staged, transitioning to load it");
+        }
     }
 
     /**
@@ -656,70 +717,24 @@ public class ArenaRunner {
      * Called from the "Try Again" button on the arena death screen.
      */
     public static void restartCurrentFight() {
-        if (currentLoadout == null || currentEncounter == null) {
+        if (session.loadout == null || session.encounter == null) {
             STSArena.logger.error("Cannot restart fight - no current loadout/encounter stored");
             return;
         }
 
         STSArena.logger.info("=== ARENA: restartCurrentFight() called ===");
-        STSArena.logger.info("ARENA: Restarting with loadout: " + currentLoadout.name + ", encounter: " + currentEncounter);
+        STSArena.logger.info("ARENA: Restarting with loadout: " + session.loadout.name + ", encounter: " + session.encounter);
 
         // Store references before clearing state
-        RandomLoadoutGenerator.GeneratedLoadout loadout = currentLoadout;
-        String encounter = currentEncounter;
-        long loadoutDbId = currentLoadoutDbId;
+        RandomLoadoutGenerator.GeneratedLoadout loadout = session.loadout;
+        String encounter = session.encounter;
+        CompletableFuture<Long> loadoutDbId = session.loadoutDbId;
 
         // Clear current arena state
         clearArenaRun();
 
         // Restart with the same loadout and encounter
-        pendingLoadout = loadout;
-        pendingEncounter = encounter;
-        arenaRunInProgress = true;
-        isArenaRun = true;
-
-        currentLoadout = loadout;
-        currentEncounter = encounter;
-        combatStartHp = loadout.currentHp;
-        potionsUsedThisCombat.clear();
-        tookDamageThisCombat = false;
-        currentLoadoutDbId = loadoutDbId;
-
-        // Start tracking a new run
-        try {
-            ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
-            currentRunDbId = repo.startArenaRun(currentLoadoutDbId, encounter, loadout.currentHp);
-            STSArena.logger.info("ARENA: New arena run started with DB ID: " + currentRunDbId);
-        } catch (Exception e) {
-            STSArena.logger.error("ARENA: Failed to start arena run", e);
-        }
-
-        // Backup any existing save file before creating arena save
-        SaveFileManager.backupOriginalSave(loadout.playerClass);
-
-        // Create arena save file
-        String savePath = ArenaSaveManager.createArenaSave(loadout, encounter);
-        if (savePath == null) {
-            STSArena.logger.error("Failed to create arena save file");
-            clearPendingState();
-            return;
-        }
-
-        // Set up the game to load the save
-        CardCrawlGame.loadingSave = true;
-        CardCrawlGame.chosenCharacter = loadout.playerClass;
-
-        Settings.isTrial = false;
-        Settings.isDailyRun = false;
-        Settings.isEndless = false;
-
-        // Set main menu to already faded out to prevent visible flash
-        if (CardCrawlGame.mainMenuScreen != null) {
-            CardCrawlGame.mainMenuScreen.isFadingOut = true;
-            CardCrawlGame.mainMenuScreen.fadedOut = true;
-            CardCrawlGame.mainMenuScreen.fadeOutMusic();
-        }
-        CardCrawlGame.music.fadeOutTempBGM();
+        beginFight(loadout, encounter, loadoutDbId);
 
         // If we're still in a dungeon (e.g., after imperfect victory where we intercepted
         // CombatRewardScreen), we need to properly clean up before transitioning.
@@ -739,23 +754,23 @@ public class ArenaRunner {
         }
 
         // Close the death screen and trigger game restart
-        CardCrawlGame.mode = CardCrawlGame.GameMode.CHAR_SELECT;
-
-        STSArena.logger.info("Arena restart initiated");
+        if (loadArenaSave(loadout, encounter)) {
+            STSArena.logger.info("Arena restart initiated");
+        }
     }
 
     /**
      * Get the current loadout for retry purposes.
      */
     public static RandomLoadoutGenerator.GeneratedLoadout getCurrentLoadout() {
-        return currentLoadout;
+        return session.loadout;
     }
 
     /**
      * Get the current encounter for retry purposes.
      */
     public static String getCurrentEncounter() {
-        return currentEncounter;
+        return session.encounter;
     }
 
     /**
@@ -763,8 +778,8 @@ public class ArenaRunner {
      * Call this before startFightWithSavedLoadout when coming from the pause menu.
      */
     public static void setStartedFromNormalRun(com.megacrit.cardcrawl.characters.AbstractPlayer.PlayerClass playerClass) {
-        startedFromNormalRun = true;
-        normalRunPlayerClass = playerClass;
+        session.startedFromNormalRun = true;
+        session.normalRunPlayerClass = playerClass;
         STSArena.logger.info("ARENA: Marked as starting from normal run (class: " + playerClass + ")");
     }
 
@@ -772,14 +787,14 @@ public class ArenaRunner {
      * Check if the current arena run was started from a normal run.
      */
     public static boolean wasStartedFromNormalRun() {
-        return startedFromNormalRun;
+        return session.startedFromNormalRun;
     }
 
     /**
      * Get the player class of the normal run we came from.
      */
     public static com.megacrit.cardcrawl.characters.AbstractPlayer.PlayerClass getNormalRunPlayerClass() {
-        return normalRunPlayerClass;
+        return session.normalRunPlayerClass;
     }
 
     /**
@@ -787,35 +802,26 @@ public class ArenaRunner {
      * Call this instead of startOver() when leaving arena via pause menu.
      */
     public static void resumeNormalRun() {
-        if (!startedFromNormalRun || normalRunPlayerClass == null) {
+        com.megacrit.cardcrawl.characters.AbstractPlayer.PlayerClass playerClass = session.normalRunPlayerClass;
+        if (!session.startedFromNormalRun || playerClass == null) {
             STSArena.logger.warn("ARENA: Cannot resume normal run - not started from one");
             return;
         }
 
-        STSArena.logger.info("ARENA: Resuming normal run for " + normalRunPlayerClass);
-
-        // Set flag to prevent ClearArenaOnMainMenuPatch from interfering during transition
-        resumingNormalRun = true;
+        STSArena.logger.info("ARENA: Resuming normal run for " + playerClass);
 
-        // Restore the original save file
+        // Restore the original save file, and make sure the arena save isn't loaded instead
         SaveFileManager.restoreOriginalSave();
+        ArenaSaveManager.clearStagedSave();
 
         // Set up to load the save
         CardCrawlGame.loadingSave = true;
-        CardCrawlGame.chosenCharacter = normalRunPlayerClass;
-
-        // Clear arena state
-        isArenaRun = false;
-        arenaRunInProgress = false;
-        startedFromNormalRun = false;
-        normalRunPlayerClass = null;
-        currentRunDbId = -1;
-        currentLoadoutDbId = -1;
-        currentLoadout = null;
-        currentEncounter = null;
-        pendingLoadout = null;
-        pendingEncounter = null;
-        pendingReturnToMainMenu = false;
+        CardCrawlGame.chosenCharacter = playerClass;
+
+        // Leave the arena. ClearArenaOnMainMenuPatch leaves RESUMING_NORMAL_RUN alone during
+        // the transition; the next dungeon initialization ends it.
+        session.forget();
+        session.beginAttempt(FightSession.State.RESUMING_NORMAL_RUN);
 
         // Set main menu to faded out to skip animation
         if (CardCrawlGame.mainMenuScreen != null) {
@@ -838,7 +844,7 @@ public class ArenaRunner {
         STSArena.logger.info("ARENA: Loadout DB ID: " + loadoutDbId + ", Encounter: " + encounter);
 
         try {
-            ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
+            ArenaRepository repo = ArenaRepository.getInstance();
             ArenaRepository.LoadoutRecord savedLoadout = repo.getLoadoutById(loadoutDbId);
 
             if (savedLoadout == null) {
@@ -852,54 +858,40 @@ public class ArenaRunner {
         }
     }
 
-    // Flag to indicate we should restart fight after editing loadout
-    private static boolean pendingRetryAfterEdit = false;
-
     /**
      * Open the loadout editor for deck tweaks, then restart the fight.
      * Called from "Modify Deck" button on death/victory screens.
      */
     public static void modifyDeckAndRetry() {
-        if (currentLoadout == null || currentLoadoutDbId <= 0) {
+        long loadoutDbId = getCurrentLoadoutDbId();
+        if (session.loadout == null || loadoutDbId <= 0) {
             STSArena.logger.error("Cannot modify deck - no current loadout stored");
             return;
         }
 
-        STSArena.logger.info("ARENA: Opening deck editor for retry with loadout ID: " + currentLoadoutDbId);
-
-        // Set flag to restart fight after editing
-        pendingRetryAfterEdit = true;
+        STSArena.logger.info("ARENA: Opening deck editor for retry with loadout ID: " + loadoutDbId);
 
         // Get the loadout record from database
         try {
-            ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
-            ArenaRepository.LoadoutRecord loadoutRecord = repo.getLoadoutById(currentLoadoutDbId);
+            ArenaRepository repo = ArenaRepository.getInstance();
+            ArenaRepository.LoadoutRecord loadoutRecord = repo.getLoadoutById(loadoutDbId);
 
             if (loadoutRecord != null) {
-                // Clear arena state but keep the encounter for retry
-                String encounter = currentEncounter;
-
-                // Store encounter for later
-                pendingEncounter = encounter;
-
                 // Trigger return to main menu and open editor
                 Settings.isTrial = false;
                 Settings.isDailyRun = false;
                 Settings.isEndless = false;
 
-                // Clear arena run but remember we're editing for retry
-                isArenaRun = false;
-                arenaRunInProgress = false;
+                // Leave the arena run; EDITING keeps the encounter for the retry
+                session.moveTo(FightSession.State.EDITING);
 
                 STSArena.setOpenLoadoutEditorOnMainMenu(loadoutRecord);
                 CardCrawlGame.startOver();
             } else {
                 STSArena.logger.error("Failed to load loadout record for editing");
-                pendingRetryAfterEdit = false;
             }
         } catch (Exception e) {
             STSArena.logger.error("Error opening deck editor for retry", e);
-            pendingRetryAfterEdit = false;
         }
     }
 
@@ -907,33 +899,31 @@ public class ArenaRunner {
      * Check if we're waiting to retry after editing a loadout.
      */
     public static boolean isPendingRetryAfterEdit() {
-        return pendingRetryAfterEdit;
+        return session.getState() == FightSession.State.EDITING;
     }
 
     /**
      * Called after loadout editing is complete. Restarts the fight if we were editing for retry.
      */
     public static void completeRetryEdit(ArenaRepository.LoadoutRecord editedLoadout) {
-        if (!pendingRetryAfterEdit || pendingEncounter == null) {
+        if (session.getState() != FightSession.State.EDITING || session.encounter == null) {
             STSArena.logger.info("ARENA: completeRetryEdit called but not in retry edit mode");
-            pendingRetryAfterEdit = false;
             return;
         }
 
         STSArena.logger.info("ARENA: Completing retry edit, starting fight with modified loadout");
-        pendingRetryAfterEdit = false;
-        String encounter = pendingEncounter;
-        pendingEncounter = null;
 
         // Start fight with the edited loadout
-        startFightWithSavedLoadout(editedLoadout, encounter);
+        startFightWithSavedLoadout(editedLoadout, session.encounter);
     }
 
     /**
      * Clear the pending retry after edit state.
      */
     public static void clearPendingRetryEdit() {
-        pendingRetryAfterEdit = false;
+        if (session.getState() == FightSession.State.EDITING) {
+            session.clear();
+        }
     }
 
     /**
@@ -943,6 +933,8 @@ public class ArenaRunner {
         STSArena.logger.info("=== ARENA: startFightWithSavedLoadout() called ===");
         STSArena.logger.info("ARENA: Saved Loadout: " + savedLoadout.name + ", Encounter: " + encounter);
 
+        closeArenaScreens();
+
         // Convert saved loadout to GeneratedLoadout
         RandomLoadoutGenerator.GeneratedLoadout loadout = RandomLoadoutGenerator.fromSavedLoadout(savedLoadout);
 
@@ -954,58 +946,12 @@ public class ArenaRunner {
         // We'll just back up the existing autosave as-is.
         STSArena.logger.info("ARENA: Using existing autosave for backup (already saved at ENTER_ROOM)");
 
-        // Use the existing dbId for the loadout instead of saving a new one
-        pendingLoadout = loadout;
-        pendingEncounter = encounter;
-        arenaRunInProgress = true;
-        isArenaRun = true;
-
-        currentLoadout = loadout;
-        currentEncounter = encounter;
-        combatStartHp = loadout.currentHp;
-        potionsUsedThisCombat.clear();
-        tookDamageThisCombat = false;
-        currentLoadoutDbId = savedLoadout.dbId;
-
         STSArena.logger.info("Starting arena with saved loadout: " + loadout.playerClass + " vs " + encounter);
 
-        // Start tracking the run (use existing loadout ID)
-        try {
-            ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
-            currentRunDbId = repo.startArenaRun(currentLoadoutDbId, encounter, loadout.currentHp);
-            STSArena.logger.info("ARENA: Arena run started with DB ID: " + currentRunDbId);
-        } catch (Exception e) {
-            STSArena.logger.error("ARENA: Failed to start arena run", e);
-        }
-
-        // Backup any existing save file before creating arena save
-        SaveFileManager.backupOriginalSave(loadout.playerClass);
-
-        // Create arena save file
-        String savePath = ArenaSaveManager.createArenaSave(loadout, encounter);
-        if (savePath == null) {
-            STSArena.logger.error("Failed to create arena save file");
-            clearPendingState();
-            return;
-        }
-
-        // Set up the game to load the save
-        CardCrawlGame.loadingSave = true;
-        CardCrawlGame.chosenCharacter = loadout.playerClass;
-
-        Settings.isTrial = false;
-        Settings.isDailyRun = false;
-        Settings.isEndless = false;
-
-        if (CardCrawlGame.mainMenuScreen != null) {
-            CardCrawlGame.mainMenuScreen.isFadingOut = true;
-            CardCrawlGame.mainMenuScreen.fadedOut = true;
-            CardCrawlGame.mainMenuScreen.fadeOutMusic();
+        // Use the existing dbId for the loadout instead of saving a new one
+        beginFight(loadout, encounter, CompletableFuture.completedFuture(savedLoadout.dbId));
+        if (loadArenaSave(loadout, encounter)) {
+            STSArena.logger.info("Arena save staged, transitioning to load it");
         }
-        CardCrawlGame.music.fadeOutTempBGM();
-
-        CardCrawlGame.mode = CardCrawlGame.GameMode.CHAR_SELECT;
-
-        STSArena.logger.info("Arena save created, transitioning to load it");
     }
 }
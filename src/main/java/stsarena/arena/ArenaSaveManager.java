@@ -6,6 +6,7 @@ import com.megacrit.cardcrawl.cards.AbstractCard;
 import com.megacrit.cardcrawl.characters.AbstractPlayer;
 import com.megacrit.cardcrawl.potions.AbstractPotion;
 import com.megacrit.cardcrawl.relics.AbstractRelic;
+import com.megacrit.cardcrawl.saveAndContinue.SaveFile;
 import stsarena.STSArena;
 
 import java.io.File;
@@ -16,11 +17,27 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * Manages creating and loading save files for arena mode.
+ * Builds the save the game loads to start an arena fight.
+ *
+ * The save never goes to disk: it is staged here as a SaveFile and handed to the
+ * game by ArenaSaveLoadPatch when the game asks SaveAndContinue for that character's
+ * save. Setting the system property {@value #DEBUG_SAVE_PROPERTY} also writes it,
+ * pretty-printed, next to the real saves for inspection.
  */
 public class ArenaSaveManager {
 
-    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    // -Dstsarena.debugArenaSave=true writes each staged save to saves/<CLASS>.arena_debug.json
+    public static final String DEBUG_SAVE_PROPERTY = "stsarena.debugArenaSave";
+
+    private static final Gson gson = new Gson();
+    private static final Gson debugGson = new GsonBuilder().setPrettyPrinting().create();
+
+    // The save waiting to be loaded, and the character it is for
+    private static SaveFile stagedSave;
+    private static AbstractPlayer.PlayerClass stagedClass;
+
+    // Gold the player has in every arena fight
+    static final int STARTING_GOLD = 100;
 
     /**
      * Get the save file path for a character class.
@@ -52,11 +69,11 @@ public class ArenaSaveManager {
     }
 
     /**
-     * Create an arena save file with the given loadout.
-     * Returns the path to the save file.
+     * Stage an arena save for the given loadout, to be handed to the game when it next
+     * loads that character's save. Returns false if the save could not be built.
      */
-    public static String createArenaSave(RandomLoadoutGenerator.GeneratedLoadout loadout, String encounter) {
-        STSArena.logger.info("Creating arena save file for " + loadout.playerClass);
+    public static boolean stageArenaSave(RandomLoadoutGenerator.GeneratedLoadout loadout, String encounter) {
+        STSArena.logger.info("Staging arena save for " + loadout.playerClass);
 
         Map<String, Object> save = new HashMap<>();
 
@@ -79,31 +96,12 @@ public class ArenaSaveManager {
         // Player state
         save.put("current_health", loadout.currentHp);
         save.put("max_health", loadout.maxHp);
-        save.put("gold", 100);
+        save.put("gold", STARTING_GOLD);
         save.put("hand_size", 5);
         // Use the stored potion slots (accounts for ascension and Potion Belt)
         save.put("potion_slots", loadout.potionSlots);
-        // Calculate energy: base 3 plus any energy-granting relics
-        int baseEnergy = 3;
-        int bonusEnergy = 0;
-        for (AbstractRelic relic : loadout.relics) {
-            String id = relic.relicId;
-            // Relics that grant +1 energy at the cost of something else
-            if ("Busted Crown".equals(id) ||
-                "Coffee Dripper".equals(id) ||
-                "Cursed Key".equals(id) ||
-                "Fusion Hammer".equals(id) ||
-                "Ectoplasm".equals(id) ||
-                "Sozu".equals(id) ||
-                "Runic Dome".equals(id) ||
-                "Philosopher's Stone".equals(id) ||
-                "Velvet Choker".equals(id) ||
-                "Mark of Pain".equals(id)) {
-                bonusEnergy++;
-            }
-        }
         // Energy is stored in red/green/blue fields based on character
-        int totalEnergy = baseEnergy + bonusEnergy;
+        int totalEnergy = getEnergyPerTurn(loadout);
         save.put("red", loadout.playerClass == AbstractPlayer.PlayerClass.IRONCLAD ||
                         loadout.playerClass == AbstractPlayer.PlayerClass.WATCHER ? totalEnergy : 0);
         save.put("green", loadout.playerClass == AbstractPlayer.PlayerClass.THE_SILENT ? totalEnergy : 0);
@@ -138,54 +136,11 @@ public class ArenaSaveManager {
         save.put("relics", relics);
         save.put("relic_counters", relicCounters);
 
-        // Handle bottle relics - first check for cards already marked as bottled,
-        // then fall back to finding a suitable card
-        AbstractCard bottledFlameCard = null;
-        AbstractCard bottledLightningCard = null;
-        AbstractCard bottledTornadoCard = null;
-
-        // First pass: find cards already marked as bottled
-        for (AbstractCard card : loadout.deck) {
-            if (card.inBottleFlame && bottledFlameCard == null) {
-                bottledFlameCard = card;
-            }
-            if (card.inBottleLightning && bottledLightningCard == null) {
-                bottledLightningCard = card;
-            }
-            if (card.inBottleTornado && bottledTornadoCard == null) {
-                bottledTornadoCard = card;
-            }
-        }
-
-        // Second pass: for bottle relics without a marked card, find a suitable one
-        for (AbstractRelic relic : loadout.relics) {
-            String relicId = relic.relicId;
-            if ("Bottled Flame".equals(relicId) && bottledFlameCard == null) {
-                // Find an attack card (non-basic)
-                for (AbstractCard card : loadout.deck) {
-                    if (card.type == AbstractCard.CardType.ATTACK && card.rarity != AbstractCard.CardRarity.BASIC) {
-                        bottledFlameCard = card;
-                        break;
-                    }
-                }
-            } else if ("Bottled Lightning".equals(relicId) && bottledLightningCard == null) {
-                // Find a skill card (non-basic)
-                for (AbstractCard card : loadout.deck) {
-                    if (card.type == AbstractCard.CardType.SKILL && card.rarity != AbstractCard.CardRarity.BASIC) {
-                        bottledLightningCard = card;
-                        break;
-                    }
-                }
-            } else if ("Bottled Tornado".equals(relicId) && bottledTornadoCard == null) {
-                // Find a power card
-                for (AbstractCard card : loadout.deck) {
-                    if (card.type == AbstractCard.CardType.POWER) {
-                        bottledTornadoCard = card;
-                        break;
-                    }
-                }
-            }
-        }
+        // Handle bottle relics
+        Map<String, AbstractCard> bottledCards = chooseBottledCards(loadout);
+        AbstractCard bottledFlameCard = bottledCards.get("Bottled Flame");
+        AbstractCard bottledLightningCard = bottledCards.get("Bottled Lightning");
+        AbstractCard bottledTornadoCard = bottledCards.get("Bottled Tornado");
 
         // Save bottle data
         boolean hasBottledFlame = relics.contains("Bottled Flame");
@@ -359,29 +314,137 @@ public class ArenaSaveManager {
         save.put("obtained_cards", new HashMap<String, Integer>());
         save.put("combat_rewards", new ArrayList<Object>());  // Required for post_combat handling
 
-        // Write save file
-        String savePath = getSavePath(loadout.playerClass);
+        // Map the fields onto a SaveFile the way the game's own loader does, minus the file
         try {
-            File saveFile = new File(savePath);
-            STSArena.logger.info("ARENA: Creating save file at: " + saveFile.getAbsolutePath());
-            saveFile.getParentFile().mkdirs();
+            SaveFile saveFile = gson.fromJson(gson.toJsonTree(save), SaveFile.class);
+            synchronized (ArenaSaveManager.class) {
+                stagedSave = saveFile;
+                stagedClass = loadout.playerClass;
+            }
+        } catch (Exception e) {
+            STSArena.logger.error("ARENA: Failed to build arena save", e);
+            return false;
+        }
 
-            try (FileWriter writer = new FileWriter(saveFile)) {
-                gson.toJson(save, writer);
+        if (Boolean.getBoolean(DEBUG_SAVE_PROPERTY)) {
+            writeDebugCopy(loadout.playerClass, save);
+        }
+        return true;
+    }
+
+    /**
+     * The staged save if it is for this character, or null if nothing is staged for it.
+     * It stays staged until the arena run ends (clearStagedSave) or the next fight is staged,
+     * in case the game reads the save more than once while loading.
+     */
+    public static synchronized SaveFile getStagedSave(AbstractPlayer.PlayerClass playerClass) {
+        return stagedClass == playerClass ? stagedSave : null;
+    }
+
+    /**
+     * Drop the staged save once the arena run is over, so it can't be handed out later
+     * in place of a real one.
+     */
+    public static synchronized void clearStagedSave() {
+        stagedSave = null;
+        stagedClass = null;
+    }
+
+    private static void writeDebugCopy(AbstractPlayer.PlayerClass playerClass, Map<String, Object> save) {
+        File debugFile = new File(getSavesDirectory() + playerClass.name() + ".arena_debug.json");
+        try {
+            debugFile.getParentFile().mkdirs();
+            try (FileWriter writer = new FileWriter(debugFile)) {
+                debugGson.toJson(save, writer);
             }
+            STSArena.logger.info("ARENA: Wrote debug copy of arena save to " + debugFile.getAbsolutePath());
+        } catch (Exception e) {
+            STSArena.logger.warn("ARENA: Failed to write debug copy of arena save", e);
+        }
+    }
 
-            // Verify the file was written
-            if (saveFile.exists()) {
-                STSArena.logger.info("ARENA: Save file written successfully, size: " + saveFile.length() + " bytes");
-            } else {
-                STSArena.logger.error("ARENA: Save file does not exist after writing!");
+    /**
+     * Energy per turn for a loadout: base 3 plus any energy-granting relics.
+     */
+    static int getEnergyPerTurn(RandomLoadoutGenerator.GeneratedLoadout loadout) {
+        int baseEnergy = 3;
+        int bonusEnergy = 0;
+        for (AbstractRelic relic : loadout.relics) {
+            String id = relic.relicId;
+            // Relics that grant +1 energy at the cost of something else
+            if ("Busted Crown".equals(id) ||
+                "Coffee Dripper".equals(id) ||
+                "Cursed Key".equals(id) ||
+                "Fusion Hammer".equals(id) ||
+                "Ectoplasm".equals(id) ||
+                "Sozu".equals(id) ||
+                "Runic Dome".equals(id) ||
+                "Philosopher's Stone".equals(id) ||
+                "Velvet Choker".equals(id) ||
+                "Mark of Pain".equals(id)) {
+                bonusEnergy++;
             }
+        }
+        return baseEnergy + bonusEnergy;
+    }
 
-            return savePath;
-        } catch (Exception e) {
-            STSArena.logger.error("ARENA: Failed to write arena save", e);
-            e.printStackTrace();
-            return null;
+    /**
+     * The card each bottle relic holds, keyed by relic ID ("Bottled Flame", "Bottled Lightning",
+     * "Bottled Tornado"). Cards already marked as bottled win; a bottle relic without one
+     * gets the first suitable card in the deck. Relics with nothing to hold are left out.
+     */
+    static Map<String, AbstractCard> chooseBottledCards(RandomLoadoutGenerator.GeneratedLoadout loadout) {
+        AbstractCard bottledFlameCard = null;
+        AbstractCard bottledLightningCard = null;
+        AbstractCard bottledTornadoCard = null;
+
+        // First pass: find cards already marked as bottled
+        for (AbstractCard card : loadout.deck) {
+            if (card.inBottleFlame && bottledFlameCard == null) {
+                bottledFlameCard = card;
+            }
+            if (card.inBottleLightning && bottledLightningCard == null) {
+                bottledLightningCard = card;
+            }
+            if (card.inBottleTornado && bottledTornadoCard == null) {
+                bottledTornadoCard = card;
+            }
+        }
+
+        // Second pass: for bottle relics without a marked card, find a suitable one
+        for (AbstractRelic relic : loadout.relics) {
+            String relicId = relic.relicId;
+            if ("Bottled Flame".equals(relicId) && bottledFlameCard == null) {
+                // Find an attack card (non-basic)
+                for (AbstractCard card : loadout.deck) {
+                    if (card.type == AbstractCard.CardType.ATTACK && card.rarity != AbstractCard.CardRarity.BASIC) {
+                        bottledFlameCard = card;
+                        break;
+                    }
+                }
+            } else if ("Bottled Lightning".equals(relicId) && bottledLightningCard == null) {
+                // Find a skill card (non-basic)
+                for (AbstractCard card : loadout.deck) {
+                    if (card.type == AbstractCard.CardType.SKILL && card.rarity != AbstractCard.CardRarity.BASIC) {
+                        bottledLightningCard = card;
+                        break;
+                    }
+                }
+            } else if ("Bottled Tornado".equals(relicId) && bottledTornadoCard == null) {
+                // Find a power card
+                for (AbstractCard card : loadout.deck) {
+                    if (card.type == AbstractCard.CardType.POWER) {
+                        bottledTornadoCard = card;
+                        break;
+                    }
+                }
+            }
         }
+
+        Map<String, AbstractCard> bottled = new HashMap<>();
+        if (bottledFlameCard != null) bottled.put("Bottled Flame", bottledFlameCard);
+        if (bottledLightningCard != null) bottled.put("Bottled Lightning", bottledLightningCard);
+        if (bottledTornadoCard != null) bottled.put("Bottled Tornado", bottledTornadoCard);
+        return bottled;
     }
 }
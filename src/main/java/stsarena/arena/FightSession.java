@@ -0,0 +1,207 @@
+package stsarena.arena;
+
+import stsarena.STSArena;
+import stsarena.data.ArenaRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The arena fight currently being set up, fought or left, as one explicit state.
+ *
+ * ArenaRunner drives it: game events (dungeon initialized, first card drawn, a fight
+ * ending, a menu button) move it between states, and the work a state is waiting on
+ * is done once, when the state is entered or on the one update it was scheduled for.
+ * Nothing has to be re-checked every frame to notice what happened.
+ *
+ * Every transition is timed from the moment the attempt was requested (the menu click,
+ * or Try Again for a retry) and logged, so the time between a click and the first card
+ * draw can be broken down per step. {@link #getTimeline()} keeps the current attempt's.
+ */
+public final class FightSession {
+
+    public enum State {
+        /** No arena fight. */
+        IDLE,
+        /** Arena save staged; the game is building the dungeon from it. */
+        LOADING,
+        /** Dungeon built; the fight room is entered on the next update. */
+        DUNGEON_READY,
+        /** Room transition started; waiting for the first card draw. */
+        ENTERING_FIGHT,
+        /** The fight is on. */
+        IN_COMBAT,
+        /** Victory or defeat recorded; end-of-fight screens are up. */
+        ENDED,
+        /** Heading to the main menu; state is cleared when it is reached. */
+        LEAVING,
+        /** Back to the main menu so the same fight can be loaded fresh. */
+        RESTARTING,
+        /** Back to the main menu to edit the loadout, then fight the same encounter. */
+        EDITING,
+        /** Loading the normal run the arena was started from. */
+        RESUMING_NORMAL_RUN
+    }
+
+    static final CompletableFuture<Long> NO_DB_ID = CompletableFuture.completedFuture(-1L);
+
+    private State state = State.IDLE;
+    private long requestedAt = System.nanoTime();
+    private long enteredAt = requestedAt;
+    private final Map<State, Long> timeline = new EnumMap<>(State.class);
+
+    // What is being fought. Kept through RESTARTING and EDITING, which exist to fight it again.
+    RandomLoadoutGenerator.GeneratedLoadout loadout;
+    String encounter;
+
+    // IDs are produced by queued writes on the database writer thread,
+    // so fight start never waits for SQLite.
+    CompletableFuture<Long> loadoutDbId = NO_DB_ID;
+    CompletableFuture<Long> runDbId = NO_DB_ID;
+
+    // The upsert whose row becomes the loadout screen's selection once it finishes, and the
+    // selection when the fight started (a different one by then means the player changed it)
+    CompletableFuture<Long> selectionUpdate;
+    ArenaRepository.LoadoutRecord selectionAtStart;
+    boolean randomAtStart;
+
+    // Combat tracking
+    int combatStartHp = 0;
+    final List<String> potionsUsed = new ArrayList<>();
+    boolean tookDamage = false;
+
+    // Set when arena was entered from a normal run (Practice in Arena)
+    boolean startedFromNormalRun = false;
+    com.megacrit.cardcrawl.characters.AbstractPlayer.PlayerClass normalRunPlayerClass = null;
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * True from staging the arena save until the fight room is entered.
+     */
+    boolean isSettingUp() {
+        return state == State.LOADING || state == State.DUNGEON_READY;
+    }
+
+    /**
+     * True while the game is running an arena dungeon, including its end-of-fight screens
+     * and the trip back to the menu. Saving is disabled for all of it.
+     */
+    boolean isArenaRun() {
+        switch (state) {
+            case LOADING:
+            case DUNGEON_READY:
+            case ENTERING_FIGHT:
+            case IN_COMBAT:
+            case ENDED:
+            case LEAVING:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Milliseconds from the request to entering each state, for the current attempt.
+     */
+    public Map<State, Long> getTimeline() {
+        return Collections.unmodifiableMap(new EnumMap<>(timeline));
+    }
+
+    /**
+     * Start timing a new attempt at the fight and enter the given state.
+     */
+    void beginAttempt(State first) {
+        requestedAt = System.nanoTime();
+        timeline.clear();
+        combatStartHp = loadout != null ? loadout.currentHp : 0;
+        potionsUsed.clear();
+        tookDamage = false;
+        moveTo(first);
+    }
+
+    /**
+     * Move to the next state, logging how long the last one took.
+     */
+    void moveTo(State next) {
+        long now = System.nanoTime();
+        long sinceRequest = (now - requestedAt) / 1_000_000;
+        if (!isExpected(state, next)) {
+            STSArena.logger.warn("ARENA: Unexpected fight session transition " + state + " -> " + next);
+        }
+        STSArena.logger.info("ARENA: Fight session " + state + " -> " + next + " after " +
+            (now - enteredAt) / 1_000_000 + " ms (" + sinceRequest + " ms since requested)");
+        state = next;
+        enteredAt = now;
+        timeline.put(next, sinceRequest);
+    }
+
+    /**
+     * Forget the fight and go back to IDLE.
+     */
+    void clear() {
+        if (state != State.IDLE) {
+            moveTo(State.IDLE);
+        }
+        forget();
+    }
+
+    /**
+     * The arena dungeon has been left. RESTARTING and EDITING keep the loadout and
+     * encounter (and the loadout's row) to fight them again; anything else clears.
+     */
+    void leaveArenaRun() {
+        if (state == State.RESTARTING || state == State.EDITING) {
+            runDbId = NO_DB_ID;
+            startedFromNormalRun = false;
+            normalRunPlayerClass = null;
+        } else {
+            clear();
+        }
+    }
+
+    /**
+     * Drop the fight's data without changing state.
+     */
+    void forget() {
+        loadout = null;
+        encounter = null;
+        loadoutDbId = NO_DB_ID;
+        runDbId = NO_DB_ID;
+        selectionUpdate = null;
+        selectionAtStart = null;
+        potionsUsed.clear();
+        tookDamage = false;
+        startedFromNormalRun = false;
+        normalRunPlayerClass = null;
+    }
+
+    private static boolean isExpected(State from, State to) {
+        if (to == State.IDLE || to == State.LOADING || to == State.RESUMING_NORMAL_RUN) {
+            // Any state can be abandoned, and a new fight can be started from anywhere
+            return true;
+        }
+        switch (from) {
+            case LOADING:
+                return to == State.DUNGEON_READY;
+            case DUNGEON_READY:
+                return to == State.ENTERING_FIGHT;
+            case ENTERING_FIGHT:
+                return to == State.IN_COMBAT || to == State.ENDED || to == State.LEAVING;
+            case IN_COMBAT:
+            case ENDED:
+                return to == State.ENDED || to == State.ENTERING_FIGHT || to == State.LEAVING ||
+                       to == State.RESTARTING || to == State.EDITING;
+            case LEAVING:
+                return to == State.RESTARTING || to == State.EDITING;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package stsarena.arena;
+
+import com.google.gson.Gson;
+import stsarena.data.ArenaRepository;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Generates large numbers of loadouts in parallel, e.g. to pre-build practice pools.
+ *
+ * Every loadout gets its own Random, seeded from the batch seed and its index, so
+ * loadout i of a batch is the same no matter how many threads ran or how the work
+ * was split. Work is cut into chunks that run on a ForkJoinPool; finished chunks are
+ * handed to the sink in index order on the calling thread, so sinks don't need to be
+ * thread-safe and their output is reproducible too.
+ *
+ * Only LoadoutBuilder runs on the pool. It works on IDs and never touches game objects.
+ */
+public class LoadoutBatchGenerator {
+
+    private static final int CHUNK_SIZE = 256;
+
+    /**
+     * One generated loadout and where it came from.
+     */
+    public static class Generated {
+        public final int index;       // Position in the batch, 0-based
+        public final long seed;       // Seed of this loadout's Random
+        public final LoadoutBuilder.BuiltLoadout loadout;
+
+        public Generated(int index, long seed, LoadoutBuilder.BuiltLoadout loadout) {
+            this.index = index;
+            this.seed = seed;
+            this.loadout = loadout;
+        }
+    }
+
+    /**
+     * Receives generated loadouts in index order, on the thread that called generate().
+     */
+    public interface Sink {
+        void accept(Generated generated) throws IOException;
+
+        /**
+         * Called once after the last loadout, also when generation failed part way.
+         */
+        default void close() throws IOException {}
+    }
+
+    private LoadoutBatchGenerator() {}
+
+    /**
+     * Generate count loadouts and stream them to the sink.
+     *
+     * @param batchSeed Seed for the whole batch; the same seed gives the same loadouts
+     * @param count Number of loadouts to generate
+     * @param playerClass Class to generate for, or null for a random class per loadout
+     * @param parallelism Worker threads to use (at least 1)
+     * @param sink Where the loadouts go
+     * @return The number of loadouts handed to the sink
+     */
+    public static int generate(long batchSeed, int count, String playerClass, int parallelism, Sink sink)
+            throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        // Enough chunks in flight to keep every worker busy while the sink drains
+        int window = Math.max(2, parallelism * 2);
+        Deque<ForkJoinTask<List<Generated>>> inFlight = new ArrayDeque<>();
+        int delivered = 0;
+        try {
+            int nextChunk = 0;
+            while (delivered < count) {
+                while (nextChunk < count && inFlight.size() < window) {
+                    int from = nextChunk;
+                    int to = Math.min(count, from + CHUNK_SIZE);
+                    inFlight.add(pool.submit(() -> generateRange(batchSeed, from, to, playerClass)));
+                    nextChunk = to;
+                }
+                for (Generated generated : inFlight.poll().join()) {
+                    sink.accept(generated);
+                    delivered++;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+            sink.close();
+        }
+        return delivered;
+    }
+
+    /**
+     * Generate one loadout of a batch on its own, e.g. to reproduce a single entry.
+     */
+    public static Generated generateOne(long batchSeed, int index, String playerClass) {
+        long seed = seedFor(batchSeed, index);
+        Random random = new Random(seed);
+        LoadoutBuilder.BuiltLoadout loadout = playerClass != null
+            ? LoadoutBuilder.generateForClass(playerClass, random)
+            : LoadoutBuilder.generateRandom(random);
+        return new Generated(index, seed, loadout);
+    }
+
+    private static List<Generated> generateRange(long batchSeed, int from, int to, String playerClass) {
+        List<Generated> chunk = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            chunk.add(generateOne(batchSeed, i, playerClass));
+        }
+        return chunk;
+    }
+
+    /**
+     * Seed for loadout index of a batch. SplitMix64 of the batch seed advanced by
+     * index steps (the same mixing SplittableRandom uses), so neighbouring indexes
+     * and neighbouring batch seeds still get unrelated streams.
+     */
+    public static long seedFor(long batchSeed, long index) {
+        long z = batchSeed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // ========== SINKS ==========
+
+    /**
+     * Collect into a list.
+     */
+    public static Sink toList(List<Generated> into) {
+        return into::add;
+    }
+
+    /**
+     * Write one JSON object per line: index, seed and the loadout's IDs.
+     */
+    public static Sink toJsonLines(Path file) throws IOException {
+        Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        Gson gson = new Gson();
+        return new Sink() {
+            @Override
+            public void accept(Generated generated) throws IOException {
+                gson.toJson(generated, writer);
+                writer.write('\n');
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.close();
+            }
+        };
+    }
+
+    /**
+     * Save to the arena database, a few hundred loadouts per transaction.
+     * Loadouts are named "namePrefix #n".
+     */
+    public static Sink toDatabase(ArenaRepository repo, String namePrefix) {
+        return new Sink() {
+            private final List<Generated> batch = new ArrayList<>(CHUNK_SIZE);
+
+            @Override
+            public void accept(Generated generated) throws IOException {
+                batch.add(generated);
+                if (batch.size() >= CHUNK_SIZE) {
+                    flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+
+            private void flush() throws IOException {
+                if (batch.isEmpty()) {
+                    return;
+                }
+                if (repo.saveBuiltLoadouts(batch, namePrefix) < 0) {
+                    throw new IOException("Failed to save generated loadouts " +
+                        batch.get(0).index + "-" + batch.get(batch.size() - 1).index);
+                }
+                batch.clear();
+            }
+        };
+    }
+}
@@ -12,6 +12,8 @@ public class LoadoutBuilder {
 
     private final Random random;
     private final String playerClass;
+    // Card/relic/potion pools for this class, shared and read-only
+    private final LoadoutCatalog.ClassCatalog catalog;
 
     // Current loadout state
     private final List<CardEntry> deck = new ArrayList<>();
@@ -23,7 +25,23 @@ public class LoadoutBuilder {
     private int potionSlots = 3;
     private int ascension = 0;
 
-    // Tracking for synergies
+    // Running counts over the current deck, kept in step by addToDeck/removeFromDeck
+    // and the upgrade paths so no decision has to rescan the deck
+    private final Map<String, Integer> cardCopies = new HashMap<>();
+    private int attackCount = 0;
+    private int skillCount = 0;
+    private int powerCount = 0;
+    private int nonBasicAttackCount = 0;
+    private int nonBasicSkillCount = 0;
+    private int strikeCount = 0;
+    private int defendCount = 0;
+    private int upgradedCount = 0;
+
+    // Scratch lists reused across events so drafting doesn't allocate
+    private final List<String> candidates = new ArrayList<>();
+    private final List<String> choices = new ArrayList<>(3);
+
+    // Tracking for synergies (what generation has drafted so far)
     private int orbGenerationCount = 0;
     private int frostOrbGenerationCount = 0;
     private int shivGenerationCount = 0;
@@ -86,6 +104,7 @@ public class LoadoutBuilder {
     public LoadoutBuilder(String playerClass, Random random) {
         this.playerClass = playerClass;
         this.random = random;
+        this.catalog = LoadoutCatalog.get().forClass(playerClass);
 
         // Initialize with starter relic and deck
         initializeStarter();
@@ -109,7 +128,7 @@ public class LoadoutBuilder {
         // Add starter deck
         List<String> starterDeck = LoadoutConfig.getStarterDeck(playerClass);
         for (String cardId : starterDeck) {
-            deck.add(new CardEntry(cardId, false));
+            addToDeck(new CardEntry(cardId, false));
         }
     }
 
@@ -137,50 +156,81 @@ public class LoadoutBuilder {
 
     private void thinStarterDeck() {
         // Remove a random number of Strikes (0 to all-1)
-        int strikeCount = countCards("Strike");
         int strikesToRemove = random.nextInt(strikeCount);
         for (int i = 0; i < strikesToRemove; i++) {
-            removeCard("Strike");
+            removeLastCard("Strike");
         }
 
         // Remove a random number of Defends (0 to all-1)
-        int defendCount = countCards("Defend");
         int defendsToRemove = random.nextInt(defendCount);
         for (int i = 0; i < defendsToRemove; i++) {
-            removeCard("Defend");
+            removeLastCard("Defend");
         }
 
         // Remove other starter cards with 10% chance each
-        List<CardEntry> toRemove = new ArrayList<>();
-        for (CardEntry card : deck) {
-            if (!card.cardId.contains("Strike") && !card.cardId.contains("Defend")) {
-                if (random.nextDouble() < 0.1) {
-                    toRemove.add(card);
-                }
-            }
-        }
-        deck.removeAll(toRemove);
-    }
-
-    private int countCards(String cardIdContains) {
-        int count = 0;
-        for (CardEntry card : deck) {
-            if (card.cardId.contains(cardIdContains)) {
-                count++;
+        for (int i = 0; i < deck.size(); ) {
+            if (!isBasicCard(deck.get(i).cardId) && random.nextDouble() < 0.1) {
+                removeFromDeck(i);
+            } else {
+                i++;
             }
         }
-        return count;
     }
 
-    private void removeCard(String cardIdContains) {
+    private void removeLastCard(String cardIdContains) {
         for (int i = deck.size() - 1; i >= 0; i--) {
             if (deck.get(i).cardId.contains(cardIdContains)) {
-                deck.remove(i);
+                removeFromDeck(i);
                 return;
             }
         }
     }
 
+    private void addToDeck(CardEntry card) {
+        deck.add(card);
+        trackCard(card, 1);
+    }
+
+    private void removeFromDeck(int index) {
+        trackCard(deck.remove(index), -1);
+    }
+
+    private void upgrade(CardEntry card) {
+        if (!card.upgraded) {
+            card.upgraded = true;
+            upgradedCount++;
+        }
+    }
+
+    /**
+     * Apply one card entering (delta 1) or leaving (delta -1) the deck to the running counts.
+     */
+    private void trackCard(CardEntry card, int delta) {
+        String cardId = card.cardId;
+        cardCopies.merge(cardId, delta, Integer::sum);
+
+        boolean basic = isBasicCard(cardId);
+        String type = catalog.card(cardId).type;
+        if ("ATTACK".equals(type)) {
+            attackCount += delta;
+            if (!basic) nonBasicAttackCount += delta;
+        } else if ("SKILL".equals(type)) {
+            skillCount += delta;
+            if (!basic) nonBasicSkillCount += delta;
+        } else if ("POWER".equals(type)) {
+            powerCount += delta;
+        }
+
+        if (cardId.contains("Strike")) strikeCount += delta;
+        if (cardId.contains("Defend")) defendCount += delta;
+        if (card.upgraded) upgradedCount += delta;
+    }
+
+    private int copiesInDeck(String cardId) {
+        Integer copies = cardCopies.get(cardId);
+        return copies != null ? copies : 0;
+    }
+
     private void applyRandomEvent() {
         // Weight different event types - tuned so average deck size >= 10
         // Add events: 45% (40% common + 5% rare) = net +0.45 cards/event
@@ -227,7 +277,7 @@ public class LoadoutBuilder {
         if (available.isEmpty()) return;
 
         // Pick 3 random cards and choose the best one
-        List<String> choices = new ArrayList<>();
+        choices.clear();
         for (int i = 0; i < 3 && !available.isEmpty(); i++) {
             int idx = random.nextInt(available.size());
             choices.add(available.remove(idx));
@@ -240,7 +290,7 @@ public class LoadoutBuilder {
     }
 
     private void addRareCard() {
-        List<String> rares = LoadoutConfig.getRareCards(playerClass);
+        List<String> rares = catalog.rareCards;
         if (rares.isEmpty()) return;
 
         String card = rares.get(random.nextInt(rares.size()));
@@ -250,33 +300,33 @@ public class LoadoutBuilder {
     }
 
     private List<String> getAvailableCards() {
-        List<String> cards = new ArrayList<>();
-
-        // Add class cards
-        cards.addAll(LoadoutConfig.getClassCards(playerClass));
+        List<String> cards = candidates;
+        cards.clear();
 
-        // Add colorless cards (less common)
+        // Add class cards, and colorless cards (less common), filtered based on synergies
+        addAddableCards(cards, catalog.classCards);
         if (random.nextDouble() < 0.2) {
-            cards.addAll(LoadoutConfig.getColorlessCards());
+            addAddableCards(cards, LoadoutCatalog.get().getColorlessCards());
         }
 
-        // Filter based on synergies
-        cards.removeIf(card -> !shouldAddCard(card));
-
         return cards;
     }
 
+    private void addAddableCards(List<String> into, List<String> pool) {
+        for (String card : pool) {
+            if (shouldAddCard(card)) {
+                into.add(card);
+            }
+        }
+    }
+
     private boolean shouldAddCard(String cardId) {
         // Don't add too many copies of the same card
-        int copies = 0;
-        for (CardEntry entry : deck) {
-            if (entry.cardId.equals(cardId)) copies++;
-        }
-        int maxCopies = LoadoutConfig.getMaxCopies(cardId);
-        if (copies >= maxCopies) return false;
+        LoadoutCatalog.CardInfo info = catalog.card(cardId);
+        if (copiesInDeck(cardId) >= info.maxCopies) return false;
 
         // Synergy checks
-        CardSynergy synergy = LoadoutConfig.getCardSynergy(cardId);
+        CardSynergy synergy = info.synergy;
         if (synergy != null) {
             switch (synergy) {
                 case REQUIRES_ORBS:
@@ -342,7 +392,7 @@ public class LoadoutBuilder {
     }
 
     private int scoreCard(String cardId) {
-        int score = LoadoutConfig.getCardPriority(cardId, playerClass);
+        int score = catalog.card(cardId).priority;
 
         // Bonus for synergies
         if (isOrbGenerator(cardId) && orbGenerationCount < 3) score += 20;
@@ -351,15 +401,7 @@ public class LoadoutBuilder {
         if (isBlockCard(cardId) && blockGenerationCount < 5) score += 5;
 
         // Penalty for too many of a type
-        int attackCount = 0, skillCount = 0, powerCount = 0;
-        for (CardEntry card : deck) {
-            String type = LoadoutConfig.getCardType(card.cardId);
-            if ("ATTACK".equals(type)) attackCount++;
-            else if ("SKILL".equals(type)) skillCount++;
-            else if ("POWER".equals(type)) powerCount++;
-        }
-
-        String type = LoadoutConfig.getCardType(cardId);
+        String type = catalog.card(cardId).type;
         if ("ATTACK".equals(type) && attackCount > deck.size() * 0.55) score -= 10;
         if ("SKILL".equals(type) && skillCount > deck.size() * 0.5) score -= 5;
         if ("POWER".equals(type) && powerCount > 5) score -= 15;
@@ -371,7 +413,7 @@ public class LoadoutBuilder {
         // Check if egg relic should auto-upgrade this card
         boolean shouldUpgrade = upgraded;
         if (!shouldUpgrade) {
-            String cardType = LoadoutConfig.getCardType(cardId);
+            String cardType = catalog.card(cardId).type;
             if ("ATTACK".equals(cardType) && hasMoltenEgg) {
                 shouldUpgrade = true;
             } else if ("SKILL".equals(cardType) && hasToxicEgg) {
@@ -380,7 +422,7 @@ public class LoadoutBuilder {
                 shouldUpgrade = true;
             }
         }
-        deck.add(new CardEntry(cardId, shouldUpgrade));
+        addToDeck(new CardEntry(cardId, shouldUpgrade));
         updateSynergyTracking(cardId);
     }
 
@@ -445,7 +487,7 @@ public class LoadoutBuilder {
             int score = 0;
             if (card.cardId.contains("Strike")) score = 100;
             else if (card.cardId.contains("Defend")) score = 80;
-            else score = 50 - LoadoutConfig.getCardPriority(card.cardId, playerClass);
+            else score = 50 - catalog.card(card.cardId).priority;
 
             if (score > worstScore) {
                 worstScore = score;
@@ -454,32 +496,35 @@ public class LoadoutBuilder {
         }
 
         if (worstIdx >= 0) {
-            deck.remove(worstIdx);
+            removeFromDeck(worstIdx);
         }
     }
 
     private void upgradeRandomCard() {
-        List<Integer> upgradeable = new ArrayList<>();
-        for (int i = 0; i < deck.size(); i++) {
-            if (!deck.get(i).upgraded) {
-                upgradeable.add(i);
-            }
-        }
+        int upgradeable = deck.size() - upgradedCount;
+        if (upgradeable == 0) return;
 
-        if (!upgradeable.isEmpty()) {
-            int idx = upgradeable.get(random.nextInt(upgradeable.size()));
-            deck.get(idx).upgraded = true;
+        // Upgrade the n-th card that isn't upgraded yet
+        int n = random.nextInt(upgradeable);
+        for (CardEntry card : deck) {
+            if (!card.upgraded && n-- == 0) {
+                upgrade(card);
+                return;
+            }
         }
     }
 
     private void addRandomRelic() {
         if (relics.size() >= 5) return; // Cap at 5 relics
 
-        List<String> available = LoadoutConfig.getAvailableRelics(playerClass);
-        available.removeAll(relics); // Don't duplicate
-
-        // Filter out relics we already have effects for
-        available.removeIf(r -> !shouldAddRelic(r));
+        // Don't duplicate, and filter out relics we already have effects for
+        List<String> available = candidates;
+        available.clear();
+        for (String relic : catalog.relics) {
+            if (!relics.contains(relic) && shouldAddRelic(relic)) {
+                available.add(relic);
+            }
+        }
 
         if (!available.isEmpty()) {
             String relic = available.get(random.nextInt(available.size()));
@@ -499,37 +544,13 @@ public class LoadoutBuilder {
         // Bottle relics require a suitable card in the deck
         if ("Bottled Flame".equals(relicId)) {
             // Need a non-basic attack card
-            boolean hasNonBasicAttack = false;
-            for (CardEntry card : deck) {
-                String type = LoadoutConfig.getCardType(card.cardId);
-                if ("ATTACK".equals(type) && !isBasicCard(card.cardId)) {
-                    hasNonBasicAttack = true;
-                    break;
-                }
-            }
-            if (!hasNonBasicAttack) return false;
+            if (nonBasicAttackCount == 0) return false;
         } else if ("Bottled Lightning".equals(relicId)) {
             // Need a non-basic skill card
-            boolean hasNonBasicSkill = false;
-            for (CardEntry card : deck) {
-                String type = LoadoutConfig.getCardType(card.cardId);
-                if ("SKILL".equals(type) && !isBasicCard(card.cardId)) {
-                    hasNonBasicSkill = true;
-                    break;
-                }
-            }
-            if (!hasNonBasicSkill) return false;
+            if (nonBasicSkillCount == 0) return false;
         } else if ("Bottled Tornado".equals(relicId)) {
             // Need a power card
-            boolean hasPower = false;
-            for (CardEntry card : deck) {
-                String type = LoadoutConfig.getCardType(card.cardId);
-                if ("POWER".equals(type)) {
-                    hasPower = true;
-                    break;
-                }
-            }
-            if (!hasPower) return false;
+            if (powerCount == 0) return false;
         }
 
         return true;
@@ -564,8 +585,8 @@ public class LoadoutBuilder {
 
     private void upgradeAllCardsOfType(String cardType) {
         for (CardEntry card : deck) {
-            if (!card.upgraded && cardType.equals(LoadoutConfig.getCardType(card.cardId))) {
-                card.upgraded = true;
+            if (!card.upgraded && cardType.equals(catalog.card(card.cardId).type)) {
+                upgrade(card);
             }
         }
     }
@@ -579,7 +600,7 @@ public class LoadoutBuilder {
         }
 
         if (potions.size() < potionSlots) {
-            List<String> available = LoadoutConfig.getAvailablePotions(playerClass);
+            List<String> available = catalog.potions;
             if (!available.isEmpty()) {
                 potions.add(available.get(random.nextInt(available.size())));
             }
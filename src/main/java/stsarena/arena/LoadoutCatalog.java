@@ -0,0 +1,157 @@
+package stsarena.arena;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only index of the cards, relics and potions loadout generation draws from.
+ *
+ * LoadoutConfig's getters used to walk CardLibrary/RelicLibrary and build fresh lists on
+ * every call, and LoadoutBuilder calls them for every card or relic it adds. The catalog
+ * does that walk once per player class and keeps the results as unmodifiable lists of
+ * interned IDs, plus one {@link CardInfo} per card with its type, synergy, priority and
+ * copy limit already looked up.
+ *
+ * Built after post-initialize and rebuilt only when the game libraries change size
+ * (i.e. a different mod set). Instances are immutable, so they can be shared between
+ * threads; {@link #get()} always returns the current one.
+ */
+public final class LoadoutCatalog {
+
+    private static volatile LoadoutCatalog current;
+
+    private final long librarySignature;
+    private final List<String> colorlessCards;
+    private final Map<String, ClassCatalog> classes = new ConcurrentHashMap<>();
+
+    /**
+     * What generation needs to know about one card, looked up once.
+     */
+    public static final class CardInfo {
+        public final String id;
+        public final String type;
+        public final LoadoutBuilder.CardSynergy synergy;
+        public final int priority;
+        public final int maxCopies;
+
+        CardInfo(String id, String playerClass) {
+            this.id = id;
+            this.type = LoadoutConfig.getCardType(id);
+            this.synergy = LoadoutConfig.getCardSynergy(id);
+            this.priority = LoadoutConfig.getCardPriority(id, playerClass);
+            this.maxCopies = LoadoutConfig.getMaxCopies(id);
+        }
+    }
+
+    /**
+     * Pools and card table for one player class.
+     */
+    public static final class ClassCatalog {
+        public final String playerClass;
+        public final List<String> classCards;   // Common and uncommon
+        public final List<String> rareCards;
+        public final List<String> relics;
+        public final List<String> potions;
+        private final Map<String, CardInfo> cards = new HashMap<>();
+
+        ClassCatalog(String playerClass, List<String> colorlessCards) {
+            this.playerClass = playerClass;
+            this.classCards = freeze(LoadoutConfig.scanClassCards(playerClass));
+            this.rareCards = freeze(LoadoutConfig.scanRareCards(playerClass));
+            this.relics = freeze(LoadoutConfig.scanAvailableRelics(playerClass));
+            this.potions = freeze(LoadoutConfig.scanAvailablePotions(playerClass));
+
+            for (List<String> pool : Arrays.asList(classCards, rareCards, colorlessCards,
+                    LoadoutConfig.getStarterDeck(playerClass))) {
+                for (String id : pool) {
+                    cards.computeIfAbsent(id.intern(), cardId -> new CardInfo(cardId, playerClass));
+                }
+            }
+        }
+
+        /**
+         * Card table entry for an ID. Cards outside this class's pools (e.g. from a
+         * transformed or hand-built deck) are looked up on the spot.
+         */
+        public CardInfo card(String cardId) {
+            CardInfo info = cards.get(cardId);
+            return info != null ? info : new CardInfo(cardId, playerClass);
+        }
+    }
+
+    private LoadoutCatalog(long librarySignature) {
+        this.librarySignature = librarySignature;
+        this.colorlessCards = freeze(LoadoutConfig.scanColorlessCards());
+    }
+
+    /**
+     * The current catalog, rebuilding it first if the game libraries have changed.
+     */
+    public static LoadoutCatalog get() {
+        LoadoutCatalog catalog = current;
+        // Without the game there is nothing to change, so skip re-probing the libraries
+        if (catalog == null || (catalog.librarySignature != -1 && catalog.librarySignature != librarySignature())) {
+            catalog = rebuild();
+        }
+        return catalog;
+    }
+
+    /**
+     * Build a fresh catalog from the game libraries and make it current.
+     * Call after post-initialize, once every mod has registered its cards and relics.
+     */
+    public static synchronized LoadoutCatalog rebuild() {
+        LoadoutCatalog catalog = new LoadoutCatalog(librarySignature());
+        for (String playerClass : LoadoutConfig.PLAYER_CLASS_NAMES) {
+            catalog.forClass(playerClass);
+        }
+        current = catalog;
+        return catalog;
+    }
+
+    /**
+     * Pools for a player class, built the first time the class is asked for
+     * (so modded characters work without being listed up front).
+     */
+    public ClassCatalog forClass(String playerClass) {
+        return classes.computeIfAbsent(playerClass, c -> new ClassCatalog(c, colorlessCards));
+    }
+
+    public List<String> getColorlessCards() {
+        return colorlessCards;
+    }
+
+    /**
+     * Cheap fingerprint of the loaded card and relic libraries: their sizes. It only
+     * changes when a different set of mods is loaded. -1 when the game isn't loaded.
+     */
+    private static long librarySignature() {
+        try {
+            long cards = com.megacrit.cardcrawl.helpers.CardLibrary.cards.size();
+            long relics = com.megacrit.cardcrawl.helpers.RelicLibrary.commonList.size() +
+                com.megacrit.cardcrawl.helpers.RelicLibrary.uncommonList.size() +
+                com.megacrit.cardcrawl.helpers.RelicLibrary.rareList.size() +
+                com.megacrit.cardcrawl.helpers.RelicLibrary.redList.size() +
+                com.megacrit.cardcrawl.helpers.RelicLibrary.greenList.size() +
+                com.megacrit.cardcrawl.helpers.RelicLibrary.blueList.size() +
+                com.megacrit.cardcrawl.helpers.RelicLibrary.whiteList.size();
+            return (cards << 32) | relics;
+        } catch (NoClassDefFoundError | ExceptionInInitializerError e) {
+            // Libraries not loaded (standalone testing)
+            return -1;
+        }
+    }
+
+    private static List<String> freeze(List<String> ids) {
+        List<String> interned = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            interned.add(id.intern());
+        }
+        return Collections.unmodifiableList(interned);
+    }
+}
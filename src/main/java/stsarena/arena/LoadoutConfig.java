@@ -254,11 +254,19 @@ public class LoadoutConfig {
     );
 
     /**
-     * Get available relics for a player class.
+     * Get available relics for a player class, from the {@link LoadoutCatalog}.
+     * Returns a copy the caller may modify.
+     */
+    public static List<String> getAvailableRelics(String playerClass) {
+        return new ArrayList<>(LoadoutCatalog.get().forClass(playerClass).relics);
+    }
+
+    /**
+     * Scan for available relics for a player class (used to build the catalog).
      * Uses RelicLibrary at runtime to support modded characters.
      * Falls back to curated lists for base game characters.
      */
-    public static List<String> getAvailableRelics(String playerClass) {
+    static List<String> scanAvailableRelics(String playerClass) {
         // Try dynamic lookup first (supports mods)
         List<String> dynamicRelics = getRelicsFromLibrary(playerClass);
         if (!dynamicRelics.isEmpty()) {
@@ -657,11 +665,19 @@ public class LoadoutConfig {
     // ========== CLASS CARDS ==========
 
     /**
-     * Get all non-rare cards for a player class.
+     * Get all non-rare cards for a player class, from the {@link LoadoutCatalog}.
+     * Returns a copy the caller may modify.
+     */
+    public static List<String> getClassCards(String playerClass) {
+        return new ArrayList<>(LoadoutCatalog.get().forClass(playerClass).classCards);
+    }
+
+    /**
+     * Scan for all non-rare cards for a player class (used to build the catalog).
      * Uses CardLibrary at runtime to support modded characters.
      * Falls back to hardcoded lists for base game characters if CardLibrary isn't loaded.
      */
-    public static List<String> getClassCards(String playerClass) {
+    static List<String> scanClassCards(String playerClass) {
         // Try dynamic lookup first (supports mods)
         List<String> dynamicCards = getCardsFromLibrary(playerClass, false);
         if (!dynamicCards.isEmpty()) {
@@ -679,10 +695,18 @@ public class LoadoutConfig {
     }
 
     /**
-     * Get rare cards for a player class.
-     * Uses CardLibrary at runtime to support modded characters.
+     * Get rare cards for a player class, from the {@link LoadoutCatalog}.
+     * Returns a copy the caller may modify.
      */
     public static List<String> getRareCards(String playerClass) {
+        return new ArrayList<>(LoadoutCatalog.get().forClass(playerClass).rareCards);
+    }
+
+    /**
+     * Scan for rare cards for a player class (used to build the catalog).
+     * Uses CardLibrary at runtime to support modded characters.
+     */
+    static List<String> scanRareCards(String playerClass) {
         // Try dynamic lookup first (supports mods)
         List<String> dynamicCards = getCardsFromLibrary(playerClass, true);
         if (!dynamicCards.isEmpty()) {
@@ -846,7 +870,11 @@ public class LoadoutConfig {
     // ========== COLORLESS CARDS ==========
 
     public static List<String> getColorlessCards() {
-        return new ArrayList<>(COLORLESS_CARDS);
+        return new ArrayList<>(LoadoutCatalog.get().getColorlessCards());
+    }
+
+    static List<String> scanColorlessCards() {
+        return COLORLESS_CARDS;
     }
 
     private static final List<String> COLORLESS_CARDS = Arrays.asList(
@@ -865,6 +893,10 @@ public class LoadoutConfig {
     // ========== POTIONS ==========
 
     public static List<String> getAvailablePotions(String playerClass) {
+        return new ArrayList<>(LoadoutCatalog.get().forClass(playerClass).potions);
+    }
+
+    static List<String> scanAvailablePotions(String playerClass) {
         List<String> potions = new ArrayList<>(COMMON_POTIONS);
 
         switch (playerClass) {
@@ -912,6 +944,56 @@ public class LoadoutConfig {
         "Ambrosia", "Bottled Miracle", "Stance Potion"
     );
 
+    // ========== DISPLAY NAMES ==========
+
+    /**
+     * Display name of every card in the library, by card ID, in the game's current language.
+     */
+    public static Map<String, String> getCardDisplayNames() {
+        Map<String, String> names = new HashMap<>();
+        try {
+            for (com.megacrit.cardcrawl.cards.AbstractCard card :
+                    com.megacrit.cardcrawl.helpers.CardLibrary.cards.values()) {
+                if (card.name != null) {
+                    names.put(card.cardID, card.name);
+                }
+            }
+        } catch (NoClassDefFoundError | ExceptionInInitializerError e) {
+            // CardLibrary not loaded (standalone testing)
+        }
+        return names;
+    }
+
+    /**
+     * Display name of every relic in the library, by relic ID, in the game's current language.
+     */
+    public static Map<String, String> getRelicDisplayNames() {
+        Map<String, String> names = new HashMap<>();
+        try {
+            for (List<com.megacrit.cardcrawl.relics.AbstractRelic> tier : Arrays.asList(
+                    com.megacrit.cardcrawl.helpers.RelicLibrary.starterList,
+                    com.megacrit.cardcrawl.helpers.RelicLibrary.commonList,
+                    com.megacrit.cardcrawl.helpers.RelicLibrary.uncommonList,
+                    com.megacrit.cardcrawl.helpers.RelicLibrary.rareList,
+                    com.megacrit.cardcrawl.helpers.RelicLibrary.bossList,
+                    com.megacrit.cardcrawl.helpers.RelicLibrary.shopList,
+                    com.megacrit.cardcrawl.helpers.RelicLibrary.specialList,
+                    com.megacrit.cardcrawl.helpers.RelicLibrary.redList,
+                    com.megacrit.cardcrawl.helpers.RelicLibrary.greenList,
+                    com.megacrit.cardcrawl.helpers.RelicLibrary.blueList,
+                    com.megacrit.cardcrawl.helpers.RelicLibrary.whiteList)) {
+                for (com.megacrit.cardcrawl.relics.AbstractRelic relic : tier) {
+                    if (relic.name != null) {
+                        names.put(relic.relicId, relic.name);
+                    }
+                }
+            }
+        } catch (NoClassDefFoundError | ExceptionInInitializerError e) {
+            // RelicLibrary not loaded (standalone testing)
+        }
+        return names;
+    }
+
     // ========== EXCLUDED CARDS/RELICS ==========
 
     public static boolean isExcludedRelic(String relicId) {
@@ -1,130 +1,359 @@
 package stsarena.arena;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
  * Standalone test runner for LoadoutBuilder.
  *
- * This can be run outside of the game to sanity check the generation logic.
- * Run with: java -cp target/classes stsarena.arena.LoadoutGeneratorTest
+ * This can be run outside of the game to sanity check the generation logic:
+ *   java -cp target/classes:lib/desktop-1.0.jar stsarena.arena.LoadoutGeneratorTest <mode> [options]
+ *
+ * Modes:
+ *   sample [n]      - Print n random loadouts (default 20)
+ *   report [opts]   - Distribution report over many seeds, as JSON
+ *   bench [opts]    - Generation throughput and allocation per class, as JSON
+ *
+ * Options:
+ *   --seeds N       - Loadouts to generate for the report (default 1000000)
+ *   --seed S        - Batch seed (default 0), so reports are comparable between runs
+ *   --threads T     - Worker threads for the report (default: all cores)
+ *   --seconds S     - Measured seconds per class for the benchmark (default 5)
+ *   --out FILE      - Write the JSON to FILE instead of stdout
+ *
+ * The report exits with status 1 if a sanity check fails (class relics on the wrong
+ * class, deck sizes out of range), so it can gate a build.
  */
 public class LoadoutGeneratorTest {
 
-    public static void main(String[] args) {
-        System.out.println("=== LoadoutBuilder Test ===\n");
+    private static final int MIN_SANE_DECK = 8;
+    private static final int MAX_SANE_DECK = 40;
+    private static final int TOP_N = 25;
+
+    public static void main(String[] args) throws IOException {
+        String mode = args.length > 0 ? args[0] : "sample";
+        Map<String, String> options = parseOptions(args);
 
-        int numTests = 20;
-        if (args.length > 0) {
-            try {
-                numTests = Integer.parseInt(args[0]);
-            } catch (NumberFormatException e) {
-                // Use default
+        switch (mode) {
+            case "report": {
+                Report report = runReport(
+                    Long.parseLong(options.getOrDefault("seed", "0")),
+                    Integer.parseInt(options.getOrDefault("seeds", "1000000")),
+                    Integer.parseInt(options.getOrDefault("threads",
+                        String.valueOf(Runtime.getRuntime().availableProcessors()))));
+                writeJson(report, options.get("out"));
+                if (!report.sanity.passed) {
+                    System.exit(1);
+                }
+                break;
             }
+            case "bench":
+                writeJson(runBenchmark(Integer.parseInt(options.getOrDefault("seconds", "5"))), options.get("out"));
+                break;
+            case "sample":
+                printSample(args.length > 1 ? parseCount(args[1]) : 20);
+                break;
+            default:
+                // Old usage: a bare count
+                printSample(parseCount(mode));
         }
+    }
 
-        // Statistics tracking
-        Map<String, Integer> classCount = new HashMap<>();
-        Map<String, Integer> relicCount = new HashMap<>();
-        Map<String, Integer> cardCount = new HashMap<>();
-        List<Integer> deckSizes = new ArrayList<>();
-        List<Integer> relicCounts = new ArrayList<>();
-        List<Integer> potionCounts = new ArrayList<>();
+    // ========== DISTRIBUTION REPORT ==========
 
-        for (int i = 0; i < numTests; i++) {
-            Random random = new Random(System.nanoTime());
-            LoadoutBuilder.BuiltLoadout loadout = LoadoutBuilder.generateRandom(random);
+    /**
+     * Machine-readable summary of what the generator produces.
+     */
+    public static class Report {
+        public long seed;
+        public int loadouts;
+        public long durationMs;
+        public Map<String, Integer> classes = new TreeMap<>();
+        public Summary deckSize;
+        public Summary relicCount;
+        public Summary potionCount;
+        public Summary upgradedCards;
+        public Map<Integer, Long> ascension = new TreeMap<>();
+        public Map<String, Double> cardTypeShare = new TreeMap<>();
+        public int distinctCards;
+        public int distinctRelics;
+        public List<Frequency> topCards = new ArrayList<>();
+        public List<Frequency> topRelics = new ArrayList<>();
+        // class -> relic -> loadouts carrying another class's relic
+        public Map<String, Map<String, Integer>> classRelicLeaks = new TreeMap<>();
+        public Sanity sanity = new Sanity();
+    }
 
-            // Track stats
-            classCount.merge(loadout.playerClass, 1, Integer::sum);
-            deckSizes.add(loadout.deck.size());
-            relicCounts.add(loadout.relics.size());
-            potionCounts.add(loadout.potions.size());
+    public static class Summary {
+        public int min;
+        public int max;
+        public double mean;
+        public double stddev;
+        public Map<Integer, Long> histogram = new TreeMap<>();
+    }
 
-            for (String relic : loadout.relics) {
-                relicCount.merge(relic, 1, Integer::sum);
+    public static class Frequency {
+        public String id;
+        public long count;
+        public double perLoadout;
+
+        Frequency(String id, long count, int loadouts) {
+            this.id = id;
+            this.count = count;
+            this.perLoadout = loadouts == 0 ? 0 : (double) count / loadouts;
+        }
+    }
+
+    public static class Sanity {
+        public int relicLeaks;
+        public int deckSizeOutOfRange;
+        public boolean passed;
+    }
+
+    /**
+     * Running min/max/mean/stddev plus a histogram of one integer measure.
+     */
+    private static class Tally {
+        private final Map<Integer, Long> histogram = new TreeMap<>();
+        private int min = Integer.MAX_VALUE;
+        private int max = Integer.MIN_VALUE;
+        private long n;
+        private double mean;
+        private double m2;  // Welford's running sum of squared deviations
+
+        void add(int value) {
+            histogram.merge(value, 1L, Long::sum);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            n++;
+            double delta = value - mean;
+            mean += delta / n;
+            m2 += delta * (value - mean);
+        }
+
+        Summary summary() {
+            Summary summary = new Summary();
+            summary.min = n == 0 ? 0 : min;
+            summary.max = n == 0 ? 0 : max;
+            summary.mean = mean;
+            summary.stddev = n > 1 ? Math.sqrt(m2 / (n - 1)) : 0;
+            summary.histogram = histogram;
+            return summary;
+        }
+    }
+
+    /**
+     * Folds loadouts into the report as they stream out of the batch generator,
+     * so millions of seeds never have to be held in memory.
+     */
+    private static class ReportSink implements LoadoutBatchGenerator.Sink {
+        private final Report report = new Report();
+        private final Tally deckSize = new Tally();
+        private final Tally relicCount = new Tally();
+        private final Tally potionCount = new Tally();
+        private final Tally upgraded = new Tally();
+        private final Map<String, Long> cards = new HashMap<>();
+        private final Map<String, Long> relics = new HashMap<>();
+        private final Map<String, Long> cardTypes = new TreeMap<>();
+        private long totalCards;
+
+        @Override
+        public void accept(LoadoutBatchGenerator.Generated generated) {
+            LoadoutBuilder.BuiltLoadout loadout = generated.loadout;
+            report.loadouts++;
+            report.classes.merge(loadout.playerClass, 1, Integer::sum);
+            report.ascension.merge(loadout.ascension, 1L, Long::sum);
+
+            deckSize.add(loadout.deck.size());
+            relicCount.add(loadout.relics.size());
+            potionCount.add(loadout.potions.size());
+            if (loadout.deck.size() < MIN_SANE_DECK || loadout.deck.size() > MAX_SANE_DECK) {
+                report.sanity.deckSizeOutOfRange++;
             }
 
+            int upgradedCards = 0;
             for (LoadoutBuilder.CardEntry card : loadout.deck) {
-                cardCount.merge(card.cardId, 1, Integer::sum);
+                cards.merge(card.cardId, 1L, Long::sum);
+                cardTypes.merge(LoadoutConfig.getCardType(card.cardId), 1L, Long::sum);
+                if (card.upgraded) upgradedCards++;
             }
+            upgraded.add(upgradedCards);
+            totalCards += loadout.deck.size();
 
-            // Print individual loadout
-            System.out.println("--- Loadout " + (i + 1) + " ---");
-            System.out.println(loadout);
-            System.out.println("  Relics: " + String.join(", ", loadout.relics));
-            System.out.println("  Potions: " + String.join(", ", loadout.potions));
-
-            // Print deck summary
-            Map<String, Integer> types = new HashMap<>();
-            int upgraded = 0;
-            for (LoadoutBuilder.CardEntry card : loadout.deck) {
-                String type = LoadoutConfig.getCardType(card.cardId);
-                types.merge(type, 1, Integer::sum);
-                if (card.upgraded) upgraded++;
+            for (String relic : loadout.relics) {
+                relics.merge(relic, 1L, Long::sum);
+                String relicClass = LoadoutConfig.getRelicClass(relic);
+                if (relicClass != null && !relicClass.equals(loadout.playerClass)) {
+                    report.classRelicLeaks
+                        .computeIfAbsent(loadout.playerClass, c -> new TreeMap<>())
+                        .merge(relic, 1, Integer::sum);
+                    report.sanity.relicLeaks++;
+                }
             }
-            System.out.println("  Deck: " + types.getOrDefault("ATTACK", 0) + " attacks, " +
-                types.getOrDefault("SKILL", 0) + " skills, " +
-                types.getOrDefault("POWER", 0) + " powers, " +
-                upgraded + " upgraded");
+        }
 
-            // Print all cards
-            List<String> cardNames = new ArrayList<>();
-            for (LoadoutBuilder.CardEntry card : loadout.deck) {
-                cardNames.add(card.toString());
+        Report finish() {
+            report.deckSize = deckSize.summary();
+            report.relicCount = relicCount.summary();
+            report.potionCount = potionCount.summary();
+            report.upgradedCards = upgraded.summary();
+            for (Map.Entry<String, Long> type : cardTypes.entrySet()) {
+                report.cardTypeShare.put(type.getKey(), (double) type.getValue() / totalCards);
             }
-            Collections.sort(cardNames);
-            System.out.println("  Cards: " + String.join(", ", cardNames));
-            System.out.println();
+            report.distinctCards = cards.size();
+            report.distinctRelics = relics.size();
+            report.topCards = top(cards, report.loadouts);
+            report.topRelics = top(relics, report.loadouts);
+            report.sanity.passed = report.sanity.relicLeaks == 0 && report.sanity.deckSizeOutOfRange == 0;
+            return report;
         }
+    }
 
-        // Print summary statistics
-        System.out.println("=== Statistics ===");
-        System.out.println("Class distribution:");
-        for (String cls : new String[]{"IRONCLAD", "THE_SILENT", "DEFECT", "WATCHER"}) {
-            System.out.println("  " + cls + ": " + classCount.getOrDefault(cls, 0));
+    public static Report runReport(long seed, int loadouts, int threads) throws IOException {
+        ReportSink sink = new ReportSink();
+        long start = System.nanoTime();
+        LoadoutBatchGenerator.generate(seed, loadouts, null, threads, sink);
+        Report report = sink.finish();
+        report.seed = seed;
+        report.durationMs = (System.nanoTime() - start) / 1_000_000;
+        return report;
+    }
+
+    private static List<Frequency> top(Map<String, Long> counts, int loadouts) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.entrySet());
+        // Ties broken by ID so the report is stable between runs
+        entries.sort((a, b) -> b.getValue().equals(a.getValue())
+            ? a.getKey().compareTo(b.getKey())
+            : b.getValue().compareTo(a.getValue()));
+        List<Frequency> top = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : entries.subList(0, Math.min(TOP_N, entries.size()))) {
+            top.add(new Frequency(entry.getKey(), entry.getValue(), loadouts));
         }
+        return top;
+    }
 
-        System.out.println("\nDeck size: min=" + Collections.min(deckSizes) +
-            ", max=" + Collections.max(deckSizes) +
-            ", avg=" + String.format("%.1f", deckSizes.stream().mapToInt(Integer::intValue).average().orElse(0)));
+    // ========== BENCHMARK ==========
 
-        System.out.println("Relic count: min=" + Collections.min(relicCounts) +
-            ", max=" + Collections.max(relicCounts) +
-            ", avg=" + String.format("%.1f", relicCounts.stream().mapToInt(Integer::intValue).average().orElse(0)));
+    public static class BenchResult {
+        public String playerClass;
+        public int iterations;
+        public double loadoutsPerSecond;
+        public double loadoutsPerSecondStddev;
+        public long bytesPerLoadout;  // -1 if the JVM can't measure allocation
+    }
 
-        System.out.println("Potion count: min=" + Collections.min(potionCounts) +
-            ", max=" + Collections.max(potionCounts) +
-            ", avg=" + String.format("%.1f", potionCounts.stream().mapToInt(Integer::intValue).average().orElse(0)));
+    public static class Benchmark {
+        public String javaVersion = System.getProperty("java.version");
+        public int cores = Runtime.getRuntime().availableProcessors();
+        public List<BenchResult> serial = new ArrayList<>();
+        public double parallelLoadoutsPerSecond;
+    }
+
+    /**
+     * Time LoadoutBuilder.generateForClass for each class: one second of warmup, then
+     * one-second iterations on a fixed seed sequence. Finishes with a run of the
+     * batch generator on every core.
+     */
+    public static Benchmark runBenchmark(int seconds) throws IOException {
+        Benchmark benchmark = new Benchmark();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocation =
+            threads instanceof com.sun.management.ThreadMXBean &&
+            ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()
+                ? (com.sun.management.ThreadMXBean) threads : null;
+        long threadId = Thread.currentThread().getId();
 
-        // Most common relics
-        System.out.println("\nMost common relics:");
-        relicCount.entrySet().stream()
-            .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
-            .limit(10)
-            .forEach(e -> System.out.println("  " + e.getKey() + ": " + e.getValue()));
+        for (String playerClass : LoadoutConfig.PLAYER_CLASS_NAMES) {
+            long index = 0;
+            index = generateFor(playerClass, index, 1_000_000_000L);  // Warmup
 
-        // Most common cards
-        System.out.println("\nMost common cards:");
-        cardCount.entrySet().stream()
-            .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
-            .limit(15)
-            .forEach(e -> System.out.println("  " + e.getKey() + ": " + e.getValue()));
+            double[] perSecond = new double[seconds];
+            long loadouts = 0;
+            long bytesBefore = allocation != null ? allocation.getThreadAllocatedBytes(threadId) : 0;
+            for (int i = 0; i < seconds; i++) {
+                long start = System.nanoTime();
+                long next = generateFor(playerClass, index, 1_000_000_000L);
+                perSecond[i] = (next - index) * 1e9 / (System.nanoTime() - start);
+                loadouts += next - index;
+                index = next;
+            }
+            long bytes = allocation != null ? allocation.getThreadAllocatedBytes(threadId) - bytesBefore : -1;
 
-        // Check for potential issues
-        System.out.println("\n=== Sanity Checks ===");
+            BenchResult result = new BenchResult();
+            result.playerClass = playerClass;
+            result.iterations = seconds;
+            double sum = 0;
+            for (double rate : perSecond) sum += rate;
+            result.loadoutsPerSecond = sum / seconds;
+            double squares = 0;
+            for (double rate : perSecond) squares += (rate - result.loadoutsPerSecond) * (rate - result.loadoutsPerSecond);
+            result.loadoutsPerSecondStddev = seconds > 1 ? Math.sqrt(squares / (seconds - 1)) : 0;
+            result.bytesPerLoadout = bytes < 0 ? -1 : bytes / Math.max(1, loadouts);
+            benchmark.serial.add(result);
+        }
 
-        // Check that class-specific relics only appear for their class
-        boolean relicIssue = false;
-        // (This check would require tracking which class each loadout was for each relic)
+        int count = 200_000;
+        long start = System.nanoTime();
+        LoadoutBatchGenerator.generate(0, count, null, benchmark.cores, generated -> { });
+        benchmark.parallelLoadoutsPerSecond = count * 1e9 / (System.nanoTime() - start);
+        return benchmark;
+    }
 
-        // Check deck sizes are reasonable
-        if (Collections.min(deckSizes) < 8 || Collections.max(deckSizes) > 40) {
-            System.out.println("WARNING: Deck sizes out of expected range (8-40)");
-            relicIssue = true;
+    /**
+     * Generate loadouts from seed index onwards for about the given time.
+     * Returns the next unused index.
+     */
+    private static long generateFor(String playerClass, long index, long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long checksum = 0;
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < 100; i++) {
+                Random random = new Random(LoadoutBatchGenerator.seedFor(0, index++));
+                checksum += LoadoutBuilder.generateForClass(playerClass, random).deck.size();
+            }
+        }
+        // Keep the JIT from dropping the work
+        if (checksum == 42) {
+            System.err.print("");
         }
+        return index;
+    }
+
+    // ========== SAMPLE ==========
+
+    private static void printSample(int numTests) {
+        System.out.println("=== LoadoutBuilder Test ===\n");
+
+        for (int i = 0; i < numTests; i++) {
+            Random random = new Random(System.nanoTime());
+            LoadoutBuilder.BuiltLoadout loadout = LoadoutBuilder.generateRandom(random);
+
+            // Print individual loadout
+            System.out.println("--- Loadout " + (i + 1) + " ---");
+            printLoadout(loadout);
 
-        if (!relicIssue) {
-            System.out.println("All sanity checks passed!");
+            // Print deck summary
+            Map<String, Integer> types = new HashMap<>();
+            int upgraded = 0;
+            for (LoadoutBuilder.CardEntry card : loadout.deck) {
+                String type = LoadoutConfig.getCardType(card.cardId);
+                types.merge(type, 1, Integer::sum);
+                if (card.upgraded) upgraded++;
+            }
+            System.out.println("  Deck: " + types.getOrDefault("ATTACK", 0) + " attacks, " +
+                types.getOrDefault("SKILL", 0) + " skills, " +
+                types.getOrDefault("POWER", 0) + " powers, " +
+                upgraded + " upgraded");
+            System.out.println();
         }
     }
 
@@ -139,9 +368,7 @@ public class LoadoutGeneratorTest {
             LoadoutBuilder.BuiltLoadout loadout = LoadoutBuilder.generateForClass(playerClass, random);
 
             System.out.println("--- Loadout " + (i + 1) + " ---");
-            System.out.println(loadout);
-            System.out.println("  Relics: " + String.join(", ", loadout.relics));
-            System.out.println("  Potions: " + String.join(", ", loadout.potions));
+            printLoadout(loadout);
 
             // Check for class-specific relic violations
             for (String relic : loadout.relics) {
@@ -150,15 +377,51 @@ public class LoadoutGeneratorTest {
                     System.out.println("  ERROR: Wrong class relic " + relic + " (belongs to " + relicClass + ")");
                 }
             }
+            System.out.println();
+        }
+    }
 
-            // Print deck
-            List<String> cardNames = new ArrayList<>();
-            for (LoadoutBuilder.CardEntry card : loadout.deck) {
-                cardNames.add(card.toString());
+    private static void printLoadout(LoadoutBuilder.BuiltLoadout loadout) {
+        System.out.println(loadout);
+        System.out.println("  Relics: " + String.join(", ", loadout.relics));
+        System.out.println("  Potions: " + String.join(", ", loadout.potions));
+
+        List<String> cardNames = new ArrayList<>();
+        for (LoadoutBuilder.CardEntry card : loadout.deck) {
+            cardNames.add(card.toString());
+        }
+        Collections.sort(cardNames);
+        System.out.println("  Cards: " + String.join(", ", cardNames));
+    }
+
+    // ========== HELPERS ==========
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i + 1 < args.length; i++) {
+            if (args[i].startsWith("--")) {
+                options.put(args[i].substring(2), args[++i]);
             }
-            Collections.sort(cardNames);
-            System.out.println("  Cards: " + String.join(", ", cardNames));
-            System.out.println();
+        }
+        return options;
+    }
+
+    private static int parseCount(String arg) {
+        try {
+            return Integer.parseInt(arg);
+        } catch (NumberFormatException e) {
+            return 20;
+        }
+    }
+
+    private static void writeJson(Object result, String outFile) throws IOException {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        if (outFile == null) {
+            System.out.println(gson.toJson(result));
+            return;
+        }
+        try (Writer writer = Files.newBufferedWriter(Paths.get(outFile), StandardCharsets.UTF_8)) {
+            gson.toJson(result, writer);
         }
     }
 }
@@ -0,0 +1,115 @@
+package stsarena.arena;
+
+import com.megacrit.cardcrawl.cards.AbstractCard;
+import com.megacrit.cardcrawl.helpers.CardLibrary;
+import com.megacrit.cardcrawl.helpers.PotionHelper;
+import com.megacrit.cardcrawl.helpers.RelicLibrary;
+import com.megacrit.cardcrawl.potions.AbstractPotion;
+import com.megacrit.cardcrawl.relics.AbstractRelic;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves saved card, relic and potion IDs to the game's prototype instances, once per ID.
+ *
+ * Loadouts store IDs. Turning them back into objects used to repeat the library lookups
+ * (plus the legacy Strike/Defend fallbacks and RelicLibrary.isARelic checks) on every
+ * reconstruction. Here each ID is looked up the first time it is seen and the answer is
+ * kept - including "no such ID", so unknown IDs from removed mods don't get searched for
+ * again either.
+ *
+ * Prototypes are shared and must never be handed to the game: callers take a makeCopy().
+ * {@link #clear()} after the libraries change (post-initialize).
+ */
+public final class PrototypeCache {
+
+    private static final Map<String, Optional<AbstractCard>> cards = new ConcurrentHashMap<>();
+    private static final Map<String, Optional<AbstractRelic>> relics = new ConcurrentHashMap<>();
+    private static final Map<String, Optional<AbstractPotion>> potions = new ConcurrentHashMap<>();
+
+    // Bumped by clear() so anything built from old prototypes can tell it is stale
+    private static volatile int generation = 0;
+
+    private PrototypeCache() {}
+
+    /**
+     * Prototype card for an ID, or null if no card has it.
+     * Handles legacy Strike/Defend IDs saved without their color suffix.
+     */
+    public static AbstractCard card(String cardId) {
+        if (cardId == null) {
+            return null;
+        }
+        return cards.computeIfAbsent(cardId, id -> Optional.ofNullable(lookUpCard(id))).orElse(null);
+    }
+
+    /**
+     * Prototype relic for an ID, or null if no relic has it.
+     * (RelicLibrary.getRelic() alone never returns null; it hands back a Circlet.)
+     */
+    public static AbstractRelic relic(String relicId) {
+        if (relicId == null) {
+            return null;
+        }
+        return relics.computeIfAbsent(relicId, id ->
+            Optional.ofNullable(RelicLibrary.isARelic(id) ? RelicLibrary.getRelic(id) : null)).orElse(null);
+    }
+
+    /**
+     * Prototype potion for an ID, or null if no potion has it.
+     */
+    public static AbstractPotion potion(String potionId) {
+        if (potionId == null) {
+            return null;
+        }
+        return potions.computeIfAbsent(potionId, id -> Optional.ofNullable(PotionHelper.getPotion(id))).orElse(null);
+    }
+
+    /**
+     * A fresh card for the game, upgraded the given number of times (as far as it can be).
+     * Returns null if the ID is unknown.
+     */
+    public static AbstractCard copyCard(String cardId, int upgrades) {
+        AbstractCard prototype = card(cardId);
+        if (prototype == null) {
+            return null;
+        }
+        AbstractCard copy = prototype.makeCopy();
+        for (int i = 0; i < upgrades && copy.canUpgrade(); i++) {
+            copy.upgrade();
+        }
+        return copy;
+    }
+
+    public static int generation() {
+        return generation;
+    }
+
+    /**
+     * Forget every resolved ID. Call once every mod has registered its content.
+     */
+    public static void clear() {
+        cards.clear();
+        relics.clear();
+        potions.clear();
+        generation++;
+    }
+
+    private static AbstractCard lookUpCard(String cardId) {
+        AbstractCard card = CardLibrary.getCard(cardId);
+        if (card != null) return card;
+
+        // Handle legacy Strike/Defend IDs without color suffix
+        if (cardId.equals("Strike") || cardId.equals("Defend")) {
+            // Try each color variant
+            for (String suffix : new String[]{"_R", "_G", "_B", "_P"}) {
+                card = CardLibrary.getCard(cardId + suffix);
+                if (card != null) return card;
+            }
+        }
+
+        return null;
+    }
+}
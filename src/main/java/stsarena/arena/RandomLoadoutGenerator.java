@@ -1,19 +1,14 @@
 package stsarena.arena;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import com.megacrit.cardcrawl.cards.AbstractCard;
 import com.megacrit.cardcrawl.characters.AbstractPlayer;
 import com.megacrit.cardcrawl.core.CardCrawlGame;
-import com.megacrit.cardcrawl.helpers.CardLibrary;
-import com.megacrit.cardcrawl.helpers.PotionHelper;
-import com.megacrit.cardcrawl.helpers.RelicLibrary;
 import com.megacrit.cardcrawl.potions.AbstractPotion;
 import com.megacrit.cardcrawl.relics.AbstractRelic;
 import stsarena.STSArena;
 import stsarena.data.ArenaRepository;
+import stsarena.data.LoadoutCodec;
 
-import java.lang.reflect.Type;
 import java.util.*;
 
 /**
@@ -41,6 +36,8 @@ public class RandomLoadoutGenerator {
         public final int maxHp;
         public final int currentHp;
         public final int ascensionLevel;  // 0-20
+        // Rebuilt by fromSavedLoadout: its stored row is the source of truth, not this copy
+        public final boolean rebuiltFromRecord;
 
         public GeneratedLoadout(String id, String name, long createdAt,
                                 AbstractPlayer.PlayerClass playerClass, List<AbstractCard> deck,
@@ -48,6 +45,17 @@ public class RandomLoadoutGenerator {
                                 int potionSlots,
                                 boolean hasPrismaticShard,
                                 int maxHp, int currentHp, int ascensionLevel) {
+            this(id, name, createdAt, playerClass, deck, relics, potions, potionSlots, hasPrismaticShard,
+                maxHp, currentHp, ascensionLevel, false);
+        }
+
+        public GeneratedLoadout(String id, String name, long createdAt,
+                                AbstractPlayer.PlayerClass playerClass, List<AbstractCard> deck,
+                                List<AbstractRelic> relics, List<AbstractPotion> potions,
+                                int potionSlots,
+                                boolean hasPrismaticShard,
+                                int maxHp, int currentHp, int ascensionLevel,
+                                boolean rebuiltFromRecord) {
             this.id = id;
             this.name = name;
             this.createdAt = createdAt;
@@ -60,6 +68,7 @@ public class RandomLoadoutGenerator {
             this.maxHp = maxHp;
             this.currentHp = currentHp;
             this.ascensionLevel = ascensionLevel;
+            this.rebuiltFromRecord = rebuiltFromRecord;
         }
     }
 
@@ -107,13 +116,9 @@ public class RandomLoadoutGenerator {
         List<AbstractCard> deck = new ArrayList<>();
         List<String> failedCards = new ArrayList<>();
         for (LoadoutBuilder.CardEntry entry : built.deck) {
-            AbstractCard card = getCard(entry.cardId);
+            AbstractCard card = PrototypeCache.copyCard(entry.cardId, entry.upgraded ? 1 : 0);
             if (card != null) {
-                AbstractCard copy = card.makeCopy();
-                if (entry.upgraded && copy.canUpgrade()) {
-                    copy.upgrade();
-                }
-                deck.add(copy);
+                deck.add(card);
             } else {
                 failedCards.add(entry.cardId);
             }
@@ -142,7 +147,7 @@ public class RandomLoadoutGenerator {
             List<String> starterDeck = LoadoutConfig.getStarterDeck(playerClass.name());
             for (String cardId : starterDeck) {
                 if (deck.size() >= LoadoutConfig.MIN_DECK_SIZE) break;
-                AbstractCard card = getCard(cardId);
+                AbstractCard card = PrototypeCache.card(cardId);
                 if (card != null) {
                     deck.add(card.makeCopy());
                 }
@@ -168,7 +173,7 @@ public class RandomLoadoutGenerator {
             String strikeId = getStrikeIdForClass(playerClass.name());
             int strikesToAdd = 3 + rng.nextInt(3);
             for (int i = 0; i < strikesToAdd; i++) {
-                AbstractCard strike = getCard(strikeId);
+                AbstractCard strike = PrototypeCache.card(strikeId);
                 if (strike != null) {
                     deck.add(strike.makeCopy());
                 }
@@ -176,14 +181,14 @@ public class RandomLoadoutGenerator {
         }
 
         // Convert relic IDs to actual relics
-        // NOTE: RelicLibrary.getRelic() returns Circlet if ID not found (never null)
-        // So we must check with isARelic() first
+        // NOTE: RelicLibrary.getRelic() returns Circlet if ID not found (never null);
+        // PrototypeCache.relic() checks isARelic() first and returns null instead
         List<AbstractRelic> relics = new ArrayList<>();
         List<String> failedRelics = new ArrayList<>();
         boolean hasPrismaticShard = false;
         for (String relicId : built.relics) {
-            if (RelicLibrary.isARelic(relicId)) {
-                AbstractRelic relic = RelicLibrary.getRelic(relicId);
+            AbstractRelic relic = PrototypeCache.relic(relicId);
+            if (relic != null) {
                 relics.add(relic.makeCopy());
                 if ("PrismaticShard".equals(relicId)) {
                     hasPrismaticShard = true;
@@ -207,7 +212,7 @@ public class RandomLoadoutGenerator {
         List<AbstractPotion> potions = new ArrayList<>();
         List<String> failedPotions = new ArrayList<>();
         for (String potionId : built.potions) {
-            AbstractPotion potion = PotionHelper.getPotion(potionId);
+            AbstractPotion potion = PrototypeCache.potion(potionId);
             if (potion != null) {
                 potions.add(potion.makeCopy());
             } else {
@@ -232,26 +237,6 @@ public class RandomLoadoutGenerator {
             built.potionSlots, hasPrismaticShard, built.maxHp, built.currentHp, built.ascension);
     }
 
-    /**
-     * Get a card by ID, handling the Strike/Defend color variants.
-     */
-    private static AbstractCard getCard(String cardId) {
-        // First try direct lookup
-        AbstractCard card = CardLibrary.getCard(cardId);
-        if (card != null) return card;
-
-        // Handle legacy Strike/Defend IDs without color suffix
-        if (cardId.equals("Strike") || cardId.equals("Defend")) {
-            // Try each color variant
-            for (String suffix : new String[]{"_R", "_G", "_B", "_P"}) {
-                card = CardLibrary.getCard(cardId + suffix);
-                if (card != null) return card;
-            }
-        }
-
-        return null;
-    }
-
     /**
      * Get the Strike card ID for a given player class.
      */
@@ -273,7 +258,7 @@ public class RandomLoadoutGenerator {
         // Try CamelCase version (remove spaces, capitalize each word)
         if (failedId.contains(" ")) {
             String camelCase = toCamelCase(failedId);
-            AbstractCard card = CardLibrary.getCard(camelCase);
+            AbstractCard card = PrototypeCache.card(camelCase);
             if (card != null) {
                 return camelCase;
             }
@@ -282,7 +267,7 @@ public class RandomLoadoutGenerator {
         // Try with underscores replaced by nothing
         if (failedId.contains("_")) {
             String noUnderscores = failedId.replace("_", "");
-            AbstractCard card = CardLibrary.getCard(noUnderscores);
+            AbstractCard card = PrototypeCache.card(noUnderscores);
             if (card != null) {
                 return noUnderscores;
             }
@@ -290,7 +275,7 @@ public class RandomLoadoutGenerator {
 
         // Try adding common suffixes for starter cards
         for (String suffix : new String[]{"_R", "_G", "_B", "_P"}) {
-            AbstractCard card = CardLibrary.getCard(failedId + suffix);
+            AbstractCard card = PrototypeCache.card(failedId + suffix);
             if (card != null) {
                 return failedId + suffix;
             }
@@ -353,7 +338,36 @@ public class RandomLoadoutGenerator {
         return LoadoutConfig.ENCOUNTERS[random.nextInt(LoadoutConfig.ENCOUNTERS.length)];
     }
 
-    private static final Gson gson = new Gson();
+    // Saved loadouts resolved to prototypes, by UUID; restarts and retries reopen the same few
+    private static final int RESOLVED_CACHE_SIZE = 64;
+    private static final Map<String, ResolvedLoadout> resolvedLoadouts = Collections.synchronizedMap(
+        new LinkedHashMap<String, ResolvedLoadout>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ResolvedLoadout> eldest) {
+                return size() > RESOLVED_CACHE_SIZE;
+            }
+        });
+
+    /**
+     * A saved loadout's JSON parsed and its IDs resolved to prototypes. Reopening the
+     * loadout only has to copy these; it is rebuilt if the loadout's content hash
+     * changes or the prototypes are cleared.
+     */
+    private static class ResolvedLoadout {
+        final String contentHash;
+        final int prototypeGeneration;
+        final List<AbstractCard> cards = new ArrayList<>();
+        final List<ArenaRepository.CardData> cardData = new ArrayList<>();  // Upgrades and bottles per card
+        final List<AbstractRelic> relics = new ArrayList<>();
+        final List<Integer> relicCounters = new ArrayList<>();  // null keeps the relic's own counter
+        final List<AbstractPotion> potions = new ArrayList<>();
+        boolean hasPrismaticShard;
+
+        ResolvedLoadout(String contentHash, int prototypeGeneration) {
+            this.contentHash = contentHash;
+            this.prototypeGeneration = prototypeGeneration;
+        }
+    }
 
     /**
      * Reconstruct a GeneratedLoadout from a saved LoadoutRecord.
@@ -362,98 +376,38 @@ public class RandomLoadoutGenerator {
         STSArena.logger.info("Reconstructing loadout from saved record: " + record.name);
 
         AbstractPlayer.PlayerClass playerClass = AbstractPlayer.PlayerClass.valueOf(record.characterClass);
-
-        // Deserialize deck
-        List<AbstractCard> deck = new ArrayList<>();
-        try {
-            Type cardListType = new TypeToken<List<ArenaRepository.CardData>>(){}.getType();
-            List<ArenaRepository.CardData> cardDataList = gson.fromJson(record.deckJson, cardListType);
-            for (ArenaRepository.CardData cardData : cardDataList) {
-                AbstractCard card = CardLibrary.getCard(cardData.id);
-                if (card != null) {
-                    AbstractCard copy = card.makeCopy();
-                    for (int i = 0; i < cardData.upgrades; i++) {
-                        if (copy.canUpgrade()) {
-                            copy.upgrade();
-                        }
-                    }
-                    deck.add(copy);
+        ResolvedLoadout resolved = getResolvedLoadout(record);
+
+        // Fresh copies every time - the game mutates cards, relics and potions during a fight
+        List<AbstractCard> deck = new ArrayList<>(resolved.cards.size());
+        for (int i = 0; i < resolved.cards.size(); i++) {
+            AbstractCard copy = resolved.cards.get(i).makeCopy();
+            ArenaRepository.CardData cardData = resolved.cardData.get(i);
+            for (int u = 0; u < cardData.upgrades; u++) {
+                if (copy.canUpgrade()) {
+                    copy.upgrade();
                 }
             }
-        } catch (Exception e) {
-            STSArena.logger.error("Failed to deserialize deck", e);
+            // Restore bottle choices
+            copy.inBottleFlame = cardData.inBottleFlame;
+            copy.inBottleLightning = cardData.inBottleLightning;
+            copy.inBottleTornado = cardData.inBottleTornado;
+            deck.add(copy);
         }
 
-        // Deserialize relics
-        // NOTE: RelicLibrary.getRelic() returns Circlet if ID not found (never null)
-        // Also filter out any Circlets that might have been saved in older loadouts
-        // Handle both new format (RelicData with counter) and old format (just strings)
-        List<AbstractRelic> relics = new ArrayList<>();
-        boolean hasPrismaticShard = false;
-        try {
-            // Try new format first (RelicData with id and counter)
-            Type relicDataListType = new TypeToken<List<ArenaRepository.RelicData>>(){}.getType();
-            List<ArenaRepository.RelicData> relicDataList = gson.fromJson(record.relicsJson, relicDataListType);
-
-            // Check if it's actually the new format by looking at the first element
-            boolean isNewFormat = !relicDataList.isEmpty() && relicDataList.get(0).id != null;
-
-            if (isNewFormat) {
-                for (ArenaRepository.RelicData relicData : relicDataList) {
-                    String relicId = relicData.id;
-                    // Skip Circlets (placeholder relics that shouldn't appear in arena)
-                    if ("Circlet".equals(relicId) || "Red Circlet".equals(relicId)) {
-                        STSArena.logger.warn("Skipping Circlet from saved loadout (likely a bug in previous save)");
-                        continue;
-                    }
-                    if (RelicLibrary.isARelic(relicId)) {
-                        AbstractRelic relic = RelicLibrary.getRelic(relicId);
-                        AbstractRelic copy = relic.makeCopy();
-                        copy.counter = relicData.counter;  // Restore counter
-                        relics.add(copy);
-                        if ("PrismaticShard".equals(relicId)) {
-                            hasPrismaticShard = true;
-                        }
-                    } else {
-                        STSArena.logger.warn("Relic ID not found in saved loadout: " + relicId);
-                    }
-                }
-            } else {
-                // Fall back to old format (just list of strings)
-                Type relicListType = new TypeToken<List<String>>(){}.getType();
-                List<String> relicIds = gson.fromJson(record.relicsJson, relicListType);
-                for (String relicId : relicIds) {
-                    if ("Circlet".equals(relicId) || "Red Circlet".equals(relicId)) {
-                        continue;
-                    }
-                    if (RelicLibrary.isARelic(relicId)) {
-                        AbstractRelic relic = RelicLibrary.getRelic(relicId);
-                        relics.add(relic.makeCopy());
-                        if ("PrismaticShard".equals(relicId)) {
-                            hasPrismaticShard = true;
-                        }
-                    }
-                }
+        List<AbstractRelic> relics = new ArrayList<>(resolved.relics.size());
+        for (int i = 0; i < resolved.relics.size(); i++) {
+            AbstractRelic copy = resolved.relics.get(i).makeCopy();
+            Integer counter = resolved.relicCounters.get(i);
+            if (counter != null) {
+                copy.counter = counter;  // Restore counter
             }
-        } catch (Exception e) {
-            STSArena.logger.error("Failed to deserialize relics", e);
+            relics.add(copy);
         }
 
-        // Deserialize potions
-        List<AbstractPotion> potions = new ArrayList<>();
-        try {
-            if (record.potionsJson != null && !record.potionsJson.isEmpty()) {
-                Type potionListType = new TypeToken<List<String>>(){}.getType();
-                List<String> potionIds = gson.fromJson(record.potionsJson, potionListType);
-                for (String potionId : potionIds) {
-                    AbstractPotion potion = PotionHelper.getPotion(potionId);
-                    if (potion != null) {
-                        potions.add(potion.makeCopy());
-                    }
-                }
-            }
-        } catch (Exception e) {
-            STSArena.logger.error("Failed to deserialize potions", e);
+        List<AbstractPotion> potions = new ArrayList<>(resolved.potions.size());
+        for (AbstractPotion potion : resolved.potions) {
+            potions.add(potion.makeCopy());
         }
 
         // Use stored potionSlots, fall back to calculating from ascension/relics if not stored
@@ -481,10 +435,98 @@ public class RandomLoadoutGenerator {
             relics,
             potions,
             potionSlots,
-            hasPrismaticShard,
+            resolved.hasPrismaticShard,
             record.maxHp,
             record.currentHp,
-            record.ascensionLevel
+            record.ascensionLevel,
+            true
         );
     }
+
+    private static ResolvedLoadout getResolvedLoadout(ArenaRepository.LoadoutRecord record) {
+        int generation = PrototypeCache.generation();
+        // Records without a content hash (very old rows) can't be told apart from edited ones
+        boolean cacheable = record.uuid != null && record.contentHash != null;
+        if (cacheable) {
+            ResolvedLoadout cached = resolvedLoadouts.get(record.uuid);
+            if (cached != null && cached.contentHash.equals(record.contentHash) &&
+                    cached.prototypeGeneration == generation) {
+                return cached;
+            }
+        }
+
+        ResolvedLoadout resolved = resolveSavedLoadout(record, generation);
+        if (cacheable) {
+            resolvedLoadouts.put(record.uuid, resolved);
+        }
+        return resolved;
+    }
+
+    private static ResolvedLoadout resolveSavedLoadout(ArenaRepository.LoadoutRecord record, int generation) {
+        ResolvedLoadout resolved = new ResolvedLoadout(record.contentHash, generation);
+
+        // Deserialize deck
+        try {
+            for (ArenaRepository.CardData cardData : LoadoutCodec.readDeck(record.deckJson)) {
+                AbstractCard card = PrototypeCache.card(cardData.id);
+                if (card != null) {
+                    resolved.cards.add(card);
+                    resolved.cardData.add(cardData);
+                }
+            }
+        } catch (Exception e) {
+            STSArena.logger.error("Failed to deserialize deck", e);
+        }
+
+        // Deserialize relics
+        // Also filter out any Circlets that might have been saved in older loadouts
+        // Handle both new format (RelicData with counter) and old format (just strings)
+        try {
+            LoadoutCodec.RelicList relicList = LoadoutCodec.readRelics(record.relicsJson);
+            boolean hasCounters = relicList.format == LoadoutCodec.RelicFormat.RELIC_DATA;
+            for (ArenaRepository.RelicData relicData : relicList.relics) {
+                String relicId = relicData.id;
+                // Skip Circlets (placeholder relics that shouldn't appear in arena)
+                if ("Circlet".equals(relicId) || "Red Circlet".equals(relicId)) {
+                    if (hasCounters) {
+                        STSArena.logger.warn("Skipping Circlet from saved loadout (likely a bug in previous save)");
+                    }
+                    continue;
+                }
+                // Old format has no counters; keep the relic's own default
+                if (!addResolvedRelic(resolved, relicId, hasCounters ? relicData.counter : null) && hasCounters) {
+                    STSArena.logger.warn("Relic ID not found in saved loadout: " + relicId);
+                }
+            }
+        } catch (Exception e) {
+            STSArena.logger.error("Failed to deserialize relics", e);
+        }
+
+        // Deserialize potions
+        try {
+            for (String potionId : LoadoutCodec.readIds(record.potionsJson)) {
+                AbstractPotion potion = PrototypeCache.potion(potionId);
+                if (potion != null) {
+                    resolved.potions.add(potion);
+                }
+            }
+        } catch (Exception e) {
+            STSArena.logger.error("Failed to deserialize potions", e);
+        }
+
+        return resolved;
+    }
+
+    private static boolean addResolvedRelic(ResolvedLoadout resolved, String relicId, Integer counter) {
+        AbstractRelic relic = PrototypeCache.relic(relicId);
+        if (relic == null) {
+            return false;
+        }
+        resolved.relics.add(relic);
+        resolved.relicCounters.add(counter);
+        if ("PrismaticShard".equals(relicId)) {
+            resolved.hasPrismaticShard = true;
+        }
+        return true;
+    }
 }
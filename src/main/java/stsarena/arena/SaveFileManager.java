@@ -5,46 +5,73 @@ import com.megacrit.cardcrawl.core.CardCrawlGame;
 import stsarena.STSArena;
 
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 
 /**
  * Manages save file backup and restoration for arena mode.
  *
  * Design goals:
- * 1. NEVER leave orphaned arena saves that could corrupt normal gameplay
- * 2. Survive crashes gracefully - cleanup on next startup
- * 3. Be idempotent - multiple cleanup calls are safe
+ * 1. NEVER leave orphaned arena state that could corrupt normal gameplay
+ * 2. Survive crashes gracefully - recover on next startup
+ * 3. Be idempotent - multiple restore calls are safe
  * 4. Use file-based state, not just in-memory state
+ * 5. Cost the same however large the player's save is
  *
  * How it works:
- * - When arena starts: back up original save (if exists), create marker file
- * - When arena ends: restore original or delete arena save, delete marker file
- * - On mod startup: check for marker files and clean up any orphaned state
+ * - When arena starts: write the journal (which class, whether it had a save) and fsync it,
+ *   then rename the player's save aside to its backup name
+ * - When arena ends: rename the backup back (or delete any save the arena left if there was
+ *   no original), then delete the journal
+ * - On mod startup: if the journal exists, the game stopped mid-session; finish the restore
+ *
+ * The journal is written before anything moves and deleted after everything is back, so
+ * whatever point a crash happens at, replaying the restore from the journal is correct.
+ * Renames within the saves directory are atomic and never copy the save's bytes.
  */
 public class SaveFileManager {
 
     private static final String BACKUP_SUFFIX = ".arena_backup";
-    private static final String MARKER_SUFFIX = ".arena_active";
+    private static final String JOURNAL_NAME = "arena.journal";
+    private static final String JOURNAL_HEADER = "arena_backup";
+
+    // Marker files written by older versions, one per character, before the journal existed
+    private static final String LEGACY_MARKER_SUFFIX = ".arena_active";
+
+    /**
+     * What the journal says is in flight.
+     */
+    private static class JournalEntry {
+        final String className;
+        final boolean hadSave;
 
-    // All character class names for cleanup
-    private static final String[] ALL_CLASSES = {"IRONCLAD", "THE_SILENT", "DEFECT", "WATCHER"};
+        JournalEntry(String className, boolean hadSave) {
+            this.className = className;
+            this.hadSave = hadSave;
+        }
+    }
 
     /**
-     * Clean up any orphaned arena saves from previous sessions.
+     * Clean up any orphaned arena state from previous sessions.
      * Call this on mod initialization.
      */
     public static void cleanupOrphanedArenaSaves() {
         STSArena.logger.info("SaveFileManager: Checking for orphaned arena saves...");
 
         int cleanedUp = 0;
-        for (String className : ALL_CLASSES) {
-            if (cleanupForClass(className)) {
-                cleanedUp++;
-            }
+        JournalEntry entry = readJournal();
+        if (entry != null) {
+            STSArena.logger.warn("SaveFileManager: Found arena journal for " + entry.className +
+                ", restoring interrupted session");
+            restore(entry);
+            cleanedUp++;
         }
+        cleanedUp += cleanupLegacyMarkers();
 
         if (cleanedUp > 0) {
             STSArena.logger.info("SaveFileManager: Cleaned up orphaned arena state for " + cleanedUp + " character(s)");
@@ -59,119 +86,63 @@ public class SaveFileManager {
     }
 
     /**
-     * Clean up arena state for a specific character class.
-     * Returns true if cleanup was needed.
+     * Back up the original save file before starting an arena run.
+     * Journals the session first so a crash can be recovered from.
+     *
+     * @param playerClass The character class whose save to back up
+     * @return false if the save couldn't be moved aside; the arena must not start, since
+     *         staging its save would overwrite the player's
      */
-    private static boolean cleanupForClass(String className) {
-        String savePath = getSavePathForClassName(className);
-        File saveFile = new File(savePath);
-        File backupFile = new File(savePath + BACKUP_SUFFIX);
-        File markerFile = new File(savePath + MARKER_SUFFIX);
-
-        // If marker file exists, arena mode was active when game closed
-        if (markerFile.exists()) {
-            STSArena.logger.warn("SaveFileManager: Found orphaned arena marker for " + className);
-
-            if (backupFile.exists()) {
-                // Restore the backup
-                try {
-                    Files.copy(backupFile.toPath(), saveFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-                    backupFile.delete();
-                    STSArena.logger.info("SaveFileManager: Restored backup for " + className);
-                } catch (IOException e) {
-                    STSArena.logger.error("SaveFileManager: Failed to restore backup for " + className, e);
-                }
-            } else {
-                // No backup exists. This could mean:
-                // 1. There was no original save before arena started (arena save should be deleted)
-                // 2. The backup was already restored/deleted (save is now correct)
-                // 3. Some other edge case
-                //
-                // To be safe and avoid accidentally deleting real saves, we just log a warning
-                // and leave the save file alone. The marker file will still be deleted.
-                if (saveFile.exists()) {
-                    STSArena.logger.warn("SaveFileManager: Found marker without backup for " + className +
-                        ". Leaving save file intact (may be a real save). Consider deleting manually if needed.");
-                }
+    public static boolean backupOriginalSave(AbstractPlayer.PlayerClass playerClass) {
+        // First, finish any session still in flight (idempotent)
+        JournalEntry previous = readJournal();
+        if (previous != null) {
+            STSArena.logger.warn("SaveFileManager: Journal already exists for " + previous.className +
+                ", restoring first");
+            restore(previous);
+            if (getJournalFile().exists()) {
+                // Its save is still aside; a new journal would lose track of it
+                STSArena.logger.error("SaveFileManager: Previous arena session couldn't be restored");
+                return false;
             }
-
-            // Always delete the marker
-            markerFile.delete();
-            return true;
         }
 
-        // Also clean up any stray backup files (shouldn't happen, but defensive)
-        if (backupFile.exists() && !markerFile.exists()) {
-            STSArena.logger.warn("SaveFileManager: Found stray backup file for " + className + " without marker, cleaning up");
-            backupFile.delete();
-            return true;
-        }
-
-        return false;
-    }
-
-    /**
-     * Get save path for a class name string.
-     * Uses the cross-platform saves directory from ArenaSaveManager.
-     */
-    private static String getSavePathForClassName(String className) {
-        // Reuse the logic from ArenaSaveManager for standard classes
-        try {
-            AbstractPlayer.PlayerClass playerClass = AbstractPlayer.PlayerClass.valueOf(className);
-            return ArenaSaveManager.getSavePath(playerClass);
-        } catch (IllegalArgumentException e) {
-            // Fallback for unknown class names (modded characters)
-            // Always use relative path to match game behavior
-            return "saves" + File.separator + className + ".autosave";
-        }
-    }
+        File saveFile = new File(getSavePathForClassName(playerClass.name()));
+        File backupFile = new File(saveFile.getPath() + BACKUP_SUFFIX);
+        boolean hadSave = saveFile.exists();
 
-    /**
-     * Back up the original save file before starting an arena run.
-     * Creates a marker file to track that arena mode is active.
-     *
-     * @param playerClass The character class whose save to back up
-     */
-    public static void backupOriginalSave(AbstractPlayer.PlayerClass playerClass) {
-        String savePath = ArenaSaveManager.getSavePath(playerClass);
-        File saveFile = new File(savePath);
-        File backupFile = new File(savePath + BACKUP_SUFFIX);
-        File markerFile = new File(savePath + MARKER_SUFFIX);
-
-        // First, clean up any existing state for this class (idempotent)
-        if (markerFile.exists()) {
-            STSArena.logger.warn("SaveFileManager: Marker already exists for " + playerClass + ", cleaning up first");
-            restoreOriginalSaveForClass(playerClass);
+        // No original save - make sure no stray backup gets restored later
+        if (!hadSave && backupFile.exists()) {
+            backupFile.delete();
         }
 
-        // Create marker file FIRST - this is our crash recovery mechanism
+        // Journal FIRST - this is our crash recovery mechanism
         try {
-            markerFile.getParentFile().mkdirs();
-            try (FileWriter writer = new FileWriter(markerFile)) {
-                writer.write("arena_active:" + System.currentTimeMillis());
-            }
-            STSArena.logger.info("SaveFileManager: Created marker file for " + playerClass);
+            writeJournal(new JournalEntry(playerClass.name(), hadSave));
+            STSArena.logger.info("SaveFileManager: Journaled arena session for " + playerClass);
         } catch (IOException e) {
-            STSArena.logger.error("SaveFileManager: Failed to create marker file", e);
-            // Continue anyway - the backup is still useful even without marker
+            STSArena.logger.error("SaveFileManager: Failed to write arena journal", e);
+            // Without a journal a crash couldn't put the save back, so leave it where it is
+            return false;
         }
 
-        // Back up original save if it exists
-        if (saveFile.exists()) {
+        if (hadSave) {
             try {
-                Files.copy(saveFile.toPath(), backupFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-                STSArena.logger.info("SaveFileManager: Backed up original save for " + playerClass +
-                    " (" + saveFile.length() + " bytes)");
+                move(saveFile, backupFile);
+                STSArena.logger.info("SaveFileManager: Backed up original save for " + playerClass);
             } catch (IOException e) {
                 STSArena.logger.error("SaveFileManager: Failed to backup save file", e);
+                // The save is still in place. A journal saying it was moved would have the arena
+                // save overwrite it and the restore find nothing to put back, so retire the journal.
+                if (!getJournalFile().delete()) {
+                    STSArena.logger.error("SaveFileManager: Failed to remove arena journal");
+                }
+                return false;
             }
         } else {
-            // No original save - make sure no stray backup exists
-            if (backupFile.exists()) {
-                backupFile.delete();
-            }
             STSArena.logger.info("SaveFileManager: No original save for " + playerClass + " to backup");
         }
+        return true;
     }
 
     /**
@@ -179,81 +150,182 @@ public class SaveFileManager {
      * This is idempotent - safe to call multiple times.
      */
     public static void restoreOriginalSave() {
-        // Clean up all classes to be safe
-        for (String className : ALL_CLASSES) {
-            try {
-                AbstractPlayer.PlayerClass playerClass = AbstractPlayer.PlayerClass.valueOf(className);
-                restoreOriginalSaveForClass(playerClass);
-            } catch (IllegalArgumentException e) {
-                // Class name not valid, skip
-            }
+        JournalEntry entry = readJournal();
+        if (entry != null) {
+            restore(entry);
         }
     }
 
     /**
-     * Restore original save for a specific character class.
+     * Restore original save for a specific character class, if its session is the one in flight.
      */
     public static void restoreOriginalSaveForClass(AbstractPlayer.PlayerClass playerClass) {
-        String savePath = ArenaSaveManager.getSavePath(playerClass);
-        File saveFile = new File(savePath);
-        File backupFile = new File(savePath + BACKUP_SUFFIX);
-        File markerFile = new File(savePath + MARKER_SUFFIX);
-
-        // If no marker, nothing to do
-        if (!markerFile.exists()) {
-            return;
+        JournalEntry entry = readJournal();
+        if (entry != null && entry.className.equals(playerClass.name())) {
+            restore(entry);
         }
+    }
+
+    /**
+     * Check if arena mode is active for any character class.
+     * Uses file-based detection, not in-memory state.
+     */
+    public static boolean hasActiveArenaSession() {
+        return getJournalFile().exists();
+    }
 
-        STSArena.logger.info("SaveFileManager: Restoring original save for " + playerClass);
+    /**
+     * Check if arena mode is active for a specific class.
+     */
+    public static boolean hasActiveArenaSession(AbstractPlayer.PlayerClass playerClass) {
+        JournalEntry entry = readJournal();
+        return entry != null && entry.className.equals(playerClass.name());
+    }
+
+    /**
+     * Undo the journaled backup, then retire the journal.
+     */
+    private static void restore(JournalEntry entry) {
+        File saveFile = new File(getSavePathForClassName(entry.className));
+        File backupFile = new File(saveFile.getPath() + BACKUP_SUFFIX);
+
+        STSArena.logger.info("SaveFileManager: Restoring original save for " + entry.className);
 
         if (backupFile.exists()) {
-            // Restore the backed-up save
             try {
-                Files.copy(backupFile.toPath(), saveFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-                backupFile.delete();
-                STSArena.logger.info("SaveFileManager: Restored original save for " + playerClass);
+                move(backupFile, saveFile);
+                STSArena.logger.info("SaveFileManager: Restored original save for " + entry.className);
             } catch (IOException e) {
+                // Keep the journal so the next launch tries again
                 STSArena.logger.error("SaveFileManager: Failed to restore save file", e);
+                return;
             }
-        } else {
-            // No backup means there was no original save - delete any arena save
-            if (saveFile.exists()) {
-                if (saveFile.delete()) {
-                    STSArena.logger.info("SaveFileManager: Deleted arena save for " + playerClass +
-                        " (no original existed)");
-                } else {
-                    STSArena.logger.error("SaveFileManager: Failed to delete arena save");
+        } else if (!entry.hadSave && saveFile.exists()) {
+            // There was no original save - anything here came from the arena session
+            if (saveFile.delete()) {
+                STSArena.logger.info("SaveFileManager: Deleted arena save for " + entry.className +
+                    " (no original existed)");
+            } else {
+                STSArena.logger.error("SaveFileManager: Failed to delete arena save");
+            }
+        }
+        // A journal saying there was a save but no backup: it was never moved, or is already back
+
+        // Always delete the journal last
+        if (getJournalFile().delete()) {
+            STSArena.logger.info("SaveFileManager: Removed arena journal for " + entry.className);
+        }
+    }
+
+    /**
+     * Recover sessions cut off under older versions, which left a marker file per character
+     * and kept a copy of the save. One directory listing rather than probing every class.
+     */
+    private static int cleanupLegacyMarkers() {
+        File[] markers = new File(savesDirectory()).listFiles(
+            (dir, name) -> name.endsWith(LEGACY_MARKER_SUFFIX));
+        if (markers == null) {
+            return 0;
+        }
+
+        for (File markerFile : markers) {
+            String savePath = markerFile.getPath().substring(
+                0, markerFile.getPath().length() - LEGACY_MARKER_SUFFIX.length());
+            File saveFile = new File(savePath);
+            File backupFile = new File(savePath + BACKUP_SUFFIX);
+            STSArena.logger.warn("SaveFileManager: Found orphaned arena marker " + markerFile.getName());
+
+            if (backupFile.exists()) {
+                try {
+                    move(backupFile, saveFile);
+                    STSArena.logger.info("SaveFileManager: Restored backup " + backupFile.getName());
+                } catch (IOException e) {
+                    STSArena.logger.error("SaveFileManager: Failed to restore backup " + backupFile.getName(), e);
                 }
+            } else if (saveFile.exists()) {
+                // To be safe and avoid accidentally deleting real saves, leave the save file alone
+                STSArena.logger.warn("SaveFileManager: Found marker without backup for " + saveFile.getName() +
+                    ". Leaving save file intact (may be a real save). Consider deleting manually if needed.");
             }
+
+            // Always delete the marker
+            markerFile.delete();
         }
+        return markers.length;
+    }
 
-        // Always delete the marker file last
-        if (markerFile.delete()) {
-            STSArena.logger.info("SaveFileManager: Removed marker file for " + playerClass);
+    private static void writeJournal(JournalEntry entry) throws IOException {
+        File journalFile = getJournalFile();
+        File tempFile = new File(journalFile.getPath() + ".tmp");
+        journalFile.getParentFile().mkdirs();
+
+        String contents = JOURNAL_HEADER + " " + entry.className + " " + entry.hadSave + "\n";
+        try (FileOutputStream out = new FileOutputStream(tempFile)) {
+            out.write(contents.getBytes(StandardCharsets.UTF_8));
+            // The one fsync: the journal must be durable before the save is moved
+            out.getFD().sync();
         }
+        // Appear all at once, so recovery never reads half a journal
+        move(tempFile, journalFile);
     }
 
     /**
-     * Check if arena mode is active for any character class.
-     * Uses file-based detection, not in-memory state.
+     * The journaled session, or null if there is none (or it can't be read).
      */
-    public static boolean hasActiveArenaSession() {
-        for (String className : ALL_CLASSES) {
-            String savePath = getSavePathForClassName(className);
-            File markerFile = new File(savePath + MARKER_SUFFIX);
-            if (markerFile.exists()) {
-                return true;
+    private static JournalEntry readJournal() {
+        File journalFile = getJournalFile();
+        if (!journalFile.exists()) {
+            return null;
+        }
+        try {
+            String[] fields = new String(Files.readAllBytes(journalFile.toPath()), StandardCharsets.UTF_8)
+                .trim().split(" ");
+            if (fields.length == 3 && JOURNAL_HEADER.equals(fields[0])) {
+                return new JournalEntry(fields[1], Boolean.parseBoolean(fields[2]));
             }
+            STSArena.logger.error("SaveFileManager: Unrecognized arena journal, removing it");
+        } catch (IOException e) {
+            STSArena.logger.error("SaveFileManager: Failed to read arena journal, removing it", e);
         }
-        return false;
+        // Only ever written whole (rename), so a bad journal isn't ours to replay
+        journalFile.delete();
+        return null;
     }
 
     /**
-     * Check if arena mode is active for a specific class.
+     * Rename within the saves directory, atomically where the file system allows it.
      */
-    public static boolean hasActiveArenaSession(AbstractPlayer.PlayerClass playerClass) {
-        String savePath = ArenaSaveManager.getSavePath(playerClass);
-        File markerFile = new File(savePath + MARKER_SUFFIX);
-        return markerFile.exists();
+    private static void move(File from, File to) throws IOException {
+        Path source = from.toPath();
+        Path target = to.toPath();
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static File getJournalFile() {
+        return new File(savesDirectory() + JOURNAL_NAME);
+    }
+
+    private static String savesDirectory() {
+        return "saves" + File.separator;
+    }
+
+    /**
+     * Get save path for a class name string.
+     * Uses the cross-platform saves directory from ArenaSaveManager.
+     */
+    private static String getSavePathForClassName(String className) {
+        // Reuse the logic from ArenaSaveManager for standard classes
+        try {
+            AbstractPlayer.PlayerClass playerClass = AbstractPlayer.PlayerClass.valueOf(className);
+            return ArenaSaveManager.getSavePath(playerClass);
+        } catch (IllegalArgumentException e) {
+            // Fallback for unknown class names (modded characters)
+            // Always use relative path to match game behavior
+            return savesDirectory() + className + ".autosave";
+        }
     }
 }
@@ -0,0 +1,147 @@
+package stsarena.arena;
+
+import com.megacrit.cardcrawl.cards.AbstractCard;
+import com.megacrit.cardcrawl.characters.AbstractPlayer;
+import com.megacrit.cardcrawl.core.CardCrawlGame;
+import com.megacrit.cardcrawl.dungeons.AbstractDungeon;
+import com.megacrit.cardcrawl.potions.AbstractPotion;
+import com.megacrit.cardcrawl.potions.PotionSlot;
+import com.megacrit.cardcrawl.relics.AbstractRelic;
+import com.megacrit.cardcrawl.relics.BottledFlame;
+import com.megacrit.cardcrawl.relics.BottledLightning;
+import com.megacrit.cardcrawl.relics.BottledTornado;
+import stsarena.STSArena;
+
+import java.util.Map;
+
+/**
+ * Puts the player back into a loadout's starting state without leaving the dungeon.
+ *
+ * The cold path writes an arena save, goes through CHAR_SELECT and loads the save
+ * from disk, which rebuilds the whole dungeon. When retrying a fight the dungeon that
+ * save produces is already loaded - same character, same ascension - so only the
+ * player needs resetting. This does what loading the arena save would do to the
+ * player (fresh deck, relics with their counters but no onEquip, potions, HP, gold,
+ * energy) and leaves entering the new MonsterRoom to the caller.
+ */
+final class WarmRestart {
+
+    private WarmRestart() {}
+
+    /**
+     * True if the loaded dungeon can host this loadout's fight as-is. Anything else
+     * (main menu, other character or ascension, a transition in progress) needs the
+     * cold path.
+     */
+    static boolean canRestart(RandomLoadoutGenerator.GeneratedLoadout loadout) {
+        return loadout != null &&
+               CardCrawlGame.mode == CardCrawlGame.GameMode.GAMEPLAY &&
+               !CardCrawlGame.startOver &&
+               CardCrawlGame.dungeon != null &&
+               AbstractDungeon.player != null &&
+               AbstractDungeon.player.chosenClass == loadout.playerClass &&
+               AbstractDungeon.ascensionLevel == loadout.ascensionLevel &&
+               AbstractDungeon.currMapNode != null &&
+               AbstractDungeon.monsterList != null;
+    }
+
+    /**
+     * Dismiss the end-of-fight screens and reset the player to the loadout.
+     */
+    static void resetPlayer(RandomLoadoutGenerator.GeneratedLoadout loadout) {
+        AbstractPlayer player = AbstractDungeon.player;
+        STSArena.logger.info("ARENA: Warm restart - resetting " + player.chosenClass + " to loadout " + loadout.name);
+
+        leaveEndOfFightScreens();
+
+        player.isDead = false;
+        player.isDying = false;
+        player.maxHealth = loadout.maxHp;
+        player.currentHealth = loadout.currentHp;
+        player.healthBarUpdatedEvent();
+        player.gold = ArenaSaveManager.STARTING_GOLD;
+        player.energy.energyMaster = ArenaSaveManager.getEnergyPerTurn(loadout);
+
+        resetDeck(player, loadout);
+        resetRelics(player, loadout);
+        resetPotions(player, loadout);
+
+        // The next room starts at the same floor as a freshly loaded arena save
+        AbstractDungeon.floorNum = 1;
+        AbstractDungeon.loading_post_combat = false;
+        AbstractDungeon.actionManager.clear();
+    }
+
+    private static void leaveEndOfFightScreens() {
+        // The death and victory screens aren't closeable screens; just stop showing them
+        if (AbstractDungeon.screen == AbstractDungeon.CurrentScreen.DEATH ||
+            AbstractDungeon.screen == AbstractDungeon.CurrentScreen.VICTORY) {
+            AbstractDungeon.screen = AbstractDungeon.CurrentScreen.NONE;
+            AbstractDungeon.isScreenUp = false;
+        } else if (AbstractDungeon.screen != AbstractDungeon.CurrentScreen.NONE) {
+            AbstractDungeon.closeCurrentScreen();
+        }
+        AbstractDungeon.dynamicBanner.hide();
+        CardCrawlGame.music.fadeOutTempBGM();
+        CardCrawlGame.music.unsilenceBGM();
+    }
+
+    private static void resetDeck(AbstractPlayer player, RandomLoadoutGenerator.GeneratedLoadout loadout) {
+        Map<String, AbstractCard> bottled = ArenaSaveManager.chooseBottledCards(loadout);
+        AbstractCard flame = bottled.get("Bottled Flame");
+        AbstractCard lightning = bottled.get("Bottled Lightning");
+        AbstractCard tornado = bottled.get("Bottled Tornado");
+
+        player.masterDeck.clear();
+        for (AbstractCard card : loadout.deck) {
+            AbstractCard copy = card.makeStatEquivalentCopy();
+            copy.inBottleFlame = card == flame;
+            copy.inBottleLightning = card == lightning;
+            copy.inBottleTornado = card == tornado;
+            player.masterDeck.addToTop(copy);
+        }
+    }
+
+    private static void resetRelics(AbstractPlayer player, RandomLoadoutGenerator.GeneratedLoadout loadout) {
+        // Fresh copies: the old ones may be used up (Lizard Tail) or carry combat counters
+        player.relics.clear();
+        for (int i = 0; i < loadout.relics.size(); i++) {
+            AbstractRelic source = loadout.relics.get(i);
+            AbstractRelic relic = source.makeCopy();
+            // Like loading a save: the loadout's HP and energy already include onEquip effects
+            relic.instantObtain(player, i, false);
+            relic.setCounter(source.counter);
+        }
+
+        for (AbstractCard card : player.masterDeck.group) {
+            if (card.inBottleFlame && player.getRelic(BottledFlame.ID) != null) {
+                BottledFlame relic = (BottledFlame) player.getRelic(BottledFlame.ID);
+                relic.card = card;
+                relic.setDescriptionAfterLoading();
+            }
+            if (card.inBottleLightning && player.getRelic(BottledLightning.ID) != null) {
+                BottledLightning relic = (BottledLightning) player.getRelic(BottledLightning.ID);
+                relic.card = card;
+                relic.setDescriptionAfterLoading();
+            }
+            if (card.inBottleTornado && player.getRelic(BottledTornado.ID) != null) {
+                BottledTornado relic = (BottledTornado) player.getRelic(BottledTornado.ID);
+                relic.card = card;
+                relic.setDescriptionAfterLoading();
+            }
+        }
+    }
+
+    private static void resetPotions(AbstractPlayer player, RandomLoadoutGenerator.GeneratedLoadout loadout) {
+        player.potionSlots = loadout.potionSlots;
+        player.potions.clear();
+        for (int i = 0; i < loadout.potionSlots; i++) {
+            player.potions.add(new PotionSlot(i));
+        }
+        for (int i = 0; i < loadout.potions.size() && i < loadout.potionSlots; i++) {
+            AbstractPotion potion = loadout.potions.get(i).makeCopy();
+            player.potions.set(i, potion);
+            potion.setAsObtained(i);
+        }
+    }
+}
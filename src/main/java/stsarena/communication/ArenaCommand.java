@@ -139,7 +139,7 @@ public class ArenaCommand implements CommandExecutor.CommandExtension {
         if (db == null) {
             throw new InvalidCommandException("Database not available");
         }
-        ArenaRepository repo = new ArenaRepository(db);
+        ArenaRepository repo = ArenaRepository.getInstance();
 
         // Get the saved loadout
         ArenaRepository.LoadoutRecord record = repo.getLoadoutById(loadoutId);
@@ -150,12 +150,8 @@ public class ArenaCommand implements CommandExecutor.CommandExtension {
         STSArena.logger.info("Arena command: Using saved loadout '" + record.name +
             "' (ID=" + loadoutId + ") vs " + encounter);
 
-        // Convert LoadoutRecord to GeneratedLoadout
-        RandomLoadoutGenerator.GeneratedLoadout loadout =
-            RandomLoadoutGenerator.fromSavedLoadout(record);
-
-        // Start the arena fight
-        ArenaRunner.startFight(loadout, encounter);
+        // Start the arena fight on the saved loadout's own row
+        ArenaRunner.startFightWithSavedLoadout(record, encounter);
     }
 
     /**
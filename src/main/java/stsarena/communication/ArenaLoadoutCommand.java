@@ -1,5 +1,6 @@
 package stsarena.communication;
 
+import com.badlogic.gdx.Gdx;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import communicationmod.CommunicationMod;
@@ -7,11 +8,19 @@ import communicationmod.CommandExecutor;
 import communicationmod.GameStateListener;
 import communicationmod.InvalidCommandException;
 import stsarena.STSArena;
+import stsarena.arena.LoadoutBatchGenerator;
+import stsarena.arena.LoadoutConfig;
 import stsarena.data.ArenaDatabase;
 import stsarena.data.ArenaRepository;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * CommunicationMod command extension for managing arena loadouts.
@@ -22,6 +31,9 @@ import java.util.List;
  *   arena-loadout rename <id> <new-name>  - Rename a loadout
  *   arena-loadout delete <id>             - Delete a loadout
  *   arena-loadout delete-all              - Delete all loadouts (for testing)
+ *   arena-loadout rebuild-stats           - Rebuild loadout+encounter stats from run history
+ *   arena-loadout vacuum                  - Compact the database file
+ *   arena-loadout generate <n> [seed] [class] - Generate and save n random loadouts
  *
  * This command provides external control over saved loadouts for testing
  * and automation purposes.
@@ -30,6 +42,15 @@ public class ArenaLoadoutCommand implements CommandExecutor.CommandExtension {
 
     private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
 
+    // Runs generate batches off the game thread, one at a time
+    private static final ExecutorService generateExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stsarena-loadout-generate");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static CompletableFuture<Integer> generating;
+
     /**
      * Register the arena-loadout command with CommunicationMod.
      * Call this during mod initialization.
@@ -58,12 +79,15 @@ public class ArenaLoadoutCommand implements CommandExecutor.CommandExtension {
     public void execute(String[] tokens) throws InvalidCommandException {
         if (tokens.length < 2) {
             throw new InvalidCommandException(
-                "Usage: arena-loadout <list|info|rename|delete|delete-all> [args]\n" +
+                "Usage: arena-loadout <list|info|rename|delete|delete-all|rebuild-stats|vacuum|generate> [args]\n" +
                 "  list              - List all saved loadouts\n" +
                 "  info <id>         - Get detailed info about a loadout\n" +
                 "  rename <id> <name> - Rename a loadout\n" +
                 "  delete <id>       - Delete a loadout\n" +
-                "  delete-all        - Delete all loadouts (for testing)");
+                "  delete-all        - Delete all loadouts (for testing)\n" +
+                "  rebuild-stats     - Rebuild loadout+encounter stats from run history\n" +
+                "  vacuum            - Compact the database file\n" +
+                "  generate <n> [seed] [class] - Generate and save n random loadouts");
         }
 
         String subCommand = tokens[1].toLowerCase();
@@ -89,19 +113,25 @@ public class ArenaLoadoutCommand implements CommandExecutor.CommandExtension {
             case "delete-all":
                 executeDeleteAll(repo);
                 break;
+            case "rebuild-stats":
+                executeRebuildStats(repo);
+                break;
+            case "vacuum":
+                executeVacuum();
+                break;
+            case "generate":
+                executeGenerate(tokens, repo);
+                break;
             default:
                 throw new InvalidCommandException("Unknown subcommand: " + subCommand +
-                    ". Valid subcommands: list, info, rename, delete, delete-all");
+                    ". Valid subcommands: list, info, rename, delete, delete-all, rebuild-stats, vacuum, generate");
         }
         // Each subcommand calls signalReadyForCommand() to trigger the state response
+        // (generate does so from its completion callback)
     }
 
     private ArenaRepository getRepository() {
-        ArenaDatabase db = ArenaDatabase.getInstance();
-        if (db == null) {
-            return null;
-        }
-        return new ArenaRepository(db);
+        return ArenaRepository.getInstance();
     }
 
     /**
@@ -274,6 +304,93 @@ public class ArenaLoadoutCommand implements CommandExecutor.CommandExtension {
         CommunicationMod.publishOnGameStateChange();
     }
 
+    /**
+     * Rebuild the loadout+encounter summary table from the full run history.
+     */
+    private void executeRebuildStats(ArenaRepository repo) throws InvalidCommandException {
+        int rows = repo.rebuildEncounterStats();
+        if (rows < 0) {
+            throw new InvalidCommandException("Failed to rebuild stats");
+        }
+
+        STSArena.logger.info("ARENA-LOADOUT REBUILD-STATS: Rebuilt " + rows + " loadout+encounter rows");
+        GameStateListener.setMessage("Rebuilt stats for " + rows + " loadout+encounter combinations");
+        GameStateListener.signalReadyForCommand();
+        CommunicationMod.publishOnGameStateChange();
+    }
+
+    /**
+     * Compact the database file, e.g. after the snapshot deduplication migration.
+     */
+    private void executeVacuum() throws InvalidCommandException {
+        if (!ArenaDatabase.getInstance().vacuum()) {
+            throw new InvalidCommandException("Failed to vacuum database");
+        }
+
+        STSArena.logger.info("ARENA-LOADOUT VACUUM: Database compacted");
+        GameStateListener.setMessage("Database compacted");
+        GameStateListener.signalReadyForCommand();
+        CommunicationMod.publishOnGameStateChange();
+    }
+
+    /**
+     * Generate a pool of random loadouts in parallel and save them.
+     * The same seed (and class) always produces the same loadouts.
+     * Returns right away; the response is sent when the batch has been saved.
+     */
+    private void executeGenerate(String[] tokens, ArenaRepository repo) throws InvalidCommandException {
+        if (tokens.length < 3) {
+            throw new InvalidCommandException("Usage: arena-loadout generate <count> [seed] [class]");
+        }
+
+        int count;
+        long seed;
+        try {
+            count = Integer.parseInt(tokens[2]);
+            seed = tokens.length > 3 ? Long.parseLong(tokens[3]) : System.currentTimeMillis();
+        } catch (NumberFormatException e) {
+            throw new InvalidCommandException("Invalid count or seed: " + e.getMessage());
+        }
+        if (count <= 0) {
+            throw new InvalidCommandException("Count must be positive: " + count);
+        }
+
+        // CommunicationMod lowercases all commands
+        String playerClass = tokens.length > 4 ? tokens[4].toUpperCase() : null;
+        if (playerClass != null && !Arrays.asList(LoadoutConfig.PLAYER_CLASS_NAMES).contains(playerClass)) {
+            throw new InvalidCommandException("Unknown class: " + playerClass);
+        }
+
+        if (generating != null && !generating.isDone()) {
+            throw new InvalidCommandException("A generate command is already running");
+        }
+
+        // Generation and the database writes both block, so the batch gets its own thread;
+        // the response is sent from the game thread once it finishes
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        generating = CompletableFuture.supplyAsync(() -> {
+            try {
+                return LoadoutBatchGenerator.generate(seed, count, playerClass, threads,
+                    LoadoutBatchGenerator.toDatabase(repo, "Seed " + seed));
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, generateExecutor);
+        generating.whenComplete((saved, error) -> Gdx.app.postRunnable(() -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+                STSArena.logger.error("ARENA-LOADOUT GENERATE: Failed (seed " + seed + ")", cause);
+                GameStateListener.setMessage("Failed to generate loadouts: " + cause.getMessage());
+            } else {
+                STSArena.logger.info("ARENA-LOADOUT GENERATE: Saved " + saved + " loadouts (seed " + seed + ")");
+                GameStateListener.setMessage("Generated " + saved + " loadouts with seed " + seed);
+            }
+            GameStateListener.signalReadyForCommand();
+            CommunicationMod.publishOnGameStateChange();
+        }));
+    }
+
     /**
      * Summary of a loadout for list output.
      */
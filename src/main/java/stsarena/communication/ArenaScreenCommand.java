@@ -142,11 +142,7 @@ public class ArenaScreenCommand implements CommandExecutor.CommandExtension {
      * Get the arena repository for database access.
      */
     private ArenaRepository getRepository() {
-        ArenaDatabase db = ArenaDatabase.getInstance();
-        if (db == null) {
-            return null;
-        }
-        return new ArenaRepository(db);
+        return ArenaRepository.getInstance();
     }
 
     /**
@@ -180,7 +176,7 @@ public class ArenaScreenCommand implements CommandExecutor.CommandExtension {
             throw new InvalidCommandException("Database not available");
         }
 
-        ArenaRepository repo = new ArenaRepository(db);
+        ArenaRepository repo = ArenaRepository.getInstance();
         ArenaRepository.LoadoutRecord loadout = repo.getLoadoutById(loadoutId);
         if (loadout == null) {
             throw new InvalidCommandException("Loadout not found with ID: " + loadoutId);
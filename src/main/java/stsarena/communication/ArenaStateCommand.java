@@ -6,9 +6,12 @@ import communicationmod.GameStateListener;
 import communicationmod.InvalidCommandException;
 import stsarena.STSArena;
 import stsarena.arena.ArenaRunner;
+import stsarena.arena.FightSession;
 import stsarena.arena.SaveFileManager;
 import stsarena.screens.ArenaResultsScreen;
 
+import java.util.Map;
+
 /**
  * CommunicationMod command to query arena state.
  *
@@ -22,6 +25,8 @@ import stsarena.screens.ArenaResultsScreen;
  *     "is_arena_run": true/false,
  *     "arena_run_in_progress": true/false,
  *     "started_from_normal_run": true/false,
+ *     "fight_state": "IDLE"/"LOADING"/.../"IN_COMBAT"/...,
+ *     "fight_timeline_ms": {"LOADING": 0, "DUNGEON_READY": 812, ...},
  *     "has_marker_file": true/false,
  *     "results_screen_open": true/false,
  *     "current_encounter": "encounter name or null",
@@ -61,6 +66,14 @@ public class ArenaStateCommand implements CommandExecutor.CommandExtension {
         state.addProperty("arena_run_in_progress", ArenaRunner.isArenaRunInProgress());
         state.addProperty("started_from_normal_run", ArenaRunner.wasStartedFromNormalRun());
 
+        // Fight session state, and when the current attempt reached each state (ms since requested)
+        state.addProperty("fight_state", ArenaRunner.getFightState().name());
+        JsonObject timeline = new JsonObject();
+        for (Map.Entry<FightSession.State, Long> step : ArenaRunner.getFightTimeline().entrySet()) {
+            timeline.addProperty(step.getKey().name(), step.getValue());
+        }
+        state.add("fight_timeline_ms", timeline);
+
         // File-based state
         state.addProperty("has_marker_file", SaveFileManager.hasActiveArenaSession());
 
@@ -76,7 +89,7 @@ public class ArenaStateCommand implements CommandExecutor.CommandExtension {
             state.add("current_encounter", null);
         }
 
-        state.addProperty("current_loadout_id", ArenaRunner.getCurrentLoadoutDbId());
+        state.addProperty("current_loadout_id", ArenaRunner.peekCurrentLoadoutDbId());
 
         // Store in a place the test can access
         // The message will be available in the game state response
@@ -13,7 +13,6 @@ import communicationmod.InvalidCommandException;
 import stsarena.STSArena;
 import stsarena.arena.ArenaRunner;
 import stsarena.arena.RandomLoadoutGenerator;
-import stsarena.data.ArenaDatabase;
 import stsarena.data.ArenaRepository;
 import stsarena.patches.NormalRunLoadoutSaver;
 
@@ -103,7 +102,7 @@ public class PracticeInArenaCommand implements CommandExecutor.CommandExtension
         }
 
         // Get the saved loadout record
-        ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
+        ArenaRepository repo = ArenaRepository.getInstance();
         ArenaRepository.LoadoutRecord loadoutRecord = repo.getLoadoutById(loadoutId);
         if (loadoutRecord == null) {
             throw new InvalidCommandException("Failed to retrieve saved loadout");
@@ -177,7 +176,7 @@ public class PracticeInArenaCommand implements CommandExecutor.CommandExtension
             ascensionLevel
         );
 
-        ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
+        ArenaRepository repo = ArenaRepository.getInstance();
         return repo.saveLoadout(loadout);
     }
 
@@ -5,25 +5,114 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.File;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Manages SQLite database for arena loadouts and fight history.
  *
  * Database is stored in ~/Library/Preferences/ModTheSpire/stsarena/arena.db (macOS)
  * or equivalent platform-specific location.
+ *
+ * Connections are split by role: a single writer connection (returned by
+ * {@link #getConnection()}) and a small pool of read-only connections so screens
+ * can query while a fight result is being written. Each connection keeps its own
+ * prepared-statement cache (see {@link #prepareCached(Connection, String)}).
+ *
+ * Writes are confined to one background thread. {@link #submitWrite(Supplier)} queues
+ * work and returns immediately; {@link #executeWrite(Supplier)} queues work and waits.
+ * Queued writes are flushed by {@link #close()}.
  */
 public class ArenaDatabase {
 
     private static final String DB_NAME = "arena.db";
-    private static final int SCHEMA_VERSION = 7;
+    private static final int SCHEMA_VERSION = 19;
     private static final Logger logger = LogManager.getLogger(ArenaDatabase.class.getName());
 
+    /**
+     * System property used to pick the storage mode (WAL or ROLLBACK).
+     */
+    public static final String STORAGE_MODE_PROPERTY = "stsarena.db.storageMode";
+
+    // Pragma tuning shared by all connections
+    private static final int READ_POOL_SIZE = 2;
+    private static final int BUSY_TIMEOUT_MS = 5000;
+    private static final int CACHE_SIZE_KB = 8192;
+    private static final long MMAP_SIZE_BYTES = 64L * 1024 * 1024;
+
+    // Outcomes of fights that were actually finished. ABANDONED runs (cut off by a crash) are
+    // kept for the record but left out of every stat, summary row and history list.
+    static final String FINISHED_OUTCOMES = "('VICTORY', 'DEFEAT')";
+
+    // Aggregates finished runs into loadout_encounter_stats rows. The best_* columns only
+    // count victories; last_outcome is the outcome of the most recently ended run.
+    static final String ENCOUNTER_STATS_COLUMNS =
+        "(loadout_id, encounter_id, total_runs, wins, losses, best_damage_taken, best_turns, last_outcome, last_ended_at)";
+    static final String ENCOUNTER_STATS_SELECT =
+        "SELECT r.loadout_id, r.encounter_id, COUNT(*), " +
+        "SUM(CASE WHEN r.outcome = 'VICTORY' THEN 1 ELSE 0 END), " +
+        "SUM(CASE WHEN r.outcome = 'DEFEAT' THEN 1 ELSE 0 END), " +
+        "MIN(CASE WHEN r.outcome = 'VICTORY' THEN r.damage_taken END), " +
+        "MIN(CASE WHEN r.outcome = 'VICTORY' THEN r.turns_taken END), " +
+        "(SELECT x.outcome FROM arena_runs x " +
+        " WHERE x.loadout_id = r.loadout_id AND x.encounter_id = r.encounter_id AND x.outcome IN " + FINISHED_OUTCOMES +
+        " ORDER BY x.ended_at DESC, x.id DESC LIMIT 1), " +
+        "MAX(r.ended_at) " +
+        "FROM arena_runs r WHERE r.outcome IN " + FINISHED_OUTCOMES;
+
+    // Write-behind queue
+    private static final int WRITE_QUEUE_CAPACITY = 64;
+    private static final long WRITE_FLUSH_TIMEOUT_MS = 10000;
+
+    /**
+     * How the database is journaled on disk.
+     */
+    public enum StorageMode {
+        /**
+         * Write-ahead log with synchronous=NORMAL. Writes only fsync at checkpoints,
+         * and readers never block on the writer.
+         */
+        WAL,
+        /**
+         * SQLite's default rollback journal with synchronous=FULL. Every write fsyncs
+         * and a single reader is pooled, since readers and the writer block each other.
+         */
+        ROLLBACK
+    }
+
     private static ArenaDatabase instance;
     private Connection connection;
     private final String dbPath;
+    private final StorageMode storageMode;
+
+    // Read-only connections. Reads never borrow the writer, so statement caches stay single-threaded
+    private final List<Connection> readConnections = new ArrayList<>();
+    private final BlockingQueue<Connection> idleReadConnections = new ArrayBlockingQueue<>(READ_POOL_SIZE);
+    private final ThreadLocal<ReadLease> currentReadLease = new ThreadLocal<>();
+
+    // Prepared statements per open connection (writer, pooled readers and overflow readers)
+    private final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+
+    // Single writer thread - every statement on the writer connection runs here
+    private final ThreadPoolExecutor writeExecutor;
+    private volatile Thread writerThread;
 
     private ArenaDatabase() {
         this.dbPath = getDefaultDbPath();
+        this.storageMode = getConfiguredStorageMode();
+        this.writeExecutor = createWriteExecutor();
         initialize();
     }
 
@@ -31,13 +120,22 @@ public class ArenaDatabase {
      * Constructor for testing - allows specifying custom database path.
      */
     ArenaDatabase(String customDbPath) {
+        this(customDbPath, StorageMode.WAL);
+    }
+
+    ArenaDatabase(String customDbPath, StorageMode storageMode) {
         this.dbPath = customDbPath;
+        this.storageMode = storageMode;
+        this.writeExecutor = createWriteExecutor();
         initialize();
     }
 
     public static synchronized ArenaDatabase getInstance() {
         if (instance == null) {
             instance = new ArenaDatabase();
+            // Flush queued fight results if the game exits without closing us
+            final ArenaDatabase db = instance;
+            Runtime.getRuntime().addShutdownHook(new Thread(db::close, "stsarena-db-shutdown"));
         }
         return instance;
     }
@@ -59,6 +157,60 @@ public class ArenaDatabase {
         return new ArenaDatabase(dbPath);
     }
 
+    /**
+     * Create a test instance with a custom database path and storage mode.
+     */
+    public static ArenaDatabase createTestInstance(String dbPath, StorageMode storageMode) {
+        return new ArenaDatabase(dbPath, storageMode);
+    }
+
+    /**
+     * Read the storage mode from the system property, defaulting to WAL.
+     */
+    private static StorageMode getConfiguredStorageMode() {
+        String configured = System.getProperty(STORAGE_MODE_PROPERTY);
+        if (configured == null || configured.isEmpty()) {
+            return StorageMode.WAL;
+        }
+        try {
+            return StorageMode.valueOf(configured.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown storage mode '" + configured + "', using WAL");
+            return StorageMode.WAL;
+        }
+    }
+
+    /**
+     * Create the single-threaded write executor.
+     * When the queue is full the submitting thread waits for space rather than
+     * running the write itself, so the writer connection stays on one thread.
+     */
+    private ThreadPoolExecutor createWriteExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(WRITE_QUEUE_CAPACITY),
+            runnable -> {
+                Thread thread = new Thread(runnable, "stsarena-db-writer");
+                thread.setDaemon(true);
+                writerThread = thread;
+                return thread;
+            },
+            (runnable, pool) -> {
+                if (pool.isShutdown()) {
+                    throw new RejectedExecutionException("Arena database is closed");
+                }
+                logger.warn("Database write queue full, waiting for space");
+                try {
+                    pool.getQueue().put(runnable);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException("Interrupted waiting for write queue", e);
+                }
+            });
+        executor.prestartCoreThread();
+        return executor;
+    }
+
     private static String getDefaultDbPath() {
         String modDir;
         String os = System.getProperty("os.name").toLowerCase();
@@ -84,9 +236,19 @@ public class ArenaDatabase {
             Class.forName("org.sqlite.JDBC");
             connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
             connection.setAutoCommit(true);
+            configureWriter(connection);
+            statementCaches.put(connection, new StatementCache(connection));
 
             createSchema();
-            logger.info("Arena database initialized at: " + dbPath);
+
+            // Readers are opened after the schema exists so they never see a half-migrated database
+            int poolSize = storageMode == StorageMode.WAL ? READ_POOL_SIZE : 1;
+            for (int i = 0; i < poolSize; i++) {
+                Connection reader = openReader();
+                readConnections.add(reader);
+                idleReadConnections.add(reader);
+            }
+            logger.info("Arena database initialized at: " + dbPath + " (storage mode: " + storageMode + ")");
         } catch (ClassNotFoundException e) {
             logger.error("SQLite JDBC driver not found", e);
         } catch (SQLException e) {
@@ -94,6 +256,46 @@ public class ArenaDatabase {
         }
     }
 
+    /**
+     * Apply journaling and cache pragmas to the writer connection.
+     */
+    private void configureWriter(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS);
+            if (storageMode == StorageMode.WAL) {
+                try (ResultSet rs = stmt.executeQuery("PRAGMA journal_mode = WAL")) {
+                    if (rs.next() && !"wal".equalsIgnoreCase(rs.getString(1))) {
+                        logger.warn("Could not enable WAL journaling, got: " + rs.getString(1));
+                    }
+                }
+                stmt.execute("PRAGMA synchronous = NORMAL");
+            } else {
+                stmt.execute("PRAGMA journal_mode = DELETE");
+                stmt.execute("PRAGMA synchronous = FULL");
+            }
+            applyCachePragmas(stmt);
+        }
+    }
+
+    /**
+     * Apply cache pragmas to a pooled reader and make it reject writes.
+     */
+    private void configureReader(Connection conn) throws SQLException {
+        conn.setAutoCommit(true);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS);
+            stmt.execute("PRAGMA query_only = ON");
+            applyCachePragmas(stmt);
+        }
+    }
+
+    private void applyCachePragmas(Statement stmt) throws SQLException {
+        // Negative cache_size is in KiB rather than pages
+        stmt.execute("PRAGMA cache_size = -" + CACHE_SIZE_KB);
+        stmt.execute("PRAGMA temp_store = MEMORY");
+        stmt.execute("PRAGMA mmap_size = " + MMAP_SIZE_BYTES);
+    }
+
     private void createSchema() throws SQLException {
         try (Statement stmt = connection.createStatement()) {
             // Schema version tracking
@@ -103,9 +305,9 @@ public class ArenaDatabase {
                 ")"
             );
 
-            // Get current schema version
+            // Get current schema version (older builds left one row per version behind)
             int currentVersion = 0;
-            try (ResultSet rs = stmt.executeQuery("SELECT version FROM schema_version")) {
+            try (ResultSet rs = stmt.executeQuery("SELECT MAX(version) AS version FROM schema_version")) {
                 if (rs.next()) {
                     currentVersion = rs.getInt("version");
                 }
@@ -135,6 +337,53 @@ public class ArenaDatabase {
             if (currentVersion < 7) {
                 migrateToV7(stmt);
             }
+            if (currentVersion < 8) {
+                migrateToV8(stmt);
+            }
+            if (currentVersion < 9) {
+                migrateToV9(stmt);
+            }
+            if (currentVersion < 10) {
+                migrateToV10(stmt);
+            }
+            if (currentVersion < 11) {
+                migrateToV11(stmt);
+            }
+            if (currentVersion < 12) {
+                migrateToV12(stmt);
+            }
+            if (currentVersion < 13) {
+                migrateToV13(stmt);
+            }
+            if (currentVersion < 14) {
+                migrateToV14(stmt);
+            }
+            if (currentVersion < 15) {
+                migrateToV15(stmt);
+            }
+            if (currentVersion < 16) {
+                migrateToV16(stmt);
+            }
+            if (currentVersion < 17) {
+                migrateToV17(stmt);
+            }
+            if (currentVersion < 18) {
+                migrateToV18(stmt);
+            }
+            if (currentVersion < 19) {
+                migrateToV19(stmt);
+            }
+
+            // Filled once every migration has run, since run contents may have moved to loadout_snapshots
+            if (currentVersion < 11) {
+                int rows = LoadoutContentTables.rebuildAll(stmt);
+                logger.info("Wrote " + rows + " card/relic/potion row(s) from existing loadouts and runs");
+            }
+            // Built from loadout_cards/loadout_relics, so after they are filled
+            if (currentVersion < 13) {
+                int docs = LoadoutSearchIndex.rebuildAll(stmt);
+                logger.info("Indexed " + docs + " loadout(s) for search");
+            }
 
             // Record schema version
             stmt.execute(
@@ -256,6 +505,193 @@ public class ArenaDatabase {
         addColumnIfNotExists(stmt, "loadouts", "is_favorite", "INTEGER NOT NULL DEFAULT 0");
     }
 
+    /**
+     * V8: Add loadout_encounter_stats, a per loadout+encounter summary of completed runs
+     * kept up to date as runs complete, so the stats screen doesn't scan arena_runs
+     */
+    private void migrateToV8(Statement stmt) throws SQLException {
+        logger.info("Running migration to V8: adding loadout_encounter_stats");
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS loadout_encounter_stats (" +
+            "    loadout_id INTEGER NOT NULL," +
+            "    encounter_id TEXT NOT NULL," +
+            "    total_runs INTEGER NOT NULL DEFAULT 0," +
+            "    wins INTEGER NOT NULL DEFAULT 0," +
+            "    losses INTEGER NOT NULL DEFAULT 0," +
+            "    best_damage_taken INTEGER," +
+            "    best_turns INTEGER," +
+            "    last_outcome TEXT," +
+            "    last_ended_at INTEGER," +
+            "    PRIMARY KEY (loadout_id, encounter_id)," +
+            "    FOREIGN KEY (loadout_id) REFERENCES loadouts(id) ON DELETE CASCADE" +
+            ")"
+        );
+        int rows = rebuildEncounterStats(stmt);
+        logger.info("Built " + rows + " loadout_encounter_stats row(s) from existing runs");
+    }
+
+    /**
+     * V9: Indexes matching the (started_at, id) keyset used to page through run history
+     */
+    private void migrateToV9(Statement stmt) throws SQLException {
+        logger.info("Running migration to V9: adding run history paging indexes");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_arena_runs_started_id ON arena_runs(started_at, id)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_arena_runs_loadout_started ON arena_runs(loadout_id, started_at, id)");
+    }
+
+    /**
+     * V10: Partial index over runs with no outcome, for the startup crash-recovery sweep
+     */
+    private void migrateToV10(Statement stmt) throws SQLException {
+        logger.info("Running migration to V10: adding incomplete run index");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_arena_runs_incomplete ON arena_runs(loadout_id, encounter_id) WHERE outcome IS NULL");
+    }
+
+    /**
+     * V11: Normalized card/relic/potion tables for loadouts and run snapshots
+     * (see LoadoutContentTables). createSchema fills them after the last migration.
+     */
+    private void migrateToV11(Statement stmt) throws SQLException {
+        logger.info("Running migration to V11: adding normalized card/relic/potion tables");
+        LoadoutContentTables.createTables(stmt);
+    }
+
+    /**
+     * V12: Content-addressed run snapshots. Every run of an unchanged loadout carried
+     * its own copy of the same deck/relics/potions JSON; runs now point at one
+     * loadout_snapshots row by content_hash. Runs without a hash keep their inline JSON.
+     */
+    private void migrateToV12(Statement stmt) throws SQLException {
+        logger.info("Running migration to V12: deduplicating run snapshots");
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS loadout_snapshots (" +
+            "    content_hash TEXT PRIMARY KEY," +
+            "    deck_json TEXT NOT NULL," +
+            "    relics_json TEXT NOT NULL," +
+            "    potions_json TEXT," +
+            "    created_at INTEGER NOT NULL" +
+            ")"
+        );
+
+        long bytesBefore = snapshotBytes(stmt);
+        int snapshots = stmt.executeUpdate(
+            "INSERT OR IGNORE INTO loadout_snapshots (content_hash, deck_json, relics_json, potions_json, created_at) " +
+            "SELECT content_hash, deck_json, relics_json, potions_json, MIN(started_at) FROM arena_runs " +
+            "WHERE content_hash IS NOT NULL AND deck_json IS NOT NULL AND relics_json IS NOT NULL " +
+            "GROUP BY content_hash"
+        );
+        // Only runs whose JSON really is the snapshot's give theirs up; a stale hash keeps its copy
+        int runs = stmt.executeUpdate(
+            "UPDATE arena_runs SET deck_json = NULL, relics_json = NULL, potions_json = NULL " +
+            "WHERE deck_json IS NOT NULL AND EXISTS (" +
+            "    SELECT 1 FROM loadout_snapshots s WHERE s.content_hash = arena_runs.content_hash " +
+            "    AND s.deck_json = arena_runs.deck_json AND s.relics_json = arena_runs.relics_json " +
+            "    AND s.potions_json IS arena_runs.potions_json)"
+        );
+        long reclaimed = bytesBefore - snapshotBytes(stmt);
+        logger.info("Collapsed " + runs + " run snapshot(s) into " + snapshots + " loadout_snapshots row(s), " +
+            "reclaiming " + reclaimed + " byte(s) of JSON. Run 'arena-loadout vacuum' to shrink the file.");
+    }
+
+    /**
+     * V13: FTS5 search index over loadout names, classes, cards and relics
+     * (see LoadoutSearchIndex). createSchema fills it after the last migration.
+     */
+    private void migrateToV13(Statement stmt) throws SQLException {
+        logger.info("Running migration to V13: adding loadout search index");
+        LoadoutSearchIndex.createTable(stmt);
+    }
+
+    /**
+     * V14: Indexes matching the (is_favorite, created_at, id) keyset used to page through
+     * the loadout list, with and without a class filter
+     */
+    private void migrateToV14(Statement stmt) throws SQLException {
+        logger.info("Running migration to V14: adding loadout list paging indexes");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_loadouts_list ON loadouts(is_favorite, created_at, id)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_loadouts_class_list ON loadouts(character_class, is_favorite, created_at, id)");
+    }
+
+    /**
+     * V15: Store how many potions a run used as an integer, filled from potions_used_json,
+     * so victory/stat queries never parse the JSON list
+     */
+    private void migrateToV15(Statement stmt) throws SQLException {
+        logger.info("Running migration to V15: adding arena_runs.potions_used");
+        addColumnIfNotExists(stmt, "arena_runs", "potions_used", "INTEGER NOT NULL DEFAULT 0");
+        int rows = stmt.executeUpdate(
+            "UPDATE arena_runs SET potions_used = json_array_length(potions_used_json) " +
+            "WHERE json_valid(potions_used_json) AND json_type(potions_used_json) = 'array'");
+        logger.info("Counted potions used for " + rows + " run(s)");
+    }
+
+    /**
+     * V16: Flag the Pareto-best victories of each loadout+encounter so the stats screen
+     * reads them off a partial index instead of comparing every victory pairwise
+     */
+    private void migrateToV16(Statement stmt) throws SQLException {
+        logger.info("Running migration to V16: adding arena_runs.pareto_best");
+        addColumnIfNotExists(stmt, "arena_runs", "pareto_best", "INTEGER NOT NULL DEFAULT 0");
+        ParetoFrontier.createIndex(stmt);
+        int flagged = ParetoFrontier.rebuildAll(stmt);
+        logger.info("Flagged " + flagged + " Pareto-best victory(ies)");
+    }
+
+    /**
+     * V17: Summary rows counted ABANDONED runs as played, lowering every win rate;
+     * rebuild them from finished runs only
+     */
+    private void migrateToV17(Statement stmt) throws SQLException {
+        logger.info("Running migration to V17: leaving abandoned runs out of loadout_encounter_stats");
+        int rows = rebuildEncounterStats(stmt);
+        logger.info("Rebuilt " + rows + " loadout_encounter_stats row(s) from finished runs");
+    }
+
+    /**
+     * V18: Indexes matching the (key, started_at, id) keysets used to page run history
+     * sorted by loadout name, encounter or outcome
+     */
+    private void migrateToV18(Statement stmt) throws SQLException {
+        logger.info("Running migration to V18: adding sorted run history paging indexes");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_arena_runs_encounter_started ON arena_runs(encounter_id COLLATE NOCASE, started_at, id)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_arena_runs_outcome_started ON arena_runs(outcome, started_at, id)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_loadouts_name ON loadouts(name COLLATE NOCASE, id)");
+    }
+
+    /**
+     * V19: Card and relic display names, so the loadout search index matches the names the
+     * player sees as well as the IDs. Filled by the game at startup.
+     */
+    private void migrateToV19(Statement stmt) throws SQLException {
+        logger.info("Running migration to V19: adding display_names");
+        LoadoutSearchIndex.createNamesTable(stmt);
+    }
+
+    /**
+     * Bytes of snapshot JSON stored across arena_runs and loadout_snapshots.
+     */
+    private long snapshotBytes(Statement stmt) throws SQLException {
+        String size = "COALESCE(LENGTH(CAST(deck_json AS BLOB)), 0) + " +
+                      "COALESCE(LENGTH(CAST(relics_json AS BLOB)), 0) + " +
+                      "COALESCE(LENGTH(CAST(potions_json AS BLOB)), 0)";
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT (SELECT COALESCE(SUM(" + size + "), 0) FROM arena_runs) + " +
+                "(SELECT COALESCE(SUM(" + size + "), 0) FROM loadout_snapshots)")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Recompute loadout_encounter_stats from every finished run in arena_runs.
+     * Returns the number of summary rows written.
+     */
+    int rebuildEncounterStats(Statement stmt) throws SQLException {
+        stmt.executeUpdate("DELETE FROM loadout_encounter_stats");
+        return stmt.executeUpdate(
+            "INSERT INTO loadout_encounter_stats " + ENCOUNTER_STATS_COLUMNS + " " +
+            ENCOUNTER_STATS_SELECT + " GROUP BY r.loadout_id, r.encounter_id");
+    }
+
     /**
      * Helper to add a column if it doesn't exist.
      */
@@ -277,17 +713,243 @@ public class ArenaDatabase {
         }
     }
 
+    /**
+     * Get the writer connection. All inserts, updates and migrations go through this.
+     */
     public Connection getConnection() {
         return connection;
     }
 
     /**
-     * Close the database connection. Should be called when the game exits.
+     * Borrow a read-only connection from the pool.
+     * If the pool is exhausted a temporary reader is opened so callers never block;
+     * it is closed again on release. Nested borrows on one thread share a connection.
+     * Always hand the connection back with {@link #releaseReadConnection(Connection)}.
      */
-    public void close() {
+    public Connection acquireReadConnection() {
+        ReadLease lease = currentReadLease.get();
+        if (lease != null) {
+            lease.depth++;
+            return lease.connection;
+        }
+
+        Connection reader = idleReadConnections.poll();
+        if (reader == null) {
+            try {
+                reader = openReader();
+                logger.debug("Read pool exhausted, opened an overflow reader");
+            } catch (SQLException e) {
+                logger.error("Failed to open overflow read connection", e);
+                return null;
+            }
+        }
+        currentReadLease.set(new ReadLease(reader));
+        return reader;
+    }
+
+    /**
+     * Return a connection obtained from {@link #acquireReadConnection()}.
+     */
+    public void releaseReadConnection(Connection conn) {
+        ReadLease lease = currentReadLease.get();
+        if (conn == null || lease == null || lease.connection != conn) {
+            return;
+        }
+        if (--lease.depth > 0) {
+            return;
+        }
+        currentReadLease.remove();
+
+        if (readConnections.contains(conn)) {
+            idleReadConnections.offer(conn);
+        } else {
+            closeConnection(conn);
+        }
+    }
+
+    /**
+     * Get the cached statement for this SQL on the given connection, preparing it on first use.
+     * The caller must hold the connection (a borrowed reader, or the writer on the writer thread)
+     * and must not close the statement.
+     */
+    PreparedStatement prepareCached(Connection conn, String sql) throws SQLException {
+        return statementCacheFor(conn).prepare(sql);
+    }
+
+    /**
+     * Like {@link #prepareCached(Connection, String)} for inserts whose generated keys are needed.
+     */
+    PreparedStatement prepareCachedReturningKeys(Connection conn, String sql) throws SQLException {
+        return statementCacheFor(conn).prepareReturningKeys(sql);
+    }
+
+    /**
+     * Number of statements cached for a connection. Used for testing.
+     */
+    int getCachedStatementCount(Connection conn) {
+        StatementCache cache = statementCaches.get(conn);
+        return cache == null ? 0 : cache.size();
+    }
+
+    private StatementCache statementCacheFor(Connection conn) throws SQLException {
+        if (conn == null) {
+            throw new SQLException("Arena database connection is not available");
+        }
+        return statementCaches.computeIfAbsent(conn, StatementCache::new);
+    }
+
+    private Connection openReader() throws SQLException {
+        Connection reader = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+        configureReader(reader);
+        statementCaches.put(reader, new StatementCache(reader));
+        return reader;
+    }
+
+    private void closeConnection(Connection conn) {
+        StatementCache cache = statementCaches.remove(conn);
+        if (cache != null) {
+            cache.close();
+        }
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            logger.error("Error closing read connection", e);
+        }
+    }
+
+    /**
+     * A reader held by the current thread, counted so nested borrows release it once.
+     */
+    private static class ReadLease {
+        final Connection connection;
+        int depth = 1;
+
+        ReadLease(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    public StorageMode getStorageMode() {
+        return storageMode;
+    }
+
+    /**
+     * Queue a write on the writer thread and return immediately.
+     * The future completes with the work's result (e.g. a generated ID).
+     */
+    public <T> CompletableFuture<T> submitWrite(Supplier<T> work) {
+        if (isWriterThread()) {
+            // Already on the writer - run inline rather than queueing behind ourselves
+            try {
+                return CompletableFuture.completedFuture(work.get());
+            } catch (RuntimeException e) {
+                CompletableFuture<T> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                return failed;
+            }
+        }
+        return CompletableFuture.supplyAsync(work, writeExecutor);
+    }
+
+    /**
+     * Run a write on the writer thread and wait for its result.
+     * Use this when the caller needs the result immediately; prefer
+     * {@link #submitWrite(Supplier)} on the game thread.
+     */
+    public <T> T executeWrite(Supplier<T> work) {
+        if (isWriterThread()) {
+            return work.get();
+        }
+        try {
+            return CompletableFuture.supplyAsync(work, writeExecutor).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    /**
+     * Rebuild the database file to hand space freed by deleted or deduplicated rows
+     * back to the OS. Runs on the writer thread; can take a while on a large history.
+     * Returns true on success.
+     */
+    public boolean vacuum() {
+        return executeWrite(() -> {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("VACUUM");
+                logger.info("Vacuumed database");
+                return true;
+            } catch (SQLException e) {
+                logger.error("Failed to vacuum database", e);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Executor backing the write queue, for chaining follow-up work after a write.
+     */
+    public Executor getWriteExecutor() {
+        return writeExecutor;
+    }
+
+    /**
+     * Wait until every write queued so far has been applied.
+     * Returns false if the timeout elapsed first.
+     */
+    public boolean flushWrites(long timeoutMs) {
+        if (isWriterThread() || writeExecutor.isShutdown()) {
+            return true;
+        }
+        try {
+            CompletableFuture.runAsync(() -> { }, writeExecutor).get(timeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("Timed out flushing database writes", e);
+        }
+        return false;
+    }
+
+    private boolean isWriterThread() {
+        return Thread.currentThread() == writerThread;
+    }
+
+    /**
+     * Flush queued writes and close the database connections.
+     * Should be called when the game exits; safe to call more than once.
+     */
+    public synchronized void close() {
+        if (!writeExecutor.isShutdown()) {
+            writeExecutor.shutdown();
+            try {
+                if (!writeExecutor.awaitTermination(WRITE_FLUSH_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    logger.error("Timed out flushing " + writeExecutor.getQueue().size() + " queued database write(s)");
+                    writeExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                writeExecutor.shutdownNow();
+            }
+        }
+
+        for (Connection reader : readConnections) {
+            closeConnection(reader);
+        }
+        readConnections.clear();
+        idleReadConnections.clear();
+
         if (connection != null) {
+            StatementCache writerCache = statementCaches.remove(connection);
+            if (writerCache != null) {
+                writerCache.close();
+            }
             try {
                 connection.close();
+                connection = null;
                 logger.info("Arena database closed");
             } catch (SQLException e) {
                 logger.error("Error closing database", e);
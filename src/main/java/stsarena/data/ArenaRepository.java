@@ -1,43 +1,156 @@
 package stsarena.data;
 
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import com.megacrit.cardcrawl.cards.AbstractCard;
 import com.megacrit.cardcrawl.characters.AbstractPlayer;
 import com.megacrit.cardcrawl.potions.AbstractPotion;
 import com.megacrit.cardcrawl.relics.AbstractRelic;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import stsarena.arena.LoadoutBatchGenerator;
+import stsarena.arena.LoadoutBuilder;
 import stsarena.arena.RandomLoadoutGenerator;
 
-import java.lang.reflect.Type;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 /**
  * Repository for saving and loading arena data from the database.
+ *
+ * Writes run on the database's writer thread. The *Async variants return as soon
+ * as the write is queued so the game thread never waits on SQLite.
  */
 public class ArenaRepository {
 
     private static final Logger logger = LogManager.getLogger(ArenaRepository.class.getName());
     private static final Gson gson = new Gson();
 
+    private static final String LOADOUT_RECORD_COLUMNS =
+        "l.id, l.uuid, l.name, l.character_class, l.max_hp, l.current_hp, l.deck_json, l.relics_json, " +
+        "l.potions_json, l.potion_slots, l.created_at, l.ascension_level, l.content_hash, l.is_favorite";
+
+    private static final String RUN_RECORD_SELECT =
+        "SELECT r.id, r.loadout_id, r.started_at, r.ended_at, r.outcome, r.starting_hp, r.ending_hp, " +
+        "r.encounter_id, r.potions_used_json, r.damage_dealt, r.damage_taken, r.turns_taken, " +
+        "l.name as loadout_name, l.character_class " +
+        "FROM arena_runs r " +
+        "JOIN loadouts l ON r.loadout_id = l.id ";
+
     private final ArenaDatabase database;
 
+    // Latest outcome per encounter for recently shown loadouts, kept current by run writes
+    private final EncounterOutcomeCache outcomeCache = new EncounterOutcomeCache();
+
+    private static ArenaRepository instance;
+
     public ArenaRepository(ArenaDatabase database) {
         this.database = database;
     }
 
+    /**
+     * Get the shared repository for the game's database.
+     * Sharing one instance keeps its statements compiled across screens and fights.
+     */
+    public static synchronized ArenaRepository getInstance() {
+        ArenaDatabase db = ArenaDatabase.getInstance();
+        if (instance == null || instance.database != db) {
+            instance = new ArenaRepository(db);
+        }
+        return instance;
+    }
+
     /**
      * Save a loadout to the database.
      * Returns the database ID of the saved loadout.
      */
     public long saveLoadout(RandomLoadoutGenerator.GeneratedLoadout loadout) {
+        return database.executeWrite(prepareSaveLoadout(loadout));
+    }
+
+    /**
+     * Queue a loadout insert without waiting for it.
+     * The future completes with the database ID, or -1 if the insert failed.
+     */
+    public CompletableFuture<Long> saveLoadoutAsync(RandomLoadoutGenerator.GeneratedLoadout loadout) {
+        return database.submitWrite(prepareSaveLoadout(loadout));
+    }
+
+    /**
+     * Save a loadout, or bring its existing row up to date, keyed on the loadout's UUID.
+     * Idempotent: saving the same loadout again returns the same ID, and when nothing
+     * changed costs one indexed lookup and no write. A changed deck, relics, potions or
+     * stats are written to the existing row (the stored name is kept, since it may have
+     * been renamed), so run history stays attached to one loadout. A loadout rebuilt from
+     * its stored row is never written back: the rebuild can differ from the row (cards or
+     * relics that no longer resolve), and the row is what the player saved.
+     * Returns the database ID, or -1 on failure.
+     */
+    public long upsertLoadout(RandomLoadoutGenerator.GeneratedLoadout loadout) {
+        return database.executeWrite(prepareUpsertLoadout(loadout));
+    }
+
+    /**
+     * Queue {@link #upsertLoadout} without waiting for it.
+     * The future completes with the database ID, or -1 if it failed.
+     */
+    public CompletableFuture<Long> upsertLoadoutAsync(RandomLoadoutGenerator.GeneratedLoadout loadout) {
+        return database.submitWrite(prepareUpsertLoadout(loadout));
+    }
+
+    private Supplier<Long> prepareUpsertLoadout(RandomLoadoutGenerator.GeneratedLoadout loadout) {
+        String deckJson = serializeDeck(loadout.deck);
+        String relicsJson = serializeRelics(loadout.relics);
+        String potionsJson = serializePotions(loadout.potions);
+        String contentHash = computeContentHash(deckJson, relicsJson, potionsJson);
+
+        return () -> {
+            try {
+                PreparedStatement lookup = writerStatement(
+                    "SELECT id, content_hash, max_hp, current_hp, potion_slots, ascension_level " +
+                    "FROM loadouts WHERE uuid = ?");
+                lookup.setString(1, loadout.id);
+                long id = -1;
+                boolean unchanged = false;
+                try (ResultSet rs = lookup.executeQuery()) {
+                    if (rs.next()) {
+                        id = rs.getLong("id");
+                        unchanged = contentHash != null && contentHash.equals(rs.getString("content_hash")) &&
+                            rs.getInt("max_hp") == loadout.maxHp &&
+                            rs.getInt("current_hp") == loadout.currentHp &&
+                            rs.getInt("potion_slots") == loadout.potionSlots &&
+                            rs.getInt("ascension_level") == loadout.ascensionLevel;
+                    }
+                }
+                if (id < 0) {
+                    return insertLoadout(loadout, deckJson, relicsJson, potionsJson, contentHash);
+                }
+                if (unchanged || loadout.rebuiltFromRecord) {
+                    return id;
+                }
+                return updateLoadoutContents(loadout, null, id, deckJson, relicsJson, potionsJson, contentHash)
+                    ? id : -1L;
+            } catch (SQLException e) {
+                logger.error("Failed to upsert loadout: " + e.getMessage(), e);
+                return -1L;
+            }
+        };
+    }
+
+    /**
+     * Serialize the loadout on the calling thread (the card and relic objects belong
+     * to the game) and return the insert to run on the writer thread.
+     */
+    private Supplier<Long> prepareSaveLoadout(RandomLoadoutGenerator.GeneratedLoadout loadout) {
         logger.info("saveLoadout called for: " + loadout.name + " (id=" + loadout.id + ")");
 
         String deckJson = serializeDeck(loadout.deck);
@@ -45,48 +158,178 @@ public class ArenaRepository {
         String potionsJson = serializePotions(loadout.potions);
         String contentHash = computeContentHash(deckJson, relicsJson, potionsJson);
 
-        String sql = "INSERT INTO loadouts (uuid, name, character_class, max_hp, current_hp, deck_json, relics_json, potions_json, potion_slots, created_at, ascension_level, content_hash) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        return () -> insertLoadout(loadout, deckJson, relicsJson, potionsJson, contentHash);
+    }
 
+    private long insertLoadout(RandomLoadoutGenerator.GeneratedLoadout loadout, String deckJson,
+                               String relicsJson, String potionsJson, String contentHash) {
         Connection conn = database.getConnection();
         if (conn == null) {
             logger.error("saveLoadout: Database connection is null!");
             return -1;
         }
 
-        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setString(1, loadout.id);
-            stmt.setString(2, loadout.name);
-            stmt.setString(3, loadout.playerClass.name());
-            stmt.setInt(4, loadout.maxHp);
-            stmt.setInt(5, loadout.currentHp);
-            stmt.setString(6, deckJson);
-            stmt.setString(7, relicsJson);
-            stmt.setString(8, potionsJson);
-            stmt.setInt(9, loadout.potionSlots);
-            stmt.setLong(10, loadout.createdAt);
-            stmt.setInt(11, loadout.ascensionLevel);
-            stmt.setString(12, contentHash);
-
-            logger.info("saveLoadout: Executing insert...");
-            int rows = stmt.executeUpdate();
-            logger.info("saveLoadout: Insert returned " + rows + " rows");
-
-            try (ResultSet rs = stmt.getGeneratedKeys()) {
-                if (rs.next()) {
-                    long id = rs.getLong(1);
-                    logger.info("Saved loadout '" + loadout.name + "' with database ID: " + id + ", contentHash: " + contentHash);
-                    return id;
-                } else {
+        try {
+            return inTransaction(() -> {
+                long id = insertLoadoutRow(conn, loadout.id, loadout.name, loadout.playerClass.name(),
+                    loadout.maxHp, loadout.currentHp, deckJson, relicsJson, potionsJson,
+                    loadout.potionSlots, loadout.createdAt, loadout.ascensionLevel, contentHash);
+                if (id < 0) {
                     logger.error("saveLoadout: No generated key returned!");
+                    return -1L;
                 }
-            }
+                logger.info("Saved loadout '" + loadout.name + "' with database ID: " + id + ", contentHash: " + contentHash);
+                return id;
+            });
         } catch (SQLException e) {
             logger.error("Failed to save loadout: " + e.getMessage(), e);
         }
         return -1;
     }
 
+    /**
+     * Save loadouts from batch generation, which only have card/relic/potion IDs, in
+     * one transaction. Each is named "namePrefix #n" after its position in the batch.
+     * Returns how many were saved, or -1 if the batch failed (nothing is saved then).
+     */
+    public int saveBuiltLoadouts(List<LoadoutBatchGenerator.Generated> batch, String namePrefix) {
+        // Serialize on the calling thread so the writer only runs the inserts
+        List<SerializedBuiltLoadout> rows = new ArrayList<>(batch.size());
+        for (LoadoutBatchGenerator.Generated generated : batch) {
+            rows.add(new SerializedBuiltLoadout(generated));
+        }
+        long createdAt = System.currentTimeMillis();
+
+        return database.executeWrite(() -> {
+            try {
+                return inTransaction(() -> {
+                    Connection conn = database.getConnection();
+                    for (SerializedBuiltLoadout row : rows) {
+                        LoadoutBuilder.BuiltLoadout built = row.generated.loadout;
+                        String name = namePrefix + " #" + (row.generated.index + 1);
+                        long id = insertLoadoutRow(conn, UUID.randomUUID().toString(), name, built.playerClass,
+                            built.maxHp, built.currentHp, row.deckJson, row.relicsJson, row.potionsJson,
+                            built.potionSlots, createdAt, built.ascension, row.contentHash);
+                        if (id < 0) {
+                            throw new SQLException("No generated key returned for '" + name + "'");
+                        }
+                    }
+                    logger.info("Saved " + rows.size() + " generated loadouts");
+                    return rows.size();
+                });
+            } catch (SQLException e) {
+                logger.error("Failed to save generated loadouts: " + e.getMessage(), e);
+                return -1;
+            }
+        });
+    }
+
+    /**
+     * A batch-generated loadout with its JSON columns and content hash worked out.
+     */
+    private static class SerializedBuiltLoadout {
+        final LoadoutBatchGenerator.Generated generated;
+        final String deckJson;
+        final String relicsJson;
+        final String potionsJson;
+        final String contentHash;
+
+        SerializedBuiltLoadout(LoadoutBatchGenerator.Generated generated) {
+            this.generated = generated;
+            LoadoutBuilder.BuiltLoadout built = generated.loadout;
+
+            List<CardData> cards = new ArrayList<>(built.deck.size());
+            for (LoadoutBuilder.CardEntry entry : built.deck) {
+                cards.add(new CardData(entry.cardId, entry.upgraded ? 1 : 0));
+            }
+            // Fresh relics start with counter -1, like a relic.makeCopy()
+            List<RelicData> relics = new ArrayList<>(built.relics.size());
+            for (String relicId : built.relics) {
+                relics.add(new RelicData(relicId, -1));
+            }
+
+            this.deckJson = gson.toJson(cards);
+            this.relicsJson = gson.toJson(relics);
+            this.potionsJson = gson.toJson(built.potions);
+            this.contentHash = computeContentHash(deckJson, relicsJson, potionsJson);
+        }
+    }
+
+    /**
+     * Insert one loadout row plus its content table rows and search document.
+     * Returns the new ID, or -1 if none was generated. Call inside a transaction.
+     */
+    private long insertLoadoutRow(Connection conn, String uuid, String name, String characterClass,
+                                  int maxHp, int currentHp, String deckJson, String relicsJson,
+                                  String potionsJson, int potionSlots, long createdAt,
+                                  int ascensionLevel, String contentHash) throws SQLException {
+        String sql = "INSERT INTO loadouts (uuid, name, character_class, max_hp, current_hp, deck_json, relics_json, potions_json, potion_slots, created_at, ascension_level, content_hash) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        PreparedStatement stmt = database.prepareCachedReturningKeys(conn, sql);
+        stmt.setString(1, uuid);
+        stmt.setString(2, name);
+        stmt.setString(3, characterClass);
+        stmt.setInt(4, maxHp);
+        stmt.setInt(5, currentHp);
+        stmt.setString(6, deckJson);
+        stmt.setString(7, relicsJson);
+        stmt.setString(8, potionsJson);
+        stmt.setInt(9, potionSlots);
+        stmt.setLong(10, createdAt);
+        stmt.setInt(11, ascensionLevel);
+        stmt.setString(12, contentHash);
+        stmt.executeUpdate();
+
+        long id;
+        try (ResultSet rs = stmt.getGeneratedKeys()) {
+            if (!rs.next()) {
+                return -1;
+            }
+            id = rs.getLong(1);
+        }
+
+        LoadoutContentTables.sync(database, conn, LoadoutContentTables.Owner.LOADOUT, id);
+        LoadoutSearchIndex.sync(database, conn, id);
+        return id;
+    }
+
+    /**
+     * Cached statement on the writer connection. Only call from the writer thread.
+     */
+    private PreparedStatement writerStatement(String sql) throws SQLException {
+        return database.prepareCached(database.getConnection(), sql);
+    }
+
+    private PreparedStatement writerStatementReturningKeys(String sql) throws SQLException {
+        return database.prepareCachedReturningKeys(database.getConnection(), sql);
+    }
+
+    private interface SqlWork<T> {
+        T run() throws SQLException;
+    }
+
+    /**
+     * Run work on the writer connection as a single transaction. Only call from the writer thread.
+     */
+    private <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        Connection conn = database.getConnection();
+        if (conn == null) {
+            throw new SQLException("Arena database connection is not available");
+        }
+        conn.setAutoCommit(false);
+        try {
+            T result = work.run();
+            conn.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
     /**
      * Compute a content hash for a loadout's deck, relics, and potions.
      * Used for version tracking - if the hash changes, the loadout was modified.
@@ -112,6 +355,29 @@ public class ArenaRepository {
      * Snapshots the loadout configuration at the time of the run.
      */
     public long startArenaRun(long loadoutId, String encounterId, int startingHp) {
+        long startedAt = System.currentTimeMillis();
+        return database.executeWrite(() -> insertArenaRun(loadoutId, encounterId, startingHp, startedAt));
+    }
+
+    /**
+     * Queue the start of an arena run for a loadout that may itself still be queued
+     * (e.g. the future from {@link #saveLoadoutAsync}).
+     * The future completes with the run ID, or -1 if the run could not be recorded.
+     */
+    public CompletableFuture<Long> startArenaRunAsync(CompletableFuture<Long> loadoutId, String encounterId, int startingHp) {
+        long startedAt = System.currentTimeMillis();
+        return database.submitWrite(() -> {
+            // Writes run in submission order, so the loadout insert has already finished
+            long id = resolveQueuedId(loadoutId);
+            if (id <= 0) {
+                logger.error("Cannot start arena run: loadout was not saved");
+                return -1L;
+            }
+            return insertArenaRun(id, encounterId, startingHp, startedAt);
+        });
+    }
+
+    private long insertArenaRun(long loadoutId, String encounterId, int startingHp, long startedAt) {
         // First, get the loadout to snapshot its current state
         LoadoutRecord loadout = getLoadoutById(loadoutId);
         if (loadout == null) {
@@ -122,56 +388,209 @@ public class ArenaRepository {
         String sql = "INSERT INTO arena_runs (loadout_id, encounter_id, started_at, starting_hp, deck_json, relics_json, potions_json, content_hash) " +
                      "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
 
-        try (PreparedStatement stmt = database.getConnection().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setLong(1, loadoutId);
-            stmt.setString(2, encounterId);
-            stmt.setLong(3, System.currentTimeMillis());
-            stmt.setInt(4, startingHp);
-            stmt.setString(5, loadout.deckJson);
-            stmt.setString(6, loadout.relicsJson);
-            stmt.setString(7, loadout.potionsJson);
-            stmt.setString(8, loadout.contentHash);
-
-            stmt.executeUpdate();
+        try {
+            return inTransaction(() -> {
+                // Runs of an unchanged loadout share one snapshot row; inline JSON only if there's no usable one
+                boolean shared = storeSnapshot(loadout, startedAt);
 
-            try (ResultSet rs = stmt.getGeneratedKeys()) {
-                if (rs.next()) {
-                    long id = rs.getLong(1);
-                    logger.info("Started arena run " + id + " with encounter: " + encounterId + ", contentHash: " + loadout.contentHash);
-                    return id;
+                PreparedStatement stmt = writerStatementReturningKeys(sql);
+                stmt.setLong(1, loadoutId);
+                stmt.setString(2, encounterId);
+                stmt.setLong(3, startedAt);
+                stmt.setInt(4, startingHp);
+                stmt.setString(5, shared ? null : loadout.deckJson);
+                stmt.setString(6, shared ? null : loadout.relicsJson);
+                stmt.setString(7, shared ? null : loadout.potionsJson);
+                stmt.setString(8, loadout.contentHash);
+
+                stmt.executeUpdate();
+
+                long id;
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (!rs.next()) {
+                        return -1L;
+                    }
+                    id = rs.getLong(1);
                 }
-            }
+
+                LoadoutContentTables.copyLoadoutToRun(database, database.getConnection(), loadoutId, id);
+                logger.info("Started arena run " + id + " with encounter: " + encounterId + ", contentHash: " + loadout.contentHash);
+                return id;
+            });
         } catch (SQLException e) {
             logger.error("Failed to start arena run", e);
         }
         return -1;
     }
 
+    /**
+     * Make sure loadout_snapshots holds this loadout's contents under its content hash.
+     * Returns false when the run has to keep its own copy: no hash, or a snapshot
+     * with that hash but different JSON (a hash left stale by an older build).
+     */
+    private boolean storeSnapshot(LoadoutRecord loadout, long createdAt) throws SQLException {
+        if (loadout.contentHash == null || loadout.deckJson == null || loadout.relicsJson == null) {
+            return false;
+        }
+
+        PreparedStatement insert = writerStatement(
+            "INSERT OR IGNORE INTO loadout_snapshots (content_hash, deck_json, relics_json, potions_json, created_at) " +
+            "VALUES (?, ?, ?, ?, ?)");
+        insert.setString(1, loadout.contentHash);
+        insert.setString(2, loadout.deckJson);
+        insert.setString(3, loadout.relicsJson);
+        insert.setString(4, loadout.potionsJson);
+        insert.setLong(5, createdAt);
+        if (insert.executeUpdate() > 0) {
+            return true;
+        }
+
+        PreparedStatement check = writerStatement(
+            "SELECT deck_json = ? AND relics_json = ? AND potions_json IS ? FROM loadout_snapshots WHERE content_hash = ?");
+        check.setString(1, loadout.deckJson);
+        check.setString(2, loadout.relicsJson);
+        check.setString(3, loadout.potionsJson);
+        check.setString(4, loadout.contentHash);
+        try (ResultSet rs = check.executeQuery()) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
     /**
      * Complete an arena run with the outcome.
      */
     public void completeArenaRun(long runId, ArenaRunOutcome outcome) {
+        long endedAt = System.currentTimeMillis();
+        database.executeWrite(() -> {
+            updateArenaRunOutcome(runId, outcome, endedAt);
+            return null;
+        });
+    }
+
+    /**
+     * Queue the completion of an arena run whose ID may still be pending
+     * (e.g. the future from {@link #startArenaRunAsync}).
+     */
+    public CompletableFuture<Void> completeArenaRunAsync(CompletableFuture<Long> runId, ArenaRunOutcome outcome) {
+        long endedAt = System.currentTimeMillis();
+        return database.submitWrite(() -> {
+            long id = resolveQueuedId(runId);
+            if (id <= 0) {
+                logger.error("Cannot complete arena run: run was not recorded");
+                return null;
+            }
+            updateArenaRunOutcome(id, outcome, endedAt);
+            return null;
+        });
+    }
+
+    /**
+     * Crash recovery: mark runs left without an outcome by a previous session as ABANDONED.
+     * Call once at startup, before any new run can be started - a run with no outcome
+     * at that point can only belong to a session that crashed or was killed.
+     * Returns the number of runs marked, or -1 on failure.
+     */
+    public int abandonOrphanedRuns() {
+        return database.executeWrite(() -> {
+            // The partial index only holds incomplete runs, so this stays cheap however long
+            // the history is. Without the hint the planner prefers the full outcome index.
+            // Abandoned runs aren't counted in loadout_encounter_stats, so no summary changes.
+            String updateSql = "UPDATE arena_runs INDEXED BY idx_arena_runs_incomplete " +
+                               "SET outcome = ?, ended_at = COALESCE(ended_at, started_at) " +
+                               "WHERE outcome IS NULL";
+            try {
+                PreparedStatement update = writerStatement(updateSql);
+                update.setString(1, ArenaRunOutcome.RunResult.ABANDONED.name());
+                int abandoned = update.executeUpdate();
+                if (abandoned > 0) {
+                    logger.info("Marked " + abandoned + " orphaned arena run(s) as ABANDONED");
+                }
+                return abandoned;
+            } catch (SQLException e) {
+                logger.error("Failed to mark orphaned arena runs", e);
+                return -1;
+            }
+        });
+    }
+
+    /**
+     * Get the ID produced by an earlier queued write, or -1 if it failed.
+     */
+    private static long resolveQueuedId(CompletableFuture<Long> id) {
+        if (id == null) {
+            return -1;
+        }
+        try {
+            Long value = id.join();
+            return value != null ? value : -1;
+        } catch (CompletionException e) {
+            logger.error("Earlier database write failed", e.getCause());
+            return -1;
+        }
+    }
+
+    /**
+     * Record the outcome and fold it into loadout_encounter_stats in one transaction.
+     */
+    private void updateArenaRunOutcome(long runId, ArenaRunOutcome outcome, long endedAt) {
+        String selectSql = "SELECT loadout_id, encounter_id, outcome FROM arena_runs WHERE id = ?";
         String sql = "UPDATE arena_runs SET " +
-                     "ended_at = ?, outcome = ?, ending_hp = ?, potions_used_json = ?, " +
+                     "ended_at = ?, outcome = ?, ending_hp = ?, potions_used_json = ?, potions_used = ?, " +
                      "damage_dealt = ?, damage_taken = ?, turns_taken = ?, cards_played = ?, " +
                      "relics_triggered_json = ? " +
                      "WHERE id = ?";
 
-        try (PreparedStatement stmt = database.getConnection().prepareStatement(sql)) {
-            stmt.setLong(1, System.currentTimeMillis());
-            stmt.setString(2, outcome.result.name());
-            stmt.setInt(3, outcome.endingHp);
-            stmt.setString(4, gson.toJson(outcome.potionsUsed));
-            stmt.setInt(5, outcome.damageDealt);
-            stmt.setInt(6, outcome.damageTaken);
-            stmt.setInt(7, outcome.turnsTaken);
-            stmt.setInt(8, outcome.cardsPlayed);
-            stmt.setString(9, gson.toJson(outcome.relicsTriggered));
-            stmt.setLong(10, runId);
+        try {
+            OutcomeChange change = inTransaction(() -> {
+                long loadoutId;
+                String encounterId;
+                String previousOutcome;
+                PreparedStatement select = writerStatement(selectSql);
+                select.setLong(1, runId);
+                try (ResultSet rs = select.executeQuery()) {
+                    if (!rs.next()) {
+                        logger.error("Cannot complete arena run: run " + runId + " not found");
+                        return null;
+                    }
+                    loadoutId = rs.getLong("loadout_id");
+                    encounterId = rs.getString("encounter_id");
+                    previousOutcome = rs.getString("outcome");
+                }
 
-            int updated = stmt.executeUpdate();
-            if (updated > 0) {
-                logger.info("Completed arena run " + runId + " with outcome: " + outcome.result);
+                PreparedStatement stmt = writerStatement(sql);
+                stmt.setLong(1, endedAt);
+                stmt.setString(2, outcome.result.name());
+                stmt.setInt(3, outcome.endingHp);
+                stmt.setString(4, gson.toJson(outcome.potionsUsed));
+                stmt.setInt(5, outcome.potionsUsed.size());
+                stmt.setInt(6, outcome.damageDealt);
+                stmt.setInt(7, outcome.damageTaken);
+                stmt.setInt(8, outcome.turnsTaken);
+                stmt.setInt(9, outcome.cardsPlayed);
+                stmt.setString(10, gson.toJson(outcome.relicsTriggered));
+                stmt.setLong(11, runId);
+
+                int updated = stmt.executeUpdate();
+                if (updated > 0) {
+                    boolean finished = outcome.result != ArenaRunOutcome.RunResult.ABANDONED;
+                    if (previousOutcome == null && finished) {
+                        addToEncounterStats(loadoutId, encounterId, outcome, endedAt);
+                        if (outcome.result == ArenaRunOutcome.RunResult.VICTORY) {
+                            ParetoFrontier.add(database, database.getConnection(), runId, loadoutId, encounterId, outcome);
+                        }
+                    } else if (previousOutcome != null) {
+                        // Overwriting an earlier outcome can't be applied as a delta
+                        recomputeEncounterStats(loadoutId, encounterId);
+                        ParetoFrontier.recompute(database, database.getConnection(), loadoutId, encounterId);
+                    }
+                    logger.info("Completed arena run " + runId + " with outcome: " + outcome.result);
+                    return new OutcomeChange(loadoutId, encounterId, readLastOutcome(loadoutId, encounterId));
+                }
+                return null;
+            });
+            // Only once committed: a load that sees the new version must also see the new row
+            if (change != null) {
+                outcomeCache.update(change.loadoutId, change.encounterId, change.lastOutcome);
             }
         } catch (SQLException e) {
             logger.error("Failed to complete arena run", e);
@@ -179,62 +598,133 @@ public class ArenaRepository {
     }
 
     /**
-     * Get recent arena runs for display in statistics.
-     * Deletes incomplete runs (from crashes) and only returns completed runs.
+     * The latest outcome a completed run left on one loadout+encounter, for the outcome cache.
      */
-    public List<ArenaRunRecord> getRecentRuns(int limit) {
-        // First, delete any incomplete runs (outcome is NULL means crashed/abandoned)
-        try (Statement stmt = database.getConnection().createStatement()) {
-            int deleted = stmt.executeUpdate("DELETE FROM arena_runs WHERE outcome IS NULL");
-            if (deleted > 0) {
-                logger.info("Cleaned up " + deleted + " incomplete arena run(s)");
-            }
-        } catch (SQLException e) {
-            logger.error("Failed to clean up incomplete runs", e);
+    private static final class OutcomeChange {
+        final long loadoutId;
+        final String encounterId;
+        final String lastOutcome;
+
+        OutcomeChange(long loadoutId, String encounterId, String lastOutcome) {
+            this.loadoutId = loadoutId;
+            this.encounterId = encounterId;
+            this.lastOutcome = lastOutcome;
         }
+    }
+
+    /**
+     * The latest outcome of one loadout+encounter, read from its summary row.
+     */
+    private String readLastOutcome(long loadoutId, String encounterId) throws SQLException {
+        PreparedStatement stmt = writerStatement(
+            "SELECT last_outcome FROM loadout_encounter_stats WHERE loadout_id = ? AND encounter_id = ?");
+        stmt.setLong(1, loadoutId);
+        stmt.setString(2, encounterId);
+        try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getString("last_outcome") : null;
+        }
+    }
+
+    private void addToEncounterStats(long loadoutId, String encounterId, ArenaRunOutcome outcome,
+                                     long endedAt) throws SQLException {
+        String sql = "INSERT INTO loadout_encounter_stats " + ArenaDatabase.ENCOUNTER_STATS_COLUMNS + " " +
+                     "VALUES (?, ?, 1, ?, ?, ?, ?, ?, ?) " +
+                     "ON CONFLICT (loadout_id, encounter_id) DO UPDATE SET " +
+                     "total_runs = total_runs + 1, " +
+                     "wins = wins + excluded.wins, " +
+                     "losses = losses + excluded.losses, " +
+                     "best_damage_taken = COALESCE(MIN(best_damage_taken, excluded.best_damage_taken), best_damage_taken, excluded.best_damage_taken), " +
+                     "best_turns = COALESCE(MIN(best_turns, excluded.best_turns), best_turns, excluded.best_turns), " +
+                     "last_outcome = excluded.last_outcome, " +
+                     "last_ended_at = excluded.last_ended_at";
+
+        boolean victory = outcome.result == ArenaRunOutcome.RunResult.VICTORY;
+        PreparedStatement stmt = writerStatement(sql);
+        stmt.setLong(1, loadoutId);
+        stmt.setString(2, encounterId);
+        stmt.setInt(3, victory ? 1 : 0);
+        stmt.setInt(4, outcome.result == ArenaRunOutcome.RunResult.DEFEAT ? 1 : 0);
+        if (victory) {
+            stmt.setInt(5, outcome.damageTaken);
+            stmt.setInt(6, outcome.turnsTaken);
+        } else {
+            stmt.setNull(5, Types.INTEGER);
+            stmt.setNull(6, Types.INTEGER);
+        }
+        stmt.setString(7, outcome.result.name());
+        stmt.setLong(8, endedAt);
+        stmt.executeUpdate();
+    }
 
-        String sql = "SELECT r.id, r.loadout_id, r.started_at, r.ended_at, r.outcome, r.starting_hp, r.ending_hp, " +
-                     "r.encounter_id, r.potions_used_json, r.damage_dealt, r.damage_taken, r.turns_taken, " +
-                     "l.name as loadout_name, l.character_class " +
-                     "FROM arena_runs r " +
-                     "JOIN loadouts l ON r.loadout_id = l.id " +
-                     "WHERE r.outcome IS NOT NULL " +
+    private void recomputeEncounterStats(long loadoutId, String encounterId) throws SQLException {
+        // No finished runs left means no row, so clear the old one rather than replace it
+        PreparedStatement delete = writerStatement(
+            "DELETE FROM loadout_encounter_stats WHERE loadout_id = ? AND encounter_id = ?");
+        delete.setLong(1, loadoutId);
+        delete.setString(2, encounterId);
+        delete.executeUpdate();
+
+        String sql = "INSERT INTO loadout_encounter_stats " + ArenaDatabase.ENCOUNTER_STATS_COLUMNS + " " +
+                     ArenaDatabase.ENCOUNTER_STATS_SELECT + " AND r.loadout_id = ? AND r.encounter_id = ? " +
+                     "GROUP BY r.loadout_id, r.encounter_id";
+
+        PreparedStatement stmt = writerStatement(sql);
+        stmt.setLong(1, loadoutId);
+        stmt.setString(2, encounterId);
+        stmt.executeUpdate();
+    }
+
+    /**
+     * Rebuild loadout_encounter_stats and the Pareto-best flags from the full run history.
+     * Only needed if the summary has drifted (e.g. runs edited by hand).
+     * Returns the number of loadout+encounter rows, or -1 on failure.
+     */
+    public int rebuildEncounterStats() {
+        return database.executeWrite(() -> {
+            try {
+                int rows = inTransaction(() -> {
+                    try (Statement stmt = database.getConnection().createStatement()) {
+                        ParetoFrontier.rebuildAll(stmt);
+                        return database.rebuildEncounterStats(stmt);
+                    }
+                });
+                outcomeCache.invalidateAll();
+                logger.info("Rebuilt loadout_encounter_stats: " + rows + " row(s)");
+                return rows;
+            } catch (SQLException e) {
+                logger.error("Failed to rebuild loadout encounter stats", e);
+                return -1;
+            }
+        });
+    }
+
+    /**
+     * Get recent arena runs for display in statistics.
+     * Only returns finished runs; incomplete and abandoned ones are left out.
+     */
+    public List<ArenaRunRecord> getRecentRuns(int limit) {
+        // +r.outcome: read newest-first off the started_at index, not every finished run via the outcome index
+        String sql = RUN_RECORD_SELECT +
+                     "WHERE +r.outcome IN " + ArenaDatabase.FINISHED_OUTCOMES + " " +
                      "ORDER BY r.started_at DESC " +
                      "LIMIT ?";
 
         List<ArenaRunRecord> results = new ArrayList<>();
 
-        try (PreparedStatement stmt = database.getConnection().prepareStatement(sql)) {
+        Connection conn = database.acquireReadConnection();
+        try {
+            PreparedStatement stmt = database.prepareCached(conn, sql);
             stmt.setInt(1, limit);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    ArenaRunRecord record = new ArenaRunRecord();
-                    record.id = rs.getLong("id");
-                    record.loadoutId = rs.getLong("loadout_id");
-                    record.startedAt = rs.getLong("started_at");
-                    record.endedAt = rs.getLong("ended_at");
-                    record.outcome = rs.getString("outcome");
-                    record.startingHp = rs.getInt("starting_hp");
-                    record.endingHp = rs.getInt("ending_hp");
-                    record.encounterId = rs.getString("encounter_id");
-                    record.loadoutName = rs.getString("loadout_name");
-                    record.characterClass = rs.getString("character_class");
-                    record.damageDealt = rs.getInt("damage_dealt");
-                    record.damageTaken = rs.getInt("damage_taken");
-                    record.turnsTaken = rs.getInt("turns_taken");
-
-                    String potionsJson = rs.getString("potions_used_json");
-                    if (potionsJson != null) {
-                        Type listType = new TypeToken<List<String>>(){}.getType();
-                        record.potionsUsed = gson.fromJson(potionsJson, listType);
-                    }
-
-                    results.add(record);
+                    results.add(readRunRecord(rs));
                 }
             }
         } catch (SQLException e) {
             logger.error("Failed to get recent runs", e);
+        } finally {
+            database.releaseReadConnection(conn);
         }
 
         return results;
@@ -246,13 +736,14 @@ public class ArenaRepository {
     public ArenaStats getStats() {
         ArenaStats stats = new ArenaStats();
 
-        String totalSql = "SELECT COUNT(*) as total, " +
-                          "SUM(CASE WHEN outcome = 'VICTORY' THEN 1 ELSE 0 END) as wins, " +
-                          "SUM(CASE WHEN outcome = 'DEFEAT' THEN 1 ELSE 0 END) as losses " +
-                          "FROM arena_runs WHERE outcome IS NOT NULL";
+        // Summed from loadout_encounter_stats, which has one row per loadout+encounter
+        String totalSql = "SELECT COALESCE(SUM(total_runs), 0) as total, " +
+                          "COALESCE(SUM(wins), 0) as wins, " +
+                          "COALESCE(SUM(losses), 0) as losses " +
+                          "FROM loadout_encounter_stats";
 
-        try (Statement stmt = database.getConnection().createStatement();
-             ResultSet rs = stmt.executeQuery(totalSql)) {
+        Connection conn = database.acquireReadConnection();
+        try (ResultSet rs = database.prepareCached(conn, totalSql).executeQuery()) {
             if (rs.next()) {
                 stats.totalRuns = rs.getInt("total");
                 stats.wins = rs.getInt("wins");
@@ -260,6 +751,98 @@ public class ArenaRepository {
             }
         } catch (SQLException e) {
             logger.error("Failed to get stats", e);
+        } finally {
+            database.releaseReadConnection(conn);
+        }
+
+        return stats;
+    }
+
+    /**
+     * Get the statistics summary for a single loadout.
+     */
+    public ArenaStats getStatsForLoadout(long loadoutId) {
+        ArenaStats stats = new ArenaStats();
+
+        String sql = "SELECT COALESCE(SUM(total_runs), 0) as total, " +
+                     "COALESCE(SUM(wins), 0) as wins, " +
+                     "COALESCE(SUM(losses), 0) as losses " +
+                     "FROM loadout_encounter_stats WHERE loadout_id = ?";
+
+        Connection conn = database.acquireReadConnection();
+        try {
+            PreparedStatement stmt = database.prepareCached(conn, sql);
+            stmt.setLong(1, loadoutId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    stats.totalRuns = rs.getInt("total");
+                    stats.wins = rs.getInt("wins");
+                    stats.losses = rs.getInt("losses");
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to get stats for loadout", e);
+        } finally {
+            database.releaseReadConnection(conn);
+        }
+
+        return stats;
+    }
+
+    /**
+     * Get the IDs of loadouts whose deck contains a card, using the loadout_cards index.
+     */
+    public List<Long> getLoadoutIdsWithCard(String cardId) {
+        String sql = "SELECT DISTINCT loadout_id FROM loadout_cards WHERE card_id = ? ORDER BY loadout_id";
+        List<Long> results = new ArrayList<>();
+
+        Connection conn = database.acquireReadConnection();
+        try {
+            PreparedStatement stmt = database.prepareCached(conn, sql);
+            stmt.setString(1, cardId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    results.add(rs.getLong("loadout_id"));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to find loadouts with card " + cardId, e);
+        } finally {
+            database.releaseReadConnection(conn);
+        }
+
+        return results;
+    }
+
+    /**
+     * Get win/loss totals over finished runs that had a relic, using the run_relics index.
+     * Uses the run's snapshot, so later edits to the loadout don't change the answer.
+     */
+    public ArenaStats getStatsForRunsWithRelic(String relicId) {
+        ArenaStats stats = new ArenaStats();
+
+        String sql = "SELECT COUNT(*) as total, " +
+                     "COALESCE(SUM(CASE WHEN outcome = 'VICTORY' THEN 1 ELSE 0 END), 0) as wins, " +
+                     "COALESCE(SUM(CASE WHEN outcome = 'DEFEAT' THEN 1 ELSE 0 END), 0) as losses " +
+                     "FROM arena_runs " +
+                     "WHERE id IN (SELECT run_id FROM run_relics WHERE relic_id = ?) " +
+                     "AND outcome IN " + ArenaDatabase.FINISHED_OUTCOMES;
+
+        Connection conn = database.acquireReadConnection();
+        try {
+            PreparedStatement stmt = database.prepareCached(conn, sql);
+            stmt.setString(1, relicId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    stats.totalRuns = rs.getInt("total");
+                    stats.wins = rs.getInt("wins");
+                    stats.losses = rs.getInt("losses");
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to get stats for relic " + relicId, e);
+        } finally {
+            database.releaseReadConnection(conn);
         }
 
         return stats;
@@ -378,6 +961,65 @@ public class ArenaRepository {
         public String relicsJson;
         public String potionsJson;
         public String contentHash;
+
+        /**
+         * Cursor for fetching the page after this run, in date order.
+         */
+        public RunCursor cursor() {
+            return new RunCursor(startedAt, id);
+        }
+
+        /**
+         * Cursor for fetching the page after this run, in the given order.
+         */
+        public RunCursor cursor(RunSort sort) {
+            return new RunCursor(sort.keyOf(this), loadoutId, startedAt, id);
+        }
+    }
+
+    /**
+     * Orders run history can be paged in, each by its column and then by date, all in one
+     * direction. Names and encounters compare case-insensitively.
+     */
+    public enum RunSort {
+        DATE,
+        LOADOUT,
+        ENCOUNTER,
+        OUTCOME;
+
+        String keyOf(ArenaRunRecord run) {
+            switch (this) {
+                case LOADOUT:
+                    return run.loadoutName;
+                case ENCOUNTER:
+                    return run.encounterId;
+                case OUTCOME:
+                    return run.outcome;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    /**
+     * Position in the run history for {@link #getRunsPage}.
+     */
+    public static class RunCursor {
+        public final String sortKey;  // null in date order
+        public final long loadoutId;  // breaks ties between loadouts with the same name
+        public final long startedAt;
+        public final long id;
+
+        public RunCursor(long startedAt, long id) {
+            this(null, 0, startedAt, id);
+        }
+
+        public RunCursor(String sortKey, long loadoutId, long startedAt, long id) {
+            this.sortKey = sortKey;
+            this.loadoutId = loadoutId;
+            this.startedAt = startedAt;
+            this.id = id;
+        }
     }
 
     /**
@@ -397,34 +1039,22 @@ public class ArenaRepository {
      * Get a specific loadout by database ID.
      */
     public LoadoutRecord getLoadoutById(long loadoutId) {
-        String sql = "SELECT id, uuid, name, character_class, max_hp, current_hp, deck_json, relics_json, potions_json, potion_slots, created_at, ascension_level, content_hash, is_favorite " +
-                     "FROM loadouts WHERE id = ?";
+        String sql = "SELECT " + LOADOUT_RECORD_COLUMNS + " FROM loadouts l WHERE l.id = ?";
 
-        try (PreparedStatement stmt = database.getConnection().prepareStatement(sql)) {
+        Connection conn = database.acquireReadConnection();
+        try {
+            PreparedStatement stmt = database.prepareCached(conn, sql);
             stmt.setLong(1, loadoutId);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    LoadoutRecord record = new LoadoutRecord();
-                    record.dbId = rs.getLong("id");
-                    record.uuid = rs.getString("uuid");
-                    record.name = rs.getString("name");
-                    record.characterClass = rs.getString("character_class");
-                    record.maxHp = rs.getInt("max_hp");
-                    record.currentHp = rs.getInt("current_hp");
-                    record.deckJson = rs.getString("deck_json");
-                    record.relicsJson = rs.getString("relics_json");
-                    record.potionsJson = rs.getString("potions_json");
-                    record.potionSlots = rs.getInt("potion_slots");
-                    record.createdAt = rs.getLong("created_at");
-                    record.ascensionLevel = rs.getInt("ascension_level");
-                    record.contentHash = rs.getString("content_hash");
-                    record.isFavorite = rs.getInt("is_favorite") == 1;
-                    return record;
+                    return readLoadoutRecord(rs);
                 }
             }
         } catch (SQLException e) {
             logger.error("Failed to get loadout by ID: " + loadoutId, e);
+        } finally {
+            database.releaseReadConnection(conn);
         }
 
         return null;
@@ -435,11 +1065,16 @@ public class ArenaRepository {
      * Returns the new favorite status.
      */
     public boolean toggleFavorite(long loadoutId) {
+        return database.executeWrite(() -> flipFavorite(loadoutId));
+    }
+
+    private boolean flipFavorite(long loadoutId) {
         // First get current status
         String selectSql = "SELECT is_favorite FROM loadouts WHERE id = ?";
         boolean currentStatus = false;
 
-        try (PreparedStatement stmt = database.getConnection().prepareStatement(selectSql)) {
+        try {
+            PreparedStatement stmt = writerStatement(selectSql);
             stmt.setLong(1, loadoutId);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
@@ -455,7 +1090,8 @@ public class ArenaRepository {
         boolean newStatus = !currentStatus;
         String updateSql = "UPDATE loadouts SET is_favorite = ? WHERE id = ?";
 
-        try (PreparedStatement stmt = database.getConnection().prepareStatement(updateSql)) {
+        try {
+            PreparedStatement stmt = writerStatement(updateSql);
             stmt.setInt(1, newStatus ? 1 : 0);
             stmt.setLong(2, loadoutId);
 
@@ -475,41 +1111,229 @@ public class ArenaRepository {
      * Results are sorted by favorite status (favorites first), then by created_at descending.
      */
     public List<LoadoutRecord> getLoadouts(int limit) {
-        String sql = "SELECT id, uuid, name, character_class, max_hp, current_hp, deck_json, relics_json, potions_json, potion_slots, created_at, ascension_level, content_hash, is_favorite " +
-                     "FROM loadouts ORDER BY is_favorite DESC, created_at DESC LIMIT ?";
+        String sql = "SELECT " + LOADOUT_RECORD_COLUMNS + " FROM loadouts l " +
+                     "ORDER BY l.is_favorite DESC, l.created_at DESC LIMIT ?";
 
         List<LoadoutRecord> results = new ArrayList<>();
 
-        try (PreparedStatement stmt = database.getConnection().prepareStatement(sql)) {
+        Connection conn = database.acquireReadConnection();
+        try {
+            PreparedStatement stmt = database.prepareCached(conn, sql);
             stmt.setInt(1, limit);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    LoadoutRecord record = new LoadoutRecord();
-                    record.dbId = rs.getLong("id");
-                    record.uuid = rs.getString("uuid");
-                    record.name = rs.getString("name");
-                    record.characterClass = rs.getString("character_class");
-                    record.maxHp = rs.getInt("max_hp");
-                    record.currentHp = rs.getInt("current_hp");
-                    record.deckJson = rs.getString("deck_json");
-                    record.relicsJson = rs.getString("relics_json");
-                    record.potionsJson = rs.getString("potions_json");
-                    record.potionSlots = rs.getInt("potion_slots");
-                    record.createdAt = rs.getLong("created_at");
-                    record.ascensionLevel = rs.getInt("ascension_level");
-                    record.contentHash = rs.getString("content_hash");
-                    record.isFavorite = rs.getInt("is_favorite") == 1;
-                    results.add(record);
+                    results.add(readLoadoutRecord(rs));
                 }
             }
         } catch (SQLException e) {
             logger.error("Failed to get loadouts", e);
+        } finally {
+            database.releaseReadConnection(conn);
+        }
+
+        return results;
+    }
+
+    /**
+     * Get one page of the loadout list: favorites first, then newest first.
+     * Pages are keyed on (is_favorite, created_at, id): pass the cursor of the last
+     * loadout from the previous page as {@code after}, or null for the first page.
+     *
+     * @param characterClass only return loadouts of this class, or null for all classes
+     * @param after cursor of the last loadout already loaded, or null
+     * @param pageSize maximum number of loadouts to return
+     */
+    public List<LoadoutRecord> getLoadoutsPage(String characterClass, LoadoutCursor after, int pageSize) {
+        StringBuilder sql = new StringBuilder("SELECT " + LOADOUT_RECORD_COLUMNS + " FROM loadouts l ");
+        if (characterClass != null) {
+            sql.append("WHERE l.character_class = ? ");
+        }
+        if (after != null) {
+            sql.append(characterClass != null ? "AND " : "WHERE ")
+               .append("(l.is_favorite, l.created_at, l.id) < (?, ?, ?) ");
+        }
+        sql.append("ORDER BY l.is_favorite DESC, l.created_at DESC, l.id DESC LIMIT ?");
+
+        List<LoadoutRecord> results = new ArrayList<>();
+
+        Connection conn = database.acquireReadConnection();
+        try {
+            PreparedStatement stmt = database.prepareCached(conn, sql.toString());
+            int param = 1;
+            if (characterClass != null) {
+                stmt.setString(param++, characterClass);
+            }
+            if (after != null) {
+                stmt.setInt(param++, after.favorite ? 1 : 0);
+                stmt.setLong(param++, after.createdAt);
+                stmt.setLong(param++, after.id);
+            }
+            stmt.setInt(param, pageSize);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    results.add(readLoadoutRecord(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to get page of loadouts", e);
+        } finally {
+            database.releaseReadConnection(conn);
         }
 
         return results;
     }
 
+    /**
+     * Count saved loadouts, optionally of one class.
+     */
+    public int countLoadouts(String characterClass) {
+        String sql = characterClass == null ?
+            "SELECT COUNT(*) FROM loadouts" :
+            "SELECT COUNT(*) FROM loadouts WHERE character_class = ?";
+
+        Connection conn = database.acquireReadConnection();
+        try {
+            PreparedStatement stmt = database.prepareCached(conn, sql);
+            if (characterClass != null) {
+                stmt.setString(1, characterClass);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to count loadouts", e);
+        } finally {
+            database.releaseReadConnection(conn);
+        }
+
+        return 0;
+    }
+
+    /**
+     * Position in the loadout list for {@link #getLoadoutsPage}.
+     */
+    public static class LoadoutCursor {
+        public final boolean favorite;
+        public final long createdAt;
+        public final long id;
+
+        public LoadoutCursor(boolean favorite, long createdAt, long id) {
+            this.favorite = favorite;
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+    }
+
+    /**
+     * Store the game's card and relic display names (in the current language) and, if any
+     * are new or changed, re-index every loadout so searches match them.
+     * Returns how many names changed, or -1 on failure.
+     *
+     * @param cardNames display name by card ID
+     * @param relicNames display name by relic ID
+     */
+    public int updateDisplayNames(Map<String, String> cardNames, Map<String, String> relicNames) {
+        return database.executeWrite(prepareUpdateDisplayNames(cardNames, relicNames));
+    }
+
+    /**
+     * Queue {@link #updateDisplayNames} without waiting for it.
+     */
+    public CompletableFuture<Integer> updateDisplayNamesAsync(Map<String, String> cardNames,
+                                                              Map<String, String> relicNames) {
+        return database.submitWrite(prepareUpdateDisplayNames(cardNames, relicNames));
+    }
+
+    private Supplier<Integer> prepareUpdateDisplayNames(Map<String, String> cardNames,
+                                                        Map<String, String> relicNames) {
+        return () -> {
+            try {
+                return inTransaction(() -> {
+                    Connection conn = database.getConnection();
+                    int changed = LoadoutSearchIndex.updateNames(database, conn, LoadoutSearchIndex.CARD, cardNames) +
+                                  LoadoutSearchIndex.updateNames(database, conn, LoadoutSearchIndex.RELIC, relicNames);
+                    if (changed > 0) {
+                        // Unchanged on most launches; a new language or mod set re-indexes once
+                        try (Statement stmt = conn.createStatement()) {
+                            int docs = LoadoutSearchIndex.rebuildAll(stmt);
+                            logger.info(changed + " display name(s) changed, re-indexed " + docs + " loadout(s) for search");
+                        }
+                    }
+                    return changed;
+                });
+            } catch (SQLException e) {
+                logger.error("Failed to update display names", e);
+                return -1;
+            }
+        };
+    }
+
+    /**
+     * Find loadouts whose name, class, cards or relics match what the user typed, by ID or
+     * by display name. Each word is matched as a prefix ("dem for" finds Demon Form), best matches first,
+     * over every saved loadout rather than a recent subset.
+     *
+     * @param text the search box contents
+     * @param characterClass only return loadouts of this class, or null for all classes
+     * @param limit maximum number of loadouts to return
+     */
+    public List<LoadoutRecord> searchLoadouts(String text, String characterClass, int limit) {
+        List<LoadoutRecord> results = new ArrayList<>();
+        String query = LoadoutSearchIndex.toPrefixQuery(text);
+        if (query == null) {
+            return results;
+        }
+
+        String sql = "SELECT " + LOADOUT_RECORD_COLUMNS + " " +
+                     "FROM loadout_search JOIN loadouts l ON l.id = loadout_search.rowid " +
+                     "WHERE loadout_search MATCH ? AND (? IS NULL OR l.character_class = ?) " +
+                     "ORDER BY " + LoadoutSearchIndex.RANK + ", l.is_favorite DESC, l.created_at DESC LIMIT ?";
+
+        Connection conn = database.acquireReadConnection();
+        try {
+            PreparedStatement stmt = database.prepareCached(conn, sql);
+            stmt.setString(1, query);
+            stmt.setString(2, characterClass);
+            stmt.setString(3, characterClass);
+            stmt.setInt(4, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    results.add(readLoadoutRecord(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to search loadouts for: " + text, e);
+        } finally {
+            database.releaseReadConnection(conn);
+        }
+
+        return results;
+    }
+
+    private static LoadoutRecord readLoadoutRecord(ResultSet rs) throws SQLException {
+        LoadoutRecord record = new LoadoutRecord();
+        record.dbId = rs.getLong("id");
+        record.uuid = rs.getString("uuid");
+        record.name = rs.getString("name");
+        record.characterClass = rs.getString("character_class");
+        record.maxHp = rs.getInt("max_hp");
+        record.currentHp = rs.getInt("current_hp");
+        record.deckJson = rs.getString("deck_json");
+        record.relicsJson = rs.getString("relics_json");
+        record.potionsJson = rs.getString("potions_json");
+        record.potionSlots = rs.getInt("potion_slots");
+        record.createdAt = rs.getLong("created_at");
+        record.ascensionLevel = rs.getInt("ascension_level");
+        record.contentHash = rs.getString("content_hash");
+        record.isFavorite = rs.getInt("is_favorite") == 1;
+        return record;
+    }
+
     /**
      * Record of a saved loadout.
      */
@@ -528,6 +1352,13 @@ public class ArenaRepository {
         public int ascensionLevel;
         public String contentHash;
         public boolean isFavorite;
+
+        /**
+         * Cursor for fetching the page after this loadout.
+         */
+        public LoadoutCursor cursor() {
+            return new LoadoutCursor(isFavorite, createdAt, dbId);
+        }
     }
 
     /**
@@ -535,27 +1366,50 @@ public class ArenaRepository {
      * Returns true if successful.
      */
     public boolean deleteLoadout(long loadoutId) {
+        return database.executeWrite(() -> deleteLoadoutAndRuns(loadoutId));
+    }
+
+    private boolean deleteLoadoutAndRuns(long loadoutId) {
         try {
-            // First delete associated arena runs
-            String deleteRunsSql = "DELETE FROM arena_runs WHERE loadout_id = ?";
-            try (PreparedStatement stmt = database.getConnection().prepareStatement(deleteRunsSql)) {
-                stmt.setLong(1, loadoutId);
-                int deletedRuns = stmt.executeUpdate();
+            return inTransaction(() -> {
+                // Child rows first - the run snapshot rows are found through arena_runs
+                Connection conn = database.getConnection();
+                LoadoutContentTables.deleteRunsOfLoadout(database, conn, loadoutId);
+                LoadoutContentTables.delete(database, conn, LoadoutContentTables.Owner.LOADOUT, loadoutId);
+                LoadoutSearchIndex.delete(database, conn, loadoutId);
+
+                // Then delete associated arena runs and their summary rows
+                String deleteRunsSql = "DELETE FROM arena_runs WHERE loadout_id = ?";
+                PreparedStatement deleteRuns = writerStatement(deleteRunsSql);
+                deleteRuns.setLong(1, loadoutId);
+                int deletedRuns = deleteRuns.executeUpdate();
                 logger.info("Deleted " + deletedRuns + " arena runs for loadout " + loadoutId);
-            }
 
-            // Then delete the loadout
-            String deleteLoadoutSql = "DELETE FROM loadouts WHERE id = ?";
-            try (PreparedStatement stmt = database.getConnection().prepareStatement(deleteLoadoutSql)) {
-                stmt.setLong(1, loadoutId);
-                int deleted = stmt.executeUpdate();
+                // Snapshots are shared by content, so only drop the ones no remaining run points at
+                PreparedStatement pruneSnapshots = writerStatement(
+                    "DELETE FROM loadout_snapshots WHERE NOT EXISTS " +
+                    "(SELECT 1 FROM arena_runs r WHERE r.content_hash = loadout_snapshots.content_hash)");
+                pruneSnapshots.executeUpdate();
+
+                PreparedStatement deleteStats = writerStatement("DELETE FROM loadout_encounter_stats WHERE loadout_id = ?");
+                deleteStats.setLong(1, loadoutId);
+                deleteStats.executeUpdate();
+
+                // Then delete the loadout
+                String deleteLoadoutSql = "DELETE FROM loadouts WHERE id = ?";
+                PreparedStatement deleteLoadout = writerStatement(deleteLoadoutSql);
+                deleteLoadout.setLong(1, loadoutId);
+                int deleted = deleteLoadout.executeUpdate();
                 if (deleted > 0) {
                     logger.info("Deleted loadout " + loadoutId);
                     return true;
                 }
-            }
+                return false;
+            });
         } catch (SQLException e) {
             logger.error("Failed to delete loadout", e);
+        } finally {
+            outcomeCache.invalidateAll();
         }
         return false;
     }
@@ -565,17 +1419,27 @@ public class ArenaRepository {
      * Returns true if successful.
      */
     public boolean renameLoadout(long loadoutId, String newName) {
+        return database.executeWrite(() -> updateLoadoutName(loadoutId, newName));
+    }
+
+    private boolean updateLoadoutName(long loadoutId, String newName) {
         String sql = "UPDATE loadouts SET name = ? WHERE id = ?";
 
-        try (PreparedStatement stmt = database.getConnection().prepareStatement(sql)) {
-            stmt.setString(1, newName);
-            stmt.setLong(2, loadoutId);
+        try {
+            return inTransaction(() -> {
+                PreparedStatement stmt = writerStatement(sql);
+                stmt.setString(1, newName);
+                stmt.setLong(2, loadoutId);
+
+                int updated = stmt.executeUpdate();
+                if (updated == 0) {
+                    return false;
+                }
 
-            int updated = stmt.executeUpdate();
-            if (updated > 0) {
+                LoadoutSearchIndex.sync(database, database.getConnection(), loadoutId);
                 logger.info("Renamed loadout " + loadoutId + " to: " + newName);
                 return true;
-            }
+            });
         } catch (SQLException e) {
             logger.error("Failed to rename loadout", e);
         }
@@ -593,79 +1457,204 @@ public class ArenaRepository {
         String potionsJson = serializePotions(loadout.potions);
         String contentHash = computeContentHash(deckJson, relicsJson, potionsJson);
 
-        String sql = "UPDATE loadouts SET name = ?, max_hp = ?, current_hp = ?, deck_json = ?, relics_json = ?, " +
+        return database.executeWrite(() ->
+            updateLoadoutContents(loadout, loadout.name, loadoutId, deckJson, relicsJson, potionsJson, contentHash));
+    }
+
+    /**
+     * Write a loadout's contents to an existing row. A null name keeps the stored one.
+     */
+    private boolean updateLoadoutContents(RandomLoadoutGenerator.GeneratedLoadout loadout, String name,
+                                          long loadoutId, String deckJson, String relicsJson,
+                                          String potionsJson, String contentHash) {
+
+        String sql = "UPDATE loadouts SET name = COALESCE(?, name), max_hp = ?, current_hp = ?, deck_json = ?, relics_json = ?, " +
                      "potions_json = ?, potion_slots = ?, ascension_level = ?, content_hash = ? WHERE id = ?";
 
-        try (PreparedStatement stmt = database.getConnection().prepareStatement(sql)) {
-            stmt.setString(1, loadout.name);
-            stmt.setInt(2, loadout.maxHp);
-            stmt.setInt(3, loadout.currentHp);
-            stmt.setString(4, deckJson);
-            stmt.setString(5, relicsJson);
-            stmt.setString(6, potionsJson);
-            stmt.setInt(7, loadout.potionSlots);
-            stmt.setInt(8, loadout.ascensionLevel);
-            stmt.setString(9, contentHash);
-            stmt.setLong(10, loadoutId);
+        try {
+            return inTransaction(() -> {
+                PreparedStatement stmt = writerStatement(sql);
+                stmt.setString(1, name);
+                stmt.setInt(2, loadout.maxHp);
+                stmt.setInt(3, loadout.currentHp);
+                stmt.setString(4, deckJson);
+                stmt.setString(5, relicsJson);
+                stmt.setString(6, potionsJson);
+                stmt.setInt(7, loadout.potionSlots);
+                stmt.setInt(8, loadout.ascensionLevel);
+                stmt.setString(9, contentHash);
+                stmt.setLong(10, loadoutId);
+
+                int updated = stmt.executeUpdate();
+                if (updated == 0) {
+                    return false;
+                }
 
-            int updated = stmt.executeUpdate();
-            if (updated > 0) {
+                Connection conn = database.getConnection();
+                LoadoutContentTables.sync(database, conn, LoadoutContentTables.Owner.LOADOUT, loadoutId);
+                LoadoutSearchIndex.sync(database, conn, loadoutId);
                 logger.info("Updated loadout " + loadoutId + " (" + loadout.name + "), new contentHash: " + contentHash);
                 return true;
-            }
+            });
         } catch (SQLException e) {
             logger.error("Failed to update loadout", e);
         }
         return false;
     }
 
+    /**
+     * Get one page of finished runs (abandoned ones are left out), newest first unless oldestFirst is set.
+     * Pages are keyed on (started_at, id): pass the cursor of the last run from the
+     * previous page as {@code after}, or null for the first page. Unlike OFFSET paging,
+     * each page is a single index seek however deep into the history it is.
+     *
+     * @param loadoutId only return runs for this loadout, or null for all loadouts
+     */
+    public List<ArenaRunRecord> getRunsPage(Long loadoutId, RunCursor after, boolean oldestFirst, int pageSize) {
+        return getRunsPage(loadoutId, RunSort.DATE, after, oldestFirst, pageSize);
+    }
+
+    /**
+     * Get one page of finished runs in the given order. Pages are keyed on the sort column
+     * followed by (started_at, id), each matched by an index; pass
+     * {@link ArenaRunRecord#cursor(RunSort)} of the last run from the previous page as
+     * {@code after}, or null for the first page.
+     *
+     * @param loadoutId only return runs for this loadout, or null for all loadouts
+     * @param ascending smallest key (oldest run, for DATE) first
+     */
+    public List<ArenaRunRecord> getRunsPage(Long loadoutId, RunSort sort, RunCursor after,
+                                            boolean ascending, int pageSize) {
+        String cmp = ascending ? ">" : "<";
+        String direction = ascending ? " ASC" : " DESC";
+        StringBuilder sql = new StringBuilder(RUN_RECORD_SELECT);
+        // Unary + keeps the planner off the outcome index: almost every run is finished, so the
+        // filter narrows nothing, and reading by outcome would mean sorting the whole history
+        sql.append("WHERE +r.outcome IN ").append(ArenaDatabase.FINISHED_OUTCOMES).append(" ");
+        if (loadoutId != null) {
+            sql.append("AND r.loadout_id = ? ");
+        }
+        String keyOrder;
+        switch (sort) {
+            case LOADOUT:
+                // Loadouts in name order, each loadout's runs in date order: a page seeks the name
+                // index to the cursor's loadout and reads on, rather than sorting every run
+                if (after != null) {
+                    sql.append("AND (l.name, l.id) ").append(cmp).append("= (? COLLATE NOCASE, ?) ")
+                       .append("AND (l.name, l.id, r.started_at, r.id) ").append(cmp)
+                       .append(" (? COLLATE NOCASE, ?, ?, ?) ");
+                }
+                keyOrder = "l.name COLLATE NOCASE" + direction + ", l.id" + direction + ", ";
+                break;
+            case ENCOUNTER:
+                if (after != null) {
+                    sql.append("AND (r.encounter_id, r.started_at, r.id) ").append(cmp)
+                       .append(" (? COLLATE NOCASE, ?, ?) ");
+                }
+                keyOrder = "r.encounter_id COLLATE NOCASE" + direction + ", ";
+                break;
+            case OUTCOME:
+                if (after != null) {
+                    sql.append("AND (r.outcome, r.started_at, r.id) ").append(cmp).append(" (?, ?, ?) ");
+                }
+                keyOrder = "r.outcome" + direction + ", ";
+                break;
+            default:
+                if (after != null) {
+                    sql.append("AND (r.started_at, r.id) ").append(cmp).append(" (?, ?) ");
+                }
+                keyOrder = "";
+                break;
+        }
+        sql.append("ORDER BY ").append(keyOrder)
+           .append("r.started_at").append(direction).append(", r.id").append(direction).append(" LIMIT ?");
+
+        List<ArenaRunRecord> results = new ArrayList<>();
+
+        Connection conn = database.acquireReadConnection();
+        try {
+            PreparedStatement stmt = database.prepareCached(conn, sql.toString());
+            int param = 1;
+            if (loadoutId != null) {
+                stmt.setLong(param++, loadoutId);
+            }
+            if (after != null) {
+                if (sort == RunSort.LOADOUT) {
+                    stmt.setString(param++, after.sortKey);
+                    stmt.setLong(param++, after.loadoutId);
+                    stmt.setString(param++, after.sortKey);
+                    stmt.setLong(param++, after.loadoutId);
+                } else if (sort != RunSort.DATE) {
+                    stmt.setString(param++, after.sortKey);
+                }
+                stmt.setLong(param++, after.startedAt);
+                stmt.setLong(param++, after.id);
+            }
+            stmt.setInt(param, pageSize);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    results.add(readRunRecord(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to get page of arena runs", e);
+        } finally {
+            database.releaseReadConnection(conn);
+        }
+
+        return results;
+    }
+
+    private static ArenaRunRecord readRunRecord(ResultSet rs) throws SQLException {
+        ArenaRunRecord record = new ArenaRunRecord();
+        record.id = rs.getLong("id");
+        record.loadoutId = rs.getLong("loadout_id");
+        record.startedAt = rs.getLong("started_at");
+        record.endedAt = rs.getLong("ended_at");
+        record.outcome = rs.getString("outcome");
+        record.startingHp = rs.getInt("starting_hp");
+        record.endingHp = rs.getInt("ending_hp");
+        record.encounterId = rs.getString("encounter_id");
+        record.loadoutName = rs.getString("loadout_name");
+        record.characterClass = rs.getString("character_class");
+        record.damageDealt = rs.getInt("damage_dealt");
+        record.damageTaken = rs.getInt("damage_taken");
+        record.turnsTaken = rs.getInt("turns_taken");
+
+        String potionsJson = rs.getString("potions_used_json");
+        if (potionsJson != null) {
+            record.potionsUsed = LoadoutCodec.readIdsOrEmpty(potionsJson);
+        }
+        return record;
+    }
+
     /**
      * Get arena runs for a specific loadout.
      */
     public List<ArenaRunRecord> getRunsForLoadout(long loadoutId, int limit) {
-        String sql = "SELECT r.id, r.loadout_id, r.started_at, r.ended_at, r.outcome, r.starting_hp, r.ending_hp, " +
-                     "r.encounter_id, r.potions_used_json, r.damage_dealt, r.damage_taken, r.turns_taken, " +
-                     "l.name as loadout_name, l.character_class " +
-                     "FROM arena_runs r " +
-                     "JOIN loadouts l ON r.loadout_id = l.id " +
-                     "WHERE r.loadout_id = ? AND r.outcome IS NOT NULL " +
+        String sql = RUN_RECORD_SELECT +
+                     "WHERE r.loadout_id = ? AND r.outcome IN " + ArenaDatabase.FINISHED_OUTCOMES + " " +
                      "ORDER BY r.started_at DESC " +
                      "LIMIT ?";
 
         List<ArenaRunRecord> results = new ArrayList<>();
 
-        try (PreparedStatement stmt = database.getConnection().prepareStatement(sql)) {
+        Connection conn = database.acquireReadConnection();
+        try {
+            PreparedStatement stmt = database.prepareCached(conn, sql);
             stmt.setLong(1, loadoutId);
             stmt.setInt(2, limit);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    ArenaRunRecord record = new ArenaRunRecord();
-                    record.id = rs.getLong("id");
-                    record.loadoutId = rs.getLong("loadout_id");
-                    record.startedAt = rs.getLong("started_at");
-                    record.endedAt = rs.getLong("ended_at");
-                    record.outcome = rs.getString("outcome");
-                    record.startingHp = rs.getInt("starting_hp");
-                    record.endingHp = rs.getInt("ending_hp");
-                    record.encounterId = rs.getString("encounter_id");
-                    record.loadoutName = rs.getString("loadout_name");
-                    record.characterClass = rs.getString("character_class");
-                    record.damageDealt = rs.getInt("damage_dealt");
-                    record.damageTaken = rs.getInt("damage_taken");
-                    record.turnsTaken = rs.getInt("turns_taken");
-
-                    String potionsJson = rs.getString("potions_used_json");
-                    if (potionsJson != null) {
-                        Type listType = new TypeToken<List<String>>(){}.getType();
-                        record.potionsUsed = gson.fromJson(potionsJson, listType);
-                    }
-
-                    results.add(record);
+                    results.add(readRunRecord(rs));
                 }
             }
         } catch (SQLException e) {
             logger.error("Failed to get runs for loadout", e);
+        } finally {
+            database.releaseReadConnection(conn);
         }
 
         return results;
@@ -674,23 +1663,21 @@ public class ArenaRepository {
     /**
      * Get all loadout+encounter combinations with aggregated statistics.
      * Used for the stats screen to show Pareto-best victories.
+     * Reads the loadout_encounter_stats summary, so cost grows with the number of
+     * combinations rather than the number of runs.
      */
     public List<LoadoutEncounterStats> getLoadoutEncounterStats() {
         String sql = "SELECT l.id as loadout_id, l.name as loadout_name, l.character_class, " +
-                     "r.encounter_id, " +
-                     "COUNT(*) as total_runs, " +
-                     "SUM(CASE WHEN r.outcome = 'VICTORY' THEN 1 ELSE 0 END) as wins, " +
-                     "SUM(CASE WHEN r.outcome = 'DEFEAT' THEN 1 ELSE 0 END) as losses " +
-                     "FROM arena_runs r " +
-                     "JOIN loadouts l ON r.loadout_id = l.id " +
-                     "WHERE r.outcome IS NOT NULL " +
-                     "GROUP BY l.id, r.encounter_id " +
-                     "ORDER BY l.name, r.encounter_id";
+                     "s.encounter_id, s.total_runs, s.wins, s.losses, " +
+                     "s.best_damage_taken, s.best_turns, s.last_outcome " +
+                     "FROM loadout_encounter_stats s " +
+                     "JOIN loadouts l ON s.loadout_id = l.id " +
+                     "ORDER BY l.name, s.encounter_id";
 
         List<LoadoutEncounterStats> results = new ArrayList<>();
 
-        try (PreparedStatement stmt = database.getConnection().prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
+        Connection conn = database.acquireReadConnection();
+        try (ResultSet rs = database.prepareCached(conn, sql).executeQuery()) {
             while (rs.next()) {
                 LoadoutEncounterStats stats = new LoadoutEncounterStats();
                 stats.loadoutId = rs.getLong("loadout_id");
@@ -700,60 +1687,45 @@ public class ArenaRepository {
                 stats.totalRuns = rs.getInt("total_runs");
                 stats.wins = rs.getInt("wins");
                 stats.losses = rs.getInt("losses");
+                stats.bestDamageTaken = getNullableInt(rs, "best_damage_taken");
+                stats.bestTurns = getNullableInt(rs, "best_turns");
+                stats.lastOutcome = rs.getString("last_outcome");
                 results.add(stats);
             }
         } catch (SQLException e) {
             logger.error("Failed to get loadout encounter stats", e);
+        } finally {
+            database.releaseReadConnection(conn);
         }
 
         return results;
     }
 
     /**
-     * Get all victories for a specific loadout+encounter combination.
-     * Used to calculate Pareto-best victories.
+     * Get all victories for a specific loadout+encounter combination, newest first.
      */
     public List<VictoryRecord> getVictoriesForLoadoutEncounter(long loadoutId, String encounterId) {
-        String sql = "SELECT r.id, r.turns_taken, r.damage_taken, r.damage_dealt, r.ending_hp, r.starting_hp, " +
-                     "r.potions_used_json, r.started_at " +
-                     "FROM arena_runs r " +
-                     "WHERE r.loadout_id = ? AND r.encounter_id = ? AND r.outcome = 'VICTORY' " +
-                     "ORDER BY r.started_at DESC";
-
-        List<VictoryRecord> results = new ArrayList<>();
-
-        try (PreparedStatement stmt = database.getConnection().prepareStatement(sql)) {
-            stmt.setLong(1, loadoutId);
-            stmt.setString(2, encounterId);
+        return readVictories(loadoutId, encounterId, false);
+    }
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    VictoryRecord record = new VictoryRecord();
-                    record.runId = rs.getLong("id");
-                    record.turnsTaken = rs.getInt("turns_taken");
-                    record.damageTaken = rs.getInt("damage_taken");
-                    record.damageDealt = rs.getInt("damage_dealt");
-                    record.endingHp = rs.getInt("ending_hp");
-                    record.startingHp = rs.getInt("starting_hp");
-                    record.startedAt = rs.getLong("started_at");
-
-                    String potionsJson = rs.getString("potions_used_json");
-                    if (potionsJson != null && !potionsJson.isEmpty()) {
-                        Type listType = new TypeToken<List<String>>(){}.getType();
-                        List<String> potions = gson.fromJson(potionsJson, listType);
-                        record.potionsUsed = potions != null ? potions.size() : 0;
-                    } else {
-                        record.potionsUsed = 0;
-                    }
+    /**
+     * Get the Pareto-best victories for a loadout+encounter combination, newest first.
+     * The set is maintained as runs complete, so this only reads the flagged rows.
+     */
+    public List<VictoryRecord> getParetoVictories(long loadoutId, String encounterId) {
+        return readVictories(loadoutId, encounterId, true);
+    }
 
-                    results.add(record);
-                }
-            }
+    private List<VictoryRecord> readVictories(long loadoutId, String encounterId, boolean paretoOnly) {
+        Connection conn = database.acquireReadConnection();
+        try {
+            return ParetoFrontier.read(database, conn, loadoutId, encounterId, paretoOnly);
         } catch (SQLException e) {
             logger.error("Failed to get victories for loadout encounter", e);
+            return new ArrayList<>();
+        } finally {
+            database.releaseReadConnection(conn);
         }
-
-        return results;
     }
 
     /**
@@ -767,12 +1739,21 @@ public class ArenaRepository {
         public int totalRuns;
         public int wins;
         public int losses;
+        // Lowest damage taken / turns over victories, -1 if there are none
+        public int bestDamageTaken = -1;
+        public int bestTurns = -1;
+        public String lastOutcome;
 
         public double getWinRate() {
             return totalRuns > 0 ? (double) wins / totalRuns : 0;
         }
     }
 
+    private static int getNullableInt(ResultSet rs, String column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? -1 : value;
+    }
+
     /**
      * Record of a single victory with metrics for Pareto comparison.
      */
@@ -791,17 +1772,20 @@ public class ArenaRepository {
          * A victory is dominated if another victory has:
          * - Same or less damage taken
          * - Same or fewer potions used
+         * - Same or fewer turns taken
          * - AND is strictly better in at least one of these
          */
         public boolean isDominatedBy(VictoryRecord other) {
             boolean sameOrBetterDamage = other.damageTaken <= this.damageTaken;
             boolean sameOrBetterPotions = other.potionsUsed <= this.potionsUsed;
+            boolean sameOrBetterTurns = other.turnsTaken <= this.turnsTaken;
 
             boolean strictlyBetterSomewhere =
                 other.damageTaken < this.damageTaken ||
-                other.potionsUsed < this.potionsUsed;
+                other.potionsUsed < this.potionsUsed ||
+                other.turnsTaken < this.turnsTaken;
 
-            return sameOrBetterDamage && sameOrBetterPotions && strictlyBetterSomewhere;
+            return sameOrBetterDamage && sameOrBetterPotions && sameOrBetterTurns && strictlyBetterSomewhere;
         }
     }
 
@@ -816,7 +1800,9 @@ public class ArenaRepository {
 
         List<String> results = new ArrayList<>();
 
-        try (PreparedStatement stmt = database.getConnection().prepareStatement(sql)) {
+        Connection conn = database.acquireReadConnection();
+        try {
+            PreparedStatement stmt = database.prepareCached(conn, sql);
             stmt.setLong(1, loadoutId);
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -826,6 +1812,8 @@ public class ArenaRepository {
             }
         } catch (SQLException e) {
             logger.error("Failed to get distinct content hashes for loadout", e);
+        } finally {
+            database.releaseReadConnection(conn);
         }
 
         return results;
@@ -843,35 +1831,69 @@ public class ArenaRepository {
         return !loadout.contentHash.equals(previousContentHash);
     }
 
+    /**
+     * Latest outcome per encounter for a loadout, and the data version it reflects.
+     */
+    public static class EncounterOutcomes {
+        public final long version;
+        public final Map<String, String> outcomes;  // encounter ID -> outcome, read-only
+
+        EncounterOutcomes(long version, Map<String, String> outcomes) {
+            this.version = version;
+            this.outcomes = outcomes;
+        }
+    }
+
+    /**
+     * Bumped after every write that changes run outcomes. Anything built from outcomes
+     * at an older version may be stale.
+     */
+    public long getOutcomeVersion() {
+        return outcomeCache.version();
+    }
+
     /**
      * Get encounter outcomes for a specific loadout.
      * Returns a map of encounter ID to outcome (VICTORY or DEFEAT).
-     * If an encounter was faced multiple times, returns the most recent outcome.
+     * If an encounter was faced multiple times, returns the outcome of the run that ended last.
      */
     public Map<String, String> getEncounterOutcomesForLoadout(long loadoutId) {
-        String sql = "SELECT encounter_id, outcome FROM arena_runs " +
-                     "WHERE loadout_id = ? AND outcome IS NOT NULL " +
-                     "ORDER BY started_at DESC";
+        return getEncounterOutcomes(loadoutId).outcomes;
+    }
 
+    /**
+     * Encounter outcomes for a loadout, from the cache when it is current. Completing a run
+     * patches the cached entry for that one encounter, so reopening after a fight doesn't
+     * query at all. Otherwise one indexed read of the loadout's loadout_encounter_stats rows.
+     */
+    public EncounterOutcomes getEncounterOutcomes(long loadoutId) {
+        EncounterOutcomes cached = outcomeCache.get(loadoutId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long version = outcomeCache.version();
+        String sql = "SELECT encounter_id, last_outcome FROM loadout_encounter_stats " +
+                     "WHERE loadout_id = ? AND last_outcome IS NOT NULL";
         Map<String, String> results = new HashMap<>();
 
-        try (PreparedStatement stmt = database.getConnection().prepareStatement(sql)) {
+        Connection conn = database.acquireReadConnection();
+        try {
+            PreparedStatement stmt = database.prepareCached(conn, sql);
             stmt.setLong(1, loadoutId);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    String encounterId = rs.getString("encounter_id");
-                    String outcome = rs.getString("outcome");
-                    // Only keep the first (most recent) outcome for each encounter
-                    if (!results.containsKey(encounterId)) {
-                        results.put(encounterId, outcome);
-                    }
+                    results.put(rs.getString("encounter_id"), rs.getString("last_outcome"));
                 }
             }
         } catch (SQLException e) {
             logger.error("Failed to get encounter outcomes", e);
+            return new EncounterOutcomes(version, Collections.unmodifiableMap(results));
+        } finally {
+            database.releaseReadConnection(conn);
         }
 
-        return results;
+        return outcomeCache.put(loadoutId, results, version);
     }
 }
@@ -0,0 +1,84 @@
+package stsarena.data;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Latest outcome per encounter for recently viewed loadouts, stamped with a data version.
+ *
+ * The version is a counter the repository bumps after every write that changes run
+ * outcomes. Completing a run patches just that loadout+encounter into the cached map
+ * and stamps it with the new version; writes that touch many rows at once (delete,
+ * rebuild) drop the whole cache instead.
+ *
+ * A full load only becomes cached if no write landed while it ran, so a load that
+ * raced a fight result can't overwrite the patched entry with older data.
+ */
+class EncounterOutcomeCache {
+
+    // Loadouts whose outcomes are kept; the encounter screen only ever shows one at a time
+    private static final int MAX_LOADOUTS = 16;
+
+    private long version = 0;
+    private final Map<Long, ArenaRepository.EncounterOutcomes> byLoadout =
+        new LinkedHashMap<Long, ArenaRepository.EncounterOutcomes>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ArenaRepository.EncounterOutcomes> eldest) {
+                return size() > MAX_LOADOUTS;
+            }
+        };
+
+    synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Cached outcomes for a loadout, or null if they have to be loaded.
+     */
+    synchronized ArenaRepository.EncounterOutcomes get(long loadoutId) {
+        return byLoadout.get(loadoutId);
+    }
+
+    /**
+     * Cache a full load, unless a write has happened since loadedAtVersion was read.
+     * Returns the outcomes stamped with the version they were loaded at.
+     */
+    synchronized ArenaRepository.EncounterOutcomes put(long loadoutId, Map<String, String> outcomes,
+                                                       long loadedAtVersion) {
+        ArenaRepository.EncounterOutcomes loaded = new ArenaRepository.EncounterOutcomes(
+            loadedAtVersion, Collections.unmodifiableMap(outcomes));
+        if (loadedAtVersion == version) {
+            byLoadout.put(loadoutId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Record that one loadout+encounter now has the given latest outcome (null if it has none).
+     * Bumps the version.
+     */
+    synchronized void update(long loadoutId, String encounterId, String latestOutcome) {
+        version++;
+        ArenaRepository.EncounterOutcomes cached = byLoadout.get(loadoutId);
+        if (cached == null) {
+            return;
+        }
+        Map<String, String> outcomes = new HashMap<>(cached.outcomes);
+        if (latestOutcome != null) {
+            outcomes.put(encounterId, latestOutcome);
+        } else {
+            outcomes.remove(encounterId);
+        }
+        byLoadout.put(loadoutId, new ArenaRepository.EncounterOutcomes(version, Collections.unmodifiableMap(outcomes)));
+    }
+
+    /**
+     * Forget everything after a write that changed outcomes across loadouts. Bumps the version.
+     */
+    synchronized void invalidateAll() {
+        version++;
+        byLoadout.clear();
+    }
+}
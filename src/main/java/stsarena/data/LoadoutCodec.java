@@ -0,0 +1,168 @@
+package stsarena.data;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the JSON columns of loadouts and runs (deck_json, relics_json, potions_json,
+ * potions_used_json) straight off a streaming JsonReader.
+ *
+ * Replaces Gson TypeToken decoding, which built a reflective adapter per call and, for
+ * relics, parsed the column twice to tell the two stored formats apart. Format is
+ * decided from the first element while reading. Unknown object fields are skipped, so
+ * rows written by newer versions still read.
+ *
+ * Null or empty input reads as an empty list. Anything that isn't the expected shape
+ * throws an IOException.
+ */
+public final class LoadoutCodec {
+
+    /**
+     * How a relic list was stored.
+     */
+    public enum RelicFormat {
+        // Older saves, IDs only: ["Vajra", "Anchor"]
+        IDS,
+        // RelicData objects: [{"id": "Vajra", "counter": -1}]
+        RELIC_DATA
+    }
+
+    /**
+     * Relics read from a relics_json column, and which format they were in.
+     * With {@link RelicFormat#IDS} the counters are meaningless and shouldn't be restored.
+     */
+    public static class RelicList {
+        public final RelicFormat format;
+        public final List<ArenaRepository.RelicData> relics;
+
+        RelicList(RelicFormat format, List<ArenaRepository.RelicData> relics) {
+            this.format = format;
+            this.relics = relics;
+        }
+    }
+
+    private LoadoutCodec() {}
+
+    /**
+     * Read a deck_json list of CardData objects.
+     */
+    public static List<ArenaRepository.CardData> readDeck(String json) throws IOException {
+        if (isBlank(json)) {
+            return new ArrayList<>();
+        }
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            List<ArenaRepository.CardData> cards = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                ArenaRepository.CardData card = new ArenaRepository.CardData();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "id": card.id = readString(reader); break;
+                        case "upgrades": card.upgrades = reader.nextInt(); break;
+                        case "inBottleFlame": card.inBottleFlame = reader.nextBoolean(); break;
+                        case "inBottleLightning": card.inBottleLightning = reader.nextBoolean(); break;
+                        case "inBottleTornado": card.inBottleTornado = reader.nextBoolean(); break;
+                        default: reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                cards.add(card);
+            }
+            reader.endArray();
+            return cards;
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Malformed deck JSON: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read a relics_json list in either stored format.
+     */
+    public static RelicList readRelics(String json) throws IOException {
+        if (isBlank(json)) {
+            return new RelicList(RelicFormat.RELIC_DATA, new ArrayList<>());
+        }
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            List<ArenaRepository.RelicData> relics = new ArrayList<>();
+            RelicFormat format = RelicFormat.RELIC_DATA;
+            reader.beginArray();
+            if (reader.hasNext() && reader.peek() == JsonToken.STRING) {
+                format = RelicFormat.IDS;
+            }
+            while (reader.hasNext()) {
+                if (format == RelicFormat.IDS) {
+                    relics.add(new ArenaRepository.RelicData(reader.nextString(), -1));
+                    continue;
+                }
+                ArenaRepository.RelicData relic = new ArenaRepository.RelicData();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "id": relic.id = readString(reader); break;
+                        case "counter": relic.counter = reader.nextInt(); break;
+                        default: reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                relics.add(relic);
+            }
+            reader.endArray();
+            return new RelicList(format, relics);
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Malformed relics JSON: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read a plain list of IDs (potions_json, potions_used_json).
+     */
+    public static List<String> readIds(String json) throws IOException {
+        if (isBlank(json)) {
+            return new ArrayList<>();
+        }
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            List<String> ids = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String id = readString(reader);
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+            reader.endArray();
+            return ids;
+        } catch (IllegalStateException e) {
+            throw new IOException("Malformed ID list JSON: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Like {@link #readIds} but returns an empty list instead of throwing, for display paths.
+     */
+    public static List<String> readIdsOrEmpty(String json) {
+        try {
+            return readIds(json);
+        } catch (IOException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    private static String readString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    private static boolean isBlank(String json) {
+        return json == null || json.trim().isEmpty() || json.equals("null");
+    }
+}
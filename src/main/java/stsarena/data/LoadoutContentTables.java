@@ -0,0 +1,211 @@
+package stsarena.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Normalized copies of the deck/relics/potions JSON, one row per card, relic or potion.
+ *
+ * Loadouts fill loadout_cards/loadout_relics/loadout_potions and run snapshots fill
+ * run_cards/run_relics/run_potions. The JSON columns stay the source of truth (they are
+ * what loadouts are rebuilt from and what the content hash covers); these tables exist
+ * so card and relic questions can be answered with indexed SQL instead of parsing
+ * every row in Java.
+ *
+ * Rows are derived from the JSON with SQLite's json_each, so the migration and the
+ * per-row sync after each write share the same statements. A run's JSON is either
+ * inline on arena_runs or, once deduplicated, in loadout_snapshots under its content hash.
+ */
+class LoadoutContentTables {
+
+    /**
+     * Where a set of child tables hangs off: the rows their JSON comes from and the
+     * owning id column.
+     */
+    enum Owner {
+        LOADOUT("loadouts", "loadout"),
+        RUN("(SELECT r.id, " +
+            "COALESCE(r.deck_json, s.deck_json) AS deck_json, " +
+            "COALESCE(r.relics_json, s.relics_json) AS relics_json, " +
+            "COALESCE(r.potions_json, s.potions_json) AS potions_json " +
+            "FROM arena_runs r LEFT JOIN loadout_snapshots s ON s.content_hash = r.content_hash)", "run");
+
+        // Rows with id, deck_json, relics_json and potions_json
+        final String source;
+        final String prefix;
+
+        Owner(String source, String prefix) {
+            this.source = source;
+            this.prefix = prefix;
+        }
+
+        String cardsTable() {
+            return prefix + "_cards";
+        }
+
+        String relicsTable() {
+            return prefix + "_relics";
+        }
+
+        String potionsTable() {
+            return prefix + "_potions";
+        }
+
+        String ownerColumn() {
+            return prefix + "_id";
+        }
+    }
+
+    private LoadoutContentTables() {}
+
+    static void createTables(Statement stmt) throws SQLException {
+        for (Owner owner : Owner.values()) {
+            String col = owner.ownerColumn();
+            stmt.execute(
+                "CREATE TABLE IF NOT EXISTS " + owner.cardsTable() + " (" +
+                "    " + col + " INTEGER NOT NULL," +
+                "    position INTEGER NOT NULL," +
+                "    card_id TEXT NOT NULL," +
+                "    upgrades INTEGER NOT NULL DEFAULT 0," +
+                "    bottle TEXT," +
+                "    PRIMARY KEY (" + col + ", position)" +
+                ")"
+            );
+            stmt.execute(
+                "CREATE TABLE IF NOT EXISTS " + owner.relicsTable() + " (" +
+                "    " + col + " INTEGER NOT NULL," +
+                "    position INTEGER NOT NULL," +
+                "    relic_id TEXT NOT NULL," +
+                "    counter INTEGER," +
+                "    PRIMARY KEY (" + col + ", position)" +
+                ")"
+            );
+            stmt.execute(
+                "CREATE TABLE IF NOT EXISTS " + owner.potionsTable() + " (" +
+                "    " + col + " INTEGER NOT NULL," +
+                "    position INTEGER NOT NULL," +
+                "    potion_id TEXT NOT NULL," +
+                "    PRIMARY KEY (" + col + ", position)" +
+                ")"
+            );
+
+            // (item, owner) so "which loadouts/runs have X" never touches the base table
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_" + owner.cardsTable() + "_card ON " +
+                owner.cardsTable() + "(card_id, " + col + ")");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_" + owner.relicsTable() + "_relic ON " +
+                owner.relicsTable() + "(relic_id, " + col + ")");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_" + owner.potionsTable() + "_potion ON " +
+                owner.potionsTable() + "(potion_id, " + col + ")");
+        }
+    }
+
+    /**
+     * Refill every child table from the JSON columns. Returns the number of rows written.
+     */
+    static int rebuildAll(Statement stmt) throws SQLException {
+        int rows = 0;
+        for (Owner owner : Owner.values()) {
+            for (String table : new String[] {owner.cardsTable(), owner.relicsTable(), owner.potionsTable()}) {
+                stmt.executeUpdate("DELETE FROM " + table);
+            }
+            rows += stmt.executeUpdate(insertCardsSql(owner, false));
+            rows += stmt.executeUpdate(insertRelicsSql(owner, false));
+            rows += stmt.executeUpdate(insertPotionsSql(owner, false));
+        }
+        return rows;
+    }
+
+    /**
+     * Replace the child rows for one loadout or run with what its JSON columns now hold.
+     * Runs on the writer connection, inside the caller's transaction.
+     */
+    static void sync(ArenaDatabase database, Connection conn, Owner owner, long id) throws SQLException {
+        delete(database, conn, owner, id);
+        for (String sql : new String[] {
+                insertCardsSql(owner, true), insertRelicsSql(owner, true), insertPotionsSql(owner, true)}) {
+            PreparedStatement stmt = database.prepareCached(conn, sql);
+            stmt.setLong(1, id);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Give a new run the contents its loadout has right now. Cheaper than re-parsing
+     * the JSON, and the same thing: a run's snapshot is its loadout at start time.
+     */
+    static void copyLoadoutToRun(ArenaDatabase database, Connection conn, long loadoutId, long runId) throws SQLException {
+        Owner loadout = Owner.LOADOUT;
+        Owner run = Owner.RUN;
+        String[][] tables = {
+            {loadout.cardsTable(), run.cardsTable(), "card_id, upgrades, bottle"},
+            {loadout.relicsTable(), run.relicsTable(), "relic_id, counter"},
+            {loadout.potionsTable(), run.potionsTable(), "potion_id"},
+        };
+        for (String[] t : tables) {
+            PreparedStatement stmt = database.prepareCached(conn,
+                "INSERT INTO " + t[1] + " (run_id, position, " + t[2] + ") " +
+                "SELECT ?, position, " + t[2] + " FROM " + t[0] + " WHERE loadout_id = ?");
+            stmt.setLong(1, runId);
+            stmt.setLong(2, loadoutId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Remove the child rows for one loadout or run.
+     */
+    static void delete(ArenaDatabase database, Connection conn, Owner owner, long id) throws SQLException {
+        for (String table : new String[] {owner.cardsTable(), owner.relicsTable(), owner.potionsTable()}) {
+            PreparedStatement stmt = database.prepareCached(conn,
+                "DELETE FROM " + table + " WHERE " + owner.ownerColumn() + " = ?");
+            stmt.setLong(1, id);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Remove the snapshot rows for every run of a loadout.
+     */
+    static void deleteRunsOfLoadout(ArenaDatabase database, Connection conn, long loadoutId) throws SQLException {
+        Owner run = Owner.RUN;
+        for (String table : new String[] {run.cardsTable(), run.relicsTable(), run.potionsTable()}) {
+            PreparedStatement stmt = database.prepareCached(conn,
+                "DELETE FROM " + table + " WHERE run_id IN (SELECT id FROM arena_runs WHERE loadout_id = ?)");
+            stmt.setLong(1, loadoutId);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Cards are CardData objects: {"id", "upgrades", "inBottleFlame", ...}
+    private static String insertCardsSql(Owner owner, boolean single) {
+        return "INSERT INTO " + owner.cardsTable() + " (" + owner.ownerColumn() + ", position, card_id, upgrades, bottle) " +
+               "SELECT p.id, j.key, json_extract(j.value, '$.id'), " +
+               "COALESCE(json_extract(j.value, '$.upgrades'), 0), " +
+               "CASE WHEN json_extract(j.value, '$.inBottleFlame') THEN 'FLAME' " +
+               "     WHEN json_extract(j.value, '$.inBottleLightning') THEN 'LIGHTNING' " +
+               "     WHEN json_extract(j.value, '$.inBottleTornado') THEN 'TORNADO' END " +
+               "FROM " + owner.source + " p, json_each(p.deck_json) j " +
+               "WHERE json_valid(p.deck_json) AND json_extract(j.value, '$.id') IS NOT NULL" +
+               (single ? " AND p.id = ?" : "");
+    }
+
+    // Relics are RelicData objects: {"id", "counter"}
+    private static String insertRelicsSql(Owner owner, boolean single) {
+        return "INSERT INTO " + owner.relicsTable() + " (" + owner.ownerColumn() + ", position, relic_id, counter) " +
+               "SELECT p.id, j.key, json_extract(j.value, '$.id'), json_extract(j.value, '$.counter') " +
+               "FROM " + owner.source + " p, json_each(p.relics_json) j " +
+               "WHERE json_valid(p.relics_json) AND json_extract(j.value, '$.id') IS NOT NULL" +
+               (single ? " AND p.id = ?" : "");
+    }
+
+    // Potions are a plain list of potion IDs
+    private static String insertPotionsSql(Owner owner, boolean single) {
+        return "INSERT INTO " + owner.potionsTable() + " (" + owner.ownerColumn() + ", position, potion_id) " +
+               "SELECT p.id, j.key, j.value " +
+               "FROM " + owner.source + " p, json_each(p.potions_json) j " +
+               "WHERE json_valid(p.potions_json) AND j.type = 'text'" +
+               (single ? " AND p.id = ?" : "");
+    }
+}
@@ -0,0 +1,129 @@
+package stsarena.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * FTS5 index over saved loadouts, one document per loadout (rowid = loadouts.id).
+ *
+ * Each document holds the loadout's name, class and its cards and relics, taken from
+ * loadout_cards/loadout_relics. Cards and relics are indexed by ID and by the display
+ * name the game showed last launch (display_names, in the player's language), so a
+ * search matches what is on screen. The index is derived data: the repository re-syncs
+ * a loadout's document in the same transaction as any write that changes those fields,
+ * and {@link #rebuildAll} recreates it from scratch, e.g. when the names change.
+ */
+class LoadoutSearchIndex {
+
+    // bm25 weights per column: a name hit outranks a card or relic hit
+    static final String RANK = "bm25(loadout_search, 10.0, 2.0, 1.0, 1.0)";
+
+    // Kinds of display_names row
+    static final String CARD = "card";
+    static final String RELIC = "relic";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO loadout_search (rowid, name, character_class, cards, relics) " +
+        "SELECT l.id, l.name, l.character_class, " +
+        "(SELECT group_concat(c.card_id || COALESCE(' ' || n.name, ''), ' ') FROM loadout_cards c " +
+        "LEFT JOIN display_names n ON n.kind = '" + CARD + "' AND n.id = c.card_id WHERE c.loadout_id = l.id), " +
+        "(SELECT group_concat(r.relic_id || COALESCE(' ' || n.name, ''), ' ') FROM loadout_relics r " +
+        "LEFT JOIN display_names n ON n.kind = '" + RELIC + "' AND n.id = r.relic_id WHERE r.loadout_id = l.id) " +
+        "FROM loadouts l";
+
+    private LoadoutSearchIndex() {}
+
+    static void createTable(Statement stmt) throws SQLException {
+        // unicode61 splits "Strike_R" into "strike" + "r"; the prefix indexes keep short prefix queries cheap
+        stmt.execute(
+            "CREATE VIRTUAL TABLE IF NOT EXISTS loadout_search USING fts5(" +
+            "name, character_class, cards, relics, " +
+            "tokenize = 'unicode61 remove_diacritics 2', prefix = '2 3')"
+        );
+    }
+
+    static void createNamesTable(Statement stmt) throws SQLException {
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS display_names (" +
+            "    kind TEXT NOT NULL," +
+            "    id TEXT NOT NULL," +
+            "    name TEXT NOT NULL," +
+            "    PRIMARY KEY (kind, id)" +
+            ") WITHOUT ROWID"
+        );
+    }
+
+    /**
+     * Store the game's display names for one kind of content. On the writer connection,
+     * inside the caller's transaction. Returns how many names were new or different.
+     */
+    static int updateNames(ArenaDatabase database, Connection conn, String kind,
+                           Map<String, String> names) throws SQLException {
+        PreparedStatement stmt = database.prepareCached(conn,
+            "INSERT INTO display_names (kind, id, name) VALUES (?, ?, ?) " +
+            "ON CONFLICT (kind, id) DO UPDATE SET name = excluded.name WHERE name <> excluded.name");
+        int changed = 0;
+        for (Map.Entry<String, String> entry : names.entrySet()) {
+            stmt.setString(1, kind);
+            stmt.setString(2, entry.getKey());
+            stmt.setString(3, entry.getValue());
+            changed += stmt.executeUpdate();
+        }
+        return changed;
+    }
+
+    /**
+     * Refill the index from every loadout. Returns the number of documents written.
+     */
+    static int rebuildAll(Statement stmt) throws SQLException {
+        stmt.executeUpdate("DELETE FROM loadout_search");
+        stmt.executeUpdate(INSERT_SQL);
+        // The update count of an FTS5 insert includes its shadow-table writes, so count documents instead
+        try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM loadout_search")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Replace one loadout's document. Call after its content tables have been synced,
+     * on the writer connection inside the caller's transaction.
+     */
+    static void sync(ArenaDatabase database, Connection conn, long loadoutId) throws SQLException {
+        delete(database, conn, loadoutId);
+        PreparedStatement stmt = database.prepareCached(conn, INSERT_SQL + " WHERE l.id = ?");
+        stmt.setLong(1, loadoutId);
+        stmt.executeUpdate();
+    }
+
+    static void delete(ArenaDatabase database, Connection conn, long loadoutId) throws SQLException {
+        PreparedStatement stmt = database.prepareCached(conn, "DELETE FROM loadout_search WHERE rowid = ?");
+        stmt.setLong(1, loadoutId);
+        stmt.executeUpdate();
+    }
+
+    /**
+     * Turn what the user typed into an FTS5 query: every word must match as a prefix.
+     * Anything but letters and digits is dropped, so user input can never be parsed
+     * as FTS5 syntax. Returns null if nothing searchable is left.
+     */
+    static String toPrefixQuery(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder();
+        for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (query.length() > 0) {
+                query.append(' ');
+            }
+            query.append('"').append(word).append("\"*");
+        }
+        return query.length() == 0 ? null : query.toString();
+    }
+}
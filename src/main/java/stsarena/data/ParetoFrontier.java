@@ -0,0 +1,244 @@
+package stsarena.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Pareto-best victories per loadout+encounter, kept as the arena_runs.pareto_best flag.
+ *
+ * A victory is on the frontier unless another victory of the same loadout against the
+ * same encounter took no more damage, used no more potions and took no more turns, and
+ * did strictly better on one of them. Victories with identical numbers are all kept.
+ *
+ * Completing a run only compares the new victory against the current frontier, which
+ * stays small however often a matchup is farmed. Full recomputes (backfill, overwritten
+ * outcomes) use {@link #compute}, which sorts instead of comparing every pair.
+ */
+class ParetoFrontier {
+
+    private static final String VICTORY_COLUMNS =
+        "id, loadout_id, encounter_id, turns_taken, damage_taken, damage_dealt, " +
+        "ending_hp, starting_hp, potions_used, started_at";
+
+    private ParetoFrontier() {}
+
+    static void createIndex(Statement stmt) throws SQLException {
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_arena_runs_pareto " +
+                     "ON arena_runs(loadout_id, encounter_id) WHERE pareto_best = 1");
+    }
+
+    /**
+     * The victories no other victory in the list dominates, in their original order.
+     * O(n log n): after sorting by (damage, potions, turns) a victory can only be dominated
+     * by one sorted before it, so one pass with a prefix minimum of turns over potion counts
+     * is enough.
+     */
+    static List<ArenaRepository.VictoryRecord> compute(List<ArenaRepository.VictoryRecord> victories) {
+        int n = victories.size();
+        if (n <= 1) {
+            return new ArrayList<>(victories);
+        }
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator
+            .<Integer>comparingInt(i -> victories.get(i).damageTaken)
+            .thenComparingInt(i -> victories.get(i).potionsUsed)
+            .thenComparingInt(i -> victories.get(i).turnsTaken));
+
+        // Potion counts ranked 1..k for the Fenwick tree
+        int[] potionValues = new int[n];
+        for (int i = 0; i < n; i++) {
+            potionValues[i] = victories.get(i).potionsUsed;
+        }
+        Arrays.sort(potionValues);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || potionValues[i] != potionValues[i - 1]) {
+                potionValues[distinct++] = potionValues[i];
+            }
+        }
+        // minTurns[r] = fewest turns among processed victories with potion rank <= r (Fenwick, 1-based)
+        int[] minTurns = new int[distinct + 1];
+        Arrays.fill(minTurns, Integer.MAX_VALUE);
+
+        boolean[] dominated = new boolean[n];
+        int groupStart = 0;
+        while (groupStart < n) {
+            // Victories with identical numbers can't dominate each other: query them all before adding any
+            ArenaRepository.VictoryRecord first = victories.get(order[groupStart]);
+            int groupEnd = groupStart + 1;
+            while (groupEnd < n && sameMetrics(first, victories.get(order[groupEnd]))) {
+                groupEnd++;
+            }
+
+            int rank = Arrays.binarySearch(potionValues, 0, distinct, first.potionsUsed) + 1;
+            int best = Integer.MAX_VALUE;
+            for (int r = rank; r > 0; r -= r & -r) {
+                best = Math.min(best, minTurns[r]);
+            }
+            if (best <= first.turnsTaken) {
+                for (int i = groupStart; i < groupEnd; i++) {
+                    dominated[order[i]] = true;
+                }
+            }
+            for (int r = rank; r <= distinct; r += r & -r) {
+                minTurns[r] = Math.min(minTurns[r], first.turnsTaken);
+            }
+            groupStart = groupEnd;
+        }
+
+        List<ArenaRepository.VictoryRecord> frontier = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (!dominated[i]) {
+                frontier.add(victories.get(i));
+            }
+        }
+        return frontier;
+    }
+
+    /**
+     * Fold one newly completed victory into its matchup's frontier.
+     * Call on the writer connection inside the caller's transaction.
+     */
+    static void add(ArenaDatabase database, Connection conn, long runId, long loadoutId, String encounterId,
+                    ArenaRepository.ArenaRunOutcome outcome) throws SQLException {
+        ArenaRepository.VictoryRecord victory = new ArenaRepository.VictoryRecord();
+        victory.runId = runId;
+        victory.damageTaken = outcome.damageTaken;
+        victory.potionsUsed = outcome.potionsUsed.size();
+        victory.turnsTaken = outcome.turnsTaken;
+
+        List<ArenaRepository.VictoryRecord> current = read(database, conn, loadoutId, encounterId, true);
+        List<Long> beaten = new ArrayList<>();
+        for (ArenaRepository.VictoryRecord best : current) {
+            if (best.runId == runId) {
+                continue;
+            }
+            if (victory.isDominatedBy(best)) {
+                return;
+            }
+            if (best.isDominatedBy(victory)) {
+                beaten.add(best.runId);
+            }
+        }
+
+        PreparedStatement mark = database.prepareCached(conn, "UPDATE arena_runs SET pareto_best = ? WHERE id = ?");
+        for (long beatenId : beaten) {
+            mark.setInt(1, 0);
+            mark.setLong(2, beatenId);
+            mark.executeUpdate();
+        }
+        mark.setInt(1, 1);
+        mark.setLong(2, runId);
+        mark.executeUpdate();
+    }
+
+    /**
+     * Recompute one matchup's frontier from all of its victories.
+     */
+    static void recompute(ArenaDatabase database, Connection conn, long loadoutId, String encounterId)
+            throws SQLException {
+        PreparedStatement clear = database.prepareCached(conn,
+            "UPDATE arena_runs SET pareto_best = 0 WHERE loadout_id = ? AND encounter_id = ? AND pareto_best = 1");
+        clear.setLong(1, loadoutId);
+        clear.setString(2, encounterId);
+        clear.executeUpdate();
+
+        PreparedStatement mark = database.prepareCached(conn, "UPDATE arena_runs SET pareto_best = 1 WHERE id = ?");
+        for (ArenaRepository.VictoryRecord best : compute(read(database, conn, loadoutId, encounterId, false))) {
+            mark.setLong(1, best.runId);
+            mark.executeUpdate();
+        }
+    }
+
+    /**
+     * Recompute every frontier from the full run history. Returns the number of victories flagged.
+     */
+    static int rebuildAll(Statement stmt) throws SQLException {
+        stmt.executeUpdate("UPDATE arena_runs SET pareto_best = 0 WHERE pareto_best = 1");
+
+        // Read everything first rather than flag rows of the table while still scanning it
+        List<ArenaRepository.VictoryRecord> victories = new ArrayList<>();
+        List<String> matchups = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery(
+                 "SELECT " + VICTORY_COLUMNS + " FROM arena_runs WHERE outcome = 'VICTORY' " +
+                 "ORDER BY loadout_id, encounter_id")) {
+            while (rs.next()) {
+                victories.add(readVictory(rs));
+                matchups.add(rs.getLong("loadout_id") + "\n" + rs.getString("encounter_id"));
+            }
+        }
+
+        int flagged = 0;
+        try (PreparedStatement mark = stmt.getConnection().prepareStatement(
+                 "UPDATE arena_runs SET pareto_best = 1 WHERE id = ?")) {
+            int start = 0;
+            for (int i = 1; i <= victories.size(); i++) {
+                if (i == victories.size() || !matchups.get(i).equals(matchups.get(start))) {
+                    flagged += markAll(mark, compute(victories.subList(start, i)));
+                    start = i;
+                }
+            }
+        }
+        return flagged;
+    }
+
+    /**
+     * Victories of one matchup, newest first; only the flagged ones if frontierOnly.
+     */
+    static List<ArenaRepository.VictoryRecord> read(ArenaDatabase database, Connection conn, long loadoutId,
+                                                    String encounterId, boolean frontierOnly) throws SQLException {
+        String sql = "SELECT " + VICTORY_COLUMNS + " FROM arena_runs " +
+                     "WHERE loadout_id = ? AND encounter_id = ? AND " +
+                     (frontierOnly ? "pareto_best = 1 " : "outcome = 'VICTORY' ") +
+                     "ORDER BY started_at DESC";
+        PreparedStatement stmt = database.prepareCached(conn, sql);
+        stmt.setLong(1, loadoutId);
+        stmt.setString(2, encounterId);
+
+        List<ArenaRepository.VictoryRecord> victories = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                victories.add(readVictory(rs));
+            }
+        }
+        return victories;
+    }
+
+    private static ArenaRepository.VictoryRecord readVictory(ResultSet rs) throws SQLException {
+        ArenaRepository.VictoryRecord record = new ArenaRepository.VictoryRecord();
+        record.runId = rs.getLong("id");
+        record.turnsTaken = rs.getInt("turns_taken");
+        record.damageTaken = rs.getInt("damage_taken");
+        record.damageDealt = rs.getInt("damage_dealt");
+        record.endingHp = rs.getInt("ending_hp");
+        record.startingHp = rs.getInt("starting_hp");
+        record.potionsUsed = rs.getInt("potions_used");
+        record.startedAt = rs.getLong("started_at");
+        return record;
+    }
+
+    private static int markAll(PreparedStatement mark, List<ArenaRepository.VictoryRecord> frontier)
+            throws SQLException {
+        for (ArenaRepository.VictoryRecord best : frontier) {
+            mark.setLong(1, best.runId);
+            mark.addBatch();
+        }
+        mark.executeBatch();
+        return frontier.size();
+    }
+
+    private static boolean sameMetrics(ArenaRepository.VictoryRecord a, ArenaRepository.VictoryRecord b) {
+        return a.damageTaken == b.damageTaken && a.potionsUsed == b.potionsUsed && a.turnsTaken == b.turnsTaken;
+    }
+}
@@ -0,0 +1,78 @@
+package stsarena.data;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compiled statements for a single connection, keyed by SQL text.
+ *
+ * Not thread-safe: a cache is only ever used by the thread that currently holds its
+ * connection (a borrowed reader, or the writer connection on the writer thread).
+ * Cached statements must not be closed by callers - close their ResultSets instead.
+ */
+class StatementCache {
+
+    private static final Logger logger = LogManager.getLogger(StatementCache.class.getName());
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+    private final Map<String, PreparedStatement> keyReturningStatements = new HashMap<>();
+
+    StatementCache(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Get the compiled statement for this SQL, preparing it on first use.
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement stmt = statements.get(sql);
+        if (stmt == null || stmt.isClosed()) {
+            stmt = connection.prepareStatement(sql);
+            statements.put(sql, stmt);
+        }
+        return stmt;
+    }
+
+    /**
+     * Get the compiled statement for an insert whose generated keys are needed.
+     */
+    PreparedStatement prepareReturningKeys(String sql) throws SQLException {
+        PreparedStatement stmt = keyReturningStatements.get(sql);
+        if (stmt == null || stmt.isClosed()) {
+            stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            keyReturningStatements.put(sql, stmt);
+        }
+        return stmt;
+    }
+
+    int size() {
+        return statements.size() + keyReturningStatements.size();
+    }
+
+    /**
+     * Close every cached statement. The connection itself is left open.
+     */
+    void close() {
+        closeAll(statements);
+        closeAll(keyReturningStatements);
+    }
+
+    private static void closeAll(Map<String, PreparedStatement> cached) {
+        for (PreparedStatement stmt : cached.values()) {
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                logger.warn("Error closing cached statement", e);
+            }
+        }
+        cached.clear();
+    }
+}
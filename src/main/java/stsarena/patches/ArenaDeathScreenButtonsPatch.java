@@ -144,8 +144,8 @@ public class ArenaDeathScreenButtonsPatch {
             Settings.isDailyRun = false;
             Settings.isEndless = false;
             STSArena.setReturnToArenaOnMainMenu();
-            // Clear the "run in progress" flag so ClearArenaOnMainMenuPatch will clear state.
-            ArenaRunner.setArenaRunInProgress(false);
+            // Mark the run as leaving (no longer being set up) so ClearArenaOnMainMenuPatch will clear state.
+            ArenaRunner.onLeavingToMainMenu();
             // IMPORTANT: Do NOT clear isArenaRun before startOver()! The death screen
             // will continue updating during the async transition, and we need isArenaRun
             // to be true so SkipUpdateOnStartOver can skip the updates correctly.
@@ -154,10 +154,8 @@ public class ArenaDeathScreenButtonsPatch {
         }
 
         private static void handleTryAgain() {
-            // Use scheduleArenaRestart() to properly return to main menu first,
-            // then restart the arena fight. This is more reliable than trying to
-            // restart directly from the death screen state.
-            ArenaRunner.scheduleArenaRestart();
+            // Restarts in place when the dungeon allows it, otherwise via the main menu
+            ArenaRunner.retryCurrentFight();
         }
 
         private static void handleModifyDeck() {
@@ -22,7 +22,6 @@ import com.megacrit.cardcrawl.screens.options.OptionsPanel;
 import stsarena.STSArena;
 import stsarena.arena.ArenaRunner;
 import stsarena.arena.RandomLoadoutGenerator;
-import stsarena.data.ArenaDatabase;
 import stsarena.data.ArenaRepository;
 
 import java.lang.reflect.Field;
@@ -269,7 +268,7 @@ public class ArenaPauseButtonPatch {
         );
 
         // Save to database
-        ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
+        ArenaRepository repo = ArenaRepository.getInstance();
         return repo.saveLoadout(loadout);
     }
 
@@ -0,0 +1,34 @@
+package stsarena.patches;
+
+import com.evacipated.cardcrawl.modthespire.lib.SpirePatch;
+import com.evacipated.cardcrawl.modthespire.lib.SpirePrefixPatch;
+import com.evacipated.cardcrawl.modthespire.lib.SpireReturn;
+import com.megacrit.cardcrawl.characters.AbstractPlayer;
+import com.megacrit.cardcrawl.saveAndContinue.SaveFile;
+import stsarena.STSArena;
+import stsarena.arena.ArenaRunner;
+import stsarena.arena.ArenaSaveManager;
+
+/**
+ * Hands the game the staged arena save instead of reading the character's autosave.
+ * Only during arena runs; every other load reads the file as usual.
+ */
+@SpirePatch(
+    cls = "com.megacrit.cardcrawl.saveAndContinue.SaveAndContinue",
+    method = "loadSaveFile",
+    paramtypez = {AbstractPlayer.PlayerClass.class}
+)
+public class ArenaSaveLoadPatch {
+    @SpirePrefixPatch
+    public static SpireReturn<SaveFile> Prefix(AbstractPlayer.PlayerClass playerClass) {
+        if (!ArenaRunner.isArenaRun()) {
+            return SpireReturn.Continue();
+        }
+        SaveFile staged = ArenaSaveManager.getStagedSave(playerClass);
+        if (staged == null) {
+            return SpireReturn.Continue();
+        }
+        STSArena.logger.info("ARENA: Loading staged arena save for " + playerClass);
+        return SpireReturn.Return(staged);
+    }
+}
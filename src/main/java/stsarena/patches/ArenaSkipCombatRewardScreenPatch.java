@@ -85,9 +85,9 @@ public class ArenaSkipCombatRewardScreenPatch {
             Settings.isDailyRun = false;
             Settings.isEndless = false;
 
-            // Clear the "run in progress" flag so ClearArenaOnMainMenuPatch will clear state.
+            // Mark the run as leaving (no longer being set up) so ClearArenaOnMainMenuPatch will clear state.
             // We keep isArenaRun true so patches can still detect arena mode during the transition.
-            ArenaRunner.setArenaRunInProgress(false);
+            ArenaRunner.onLeavingToMainMenu();
 
             // Trigger return to main menu
             // IMPORTANT: Do NOT clear isArenaRun here! startOver() is async and game screens
@@ -14,7 +14,7 @@ import stsarena.arena.ArenaRunner;
 public class ArenaVictoryPatch {
     @SpirePostfixPatch
     public static void Postfix(AbstractRoom __instance) {
-        STSArena.logger.info("ARENA: endBattle called - isArenaRun=" + ArenaRunner.isArenaRun() + ", runDbId=" + ArenaRunner.getCurrentRunDbId());
+        STSArena.logger.info("ARENA: endBattle called - isArenaRun=" + ArenaRunner.isArenaRun() + ", runDbId=" + ArenaRunner.peekCurrentRunDbId());
         if (ArenaRunner.isArenaRun()) {
             // Check if this was an imperfect victory (player took damage)
             // Use didTakeDamageThisCombat() flag instead of comparing HP, because relics like
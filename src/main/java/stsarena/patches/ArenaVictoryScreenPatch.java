@@ -199,8 +199,8 @@ public class ArenaVictoryScreenPatch {
             Settings.isDailyRun = false;
             Settings.isEndless = false;
             STSArena.setReturnToArenaOnMainMenu();
-            // Clear the "run in progress" flag so ClearArenaOnMainMenuPatch will clear state.
-            ArenaRunner.setArenaRunInProgress(false);
+            // Mark the run as leaving (no longer being set up) so ClearArenaOnMainMenuPatch will clear state.
+            ArenaRunner.onLeavingToMainMenu();
             // IMPORTANT: Do NOT clear isArenaRun before startOver()! The victory screen
             // will continue updating during the async transition, and we need isArenaRun
             // to be true so arena patches can skip normal game flow.
@@ -214,9 +214,8 @@ public class ArenaVictoryScreenPatch {
             damageTaken = 0;
             buttonsVisible = false;
 
-            // Use scheduleArenaRestart() to properly return to main menu first,
-            // then restart the arena fight
-            ArenaRunner.scheduleArenaRestart();
+            // Restarts in place when the dungeon allows it, otherwise via the main menu
+            ArenaRunner.retryCurrentFight();
         }
 
         private static void handleModifyDeck() {
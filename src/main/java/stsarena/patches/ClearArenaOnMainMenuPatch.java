@@ -4,6 +4,7 @@ import com.evacipated.cardcrawl.modthespire.lib.SpirePatch;
 import com.megacrit.cardcrawl.screens.mainMenu.MainMenuScreen;
 import stsarena.STSArena;
 import stsarena.arena.ArenaRunner;
+import stsarena.arena.SaveFileManager;
 
 /**
  * Clears the arena run flag when returning to main menu.
@@ -20,6 +21,17 @@ public class ClearArenaOnMainMenuPatch {
         paramtypez = {boolean.class}
     )
     public static class ClearOnMainMenu {
+        /**
+         * Put the player's save back before the menu looks for saves to continue.
+         * During an arena session it is renamed aside, and the menu would miss it.
+         */
+        public static void Prefix(MainMenuScreen __instance, boolean playBgm) {
+            if (ArenaRunner.isArenaRunInProgress() || ArenaRunner.isResumingNormalRun()) {
+                return;
+            }
+            SaveFileManager.restoreOriginalSave();
+        }
+
         public static void Postfix(MainMenuScreen __instance, boolean playBgm) {
             STSArena.logger.info("ARENA: MainMenuScreen created - isArenaRunInProgress=" +
                 ArenaRunner.isArenaRunInProgress() + ", isArenaRun=" + ArenaRunner.isArenaRun() +
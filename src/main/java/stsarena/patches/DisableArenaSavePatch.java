@@ -11,7 +11,7 @@ import stsarena.arena.SaveFileManager;
  * Prevents the game from creating save files during arena runs.
  * This ensures arena fights are truly isolated practice sessions.
  *
- * Uses both in-memory flag (isArenaRun) and file-based marker for robustness.
+ * Uses both in-memory flag (isArenaRun) and the file-based arena journal for robustness.
  * Throws an error if a save is attempted during arena mode to help identify
  * unexpected save file creation.
  */
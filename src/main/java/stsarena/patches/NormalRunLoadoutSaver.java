@@ -19,7 +19,6 @@ import com.megacrit.cardcrawl.screens.VictoryScreen;
 import stsarena.STSArena;
 import stsarena.arena.ArenaRunner;
 import stsarena.arena.RandomLoadoutGenerator;
-import stsarena.data.ArenaDatabase;
 import stsarena.data.ArenaRepository;
 
 import java.text.SimpleDateFormat;
@@ -304,7 +303,7 @@ public class NormalRunLoadoutSaver {
             );
 
             // Save to database
-            ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
+            ArenaRepository repo = ArenaRepository.getInstance();
             long dbId = repo.saveLoadout(loadout);
 
             if (dbId > 0) {
@@ -395,7 +394,7 @@ public class NormalRunLoadoutSaver {
             );
 
             // Save to database
-            ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
+            ArenaRepository repo = ArenaRepository.getInstance();
             long dbId = repo.saveLoadout(loadout);
 
             if (dbId > 0) {
@@ -12,7 +12,6 @@ import com.megacrit.cardcrawl.dungeons.AbstractDungeon;
 import stsarena.STSArena;
 import stsarena.arena.ArenaRunner;
 import stsarena.arena.RandomLoadoutGenerator;
-import stsarena.data.ArenaDatabase;
 import stsarena.data.ArenaRepository;
 
 import java.util.ArrayList;
@@ -45,6 +44,11 @@ public class ArenaEncounterSelectScreen {
 
     // Encounter outcomes for current loadout (encounter ID -> "VICTORY" or "DEFEAT")
     private Map<String, String> encounterOutcomes = new HashMap<>();
+    private final ScreenModelLoader<ArenaRepository.EncounterOutcomes> outcomesLoader =
+        new ScreenModelLoader<>("encounter outcomes");
+    // Which loadout's outcomes are shown, and the data version they reflect
+    private long outcomesLoadoutId = -1;
+    private long outcomesVersion = -1;
 
     // Track if we came from the pause menu (Practice in Arena button)
     private boolean openedFromPauseMenu = false;
@@ -158,27 +162,33 @@ public class ArenaEncounterSelectScreen {
         this.isTypingSearch = false;
         applyFilter();
 
-        // Load encounter outcomes for the selected loadout
+        // Load encounter outcomes for the selected loadout; none are shown until they arrive
+        encounterOutcomes = new HashMap<>();
+        outcomesLoadoutId = -1;
         refreshEncounterOutcomes();
     }
 
     /**
      * Refresh the encounter outcomes from the database.
      * Called on open() and can be called to force refresh after fights.
+     * Nothing is read if no outcome has changed since the shown ones were loaded. Otherwise the
+     * repository's outcome cache (patched by the fight that just ended) is read in the background;
+     * the current outcomes stay shown until update() swaps in the new ones.
      */
     public void refreshEncounterOutcomes() {
-        encounterOutcomes.clear();
         if (ArenaLoadoutSelectScreen.selectedSavedLoadout != null) {
-            try {
-                ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
-                encounterOutcomes = repo.getEncounterOutcomesForLoadout(
-                    ArenaLoadoutSelectScreen.selectedSavedLoadout.dbId);
-                STSArena.logger.info("Loaded " + encounterOutcomes.size() + " encounter outcomes for loadout " +
-                    ArenaLoadoutSelectScreen.selectedSavedLoadout.dbId);
-            } catch (Exception e) {
-                STSArena.logger.error("Failed to load encounter outcomes", e);
+            final long loadoutId = ArenaLoadoutSelectScreen.selectedSavedLoadout.dbId;
+            ArenaRepository repo = ArenaRepository.getInstance();
+            if (loadoutId == outcomesLoadoutId && repo.getOutcomeVersion() == outcomesVersion) {
+                return;
             }
+            outcomesLoader.load(() -> repo.getEncounterOutcomes(loadoutId));
+            outcomesLoadoutId = loadoutId;
+            outcomesVersion = -1;
         } else {
+            outcomesLoader.reset();
+            encounterOutcomes = new HashMap<>();
+            outcomesLoadoutId = -1;
             STSArena.logger.info("No selectedSavedLoadout, cannot load encounter outcomes");
         }
     }
@@ -201,7 +211,7 @@ public class ArenaEncounterSelectScreen {
 
         // Load the loadout from the database
         try {
-            ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
+            ArenaRepository repo = ArenaRepository.getInstance();
             ArenaRepository.LoadoutRecord loadout = repo.getLoadoutById(loadoutId);
             if (loadout != null) {
                 // Set it as the selected loadout
@@ -225,11 +235,20 @@ public class ArenaEncounterSelectScreen {
     public void close() {
         this.isOpen = false;
         this.cancelButton.hide();
+        outcomesLoader.reset();
+        outcomesLoadoutId = -1;
     }
 
     public void update() {
         if (!isOpen) return;
 
+        // Swap in outcomes loaded in the background
+        ArenaRepository.EncounterOutcomes loaded = outcomesLoader.poll();
+        if (loaded != null) {
+            encounterOutcomes = loaded.outcomes;
+            outcomesVersion = loaded.version;
+        }
+
         // Search is disabled for encounter selection (not needed for this screen)
 
         // Cancel button - go back to previous screen
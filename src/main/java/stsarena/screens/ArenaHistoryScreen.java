@@ -11,18 +11,21 @@ import com.megacrit.cardcrawl.helpers.input.InputHelper;
 import com.megacrit.cardcrawl.screens.mainMenu.MenuCancelButton;
 import stsarena.STSArena;
 import stsarena.arena.ArenaRunner;
-import stsarena.data.ArenaDatabase;
 import stsarena.data.ArenaRepository;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
 /**
  * Screen showing arena fight history and statistics.
+ *
+ * History is loaded a page at a time as the user scrolls, in the order of the sorted
+ * column. The next page is fetched in the background before the user reaches the end
+ * of what is loaded, so the full history is browsable without reading it all up front. The first page and
+ * the totals are loaded in the background too, so opening never waits on the database.
  */
 public class ArenaHistoryScreen {
 
@@ -41,6 +44,15 @@ public class ArenaHistoryScreen {
 
     private List<ArenaRepository.ArenaRunRecord> recentRuns;
     private ArenaRepository.ArenaStats stats;
+
+    // Paging
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_ROWS = 20; // Fetch the next page when this close to the end
+    private ArenaRepository.RunCursor nextCursor;
+    private boolean historyExhausted;
+    private final ScreenModelLoader<HistoryModel> historyLoader = new ScreenModelLoader<>("arena history");
+    private final ScreenModelLoader<List<ArenaRepository.ArenaRunRecord>> pageLoader =
+        new ScreenModelLoader<>("more arena history");
     private SimpleDateFormat dateFormat = new SimpleDateFormat("MM-dd HH:mm");
 
     // Scrolling
@@ -62,9 +74,8 @@ public class ArenaHistoryScreen {
     private Long filterLoadoutId = null;
     private String filterLoadoutName = null;
 
-    // Sorting state
-    private enum SortColumn { LOADOUT, ENCOUNTER, OUTCOME, DATE }
-    private SortColumn sortColumn = SortColumn.DATE;
+    // Sorting state - the database pages in this order, so every sort covers the whole history
+    private ArenaRepository.RunSort sortColumn = ArenaRepository.RunSort.DATE;
     private boolean sortAscending = false; // Most recent first by default
 
     // Column header hitboxes for sorting
@@ -74,6 +85,20 @@ public class ArenaHistoryScreen {
     private Hitbox outcomeHeaderHb = new Hitbox(140.0f * Settings.scale, HEADER_HB_HEIGHT);
     private Hitbox dateHeaderHb = new Hitbox(200.0f * Settings.scale, HEADER_HB_HEIGHT);
 
+    /**
+     * What opening (or re-sorting) the screen loads: the first page, plus the totals when they
+     * need refreshing (null otherwise).
+     */
+    private static class HistoryModel {
+        final ArenaRepository.ArenaStats stats;
+        final List<ArenaRepository.ArenaRunRecord> firstPage;
+
+        HistoryModel(ArenaRepository.ArenaStats stats, List<ArenaRepository.ArenaRunRecord> firstPage) {
+            this.stats = stats;
+            this.firstPage = firstPage;
+        }
+    }
+
     public ArenaHistoryScreen() {
         this.cancelButton = new MenuCancelButton();
     }
@@ -100,39 +125,13 @@ public class ArenaHistoryScreen {
         this.isOpen = true;
         this.cancelButton.show("Return");
 
-        // Load data from database
-        try {
-            ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
-
-            if (filterLoadoutId != null) {
-                // Filtered mode - show runs for specific loadout
-                this.recentRuns = repo.getRunsForLoadout(filterLoadoutId, 50);
-                this.stats = null;  // Don't show overall stats in filtered mode
-            } else {
-                // Normal mode - show all runs
-                this.recentRuns = repo.getRecentRuns(50);
-                this.stats = repo.getStats();
-            }
-
-            STSArena.logger.info("Loaded " + recentRuns.size() + " arena runs");
-
-            // Sort the runs
-            sortRuns();
-
-            // Create hitboxes for replay buttons and loadout names
-            replayHitboxes = new Hitbox[recentRuns.size()];
-            loadoutNameHitboxes = new Hitbox[recentRuns.size()];
-            for (int i = 0; i < recentRuns.size(); i++) {
-                replayHitboxes[i] = new Hitbox(REPLAY_BUTTON_WIDTH, REPLAY_BUTTON_HEIGHT);
-                loadoutNameHitboxes[i] = new Hitbox(LOADOUT_COL_WIDTH, ROW_HEIGHT * 0.6f);
-            }
-        } catch (Exception e) {
-            STSArena.logger.error("Failed to load arena history", e);
-            this.recentRuns = null;
-            this.stats = null;
-            this.replayHitboxes = new Hitbox[0];
-            this.loadoutNameHitboxes = new Hitbox[0];
-        }
+        // Load the first page and overall stats in the background; update() swaps them in
+        this.recentRuns = null;
+        this.stats = null;
+        this.replayHitboxes = new Hitbox[0];
+        this.loadoutNameHitboxes = new Hitbox[0];
+        historyLoader.reset();
+        loadHistory(true);
 
         this.scrollY = 0.0f;
         this.targetScrollY = 0.0f;
@@ -141,63 +140,125 @@ public class ArenaHistoryScreen {
     public void close() {
         this.isOpen = false;
         this.cancelButton.hide();
+        // Drop loaded pages - the history can be long and is re-read on open
+        pageLoader.reset();
+        historyLoader.reset();
+        this.recentRuns = null;
+        this.replayHitboxes = null;
+        this.loadoutNameHitboxes = null;
+    }
+
+    /**
+     * Start the history again from the first page, in the current sort order.
+     * What is loaded stays on screen until the new first page arrives.
+     */
+    private void loadHistory(boolean withStats) {
+        // Pages of the old order no longer apply
+        pageLoader.reset();
+        final Long loadoutId = filterLoadoutId;
+        final ArenaRepository.RunSort sort = sortColumn;
+        final boolean ascending = sortAscending;
+        historyLoader.load(() -> {
+            ArenaRepository repo = ArenaRepository.getInstance();
+            ArenaRepository.ArenaStats loadedStats = null;
+            if (withStats) {
+                loadedStats = loadoutId != null ? repo.getStatsForLoadout(loadoutId) : repo.getStats();
+            }
+            return new HistoryModel(loadedStats, fetchPage(loadoutId, sort, ascending, null));
+        });
     }
 
     /**
-     * Sort the runs list based on current sort column and direction.
+     * Install a freshly loaded first page. Runs on the game thread from update().
      */
-    private void sortRuns() {
-        if (recentRuns == null || recentRuns.isEmpty()) return;
-
-        Comparator<ArenaRepository.ArenaRunRecord> comparator;
-        switch (sortColumn) {
-            case LOADOUT:
-                comparator = (a, b) -> {
-                    String nameA = a.loadoutName != null ? a.loadoutName : "";
-                    String nameB = b.loadoutName != null ? b.loadoutName : "";
-                    return nameA.compareToIgnoreCase(nameB);
-                };
-                break;
-            case ENCOUNTER:
-                comparator = (a, b) -> {
-                    String encA = a.encounterId != null ? a.encounterId : "";
-                    String encB = b.encounterId != null ? b.encounterId : "";
-                    return encA.compareToIgnoreCase(encB);
-                };
-                break;
-            case OUTCOME:
-                comparator = (a, b) -> {
-                    String outA = a.outcome != null ? a.outcome : "";
-                    String outB = b.outcome != null ? b.outcome : "";
-                    return outA.compareTo(outB);
-                };
-                break;
-            case DATE:
-            default:
-                comparator = (a, b) -> Long.compare(a.startedAt, b.startedAt);
-                break;
+    private void setHistory(HistoryModel model) {
+        if (model.stats != null) {
+            this.stats = model.stats;
         }
+        this.nextCursor = null;
+        this.historyExhausted = false;
+        this.recentRuns = new ArrayList<>();
+        this.replayHitboxes = new Hitbox[0];
+        this.loadoutNameHitboxes = new Hitbox[0];
+
+        appendPage(model.firstPage);
+        STSArena.logger.info("Loaded first " + recentRuns.size() + " arena runs");
+        requestNextPage();
+    }
+
+    private static List<ArenaRepository.ArenaRunRecord> fetchPage(Long loadoutId, ArenaRepository.RunSort sort,
+                                                                  boolean ascending,
+                                                                  ArenaRepository.RunCursor after) {
+        return ArenaRepository.getInstance().getRunsPage(loadoutId, sort, after, ascending, PAGE_SIZE);
+    }
 
-        if (!sortAscending) {
-            comparator = comparator.reversed();
+    /**
+     * Fetch the page after the last loaded run on a background thread.
+     */
+    private void requestNextPage() {
+        if (pageLoader.isLoading() || historyExhausted || nextCursor == null || historyLoader.isLoading()) {
+            return;
         }
+        final ArenaRepository.RunCursor after = nextCursor;
+        final Long loadoutId = filterLoadoutId;
+        final ArenaRepository.RunSort sort = sortColumn;
+        final boolean ascending = sortAscending;
+        pageLoader.load(() -> fetchPage(loadoutId, sort, ascending, after));
+    }
+
+    /**
+     * Add a finished background page to the list. Runs on the game thread so the
+     * list and hitboxes are only ever touched there.
+     */
+    private void pollPendingPage() {
+        if (!pageLoader.isLoading()) {
+            return;
+        }
+        List<ArenaRepository.ArenaRunRecord> page = pageLoader.poll();
+        if (page == null) {
+            if (!pageLoader.isLoading()) {
+                historyExhausted = true;  // Load failed (already logged); stop asking for more
+            }
+            return;
+        }
+        appendPage(page);
+    }
+
+    private void appendPage(List<ArenaRepository.ArenaRunRecord> page) {
+        if (page.size() < PAGE_SIZE) {
+            historyExhausted = true;
+        }
+        if (!page.isEmpty()) {
+            nextCursor = page.get(page.size() - 1).cursor(sortColumn);
+        }
+
+        recentRuns.addAll(page);
 
-        Collections.sort(recentRuns, comparator);
+        // Grow the per-row hitboxes to match
+        int oldSize = replayHitboxes.length;
+        replayHitboxes = Arrays.copyOf(replayHitboxes, recentRuns.size());
+        loadoutNameHitboxes = Arrays.copyOf(loadoutNameHitboxes, recentRuns.size());
+        for (int i = oldSize; i < recentRuns.size(); i++) {
+            replayHitboxes[i] = new Hitbox(REPLAY_BUTTON_WIDTH, REPLAY_BUTTON_HEIGHT);
+            loadoutNameHitboxes[i] = new Hitbox(LOADOUT_COL_WIDTH, ROW_HEIGHT * 0.6f);
+        }
     }
 
     /**
      * Handle clicking on a column header to change sort.
      */
-    private void handleHeaderClick(SortColumn column) {
+    private void handleHeaderClick(ArenaRepository.RunSort column) {
         if (sortColumn == column) {
             // Toggle direction
             sortAscending = !sortAscending;
         } else {
             // New column, reset to descending (or ascending for text columns)
             sortColumn = column;
-            sortAscending = (column == SortColumn.LOADOUT || column == SortColumn.ENCOUNTER);
+            sortAscending = (column == ArenaRepository.RunSort.LOADOUT || column == ArenaRepository.RunSort.ENCOUNTER);
         }
-        sortRuns();
+        // A different order is a different set of pages, starting from the first
+        // (along with the totals, if the opening load hasn't delivered them yet)
+        loadHistory(stats == null);
         // Reset scroll to top when sorting changes
         scrollY = 0;
         targetScrollY = 0;
@@ -222,6 +283,13 @@ public class ArenaHistoryScreen {
             targetScrollY -= Settings.SCROLL_SPEED;
         }
 
+        // Swap in a first page loaded in the background, then pick up any later page
+        HistoryModel loaded = historyLoader.poll();
+        if (loaded != null) {
+            setHistory(loaded);
+        }
+        pollPendingPage();
+
         // Clamp scroll
         float maxScroll = Math.max(0, (recentRuns != null ? recentRuns.size() : 0) * ROW_HEIGHT - 400.0f * Settings.scale);
         if (targetScrollY < 0) targetScrollY = 0;
@@ -229,6 +297,14 @@ public class ArenaHistoryScreen {
 
         scrollY = MathHelper.scrollSnapLerpSpeed(scrollY, targetScrollY);
 
+        // Prefetch before the user runs out of loaded rows
+        if (recentRuns != null) {
+            int lastVisibleRow = (int) ((targetScrollY + HISTORY_START_Y) / ROW_HEIGHT);
+            if (lastVisibleRow >= recentRuns.size() - PREFETCH_ROWS) {
+                requestNextPage();
+            }
+        }
+
         // Update column header hitboxes for sorting
         // Positions must match render positions - hitbox X is left edge, not center
         float headerY = HISTORY_START_Y + 30.0f * Settings.scale - HEADER_HB_HEIGHT / 2.0f;
@@ -251,16 +327,16 @@ public class ArenaHistoryScreen {
         // Check for header clicks
         if (InputHelper.justClickedLeft) {
             if (loadoutHeaderHb.hovered) {
-                handleHeaderClick(SortColumn.LOADOUT);
+                handleHeaderClick(ArenaRepository.RunSort.LOADOUT);
                 return;
             } else if (encounterHeaderHb.hovered) {
-                handleHeaderClick(SortColumn.ENCOUNTER);
+                handleHeaderClick(ArenaRepository.RunSort.ENCOUNTER);
                 return;
             } else if (outcomeHeaderHb.hovered) {
-                handleHeaderClick(SortColumn.OUTCOME);
+                handleHeaderClick(ArenaRepository.RunSort.OUTCOME);
                 return;
             } else if (dateHeaderHb.hovered) {
-                handleHeaderClick(SortColumn.DATE);
+                handleHeaderClick(ArenaRepository.RunSort.DATE);
                 return;
             }
         }
@@ -270,10 +346,11 @@ public class ArenaHistoryScreen {
         if (recentRuns != null && replayHitboxes != null && loadoutNameHitboxes != null) {
             float replayX = LEFT_X + 1000.0f * Settings.scale + REPLAY_BUTTON_WIDTH / 2.0f;
             float loadoutX = LEFT_X + LOADOUT_COL_WIDTH / 2.0f;
-            float y = HISTORY_START_Y - scrollY;
+            float y = HISTORY_START_Y + scrollY;
 
             for (int i = 0; i < recentRuns.size(); i++) {
                 float rowY = y - i * ROW_HEIGHT;
+                if (rowY <= 0) break; // Everything after this is below the screen
 
                 // Only update visible hitboxes
                 if (rowY > 0 && rowY < Settings.HEIGHT - 100.0f * Settings.scale) {
@@ -306,7 +383,7 @@ public class ArenaHistoryScreen {
         STSArena.logger.info("Replaying run: " + run.loadoutName + " vs " + run.encounterId);
 
         // Load the loadout from database
-        ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
+        ArenaRepository repo = ArenaRepository.getInstance();
         ArenaRepository.LoadoutRecord loadout = repo.getLoadoutById(run.loadoutId);
 
         if (loadout == null) {
@@ -333,22 +410,17 @@ public class ArenaHistoryScreen {
             title,
             Settings.WIDTH / 2.0f, TITLE_Y, Settings.GOLD_COLOR);
 
-        // Stats summary (only in unfiltered mode)
+        // Stats summary - totals come from the summary table, not the loaded pages
         if (stats != null && filterLoadoutId == null) {
             String statsText = String.format("Total Runs: %d  |  Wins: %d  |  Losses: %d  |  Win Rate: %.1f%%",
                 stats.totalRuns, stats.wins, stats.losses, stats.getWinRate() * 100);
             FontHelper.renderFontCentered(sb, FontHelper.cardDescFont_N,
                 statsText,
                 Settings.WIDTH / 2.0f, STATS_Y, Settings.CREAM_COLOR);
-        } else if (filterLoadoutId != null && recentRuns != null) {
+        } else if (stats != null) {
             // Show simple count in filtered mode
-            int wins = 0, losses = 0;
-            for (ArenaRepository.ArenaRunRecord run : recentRuns) {
-                if ("VICTORY".equals(run.outcome)) wins++;
-                else if ("DEFEAT".equals(run.outcome)) losses++;
-            }
             String statsText = String.format("Runs: %d  |  Wins: %d  |  Losses: %d",
-                recentRuns.size(), wins, losses);
+                stats.totalRuns, stats.wins, stats.losses);
             FontHelper.renderFontCentered(sb, FontHelper.cardDescFont_N,
                 statsText,
                 Settings.WIDTH / 2.0f, STATS_Y, Settings.CREAM_COLOR);
@@ -363,10 +435,10 @@ public class ArenaHistoryScreen {
         float col5 = LEFT_X + 1000.0f * Settings.scale; // Replay
 
         // Render sortable column headers with indicators
-        renderSortableHeader(sb, "Loadout", col1, headerY, SortColumn.LOADOUT, loadoutHeaderHb);
-        renderSortableHeader(sb, "Encounter", col2, headerY, SortColumn.ENCOUNTER, encounterHeaderHb);
-        renderSortableHeader(sb, "Outcome", col3, headerY, SortColumn.OUTCOME, outcomeHeaderHb);
-        renderSortableHeader(sb, "Date", col4, headerY, SortColumn.DATE, dateHeaderHb);
+        renderSortableHeader(sb, "Loadout", col1, headerY, ArenaRepository.RunSort.LOADOUT, loadoutHeaderHb);
+        renderSortableHeader(sb, "Encounter", col2, headerY, ArenaRepository.RunSort.ENCOUNTER, encounterHeaderHb);
+        renderSortableHeader(sb, "Outcome", col3, headerY, ArenaRepository.RunSort.OUTCOME, outcomeHeaderHb);
+        renderSortableHeader(sb, "Date", col4, headerY, ArenaRepository.RunSort.DATE, dateHeaderHb);
         FontHelper.renderFontLeftTopAligned(sb, FontHelper.cardDescFont_N,
             "Action", col5, headerY, Settings.GOLD_COLOR);
 
@@ -378,9 +450,13 @@ public class ArenaHistoryScreen {
             (col5 + 120.0f * Settings.scale) - col1 + 20.0f * Settings.scale, 2.0f * Settings.scale);
 
         // History rows
-        if (recentRuns != null && !recentRuns.isEmpty()) {
-            float y = HISTORY_START_Y - scrollY;
-            for (int i = 0; i < recentRuns.size(); i++) {
+        if (!historyLoader.hasLoaded()) {
+            FontHelper.renderFontCentered(sb, FontHelper.cardDescFont_N,
+                "Loading...",
+                Settings.WIDTH / 2.0f, HISTORY_START_Y - 50.0f * Settings.scale, Settings.CREAM_COLOR);
+        } else if (recentRuns != null && !recentRuns.isEmpty()) {
+            float y = HISTORY_START_Y + scrollY;
+            for (int i = 0; i < recentRuns.size() && y > 0; i++) {
                 ArenaRepository.ArenaRunRecord run = recentRuns.get(i);
                 // Only render visible rows
                 if (y > 0 && y < Settings.HEIGHT - 100.0f * Settings.scale) {
@@ -478,7 +554,7 @@ public class ArenaHistoryScreen {
      * Render a sortable column header with sort indicator.
      */
     private void renderSortableHeader(SpriteBatch sb, String label, float x, float y,
-                                       SortColumn column, Hitbox hb) {
+                                       ArenaRepository.RunSort column, Hitbox hb) {
         // Determine color based on state
         Color headerColor;
         if (sortColumn == column) {
@@ -16,14 +16,12 @@ import com.megacrit.cardcrawl.helpers.RelicLibrary;
 import com.megacrit.cardcrawl.helpers.input.InputHelper;
 import com.megacrit.cardcrawl.relics.AbstractRelic;
 import com.megacrit.cardcrawl.screens.mainMenu.MenuCancelButton;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import stsarena.STSArena;
 import stsarena.arena.ArenaRunner;
 import stsarena.data.ArenaDatabase;
 import stsarena.data.ArenaRepository;
+import stsarena.data.LoadoutCodec;
 
-import java.lang.reflect.Type;
 import java.sql.PreparedStatement;
 import java.util.ArrayList;
 import java.util.List;
@@ -64,7 +62,8 @@ public class ArenaLoadoutSelectScreen {
 
     // List items
     private List<ListItem> items;
-    private Hitbox[] hitboxes;
+    // Hitboxes only for rows on screen: row i uses rowHitboxes[i % rowHitboxes.length]
+    private Hitbox[] rowHitboxes;
 
     // History and Stats buttons
     private Hitbox historyButtonHitbox;
@@ -112,11 +111,9 @@ public class ArenaLoadoutSelectScreen {
     private boolean backspaceRepeating = false;
 
     // Selection state for starting fights
-    public static boolean useNewRandomLoadout = false;
-    public static ArenaRepository.LoadoutRecord selectedSavedLoadout = null;
-
-    // For parsing JSON
-    private static final Gson gson = new Gson();
+    // Volatile: ArenaRunner updates these from the database writer thread once a loadout is saved
+    public static volatile boolean useNewRandomLoadout = false;
+    public static volatile ArenaRepository.LoadoutRecord selectedSavedLoadout = null;
 
     // Character class filter (null = all classes)
     private String filterClass = null;  // "IRONCLAD", "THE_SILENT", "DEFECT", "WATCHER", or null for all
@@ -135,8 +132,46 @@ public class ArenaLoadoutSelectScreen {
     private static final float SEARCH_BOX_Y = TITLE_Y - 85.0f * Settings.scale;  // Between filter tabs and list
     private static final float SEARCH_BOX_X = LEFT_PANEL_X + 10.0f * Settings.scale;
 
-    // Unfiltered loadouts (for filtering)
+    // Saved loadouts loaded so far, paged in as the list scrolls
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_ROWS = 20;
     private List<ArenaRepository.LoadoutRecord> allLoadouts = new ArrayList<>();
+    private int totalLoadouts = 0;
+    private ArenaRepository.LoadoutCursor nextCursor;
+    private boolean loadoutsExhausted = false;
+    private final ScreenModelLoader<LoadoutListModel> listLoader = new ScreenModelLoader<>("saved loadouts");
+    private final ScreenModelLoader<List<ArenaRepository.LoadoutRecord>> pageLoader =
+        new ScreenModelLoader<>("page of saved loadouts");
+
+    // Searches go to the loadout search index once typing pauses, so every saved loadout is searchable
+    private static final float SEARCH_DEBOUNCE_SECONDS = 0.15f;
+    private static final int SEARCH_RESULT_LIMIT = 200;
+    private float searchDebounceTimer = -1f;  // < 0 when no query is due
+    private int searchGeneration = 0;         // bumped on every change so stale results are dropped
+    private final ScreenModelLoader<List<ArenaRepository.LoadoutRecord>> searchLoader =
+        new ScreenModelLoader<>("loadout search");
+    private int pendingSearchGeneration;
+    // Ranked matches for the last completed search, or null when no search results are shown
+    private List<ArenaRepository.LoadoutRecord> searchResults = null;
+
+    /**
+     * What a (re)load of the list fetches: the count and first page for the class filter,
+     * and the search results if a search was active (null otherwise).
+     */
+    private static class LoadoutListModel {
+        final int total;
+        final List<ArenaRepository.LoadoutRecord> firstPage;
+        final List<ArenaRepository.LoadoutRecord> searchResults;
+        final int searchGeneration;
+
+        LoadoutListModel(int total, List<ArenaRepository.LoadoutRecord> firstPage,
+                         List<ArenaRepository.LoadoutRecord> searchResults, int searchGeneration) {
+            this.total = total;
+            this.firstPage = firstPage;
+            this.searchResults = searchResults;
+            this.searchGeneration = searchGeneration;
+        }
+    }
 
     private static class ListItem {
         String text;
@@ -157,7 +192,11 @@ public class ArenaLoadoutSelectScreen {
     public ArenaLoadoutSelectScreen() {
         this.cancelButton = new MenuCancelButton();
         this.items = new ArrayList<>();
-        this.hitboxes = new Hitbox[0];
+        int visibleRows = (int) Math.ceil((Settings.HEIGHT + BUTTON_HEIGHT) / ROW_HEIGHT) + 1;
+        this.rowHitboxes = new Hitbox[visibleRows];
+        for (int i = 0; i < visibleRows; i++) {
+            rowHitboxes[i] = new Hitbox(LEFT_PANEL_WIDTH - 20.0f * Settings.scale, BUTTON_HEIGHT);
+        }
         this.historyButtonHitbox = new Hitbox(HISTORY_BUTTON_WIDTH, HISTORY_BUTTON_HEIGHT);
         this.statsButtonHitbox = new Hitbox(HISTORY_BUTTON_WIDTH, HISTORY_BUTTON_HEIGHT);
 
@@ -212,38 +251,147 @@ public class ArenaLoadoutSelectScreen {
         this.searchText = "";
         this.isTypingSearch = false;
         this.filterClass = null;
+        this.searchResults = null;
+        searchLoader.reset();
+        this.searchDebounceTimer = -1f;
+        this.searchGeneration++;
 
         // Reset multi-select state
         this.isMultiSelectMode = false;
         this.selectedLoadoutIds.clear();
         this.selectionAnchorIndex = -1;
 
-        // Load all loadouts from database
+        // Load saved loadouts in the background; the list shows a placeholder until they arrive
+        this.allLoadouts = new ArrayList<>();
+        this.totalLoadouts = 0;
+        listLoader.reset();
         loadAllLoadouts();
 
         // Build the item list (with current filters)
         buildItemList();
+    }
 
-        // Create hitboxes
-        hitboxes = new Hitbox[items.size()];
-        for (int i = 0; i < items.size(); i++) {
-            hitboxes[i] = new Hitbox(LEFT_PANEL_WIDTH - 20.0f * Settings.scale, BUTTON_HEIGHT);
+    /**
+     * Reload saved loadouts for the current class filter, starting again from the first page.
+     * The query runs in the background; what is loaded stays on screen until update() swaps
+     * the new list in.
+     */
+    private void loadAllLoadouts() {
+        // Pages of the old list no longer apply
+        pageLoader.reset();
+        final String characterClass = filterClass;
+        final String text = searchText.trim().isEmpty() ? null : searchText;
+        if (text != null) {
+            // The list changed under the search (delete, favorite, filter), so re-run it with the list
+            searchGeneration++;
+            searchDebounceTimer = -1f;
+            searchLoader.reset();
+        }
+        final int generation = searchGeneration;
+        listLoader.load(() -> {
+            ArenaRepository repo = ArenaRepository.getInstance();
+            int total = repo.countLoadouts(characterClass);
+            List<ArenaRepository.LoadoutRecord> firstPage = repo.getLoadoutsPage(characterClass, null, PAGE_SIZE);
+            List<ArenaRepository.LoadoutRecord> results = text != null
+                ? repo.searchLoadouts(text, characterClass, SEARCH_RESULT_LIMIT) : null;
+            return new LoadoutListModel(total, firstPage, results, generation);
+        });
+    }
+
+    /**
+     * Install a freshly loaded list and rebuild the rows, keeping the selected loadout selected.
+     * Runs on the game thread from update().
+     */
+    private void setLoadouts(LoadoutListModel model) {
+        allLoadouts = new ArrayList<>();
+        nextCursor = null;
+        loadoutsExhausted = false;
+        totalLoadouts = model.total;
+        addPage(model.firstPage);
+        if (model.searchResults != null && model.searchGeneration == searchGeneration) {
+            searchResults = model.searchResults;
+        }
+
+        long selectedId = selectedItem != null && selectedItem.savedLoadout != null ? selectedItem.savedLoadout.dbId : -1;
+        buildItemList();
+        if (selectedId >= 0) {
+            selectedItem = null;
+            for (ListItem item : items) {
+                if (item.savedLoadout != null && item.savedLoadout.dbId == selectedId) {
+                    selectedItem = item;
+                    break;
+                }
+            }
         }
     }
 
     /**
-     * Load all loadouts from database (unfiltered).
+     * Drop a deleted loadout from what is loaded, so the list is right before the reload arrives.
      */
-    private void loadAllLoadouts() {
-        allLoadouts.clear();
-        try {
-            ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
-            allLoadouts = repo.getLoadouts(100);
-        } catch (Exception e) {
-            STSArena.logger.error("Failed to load saved loadouts", e);
+    private void forgetLoadout(long loadoutId) {
+        if (allLoadouts.removeIf(loadout -> loadout.dbId == loadoutId)) {
+            totalLoadouts--;
+        }
+        if (searchResults != null) {
+            searchResults.removeIf(loadout -> loadout.dbId == loadoutId);
+        }
+    }
+
+    private void addPage(List<ArenaRepository.LoadoutRecord> page) {
+        allLoadouts.addAll(page);
+        if (page.size() < PAGE_SIZE) {
+            loadoutsExhausted = true;
+        } else {
+            nextCursor = page.get(page.size() - 1).cursor();
         }
     }
 
+    private void requestNextPage() {
+        if (pageLoader.isLoading() || loadoutsExhausted || nextCursor == null || listLoader.isLoading()) {
+            return;
+        }
+        final ArenaRepository.LoadoutCursor after = nextCursor;
+        final String characterClass = filterClass;
+        pageLoader.load(() ->
+            ArenaRepository.getInstance().getLoadoutsPage(characterClass, after, PAGE_SIZE));
+    }
+
+    /**
+     * Append a finished page to the list. Only the unsearched list pages; search results
+     * are ranked and come back whole.
+     */
+    private void pollPendingPage() {
+        if (!pageLoader.isLoading()) {
+            return;
+        }
+        List<ArenaRepository.LoadoutRecord> loaded = pageLoader.poll();
+        if (loaded == null) {
+            if (!pageLoader.isLoading()) {
+                loadoutsExhausted = true;  // Load failed (already logged); stop asking for more
+            }
+            return;
+        }
+        addPage(loaded);
+        if (searchText.isEmpty()) {
+            for (ArenaRepository.LoadoutRecord loadout : loaded) {
+                items.add(new ListItem(loadout.name, false, false, false, loadout));
+            }
+        }
+    }
+
+    // Rows that can be on screen at the current scroll position
+    private int firstVisibleRow() {
+        return Math.max(0, (int) Math.floor((LIST_START_Y + scrollY - Settings.HEIGHT) / ROW_HEIGHT));
+    }
+
+    private int lastVisibleRow() {
+        return Math.min(items.size() - 1, (int) Math.ceil((LIST_START_Y + scrollY + BUTTON_HEIGHT) / ROW_HEIGHT));
+    }
+
+    private Hitbox rowHitbox(int row) {
+        return rowHitboxes[row % rowHitboxes.length];
+    }
+
     private void buildItemList() {
         items.clear();
 
@@ -255,25 +403,31 @@ public class ArenaLoadoutSelectScreen {
             items.add(new ListItem("New Random Loadout", true, false, false, null));
         }
 
-        // Apply filters to loadouts
+        // Apply filters to loadouts. Search results are already ranked; until the first
+        // search comes back, filter the loaded loadouts by name so typing feels immediate
         List<ArenaRepository.LoadoutRecord> filteredLoadouts = new ArrayList<>();
-        for (ArenaRepository.LoadoutRecord loadout : allLoadouts) {
+        List<ArenaRepository.LoadoutRecord> source = searchResults != null ? searchResults : allLoadouts;
+        for (ArenaRepository.LoadoutRecord loadout : source) {
             // Filter by class
             if (filterClass != null && !filterClass.equals(loadout.characterClass)) {
                 continue;
             }
             // Filter by search text
-            if (!searchText.isEmpty() && !loadout.name.toLowerCase().contains(searchText.toLowerCase())) {
+            if (searchResults == null && !searchText.isEmpty() &&
+                !loadout.name.toLowerCase().contains(searchText.toLowerCase())) {
                 continue;
             }
             filteredLoadouts.add(loadout);
         }
 
-        if (!filteredLoadouts.isEmpty()) {
+        if (!listLoader.hasLoaded()) {
+            items.add(new ListItem("--- Loading... ---", false, true, false, null));
+        } else if (!filteredLoadouts.isEmpty()) {
             // Add header
+            int matches = searchText.isEmpty() ? totalLoadouts : filteredLoadouts.size();
             String headerText = searchText.isEmpty() && filterClass == null ?
                 "--- Saved Loadouts ---" :
-                "--- Filtered (" + filteredLoadouts.size() + ") ---";
+                "--- Filtered (" + matches + ") ---";
             items.add(new ListItem(headerText, false, true, false, null));
 
             for (ArenaRepository.LoadoutRecord loadout : filteredLoadouts) {
@@ -283,17 +437,55 @@ public class ArenaLoadoutSelectScreen {
         } else if (!searchText.isEmpty() || filterClass != null) {
             items.add(new ListItem("--- No matches ---", false, true, false, null));
         }
+    }
 
-        // Recreate hitboxes for new item list
-        hitboxes = new Hitbox[items.size()];
-        for (int i = 0; i < items.size(); i++) {
-            hitboxes[i] = new Hitbox(LEFT_PANEL_WIDTH - 20.0f * Settings.scale, BUTTON_HEIGHT);
+    /**
+     * Called whenever the search text or class filter changes. Rebuilds the list from
+     * what is already loaded and schedules a search-index query for when typing pauses.
+     */
+    private void onSearchChanged() {
+        searchGeneration++;
+        if (searchText.trim().isEmpty()) {
+            searchResults = null;
+            searchDebounceTimer = -1f;
+        } else {
+            searchDebounceTimer = SEARCH_DEBOUNCE_SECONDS;
         }
+        buildItemList();
+    }
+
+    /**
+     * Run a debounced search once its timer expires, and show its results when they arrive.
+     */
+    private void updateSearch() {
+        if (searchDebounceTimer >= 0f) {
+            searchDebounceTimer -= Gdx.graphics.getDeltaTime();
+            if (searchDebounceTimer < 0f) {
+                final String text = searchText;
+                final String characterClass = filterClass;
+                pendingSearchGeneration = searchGeneration;
+                searchLoader.load(() ->
+                    ArenaRepository.getInstance().searchLoadouts(text, characterClass, SEARCH_RESULT_LIMIT));
+            }
+        }
+
+        List<ArenaRepository.LoadoutRecord> results = searchLoader.poll();
+        if (results == null) {
+            return;  // Still running, or failed (already logged)
+        }
+        if (pendingSearchGeneration != searchGeneration) {
+            return;  // The text changed while it ran; a newer search is already scheduled
+        }
+        searchResults = results;
+        buildItemList();
     }
 
     public void close() {
         this.isOpen = false;
         this.cancelButton.hide();
+        listLoader.reset();
+        pageLoader.reset();
+        searchLoader.reset();
     }
 
     /**
@@ -325,6 +517,15 @@ public class ArenaLoadoutSelectScreen {
     public void update() {
         if (!isOpen) return;
 
+        // Swap in a list loaded in the background
+        boolean wasLoaded = listLoader.hasLoaded();
+        LoadoutListModel loaded = listLoader.poll();
+        if (loaded != null) {
+            setLoadouts(loaded);
+        } else if (!wasLoaded && listLoader.hasLoaded()) {
+            buildItemList();  // Load failed (already logged); drop the placeholder
+        }
+
         // Handle rename text input
         if (isRenaming) {
             handleRenameInput();
@@ -334,6 +535,7 @@ public class ArenaLoadoutSelectScreen {
         if (isTypingSearch) {
             handleSearchInput();
         }
+        updateSearch();
 
         // Update search box (centered on its X position)
         searchBoxHitbox.move(SEARCH_BOX_X + SEARCH_BOX_WIDTH / 2.0f, SEARCH_BOX_Y);
@@ -360,6 +562,7 @@ public class ArenaLoadoutSelectScreen {
                 } else {
                     filterClass = newFilter;
                     selectedItem = null;  // Clear selection when filter changes
+                    loadAllLoadouts();
                     buildItemList();
                     scrollY = 0;
                     targetScrollY = 0;
@@ -443,10 +646,16 @@ public class ArenaLoadoutSelectScreen {
 
         scrollY = MathHelper.scrollSnapLerpSpeed(scrollY, targetScrollY);
 
+        // Page in more saved loadouts as the end of the list comes into view
+        pollPendingPage();
+        if (searchText.isEmpty() && lastVisibleRow() >= items.size() - PREFETCH_ROWS) {
+            requestNextPage();
+        }
+
         // Update hitboxes and check for clicks
         hoveredItem = null;
         float y = LIST_START_Y + scrollY;
-        for (int i = 0; i < items.size(); i++) {
+        for (int i = firstVisibleRow(); i <= lastVisibleRow(); i++) {
             ListItem item = items.get(i);
             float buttonY = y - i * ROW_HEIGHT;
 
@@ -455,10 +664,11 @@ public class ArenaLoadoutSelectScreen {
 
             // Only update hitboxes that are visible
             if (buttonY > -BUTTON_HEIGHT && buttonY < Settings.HEIGHT) {
-                hitboxes[i].move(LEFT_PANEL_X + LEFT_PANEL_WIDTH / 2.0f, buttonY - BUTTON_HEIGHT / 2.0f);
-                hitboxes[i].update();
+                Hitbox hb = rowHitbox(i);
+                hb.move(LEFT_PANEL_X + LEFT_PANEL_WIDTH / 2.0f, buttonY - BUTTON_HEIGHT / 2.0f);
+                hb.update();
 
-                if (hitboxes[i].hovered) {
+                if (hb.hovered) {
                     hoveredItem = item;
                     if (InputHelper.justClickedLeft && !isRenaming && !isConfirmingDelete) {
                         handleItemClick(item);
@@ -506,7 +716,7 @@ public class ArenaLoadoutSelectScreen {
         if (com.badlogic.gdx.Gdx.input.isKeyJustPressed(com.badlogic.gdx.Input.Keys.ENTER)) {
             if (!renameText.trim().isEmpty() && selectedItem != null && selectedItem.savedLoadout != null) {
                 // Save the new name
-                ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
+                ArenaRepository repo = ArenaRepository.getInstance();
                 if (repo.renameLoadout(selectedItem.savedLoadout.dbId, renameText.trim())) {
                     selectedItem.savedLoadout.name = renameText.trim();
                     selectedItem.text = renameText.trim();
@@ -591,7 +801,7 @@ public class ArenaLoadoutSelectScreen {
         if (com.badlogic.gdx.Gdx.input.isKeyJustPressed(com.badlogic.gdx.Input.Keys.BACKSPACE) && !searchText.isEmpty()) {
             searchText = searchText.substring(0, searchText.length() - 1);
             selectedItem = null;  // Clear selection when search changes
-            buildItemList();
+            onSearchChanged();
             scrollY = 0;
             targetScrollY = 0;
         }
@@ -608,7 +818,7 @@ public class ArenaLoadoutSelectScreen {
                 char c = (char) ('a' + (keycode - com.badlogic.gdx.Input.Keys.A));
                 searchText += c;
                 selectedItem = null;  // Clear selection when search changes
-                buildItemList();
+                onSearchChanged();
                 scrollY = 0;
                 targetScrollY = 0;
             }
@@ -620,7 +830,7 @@ public class ArenaLoadoutSelectScreen {
                 char c = (char) ('0' + (keycode - com.badlogic.gdx.Input.Keys.NUM_0));
                 searchText += c;
                 selectedItem = null;
-                buildItemList();
+                onSearchChanged();
                 scrollY = 0;
                 targetScrollY = 0;
             }
@@ -630,7 +840,7 @@ public class ArenaLoadoutSelectScreen {
         if (com.badlogic.gdx.Gdx.input.isKeyJustPressed(com.badlogic.gdx.Input.Keys.SPACE)) {
             searchText += ' ';
             selectedItem = null;
-            buildItemList();
+            onSearchChanged();
             scrollY = 0;
             targetScrollY = 0;
         }
@@ -648,7 +858,7 @@ public class ArenaLoadoutSelectScreen {
         if (InputHelper.justClickedLeft) {
             if (confirmDeleteHb.hovered) {
                 // Delete the loadout
-                ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
+                ArenaRepository repo = ArenaRepository.getInstance();
 
                 // Find the index of the deleted item to select the next one
                 int deletedIndex = -1;
@@ -663,6 +873,7 @@ public class ArenaLoadoutSelectScreen {
                     STSArena.logger.info("Deleted loadout: " + selectedItem.savedLoadout.name);
                     // Refresh the list
                     isConfirmingDelete = false;
+                    forgetLoadout(selectedItem.savedLoadout.dbId);
                     loadAllLoadouts();  // Reload from database
                     buildItemList();    // Rebuild filtered list
 
@@ -732,7 +943,7 @@ public class ArenaLoadoutSelectScreen {
                 InputHelper.justClickedLeft = false;
             } else if (favoriteButtonHb.hovered) {
                 // Toggle favorite status
-                ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
+                ArenaRepository repo = ArenaRepository.getInstance();
                 boolean newStatus = repo.toggleFavorite(selectedItem.savedLoadout.dbId);
                 selectedItem.savedLoadout.isFavorite = newStatus;
                 // Reload and rebuild to re-sort
@@ -868,9 +1079,10 @@ public class ArenaLoadoutSelectScreen {
         if (InputHelper.justClickedLeft) {
             if (bulkDeleteHb.hovered) {
                 // Delete all selected loadouts
-                ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
+                ArenaRepository repo = ArenaRepository.getInstance();
                 for (Long id : selectedLoadoutIds) {
                     repo.deleteLoadout(id);
+                    forgetLoadout(id);
                     STSArena.logger.info("Bulk deleted loadout: " + id);
                 }
                 selectedLoadoutIds.clear();
@@ -951,7 +1163,7 @@ public class ArenaLoadoutSelectScreen {
 
     private void renderLoadoutList(SpriteBatch sb) {
         float y = LIST_START_Y + scrollY;
-        for (int i = 0; i < items.size(); i++) {
+        for (int i = firstVisibleRow(); i <= lastVisibleRow(); i++) {
             ListItem item = items.get(i);
             float buttonY = y - i * ROW_HEIGHT;
 
@@ -960,7 +1172,7 @@ public class ArenaLoadoutSelectScreen {
                 if (item.isHeader) {
                     renderHeader(sb, item.text, buttonY);
                 } else {
-                    renderOption(sb, item, buttonY, hitboxes[i]);
+                    renderOption(sb, item, buttonY, rowHitbox(i));
                 }
             }
         }
@@ -1320,21 +1532,11 @@ public class ArenaLoadoutSelectScreen {
         // Parse relics - handle both new format (RelicData) and old format (strings)
         try {
             List<String> relicIds = new ArrayList<>();
-
-            // Try new format first (RelicData with id and counter)
-            Type relicDataListType = new TypeToken<List<ArenaRepository.RelicData>>(){}.getType();
-            List<ArenaRepository.RelicData> relicDataList = gson.fromJson(loadout.relicsJson, relicDataListType);
-            if (relicDataList != null && !relicDataList.isEmpty() && relicDataList.get(0).id != null) {
-                for (ArenaRepository.RelicData relicData : relicDataList) {
-                    relicIds.add(relicData.id);
-                }
-            } else {
-                // Fall back to old format (list of strings)
-                Type listType = new TypeToken<List<String>>(){}.getType();
-                relicIds = gson.fromJson(loadout.relicsJson, listType);
+            for (ArenaRepository.RelicData relicData : LoadoutCodec.readRelics(loadout.relicsJson).relics) {
+                relicIds.add(relicData.id);
             }
 
-            if (relicIds != null && !relicIds.isEmpty()) {
+            if (!relicIds.isEmpty()) {
                 float relicSize = 48.0f * Settings.scale;
                 float relicSpacing = 52.0f * Settings.scale;
                 float relicX = x;
@@ -1379,10 +1581,9 @@ public class ArenaLoadoutSelectScreen {
     private void renderCardsPreview(SpriteBatch sb, ArenaRepository.LoadoutRecord loadout, float x, float y, float width) {
         // Parse cards
         try {
-            Type cardListType = new TypeToken<List<ArenaRepository.CardData>>(){}.getType();
-            List<ArenaRepository.CardData> cardDataList = gson.fromJson(loadout.deckJson, cardListType);
+            List<ArenaRepository.CardData> cardDataList = LoadoutCodec.readDeck(loadout.deckJson);
 
-            if (cardDataList != null && !cardDataList.isEmpty()) {
+            if (!cardDataList.isEmpty()) {
                 FontHelper.renderFontLeftTopAligned(sb, FontHelper.cardDescFont_N,
                     "Deck (" + cardDataList.size() + " cards):",
                     x, y, Settings.GOLD_COLOR);
@@ -344,7 +344,7 @@ public class ArenaResultsScreen {
 
         // Clear arena state BEFORE calling startOver() to ensure:
         // 1. The original save file is restored (or arena save deleted if no original)
-        // 2. The marker file is removed
+        // 2. The arena journal is removed
         // 3. All arena flags are cleared
         // This prevents NPE when clicking Continue on main menu after arena run.
         ArenaRunner.clearArenaRun();
@@ -362,9 +362,7 @@ public class ArenaResultsScreen {
     private void handleRetry() {
         close();
 
-        // For results screen (shown after imperfect victory or defeat while still in dungeon),
-        // we use scheduleArenaRestart() which properly returns to main menu first.
-        // This avoids issues with trying to restart directly from the intercepted game state.
-        ArenaRunner.scheduleArenaRestart();
+        // Restarts in place when the dungeon allows it, otherwise via the main menu
+        ArenaRunner.retryCurrentFight();
     }
 }
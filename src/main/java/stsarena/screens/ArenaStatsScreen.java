@@ -10,7 +10,6 @@ import com.megacrit.cardcrawl.helpers.MathHelper;
 import com.megacrit.cardcrawl.helpers.input.InputHelper;
 import com.megacrit.cardcrawl.screens.mainMenu.MenuCancelButton;
 import stsarena.STSArena;
-import stsarena.data.ArenaDatabase;
 import stsarena.data.ArenaRepository;
 
 import java.util.ArrayList;
@@ -35,6 +34,8 @@ public class ArenaStatsScreen {
     // Data
     private List<ArenaRepository.LoadoutEncounterStats> allStats;
     private ArenaRepository repo;
+    private final ScreenModelLoader<List<ArenaRepository.LoadoutEncounterStats>> statsLoader =
+        new ScreenModelLoader<>("arena stats");
 
     // Expanded rows (to show Pareto-best victories)
     private List<Integer> expandedRows = new ArrayList<>();
@@ -57,59 +58,46 @@ public class ArenaStatsScreen {
         this.cancelButton.show("Return");
         this.expandedRows.clear();
         this.paretoVictories.clear();
+        this.allStats = null;
+        this.expandHitboxes = new Hitbox[0];
 
-        // Load data
-        try {
-            repo = new ArenaRepository(ArenaDatabase.getInstance());
-            allStats = repo.getLoadoutEncounterStats();
-            STSArena.logger.info("Loaded " + allStats.size() + " loadout+encounter combinations");
-
-            // Initialize Pareto victories list (empty until expanded)
-            for (int i = 0; i < allStats.size(); i++) {
-                paretoVictories.add(null);
-            }
-
-            // Create hitboxes
-            expandHitboxes = new Hitbox[allStats.size()];
-            for (int i = 0; i < allStats.size(); i++) {
-                expandHitboxes[i] = new Hitbox(30.0f * Settings.scale, 30.0f * Settings.scale);
-            }
-        } catch (Exception e) {
-            STSArena.logger.error("Failed to load stats", e);
-            allStats = new ArrayList<>();
-            expandHitboxes = new Hitbox[0];
-        }
+        // Load data in the background; update() swaps it in
+        repo = ArenaRepository.getInstance();
+        statsLoader.reset();
+        statsLoader.load(repo::getLoadoutEncounterStats);
 
         this.scrollY = 0.0f;
         this.targetScrollY = 0.0f;
     }
 
-    public void close() {
-        this.isOpen = false;
-        this.cancelButton.hide();
-    }
-
     /**
-     * Calculate Pareto-best victories for a loadout+encounter combination.
+     * Install freshly loaded stats. Runs on the game thread from update().
      */
-    private List<ArenaRepository.VictoryRecord> calculateParetoVictories(long loadoutId, String encounterId) {
-        List<ArenaRepository.VictoryRecord> allVictories = repo.getVictoriesForLoadoutEncounter(loadoutId, encounterId);
-        List<ArenaRepository.VictoryRecord> paretoOptimal = new ArrayList<>();
-
-        for (ArenaRepository.VictoryRecord candidate : allVictories) {
-            boolean isDominated = false;
-            for (ArenaRepository.VictoryRecord other : allVictories) {
-                if (candidate != other && candidate.isDominatedBy(other)) {
-                    isDominated = true;
-                    break;
-                }
-            }
-            if (!isDominated) {
-                paretoOptimal.add(candidate);
-            }
+    private void setStats(List<ArenaRepository.LoadoutEncounterStats> stats) {
+        STSArena.logger.info("Loaded " + stats.size() + " loadout+encounter combinations");
+
+        // Initialize Pareto victories list (empty until expanded)
+        List<List<ArenaRepository.VictoryRecord>> pareto = new ArrayList<>();
+        for (int i = 0; i < stats.size(); i++) {
+            pareto.add(null);
+        }
+
+        // Create hitboxes
+        Hitbox[] hitboxes = new Hitbox[stats.size()];
+        for (int i = 0; i < stats.size(); i++) {
+            hitboxes[i] = new Hitbox(30.0f * Settings.scale, 30.0f * Settings.scale);
         }
 
-        return paretoOptimal;
+        this.expandedRows.clear();
+        this.paretoVictories = pareto;
+        this.expandHitboxes = hitboxes;
+        this.allStats = stats;
+    }
+
+    public void close() {
+        this.isOpen = false;
+        this.cancelButton.hide();
+        statsLoader.reset();
     }
 
     public void update() {
@@ -124,6 +112,12 @@ public class ArenaStatsScreen {
             return;
         }
 
+        // Swap in stats loaded in the background
+        List<ArenaRepository.LoadoutEncounterStats> loaded = statsLoader.poll();
+        if (loaded != null) {
+            setStats(loaded);
+        }
+
         // Scrolling
         if (InputHelper.scrolledDown) {
             targetScrollY += Settings.SCROLL_SPEED;
@@ -175,7 +169,7 @@ public class ArenaStatsScreen {
             // Load Pareto victories if not already loaded
             if (paretoVictories.get(index) == null) {
                 ArenaRepository.LoadoutEncounterStats stats = allStats.get(index);
-                paretoVictories.set(index, calculateParetoVictories(stats.loadoutId, stats.encounterId));
+                paretoVictories.set(index, repo.getParetoVictories(stats.loadoutId, stats.encounterId));
             }
             expandedRows.add(index);
         }
@@ -210,7 +204,7 @@ public class ArenaStatsScreen {
 
         // Subtitle
         FontHelper.renderFontCentered(sb, FontHelper.cardDescFont_N,
-            "Click [+] to see your best victories (least damage taken or fewest potions used)",
+            "Click [+] to see your best victories (least damage taken, fewest potions used or fewest turns)",
             Settings.WIDTH / 2.0f, TITLE_Y - 30.0f * Settings.scale, Settings.CREAM_COLOR);
 
         // Column headers
@@ -231,7 +225,11 @@ public class ArenaStatsScreen {
         FontHelper.renderFontLeftTopAligned(sb, FontHelper.cardDescFont_N, "Win Rate", col6, HEADER_Y, Settings.GOLD_COLOR);
 
         // Stats rows
-        if (allStats != null && !allStats.isEmpty()) {
+        if (!statsLoader.hasLoaded()) {
+            FontHelper.renderFontCentered(sb, FontHelper.cardDescFont_N,
+                "Loading...",
+                Settings.WIDTH / 2.0f, LIST_START_Y - 50.0f * Settings.scale, Settings.CREAM_COLOR);
+        } else if (allStats != null && !allStats.isEmpty()) {
             float y = LIST_START_Y + scrollY;
 
             for (int i = 0; i < allStats.size(); i++) {
@@ -334,6 +332,7 @@ public class ArenaStatsScreen {
         StringBuilder desc = new StringBuilder();
         desc.append(String.format("%d dmg taken", victory.damageTaken));
         desc.append(String.format("  |  %d potions", victory.potionsUsed));
+        desc.append(String.format("  |  %d turns", victory.turnsTaken));
         desc.append(String.format("  |  %d/%d HP remaining", victory.endingHp, victory.startingHp));
 
         FontHelper.renderFontLeftTopAligned(sb, FontHelper.cardDescFont_N,
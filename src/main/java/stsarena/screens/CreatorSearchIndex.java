@@ -0,0 +1,214 @@
+package stsarena.screens;
+
+import com.megacrit.cardcrawl.cards.AbstractCard;
+import com.megacrit.cardcrawl.helpers.CardLibrary;
+import com.megacrit.cardcrawl.helpers.PotionHelper;
+import com.megacrit.cardcrawl.helpers.RelicLibrary;
+import com.megacrit.cardcrawl.potions.AbstractPotion;
+import com.megacrit.cardcrawl.potions.PotionSlot;
+import com.megacrit.cardcrawl.relics.AbstractRelic;
+import stsarena.arena.PrototypeCache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * What the loadout creator's left panel can offer, built once and searched per keystroke.
+ *
+ * Cards are bucketed by color and relics gathered from every tier list, each bucket
+ * sorted by name (ID breaks ties, so the order is stable) with its lowercased names
+ * kept alongside. A search is then one pass of String.contains over the bucket with
+ * no sorting or lowercasing, and typing one more character only rescans the previous
+ * query's matches.
+ *
+ * Everything is dropped when {@link PrototypeCache#generation()} changes, i.e. after
+ * mods have registered their content. Potions follow PotionHelper.potions, which the
+ * screen re-initializes per character.
+ */
+final class CreatorSearchIndex {
+
+    /**
+     * Items sorted by name, searchable by lowercase substring.
+     */
+    static final class Entries<T> {
+        private final List<T> items;
+        private final String[] lowerNames;
+
+        // Indices matching lastQuery, so a longer query only rescans those
+        private String lastQuery;
+        private int[] lastMatches;
+        private int lastMatchCount;
+
+        Entries(Collection<T> source, Function<T, String> name, Function<T, String> id) {
+            this.items = new ArrayList<>(source);
+            this.items.sort(Comparator.comparing(name).thenComparing(id));
+            this.lowerNames = new String[items.size()];
+            for (int i = 0; i < lowerNames.length; i++) {
+                lowerNames[i] = name.apply(items.get(i)).toLowerCase();
+            }
+        }
+
+        int size() {
+            return items.size();
+        }
+
+        /**
+         * Replace out's contents with the items whose name contains the query
+         * (case-insensitive) and that pass keep, in name order.
+         */
+        void search(String query, Predicate<T> keep, List<T> out) {
+            out.clear();
+            String lowerQuery = query.toLowerCase();
+            if (lowerQuery.isEmpty()) {
+                for (T item : items) {
+                    if (keep.test(item)) {
+                        out.add(item);
+                    }
+                }
+                return;
+            }
+
+            boolean narrowing = lastQuery != null && lowerQuery.startsWith(lastQuery);
+            int candidates = narrowing ? lastMatchCount : items.size();
+            int[] matches = new int[candidates];
+            int matchCount = 0;
+            for (int c = 0; c < candidates; c++) {
+                int i = narrowing ? lastMatches[c] : c;
+                if (lowerNames[i].contains(lowerQuery)) {
+                    matches[matchCount++] = i;
+                    if (keep.test(items.get(i))) {
+                        out.add(items.get(i));
+                    }
+                }
+            }
+            lastQuery = lowerQuery;
+            lastMatches = matches;
+            lastMatchCount = matchCount;
+        }
+    }
+
+    private static final CreatorSearchIndex instance = new CreatorSearchIndex();
+
+    private int generation = -1;
+    private List<AbstractCard> libraryCards;
+    private final Map<AbstractCard.CardColor, Entries<AbstractCard>> cardsByColor =
+        new EnumMap<>(AbstractCard.CardColor.class);
+    private Entries<AbstractCard> prismaticCards;
+    private Entries<AbstractRelic> relics;
+    private List<String> potionSource;
+    private Entries<AbstractPotion> potions;
+
+    private CreatorSearchIndex() {}
+
+    static CreatorSearchIndex getInstance() {
+        return instance;
+    }
+
+    /**
+     * Cards a character of this color can add: its own plus colorless, or every
+     * non-curse color with Prismatic Shard.
+     */
+    Entries<AbstractCard> cards(AbstractCard.CardColor color, boolean prismatic) {
+        checkGeneration();
+        if (prismatic) {
+            if (prismaticCards == null) {
+                prismaticCards = cardsWhere(card -> card.color != AbstractCard.CardColor.CURSE);
+            }
+            return prismaticCards;
+        }
+        return cardsByColor.computeIfAbsent(color, c ->
+            cardsWhere(card -> card.color == c || card.color == AbstractCard.CardColor.COLORLESS));
+    }
+
+    /**
+     * Every relic from every tier list.
+     */
+    Entries<AbstractRelic> relics() {
+        checkGeneration();
+        if (relics == null) {
+            List<AbstractRelic> all = new ArrayList<>();
+            addRelics(all, RelicLibrary.starterList);
+            addRelics(all, RelicLibrary.commonList);
+            addRelics(all, RelicLibrary.uncommonList);
+            addRelics(all, RelicLibrary.rareList);
+            addRelics(all, RelicLibrary.bossList);
+            addRelics(all, RelicLibrary.shopList);
+            addRelics(all, RelicLibrary.specialList);
+            relics = new Entries<>(all, r -> r.name, r -> r.relicId);
+        }
+        return relics;
+    }
+
+    /**
+     * Potions in the current PotionHelper pool. Rebuilt when the pool changes.
+     */
+    Entries<AbstractPotion> potions() {
+        checkGeneration();
+        if (potions == null || !potionSource.equals(PotionHelper.potions)) {
+            potionSource = new ArrayList<>(PotionHelper.potions);
+            List<AbstractPotion> all = new ArrayList<>();
+            for (String potionId : potionSource) {
+                AbstractPotion potion = PotionHelper.getPotion(potionId);
+                if (potion != null && !(potion instanceof PotionSlot)) {
+                    all.add(potion);
+                }
+            }
+            potions = new Entries<>(all, p -> p.name, p -> p.ID);
+        }
+        return potions;
+    }
+
+    private Entries<AbstractCard> cardsWhere(Predicate<AbstractCard> colorFilter) {
+        List<AbstractCard> matching = new ArrayList<>();
+        for (AbstractCard card : libraryCards()) {
+            if (colorFilter.test(card)) {
+                matching.add(card);
+            }
+        }
+        return new Entries<>(matching, c -> c.name, c -> c.cardID);
+    }
+
+    // Library cards that can ever be offered: no basic/special rarity, no status/curse type
+    private List<AbstractCard> libraryCards() {
+        if (libraryCards == null) {
+            libraryCards = new ArrayList<>();
+            for (AbstractCard card : CardLibrary.cards.values()) {
+                if (card.rarity == AbstractCard.CardRarity.BASIC ||
+                    card.rarity == AbstractCard.CardRarity.SPECIAL) {
+                    continue;
+                }
+                if (card.type == AbstractCard.CardType.STATUS ||
+                    card.type == AbstractCard.CardType.CURSE) {
+                    continue;
+                }
+                libraryCards.add(card);
+            }
+        }
+        return libraryCards;
+    }
+
+    private static void addRelics(List<AbstractRelic> all, List<AbstractRelic> tier) {
+        for (AbstractRelic relic : tier) {
+            if (relic != null) {
+                all.add(relic);
+            }
+        }
+    }
+
+    private void checkGeneration() {
+        if (generation != PrototypeCache.generation()) {
+            generation = PrototypeCache.generation();
+            libraryCards = null;
+            cardsByColor.clear();
+            prismaticCards = null;
+            relics = null;
+            potions = null;
+        }
+    }
+}
@@ -15,7 +15,6 @@ import com.megacrit.cardcrawl.helpers.PotionHelper;
 import com.megacrit.cardcrawl.helpers.RelicLibrary;
 import com.megacrit.cardcrawl.helpers.input.InputHelper;
 import com.megacrit.cardcrawl.potions.AbstractPotion;
-import com.megacrit.cardcrawl.potions.PotionSlot;
 import com.megacrit.cardcrawl.relics.AbstractRelic;
 import com.megacrit.cardcrawl.relics.PrismaticShard;
 import com.megacrit.cardcrawl.screens.mainMenu.MenuCancelButton;
@@ -24,18 +23,15 @@ import com.megacrit.cardcrawl.screens.mainMenu.ScrollBarListener;
 import stsarena.STSArena;
 import stsarena.arena.LoadoutConfig;
 import stsarena.arena.RandomLoadoutGenerator;
-import stsarena.data.ArenaDatabase;
 import stsarena.data.ArenaRepository;
+import stsarena.data.LoadoutCodec;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
-
-import java.lang.reflect.Type;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -137,9 +133,6 @@ public class LoadoutCreatorScreen implements ScrollBarListener {
     // Save button
     private Hitbox saveButtonHitbox;
 
-    // For parsing JSON
-    private static final Gson gson = new Gson();
-
     // Edit mode tracking
     private boolean isEditMode = false;
     private long editLoadoutId = -1;
@@ -338,85 +331,7 @@ public class LoadoutCreatorScreen implements ScrollBarListener {
         this.currentHp = loadout.currentHp;
         this.ascensionLevel = loadout.ascensionLevel;
 
-        // Parse and populate deck
-        try {
-            Type cardListType = new TypeToken<List<ArenaRepository.CardData>>(){}.getType();
-            List<ArenaRepository.CardData> cardDataList = gson.fromJson(loadout.deckJson, cardListType);
-            if (cardDataList != null) {
-                for (ArenaRepository.CardData cardData : cardDataList) {
-                    AbstractCard card = CardLibrary.getCard(cardData.id);
-                    if (card != null) {
-                        AbstractCard copy = card.makeCopy();
-                        // Apply upgrades to the card object (makeCopy doesn't preserve them)
-                        for (int i = 0; i < cardData.upgrades; i++) {
-                            if (copy.canUpgrade()) {
-                                copy.upgrade();
-                            }
-                        }
-                        DeckCard dc = new DeckCard(copy);
-                        dc.upgraded = cardData.upgrades > 0;
-                        // Restore bottle flags
-                        dc.card.inBottleFlame = cardData.inBottleFlame;
-                        dc.card.inBottleLightning = cardData.inBottleLightning;
-                        dc.card.inBottleTornado = cardData.inBottleTornado;
-                        deckCards.add(dc);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            STSArena.logger.error("Failed to parse deck from loadout", e);
-        }
-
-        // Parse and populate relics - handle both new format (RelicData) and old format (strings)
-        try {
-            // Try new format first (RelicData with id and counter)
-            Type relicDataListType = new TypeToken<List<ArenaRepository.RelicData>>(){}.getType();
-            List<ArenaRepository.RelicData> relicDataList = gson.fromJson(loadout.relicsJson, relicDataListType);
-            if (relicDataList != null && !relicDataList.isEmpty() && relicDataList.get(0).id != null) {
-                for (ArenaRepository.RelicData relicData : relicDataList) {
-                    if (RelicLibrary.isARelic(relicData.id)) {
-                        AbstractRelic relic = RelicLibrary.getRelic(relicData.id);
-                        if (relic != null) {
-                            AbstractRelic copy = relic.makeCopy();
-                            copy.counter = relicData.counter;
-                            selectedRelics.add(copy);
-                        }
-                    }
-                }
-            } else {
-                // Fall back to old format (list of strings)
-                Type relicListType = new TypeToken<List<String>>(){}.getType();
-                List<String> relicIds = gson.fromJson(loadout.relicsJson, relicListType);
-                if (relicIds != null) {
-                    for (String relicId : relicIds) {
-                        if (RelicLibrary.isARelic(relicId)) {
-                            AbstractRelic relic = RelicLibrary.getRelic(relicId);
-                            if (relic != null) {
-                                selectedRelics.add(relic.makeCopy());
-                            }
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            STSArena.logger.error("Failed to parse relics from loadout", e);
-        }
-
-        // Parse and populate potions
-        try {
-            Type potionListType = new TypeToken<List<String>>(){}.getType();
-            List<String> potionIds = gson.fromJson(loadout.potionsJson, potionListType);
-            if (potionIds != null) {
-                for (String potionId : potionIds) {
-                    AbstractPotion potion = PotionHelper.getPotion(potionId);
-                    if (potion != null) {
-                        selectedPotions.add(potion.makeCopy());
-                    }
-                }
-            }
-        } catch (Exception e) {
-            STSArena.logger.error("Failed to parse potions from loadout", e);
-        }
+        populateFromLoadout(loadout);
 
         // Initialize potions for this class
         PotionHelper.initialize(selectedClass);
@@ -464,29 +379,39 @@ public class LoadoutCreatorScreen implements ScrollBarListener {
         this.currentHp = loadout.currentHp;
         this.ascensionLevel = loadout.ascensionLevel;
 
+        populateFromLoadout(loadout);
+
+        // Initialize potions for this class
+        PotionHelper.initialize(selectedClass);
+
+        // Build available items list
+        refreshAvailableItems();
+        refreshSelectedHitboxes();
+    }
+
+    /**
+     * Fill the deck, relic and potion selections from a saved loadout's JSON.
+     */
+    private void populateFromLoadout(ArenaRepository.LoadoutRecord loadout) {
         // Parse and populate deck
         try {
-            Type cardListType = new TypeToken<List<ArenaRepository.CardData>>(){}.getType();
-            List<ArenaRepository.CardData> cardDataList = gson.fromJson(loadout.deckJson, cardListType);
-            if (cardDataList != null) {
-                for (ArenaRepository.CardData cardData : cardDataList) {
-                    AbstractCard card = CardLibrary.getCard(cardData.id);
-                    if (card != null) {
-                        AbstractCard copy = card.makeCopy();
-                        // Apply upgrades to the card object (makeCopy doesn't preserve them)
-                        for (int i = 0; i < cardData.upgrades; i++) {
-                            if (copy.canUpgrade()) {
-                                copy.upgrade();
-                            }
+            for (ArenaRepository.CardData cardData : LoadoutCodec.readDeck(loadout.deckJson)) {
+                AbstractCard card = CardLibrary.getCard(cardData.id);
+                if (card != null) {
+                    AbstractCard copy = card.makeCopy();
+                    // Apply upgrades to the card object (makeCopy doesn't preserve them)
+                    for (int i = 0; i < cardData.upgrades; i++) {
+                        if (copy.canUpgrade()) {
+                            copy.upgrade();
                         }
-                        DeckCard dc = new DeckCard(copy);
-                        dc.upgraded = cardData.upgrades > 0;
-                        // Restore bottle flags
-                        dc.card.inBottleFlame = cardData.inBottleFlame;
-                        dc.card.inBottleLightning = cardData.inBottleLightning;
-                        dc.card.inBottleTornado = cardData.inBottleTornado;
-                        deckCards.add(dc);
                     }
+                    DeckCard dc = new DeckCard(copy);
+                    dc.upgraded = cardData.upgrades > 0;
+                    // Restore bottle flags
+                    dc.card.inBottleFlame = cardData.inBottleFlame;
+                    dc.card.inBottleLightning = cardData.inBottleLightning;
+                    dc.card.inBottleTornado = cardData.inBottleTornado;
+                    deckCards.add(dc);
                 }
             }
         } catch (Exception e) {
@@ -495,32 +420,17 @@ public class LoadoutCreatorScreen implements ScrollBarListener {
 
         // Parse and populate relics - handle both new format (RelicData) and old format (strings)
         try {
-            // Try new format first (RelicData with id and counter)
-            Type relicDataListType = new TypeToken<List<ArenaRepository.RelicData>>(){}.getType();
-            List<ArenaRepository.RelicData> relicDataList = gson.fromJson(loadout.relicsJson, relicDataListType);
-            if (relicDataList != null && !relicDataList.isEmpty() && relicDataList.get(0).id != null) {
-                for (ArenaRepository.RelicData relicData : relicDataList) {
-                    if (RelicLibrary.isARelic(relicData.id)) {
-                        AbstractRelic relic = RelicLibrary.getRelic(relicData.id);
-                        if (relic != null) {
-                            AbstractRelic copy = relic.makeCopy();
+            LoadoutCodec.RelicList relicList = LoadoutCodec.readRelics(loadout.relicsJson);
+            for (ArenaRepository.RelicData relicData : relicList.relics) {
+                if (RelicLibrary.isARelic(relicData.id)) {
+                    AbstractRelic relic = RelicLibrary.getRelic(relicData.id);
+                    if (relic != null) {
+                        AbstractRelic copy = relic.makeCopy();
+                        // Old format has no counters; keep the relic's own default
+                        if (relicList.format == LoadoutCodec.RelicFormat.RELIC_DATA) {
                             copy.counter = relicData.counter;
-                            selectedRelics.add(copy);
-                        }
-                    }
-                }
-            } else {
-                // Fall back to old format (list of strings)
-                Type relicListType = new TypeToken<List<String>>(){}.getType();
-                List<String> relicIds = gson.fromJson(loadout.relicsJson, relicListType);
-                if (relicIds != null) {
-                    for (String relicId : relicIds) {
-                        if (RelicLibrary.isARelic(relicId)) {
-                            AbstractRelic relic = RelicLibrary.getRelic(relicId);
-                            if (relic != null) {
-                                selectedRelics.add(relic.makeCopy());
-                            }
                         }
+                        selectedRelics.add(copy);
                     }
                 }
             }
@@ -530,26 +440,15 @@ public class LoadoutCreatorScreen implements ScrollBarListener {
 
         // Parse and populate potions
         try {
-            Type potionListType = new TypeToken<List<String>>(){}.getType();
-            List<String> potionIds = gson.fromJson(loadout.potionsJson, potionListType);
-            if (potionIds != null) {
-                for (String potionId : potionIds) {
-                    AbstractPotion potion = PotionHelper.getPotion(potionId);
-                    if (potion != null) {
-                        selectedPotions.add(potion.makeCopy());
-                    }
+            for (String potionId : LoadoutCodec.readIds(loadout.potionsJson)) {
+                AbstractPotion potion = PotionHelper.getPotion(potionId);
+                if (potion != null) {
+                    selectedPotions.add(potion.makeCopy());
                 }
             }
         } catch (Exception e) {
             STSArena.logger.error("Failed to parse potions from loadout", e);
         }
-
-        // Initialize potions for this class
-        PotionHelper.initialize(selectedClass);
-
-        // Build available items list
-        refreshAvailableItems();
-        refreshSelectedHitboxes();
     }
 
     /**
@@ -590,139 +489,42 @@ public class LoadoutCreatorScreen implements ScrollBarListener {
     }
 
     private void refreshAvailableCards() {
-        availableCards.clear();
-
-        AbstractCard.CardColor targetColor = LoadoutConfig.getCardColor(selectedClass);
-        boolean prismatic = hasPrismaticShard();
-
-        for (AbstractCard card : CardLibrary.cards.values()) {
-            // Include character cards + colorless (+ all colors if prismatic)
-            if (!prismatic) {
-                if (card.color != targetColor && card.color != AbstractCard.CardColor.COLORLESS) {
-                    continue;
-                }
-            } else {
-                // With Prismatic Shard, include all non-special colors
-                if (card.color == AbstractCard.CardColor.CURSE) {
-                    continue;
-                }
-            }
-
-            // Skip basic/special/status/curse
-            if (card.rarity == AbstractCard.CardRarity.BASIC ||
-                card.rarity == AbstractCard.CardRarity.SPECIAL) {
-                continue;
-            }
-            if (card.type == AbstractCard.CardType.STATUS ||
-                card.type == AbstractCard.CardType.CURSE) {
-                continue;
-            }
-
-            // Filter by search
-            if (!searchText.isEmpty() &&
-                !card.name.toLowerCase().contains(searchText.toLowerCase())) {
-                continue;
-            }
-
-            availableCards.add(card);
-        }
-
-        // Sort alphabetically
-        availableCards.sort(Comparator.comparing(c -> c.name));
-
-        // Create hitboxes (width must match rendered row width)
-        float rowWidth = COLUMN_WIDTH - 30.0f * Settings.scale;
-        availableItemHitboxes = new Hitbox[availableCards.size()];
-        for (int i = 0; i < availableCards.size(); i++) {
-            availableItemHitboxes[i] = new Hitbox(rowWidth, BUTTON_HEIGHT);
-        }
-
-        availableScrollY = 0.0f;
-        availableTargetScrollY = 0.0f;
+        CreatorSearchIndex.getInstance()
+            .cards(LoadoutConfig.getCardColor(selectedClass), hasPrismaticShard())
+            .search(searchText, card -> true, availableCards);
+        onAvailableItemsChanged(availableCards.size());
     }
 
     private void refreshAvailableRelics() {
-        availableRelics.clear();
-
-        for (AbstractRelic relic : RelicLibrary.starterList) {
-            addRelicIfMatches(relic);
-        }
-        for (AbstractRelic relic : RelicLibrary.commonList) {
-            addRelicIfMatches(relic);
-        }
-        for (AbstractRelic relic : RelicLibrary.uncommonList) {
-            addRelicIfMatches(relic);
-        }
-        for (AbstractRelic relic : RelicLibrary.rareList) {
-            addRelicIfMatches(relic);
-        }
-        for (AbstractRelic relic : RelicLibrary.bossList) {
-            addRelicIfMatches(relic);
-        }
-        for (AbstractRelic relic : RelicLibrary.shopList) {
-            addRelicIfMatches(relic);
-        }
-        for (AbstractRelic relic : RelicLibrary.specialList) {
-            addRelicIfMatches(relic);
-        }
-
-        // Sort alphabetically
-        availableRelics.sort(Comparator.comparing(r -> r.name));
-
-        // Create hitboxes (width must match rendered row width)
-        float rowWidth = COLUMN_WIDTH - 30.0f * Settings.scale;
-        availableItemHitboxes = new Hitbox[availableRelics.size()];
-        for (int i = 0; i < availableRelics.size(); i++) {
-            availableItemHitboxes[i] = new Hitbox(rowWidth, BUTTON_HEIGHT);
-        }
-
-        availableScrollY = 0.0f;
-        availableTargetScrollY = 0.0f;
-    }
-
-    private void addRelicIfMatches(AbstractRelic relic) {
-        if (relic == null) return;
-
-        // Filter by search
-        if (!searchText.isEmpty() &&
-            !relic.name.toLowerCase().contains(searchText.toLowerCase())) {
-            return;
-        }
-
-        // Check if already selected
+        Set<String> selectedIds = new HashSet<>();
         for (AbstractRelic r : selectedRelics) {
-            if (r.relicId.equals(relic.relicId)) {
-                return;
-            }
+            selectedIds.add(r.relicId);
         }
-
-        availableRelics.add(relic);
+        CreatorSearchIndex.getInstance().relics()
+            .search(searchText, relic -> !selectedIds.contains(relic.relicId), availableRelics);
+        onAvailableItemsChanged(availableRelics.size());
     }
 
     private void refreshAvailablePotions() {
-        availablePotions.clear();
-
-        for (String potionId : PotionHelper.potions) {
-            AbstractPotion potion = PotionHelper.getPotion(potionId);
-            if (potion == null || potion instanceof PotionSlot) continue;
+        CreatorSearchIndex.getInstance().potions()
+            .search(searchText, potion -> true, availablePotions);
+        onAvailableItemsChanged(availablePotions.size());
+    }
 
-            // Filter by search
-            if (!searchText.isEmpty() &&
-                !potion.name.toLowerCase().contains(searchText.toLowerCase())) {
-                continue;
+    private void onAvailableItemsChanged(int count) {
+        // Grow the hitbox pool as needed; rows beyond count are never updated or drawn
+        if (availableItemHitboxes == null || availableItemHitboxes.length < count) {
+            int oldLength = availableItemHitboxes == null ? 0 : availableItemHitboxes.length;
+            Hitbox[] grown = new Hitbox[count];
+            if (oldLength > 0) {
+                System.arraycopy(availableItemHitboxes, 0, grown, 0, oldLength);
             }
-
-            availablePotions.add(potion);
-        }
-
-        // Sort alphabetically
-        availablePotions.sort(Comparator.comparing(p -> p.name));
-
-        // Create hitboxes (width must match rendered row width)
-        float rowWidth = COLUMN_WIDTH - 30.0f * Settings.scale;
-        availableItemHitboxes = new Hitbox[availablePotions.size()];
-        for (int i = 0; i < availablePotions.size(); i++) {
-            availableItemHitboxes[i] = new Hitbox(rowWidth, BUTTON_HEIGHT);
+            // Width must match rendered row width
+            float rowWidth = COLUMN_WIDTH - 30.0f * Settings.scale;
+            for (int i = oldLength; i < count; i++) {
+                grown[i] = new Hitbox(rowWidth, BUTTON_HEIGHT);
+            }
+            availableItemHitboxes = grown;
         }
 
         availableScrollY = 0.0f;
@@ -1659,7 +1461,7 @@ public class LoadoutCreatorScreen implements ScrollBarListener {
             ascensionLevel
         );
 
-        ArenaRepository repo = new ArenaRepository(ArenaDatabase.getInstance());
+        ArenaRepository repo = ArenaRepository.getInstance();
 
         if (isEditMode && editLoadoutId > 0) {
             // Update existing loadout (new version with new content hash)
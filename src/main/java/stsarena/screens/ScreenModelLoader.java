@@ -0,0 +1,90 @@
+package stsarena.screens;
+
+import stsarena.STSArena;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Loads the data a screen shows on a background thread, so opening a screen never
+ * waits on SQLite on the render thread.
+ *
+ * A screen calls {@link #load} from open() (or whenever its data changes) and
+ * {@link #poll} at the top of update(). Until the query finishes the screen keeps
+ * showing whatever it had - a placeholder on first open, the previous model on a
+ * reload. poll() hands back the finished model once, on the game thread, and the
+ * screen swaps it in there, so render() only ever sees a complete model.
+ *
+ * Starting a new load abandons the one in flight; its result is never delivered.
+ */
+public class ScreenModelLoader<T> {
+
+    // One daemon thread for every screen: loads are short and the read pool is small anyway
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stsarena-screen-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String description;
+    private CompletableFuture<T> pending;
+    private boolean loaded;
+
+    /**
+     * @param description What is being loaded, for log messages
+     */
+    public ScreenModelLoader(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Run the query in the background, replacing any load still in flight.
+     */
+    public void load(Supplier<T> query) {
+        pending = CompletableFuture.supplyAsync(query, executor);
+    }
+
+    /**
+     * The finished model, once, or null while loading (or when nothing was requested).
+     * A failed load is logged and also returns null. Call from update().
+     */
+    public T poll() {
+        if (pending == null || !pending.isDone()) {
+            return null;
+        }
+        CompletableFuture<T> finished = pending;
+        pending = null;
+        loaded = true;
+        try {
+            return finished.join();
+        } catch (Exception e) {
+            STSArena.logger.error("Failed to load " + description, e);
+            return null;
+        }
+    }
+
+    /**
+     * True while a load is running and nothing has been delivered since it started.
+     */
+    public boolean isLoading() {
+        return pending != null;
+    }
+
+    /**
+     * False until the first load has been delivered (or failed). Screens show their
+     * placeholder until then.
+     */
+    public boolean hasLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Drop any load in flight and go back to the placeholder state, e.g. on close().
+     */
+    public void reset() {
+        pending = null;
+        loaded = false;
+    }
+}
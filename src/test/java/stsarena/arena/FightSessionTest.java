@@ -0,0 +1,248 @@
+package stsarena.arena;
+
+import com.megacrit.cardcrawl.characters.AbstractPlayer;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Logger;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import stsarena.GdxTestRunner;
+import stsarena.STSArena;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for FightSession - the arena fight's state machine and what each state keeps.
+ */
+@RunWith(GdxTestRunner.class)
+public class FightSessionTest {
+
+    private final List<String> warnings = new ArrayList<>();
+    private AbstractAppender appender;
+    private FightSession session;
+
+    @Before
+    public void setUp() {
+        appender = new AbstractAppender("FightSessionTest", null, null) {
+            @Override
+            public void append(LogEvent event) {
+                if (event.getLevel() == Level.WARN) {
+                    warnings.add(event.getMessage().getFormattedMessage());
+                }
+            }
+        };
+        appender.start();
+        ((Logger) STSArena.logger).addAppender(appender);
+        session = new FightSession();
+    }
+
+    @After
+    public void tearDown() {
+        ((Logger) STSArena.logger).removeAppender(appender);
+        appender.stop();
+    }
+
+    @Test
+    public void testExpectedTransitionsDoNotWarn() {
+        List<FightSession.State> path = Arrays.asList(
+            FightSession.State.LOADING,
+            FightSession.State.DUNGEON_READY,
+            FightSession.State.ENTERING_FIGHT,
+            FightSession.State.IN_COMBAT,
+            FightSession.State.ENDED,
+            FightSession.State.ENTERING_FIGHT,   // Try Again
+            FightSession.State.IN_COMBAT,
+            FightSession.State.LEAVING,
+            FightSession.State.RESTARTING,
+            FightSession.State.LOADING,
+            FightSession.State.DUNGEON_READY,
+            FightSession.State.ENTERING_FIGHT,
+            FightSession.State.ENDED,
+            FightSession.State.EDITING,
+            FightSession.State.IDLE,
+            FightSession.State.RESUMING_NORMAL_RUN,
+            FightSession.State.IDLE);
+        for (FightSession.State next : path) {
+            session.moveTo(next);
+            assertEquals(next, session.getState());
+        }
+        assertEquals(warnings.toString(), 0, warnings.size());
+    }
+
+    @Test
+    public void testUnexpectedTransitionWarnsAndStillMoves() {
+        session.moveTo(FightSession.State.IN_COMBAT);
+        assertEquals(FightSession.State.IN_COMBAT, session.getState());
+        assertEquals(1, warnings.size());
+        assertTrue(warnings.get(0), warnings.get(0).contains("IDLE -> IN_COMBAT"));
+
+        session.moveTo(FightSession.State.RESTARTING);
+        assertEquals("Expected from IN_COMBAT", 1, warnings.size());
+
+        session.moveTo(FightSession.State.DUNGEON_READY);
+        assertEquals(FightSession.State.DUNGEON_READY, session.getState());
+        assertEquals(2, warnings.size());
+        assertTrue(warnings.get(1), warnings.get(1).contains("RESTARTING -> DUNGEON_READY"));
+
+        // Abandoning is always allowed
+        session.moveTo(FightSession.State.IDLE);
+        assertEquals(2, warnings.size());
+    }
+
+    @Test
+    public void testBeginAttemptResetsTimeline() {
+        session.loadout = loadout(55);
+        session.beginAttempt(FightSession.State.LOADING);
+        session.moveTo(FightSession.State.DUNGEON_READY);
+        session.moveTo(FightSession.State.ENTERING_FIGHT);
+        session.moveTo(FightSession.State.IN_COMBAT);
+
+        Map<FightSession.State, Long> timeline = session.getTimeline();
+        assertEquals(EnumSet.of(FightSession.State.LOADING, FightSession.State.DUNGEON_READY,
+            FightSession.State.ENTERING_FIGHT, FightSession.State.IN_COMBAT), timeline.keySet());
+        assertTrue(timeline.get(FightSession.State.LOADING) <= timeline.get(FightSession.State.IN_COMBAT));
+        assertEquals(55, session.combatStartHp);
+
+        // Try Again: the retry is timed from its own request, with fresh combat tracking
+        session.potionsUsed.add("Fire Potion");
+        session.tookDamage = true;
+        session.combatStartHp = 12;
+        session.moveTo(FightSession.State.ENDED);
+        session.beginAttempt(FightSession.State.ENTERING_FIGHT);
+
+        assertEquals(EnumSet.of(FightSession.State.ENTERING_FIGHT), session.getTimeline().keySet());
+        assertEquals(FightSession.State.ENTERING_FIGHT, session.getState());
+        assertTrue(session.potionsUsed.isEmpty());
+        assertFalse(session.tookDamage);
+        assertEquals(55, session.combatStartHp);
+        assertEquals(0, warnings.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testTimelineIsReadOnly() {
+        session.beginAttempt(FightSession.State.LOADING);
+        session.getTimeline().put(FightSession.State.IDLE, 0L);
+    }
+
+    @Test
+    public void testClearForgetsFightAndGoesIdle() {
+        fillSession();
+        session.moveTo(FightSession.State.LOADING);
+        session.moveTo(FightSession.State.DUNGEON_READY);
+
+        session.clear();
+
+        assertEquals(FightSession.State.IDLE, session.getState());
+        assertTrue(session.getTimeline().containsKey(FightSession.State.IDLE));
+        assertForgotten();
+    }
+
+    @Test
+    public void testForgetKeepsState() {
+        fillSession();
+        session.moveTo(FightSession.State.LOADING);
+
+        session.forget();
+
+        assertEquals(FightSession.State.LOADING, session.getState());
+        assertForgotten();
+    }
+
+    @Test
+    public void testRestartingAndEditingKeepFightWhenLeavingRun() {
+        for (FightSession.State keeping : EnumSet.of(FightSession.State.RESTARTING, FightSession.State.EDITING)) {
+            session = new FightSession();
+            RandomLoadoutGenerator.GeneratedLoadout loadout = fillSession();
+            CompletableFuture<Long> loadoutDbId = session.loadoutDbId;
+            session.moveTo(FightSession.State.LOADING);
+            session.moveTo(FightSession.State.DUNGEON_READY);
+            session.moveTo(FightSession.State.ENTERING_FIGHT);
+            session.moveTo(FightSession.State.ENDED);
+            session.moveTo(keeping);
+
+            session.leaveArenaRun();
+
+            assertEquals(keeping, session.getState());
+            assertSame(loadout, session.loadout);
+            assertEquals("Cultist", session.encounter);
+            assertSame(loadoutDbId, session.loadoutDbId);
+            assertSame(FightSession.NO_DB_ID, session.runDbId);
+            assertFalse(session.startedFromNormalRun);
+            assertNull(session.normalRunPlayerClass);
+        }
+
+        session = new FightSession();
+        fillSession();
+        session.moveTo(FightSession.State.LOADING);
+        session.moveTo(FightSession.State.DUNGEON_READY);
+        session.moveTo(FightSession.State.ENTERING_FIGHT);
+        session.moveTo(FightSession.State.LEAVING);
+
+        session.leaveArenaRun();
+
+        assertEquals(FightSession.State.IDLE, session.getState());
+        assertForgotten();
+        assertEquals(0, warnings.size());
+    }
+
+    @Test
+    public void testSettingUpAndArenaRunPerState() {
+        EnumSet<FightSession.State> settingUp = EnumSet.of(
+            FightSession.State.LOADING, FightSession.State.DUNGEON_READY);
+        EnumSet<FightSession.State> arenaRun = EnumSet.of(
+            FightSession.State.LOADING, FightSession.State.DUNGEON_READY, FightSession.State.ENTERING_FIGHT,
+            FightSession.State.IN_COMBAT, FightSession.State.ENDED, FightSession.State.LEAVING);
+
+        assertFalse(session.isSettingUp());
+        assertFalse(session.isArenaRun());
+        for (FightSession.State state : FightSession.State.values()) {
+            session.moveTo(state);
+            assertEquals(state.name(), settingUp.contains(state), session.isSettingUp());
+            assertEquals(state.name(), arenaRun.contains(state), session.isArenaRun());
+        }
+    }
+
+    private RandomLoadoutGenerator.GeneratedLoadout fillSession() {
+        RandomLoadoutGenerator.GeneratedLoadout loadout = loadout(70);
+        session.loadout = loadout;
+        session.encounter = "Cultist";
+        session.loadoutDbId = CompletableFuture.completedFuture(3L);
+        session.runDbId = CompletableFuture.completedFuture(9L);
+        session.selectionUpdate = CompletableFuture.completedFuture(3L);
+        session.potionsUsed.add("Fire Potion");
+        session.tookDamage = true;
+        session.startedFromNormalRun = true;
+        session.normalRunPlayerClass = AbstractPlayer.PlayerClass.DEFECT;
+        return loadout;
+    }
+
+    private void assertForgotten() {
+        assertNull(session.loadout);
+        assertNull(session.encounter);
+        assertSame(FightSession.NO_DB_ID, session.loadoutDbId);
+        assertSame(FightSession.NO_DB_ID, session.runDbId);
+        assertNull(session.selectionUpdate);
+        assertNull(session.selectionAtStart);
+        assertTrue(session.potionsUsed.isEmpty());
+        assertFalse(session.tookDamage);
+        assertFalse(session.startedFromNormalRun);
+        assertNull(session.normalRunPlayerClass);
+    }
+
+    private static RandomLoadoutGenerator.GeneratedLoadout loadout(int currentHp) {
+        return new RandomLoadoutGenerator.GeneratedLoadout(
+            "session-uuid", "Session", 0, AbstractPlayer.PlayerClass.IRONCLAD,
+            new ArrayList<>(), new ArrayList<>(), new ArrayList<>(),
+            3, false, 80, currentHp, 0);
+    }
+}
@@ -0,0 +1,44 @@
+package stsarena.arena;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for LoadoutBatchGenerator - batches must not depend on how they were run.
+ * LoadoutBuilder works on IDs only, so these don't require game initialization.
+ */
+public class LoadoutBatchGeneratorTest {
+
+    @Test
+    public void testBatchGenerationIsIndependentOfThreadCount() throws Exception {
+        List<LoadoutBatchGenerator.Generated> serial = new ArrayList<>();
+        List<LoadoutBatchGenerator.Generated> parallel = new ArrayList<>();
+        LoadoutBatchGenerator.generate(42, 600, null, 1, LoadoutBatchGenerator.toList(serial));
+        LoadoutBatchGenerator.generate(42, 600, null, 4, LoadoutBatchGenerator.toList(parallel));
+
+        assertEquals(600, serial.size());
+        assertEquals(600, parallel.size());
+        for (int i = 0; i < serial.size(); i++) {
+            assertEquals(i, parallel.get(i).index);
+            assertEquals(serial.get(i).seed, parallel.get(i).seed);
+            assertEquals(serial.get(i).loadout.toString(), parallel.get(i).loadout.toString());
+            assertEquals(serial.get(i).loadout.deck.toString(), parallel.get(i).loadout.deck.toString());
+            assertEquals(serial.get(i).loadout.relics, parallel.get(i).loadout.relics);
+        }
+    }
+
+    @Test
+    public void testGenerateOneReproducesBatchEntry() throws Exception {
+        List<LoadoutBatchGenerator.Generated> batch = new ArrayList<>();
+        LoadoutBatchGenerator.generate(7, 300, "WATCHER", 3, LoadoutBatchGenerator.toList(batch));
+
+        LoadoutBatchGenerator.Generated single = LoadoutBatchGenerator.generateOne(7, 257, "WATCHER");
+        assertEquals(batch.get(257).seed, single.seed);
+        assertEquals(batch.get(257).loadout.toString(), single.loadout.toString());
+        assertEquals(batch.get(257).loadout.deck.toString(), single.loadout.deck.toString());
+    }
+}
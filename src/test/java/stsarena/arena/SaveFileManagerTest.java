@@ -0,0 +1,228 @@
+package stsarena.arena;
+
+import com.megacrit.cardcrawl.characters.AbstractPlayer;
+import com.megacrit.cardcrawl.core.CardCrawlGame;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import stsarena.GdxTestRunner;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for SaveFileManager - backing up and restoring the player's save around an
+ * arena session, and recovering from a crash at each point along the way.
+ * Works on the relative saves/ directory, like the game.
+ */
+@RunWith(GdxTestRunner.class)
+public class SaveFileManagerTest {
+
+    private static final AbstractPlayer.PlayerClass PLAYER_CLASS = AbstractPlayer.PlayerClass.WATCHER;
+
+    private File savesDir;
+    private boolean createdSavesDir;
+    private File saveFile;
+    private File backupFile;
+    private File journalFile;
+    private File legacyMarker;
+
+    @Before
+    public void setUp() {
+        savesDir = new File("saves");
+        createdSavesDir = savesDir.mkdirs();
+        saveFile = new File(ArenaSaveManager.getSavePath(PLAYER_CLASS));
+        backupFile = new File(saveFile.getPath() + ".arena_backup");
+        journalFile = new File(savesDir, "arena.journal");
+        legacyMarker = new File(saveFile.getPath() + ".arena_active");
+        deleteTestFiles();
+    }
+
+    @After
+    public void tearDown() {
+        deleteTestFiles();
+        if (createdSavesDir) {
+            savesDir.delete();
+        }
+    }
+
+    @Test
+    public void testBackupAndRestoreOriginalSave() throws Exception {
+        write(saveFile, "original");
+
+        assertTrue(SaveFileManager.backupOriginalSave(PLAYER_CLASS));
+        assertFalse("Save moved aside", saveFile.exists());
+        assertEquals("original", read(backupFile));
+        assertEquals("arena_backup WATCHER true", read(journalFile).trim());
+        assertTrue(SaveFileManager.hasActiveArenaSession(PLAYER_CLASS));
+        assertFalse(SaveFileManager.hasActiveArenaSession(AbstractPlayer.PlayerClass.IRONCLAD));
+
+        // The arena writes its own save in the original's place
+        write(saveFile, "arena");
+        SaveFileManager.restoreOriginalSave();
+
+        assertEquals("original", read(saveFile));
+        assertFalse(backupFile.exists());
+        assertFalse(journalFile.exists());
+        assertFalse(SaveFileManager.hasActiveArenaSession());
+
+        // Idempotent
+        SaveFileManager.restoreOriginalSave();
+        assertEquals("original", read(saveFile));
+    }
+
+    @Test
+    public void testBackupAndRestoreWithoutOriginalSave() throws Exception {
+        assertTrue(SaveFileManager.backupOriginalSave(PLAYER_CLASS));
+        assertFalse(backupFile.exists());
+        assertEquals("arena_backup WATCHER false", read(journalFile).trim());
+
+        write(saveFile, "arena");
+        SaveFileManager.restoreOriginalSaveForClass(PLAYER_CLASS);
+
+        assertFalse("Arena save removed, no original existed", saveFile.exists());
+        assertFalse(journalFile.exists());
+    }
+
+    @Test
+    public void testRestoreForOtherClassLeavesSessionAlone() throws Exception {
+        write(saveFile, "original");
+        assertTrue(SaveFileManager.backupOriginalSave(PLAYER_CLASS));
+
+        SaveFileManager.restoreOriginalSaveForClass(AbstractPlayer.PlayerClass.IRONCLAD);
+        assertTrue(journalFile.exists());
+        assertEquals("original", read(backupFile));
+
+        SaveFileManager.restoreOriginalSaveForClass(PLAYER_CLASS);
+        assertEquals("original", read(saveFile));
+        assertFalse(journalFile.exists());
+    }
+
+    @Test
+    public void testStaleBackupIgnoredWhenThereIsNoSave() throws Exception {
+        write(backupFile, "stale");
+
+        assertTrue(SaveFileManager.backupOriginalSave(PLAYER_CLASS));
+        assertFalse("Stray backup dropped", backupFile.exists());
+
+        write(saveFile, "arena");
+        SaveFileManager.restoreOriginalSave();
+        assertFalse(saveFile.exists());
+    }
+
+    @Test
+    public void testCrashAfterJournalBeforeRename() throws Exception {
+        // Journal written, save never moved
+        write(saveFile, "original");
+        write(journalFile, "arena_backup WATCHER true\n");
+        CardCrawlGame.loadingSave = true;
+
+        SaveFileManager.cleanupOrphanedArenaSaves();
+
+        assertEquals("Save left in place", "original", read(saveFile));
+        assertFalse(backupFile.exists());
+        assertFalse(journalFile.exists());
+        assertFalse(CardCrawlGame.loadingSave);
+    }
+
+    @Test
+    public void testCrashAfterRename() throws Exception {
+        // Save moved aside and the arena save staged, then the game died
+        write(backupFile, "original");
+        write(saveFile, "arena");
+        write(journalFile, "arena_backup WATCHER true\n");
+
+        SaveFileManager.cleanupOrphanedArenaSaves();
+
+        assertEquals("original", read(saveFile));
+        assertFalse(backupFile.exists());
+        assertFalse(journalFile.exists());
+    }
+
+    @Test
+    public void testCrashWithoutOriginalSave() throws Exception {
+        write(saveFile, "arena");
+        write(journalFile, "arena_backup WATCHER false\n");
+
+        SaveFileManager.cleanupOrphanedArenaSaves();
+
+        assertFalse(saveFile.exists());
+        assertFalse(journalFile.exists());
+    }
+
+    @Test
+    public void testUnreadableJournalIsRemoved() throws Exception {
+        write(saveFile, "original");
+        write(journalFile, "garbage");
+
+        assertFalse(SaveFileManager.hasActiveArenaSession(PLAYER_CLASS));
+        assertFalse("Bad journal retired", journalFile.exists());
+
+        write(journalFile, "arena_backup WATCHER");
+        SaveFileManager.cleanupOrphanedArenaSaves();
+        assertFalse(journalFile.exists());
+        assertEquals("Save untouched", "original", read(saveFile));
+
+        // A fresh session can still start
+        assertTrue(SaveFileManager.backupOriginalSave(PLAYER_CLASS));
+        SaveFileManager.restoreOriginalSave();
+        assertEquals("original", read(saveFile));
+    }
+
+    @Test
+    public void testBackupFinishesPreviousSessionFirst() throws Exception {
+        write(backupFile, "original");
+        write(saveFile, "arena");
+        write(journalFile, "arena_backup WATCHER true\n");
+
+        assertTrue(SaveFileManager.backupOriginalSave(PLAYER_CLASS));
+        assertEquals("Original restored, then moved aside again", "original", read(backupFile));
+        assertFalse(saveFile.exists());
+
+        SaveFileManager.restoreOriginalSave();
+        assertEquals("original", read(saveFile));
+    }
+
+    @Test
+    public void testLegacyMarkerRestoresBackup() throws Exception {
+        write(backupFile, "original");
+        write(saveFile, "arena");
+        write(legacyMarker, "");
+
+        SaveFileManager.cleanupOrphanedArenaSaves();
+
+        assertEquals("original", read(saveFile));
+        assertFalse(backupFile.exists());
+        assertFalse(legacyMarker.exists());
+    }
+
+    @Test
+    public void testLegacyMarkerWithoutBackupKeepsSave() throws Exception {
+        write(saveFile, "maybe real");
+        write(legacyMarker, "");
+
+        SaveFileManager.cleanupOrphanedArenaSaves();
+
+        assertEquals("maybe real", read(saveFile));
+        assertFalse(legacyMarker.exists());
+    }
+
+    private void deleteTestFiles() {
+        for (File file : new File[] {saveFile, backupFile, journalFile, legacyMarker,
+                new File(journalFile.getPath() + ".tmp")}) {
+            file.delete();
+        }
+    }
+
+    private static void write(File file, String contents) throws Exception {
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(File file) throws Exception {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
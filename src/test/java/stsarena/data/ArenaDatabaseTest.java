@@ -1,13 +1,27 @@
 package stsarena.data;
 
+import com.megacrit.cardcrawl.characters.AbstractPlayer;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import stsarena.arena.LoadoutBatchGenerator;
+import stsarena.arena.RandomLoadoutGenerator;
 
 import java.io.File;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.*;
 
@@ -76,7 +90,7 @@ public class ArenaDatabaseTest {
         try (Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery("SELECT version FROM schema_version")) {
             assertTrue("Schema version should be recorded", rs.next());
-            assertEquals("Schema version should be 7", 7, rs.getInt("version"));
+            assertEquals("Schema version should be 19", 19, rs.getInt("version"));
         }
     }
 
@@ -269,4 +283,955 @@ public class ArenaDatabaseTest {
             tempDbFile2.delete();
         }
     }
+
+    @Test
+    public void testWalModeEnabledByDefault() throws Exception {
+        assertEquals(ArenaDatabase.StorageMode.WAL, db.getStorageMode());
+
+        try (Statement stmt = db.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA journal_mode")) {
+            assertTrue(rs.next());
+            assertEquals("wal", rs.getString(1).toLowerCase());
+        }
+    }
+
+    @Test
+    public void testReadConnectionSeesCommittedWrites() throws Exception {
+        Connection reader = db.acquireReadConnection();
+        try {
+            assertNotSame("WAL mode should hand out a separate reader", db.getConnection(), reader);
+
+            try (Statement stmt = db.getConnection().createStatement()) {
+                stmt.executeUpdate(
+                    "INSERT INTO loadouts (uuid, name, character_class, max_hp, current_hp, " +
+                    "deck_json, relics_json, created_at) " +
+                    "VALUES ('reader-uuid', 'Reader Loadout', 'IRONCLAD', 80, 80, '[]', '[]', 0)"
+                );
+            }
+
+            try (Statement stmt = reader.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT name FROM loadouts WHERE uuid='reader-uuid'")) {
+                assertTrue("Reader should see the committed insert", rs.next());
+                assertEquals("Reader Loadout", rs.getString("name"));
+            }
+        } finally {
+            db.releaseReadConnection(reader);
+        }
+    }
+
+    @Test
+    public void testReadConnectionRejectsWrites() throws Exception {
+        Connection reader = db.acquireReadConnection();
+        try (Statement stmt = reader.createStatement()) {
+            stmt.executeUpdate("DELETE FROM loadouts");
+            fail("Pooled read connections should be query-only");
+        } catch (java.sql.SQLException expected) {
+            // Expected
+        } finally {
+            db.releaseReadConnection(reader);
+        }
+    }
+
+    @Test
+    public void testRollbackModeUsesSeparateReader() throws Exception {
+        File rollbackFile = File.createTempFile("arena_test_rollback_", ".db");
+        rollbackFile.deleteOnExit();
+        ArenaDatabase rollbackDb = ArenaDatabase.createTestInstance(
+            rollbackFile.getAbsolutePath(), ArenaDatabase.StorageMode.ROLLBACK);
+
+        try {
+            Connection reader = rollbackDb.acquireReadConnection();
+            assertNotNull(reader);
+            assertNotSame("Reads should never borrow the writer", rollbackDb.getConnection(), reader);
+            rollbackDb.releaseReadConnection(reader);
+
+            try (Statement stmt = rollbackDb.getConnection().createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA journal_mode")) {
+                assertTrue(rs.next());
+                assertEquals("delete", rs.getString(1).toLowerCase());
+            }
+        } finally {
+            rollbackDb.close();
+            rollbackFile.delete();
+        }
+    }
+
+    @Test
+    public void testNestedReadAcquireReusesConnection() {
+        Connection outer = db.acquireReadConnection();
+        Connection inner = db.acquireReadConnection();
+        assertSame("Nested borrows on one thread should share a reader", outer, inner);
+        db.releaseReadConnection(inner);
+
+        // Still held by the outer borrow, so another thread must get a different reader
+        Connection[] other = new Connection[1];
+        Thread thread = new Thread(() -> {
+            other[0] = db.acquireReadConnection();
+            db.releaseReadConnection(other[0]);
+        });
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            fail("Interrupted");
+        }
+        assertNotNull(other[0]);
+        assertNotSame(outer, other[0]);
+        db.releaseReadConnection(outer);
+    }
+
+    @Test
+    public void testPreparedStatementsAreCachedPerConnection() throws Exception {
+        Connection reader = db.acquireReadConnection();
+        try {
+            String sql = "SELECT COUNT(*) FROM loadouts WHERE id = ?";
+            PreparedStatement first = db.prepareCached(reader, sql);
+            PreparedStatement second = db.prepareCached(reader, sql);
+            assertSame("Same SQL should reuse the compiled statement", first, second);
+            assertEquals(1, db.getCachedStatementCount(reader));
+
+            first.setLong(1, 1);
+            try (ResultSet rs = first.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals(0, rs.getInt(1));
+            }
+        } finally {
+            db.releaseReadConnection(reader);
+        }
+    }
+
+    @Test
+    public void testQueuedWritesFlushedOnClose() throws Exception {
+        String path = tempDbFile.getAbsolutePath();
+        List<CompletableFuture<Integer>> pending = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final int n = i;
+            pending.add(db.submitWrite(() -> {
+                try (Statement stmt = db.getConnection().createStatement()) {
+                    return stmt.executeUpdate(
+                        "INSERT INTO loadouts (uuid, name, character_class, max_hp, current_hp, " +
+                        "deck_json, relics_json, created_at) " +
+                        "VALUES ('queued-" + n + "', 'Queued', 'IRONCLAD', 80, 80, '[]', '[]', " + n + ")"
+                    );
+                } catch (java.sql.SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }));
+        }
+
+        // Closing must apply every queued write before the connection goes away
+        db.close();
+        for (CompletableFuture<Integer> future : pending) {
+            assertEquals(Integer.valueOf(1), future.get());
+        }
+
+        db = ArenaDatabase.createTestInstance(path);
+        try (Statement stmt = db.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) as cnt FROM loadouts WHERE name='Queued'")) {
+            rs.next();
+            assertEquals(20, rs.getInt("cnt"));
+        }
+    }
+
+    @Test
+    public void testExecuteWriteReturnsResultAndRunsOnWriterThread() {
+        Thread caller = Thread.currentThread();
+        Thread writer = db.executeWrite(Thread::currentThread);
+        assertNotSame("Writes should run on the writer thread", caller, writer);
+
+        // Nested writes run inline instead of deadlocking on the queue
+        Integer nested = db.executeWrite(() -> db.executeWrite(() -> 42));
+        assertEquals(Integer.valueOf(42), nested);
+    }
+
+    @Test
+    public void testCompletedRunsUpdateEncounterStats() throws Exception {
+        ArenaRepository repo = new ArenaRepository(db);
+        long loadoutId = insertTestLoadout("stats-uuid");
+
+        completeRun(repo, loadoutId, "Cultist", ArenaRepository.ArenaRunOutcome.RunResult.VICTORY, 12, 6);
+        completeRun(repo, loadoutId, "Cultist", ArenaRepository.ArenaRunOutcome.RunResult.VICTORY, 4, 9);
+        completeRun(repo, loadoutId, "Cultist", ArenaRepository.ArenaRunOutcome.RunResult.DEFEAT, 80, 3);
+        completeRun(repo, loadoutId, "Jaw Worm", ArenaRepository.ArenaRunOutcome.RunResult.VICTORY, 7, 5);
+
+        List<ArenaRepository.LoadoutEncounterStats> stats = repo.getLoadoutEncounterStats();
+        assertEquals(2, stats.size());
+
+        ArenaRepository.LoadoutEncounterStats cultist = stats.get(0);
+        assertEquals("Cultist", cultist.encounterId);
+        assertEquals(3, cultist.totalRuns);
+        assertEquals(2, cultist.wins);
+        assertEquals(1, cultist.losses);
+        assertEquals("Best damage only counts victories", 4, cultist.bestDamageTaken);
+        assertEquals(6, cultist.bestTurns);
+        assertEquals("DEFEAT", cultist.lastOutcome);
+
+        ArenaRepository.ArenaStats totals = repo.getStats();
+        assertEquals(4, totals.totalRuns);
+        assertEquals(3, totals.wins);
+        assertEquals(1, totals.losses);
+    }
+
+    @Test
+    public void testRebuildEncounterStatsMatchesHistory() throws Exception {
+        ArenaRepository repo = new ArenaRepository(db);
+        long loadoutId = insertTestLoadout("rebuild-uuid");
+        completeRun(repo, loadoutId, "Cultist", ArenaRepository.ArenaRunOutcome.RunResult.VICTORY, 10, 5);
+
+        // Runs written behind the summary's back (e.g. by an older build) are picked up by a rebuild
+        try (Statement stmt = db.getConnection().createStatement()) {
+            stmt.executeUpdate(
+                "INSERT INTO arena_runs (loadout_id, encounter_id, started_at, ended_at, outcome, " +
+                "starting_hp, ending_hp, damage_taken, turns_taken) " +
+                "VALUES (" + loadoutId + ", 'Cultist', 1, 2, 'VICTORY', 80, 78, 2, 8)");
+        }
+        assertEquals(1, repo.getLoadoutEncounterStats().get(0).totalRuns);
+
+        assertEquals(1, repo.rebuildEncounterStats());
+        ArenaRepository.LoadoutEncounterStats rebuilt = repo.getLoadoutEncounterStats().get(0);
+        assertEquals(2, rebuilt.totalRuns);
+        assertEquals(2, rebuilt.wins);
+        assertEquals(2, rebuilt.bestDamageTaken);
+        assertEquals(5, rebuilt.bestTurns);
+    }
+
+    @Test
+    public void testRunsPageWalksWholeHistoryInOrder() throws Exception {
+        ArenaRepository repo = new ArenaRepository(db);
+        long loadoutA = insertTestLoadout("page-a");
+        long loadoutB = insertTestLoadout("page-b");
+
+        // Several runs share a start time so paging has to break ties on id
+        long[] startTimes = {100, 200, 200, 200, 300, 400, 400};
+        try (Statement stmt = db.getConnection().createStatement()) {
+            for (int i = 0; i < startTimes.length; i++) {
+                long loadoutId = i % 2 == 0 ? loadoutA : loadoutB;
+                stmt.executeUpdate(
+                    "INSERT INTO arena_runs (loadout_id, encounter_id, started_at, ended_at, outcome, starting_hp) " +
+                    "VALUES (" + loadoutId + ", 'Cultist', " + startTimes[i] + ", " + startTimes[i] + ", 'VICTORY', 80)");
+            }
+            // Incomplete runs are never listed
+            stmt.executeUpdate(
+                "INSERT INTO arena_runs (loadout_id, encounter_id, started_at, starting_hp) " +
+                "VALUES (" + loadoutA + ", 'Cultist', 500, 80)");
+        }
+
+        List<ArenaRepository.ArenaRunRecord> all = new ArrayList<>();
+        ArenaRepository.RunCursor cursor = null;
+        int pages = 0;
+        while (true) {
+            List<ArenaRepository.ArenaRunRecord> page = repo.getRunsPage(null, cursor, false, 3);
+            all.addAll(page);
+            pages++;
+            if (page.size() < 3) break;
+            cursor = page.get(page.size() - 1).cursor();
+        }
+
+        assertEquals(7, all.size());
+        assertEquals(3, pages);
+        for (int i = 1; i < all.size(); i++) {
+            ArenaRepository.ArenaRunRecord prev = all.get(i - 1);
+            ArenaRepository.ArenaRunRecord cur = all.get(i);
+            assertTrue("Newest first with no repeats",
+                prev.startedAt > cur.startedAt || (prev.startedAt == cur.startedAt && prev.id > cur.id));
+        }
+
+        List<ArenaRepository.ArenaRunRecord> oldest = repo.getRunsPage(loadoutB, null, true, 10);
+        assertEquals(3, oldest.size());
+        assertEquals(200, oldest.get(0).startedAt);
+        for (ArenaRepository.ArenaRunRecord run : oldest) {
+            assertEquals(loadoutB, run.loadoutId);
+        }
+    }
+
+    @Test
+    public void testRunsPageSortedByColumnWalksWholeHistory() throws Exception {
+        ArenaRepository repo = new ArenaRepository(db);
+        long[] loadouts = {insertTestLoadout("sorted-a"), insertTestLoadout("sorted-b"), insertTestLoadout("sorted-c")};
+
+        // More runs than one page, with repeated keys (in mixed case) so ties fall back to date
+        String[] encounters = {"Cultist", "jaw worm", "Cultist", "Gremlin Gang", "Jaw Worm", "cultist", "Lagavulin"};
+        try (Statement stmt = db.getConnection().createStatement()) {
+            stmt.executeUpdate("UPDATE loadouts SET name = 'beta' WHERE id = " + loadouts[0]);
+            stmt.executeUpdate("UPDATE loadouts SET name = 'Alpha' WHERE id = " + loadouts[1]);
+            stmt.executeUpdate("UPDATE loadouts SET name = 'alpha' WHERE id = " + loadouts[2]);
+            for (int i = 0; i < encounters.length; i++) {
+                stmt.executeUpdate(
+                    "INSERT INTO arena_runs (loadout_id, encounter_id, started_at, ended_at, outcome, starting_hp) " +
+                    "VALUES (" + loadouts[i % 3] + ", '" + encounters[i] + "', " + (100 + i) + ", " + (100 + i) + ", " +
+                    "'" + (i % 2 == 0 ? "VICTORY" : "DEFEAT") + "', 80)");
+            }
+        }
+
+        List<ArenaRepository.ArenaRunRecord> byEncounter = walkRunPages(repo, ArenaRepository.RunSort.ENCOUNTER, true);
+        assertEquals("Every run, once", encounters.length, byEncounter.size());
+        for (int i = 1; i < byEncounter.size(); i++) {
+            ArenaRepository.ArenaRunRecord prev = byEncounter.get(i - 1);
+            ArenaRepository.ArenaRunRecord cur = byEncounter.get(i);
+            int order = prev.encounterId.compareToIgnoreCase(cur.encounterId);
+            assertTrue("Sorted by encounter across pages, then by date",
+                order < 0 || (order == 0 && prev.startedAt < cur.startedAt));
+        }
+
+        List<ArenaRepository.ArenaRunRecord> byOutcome = walkRunPages(repo, ArenaRepository.RunSort.OUTCOME, false);
+        assertEquals(encounters.length, byOutcome.size());
+        assertEquals("Newest victory first", 106, byOutcome.get(0).startedAt);
+        assertEquals("VICTORY", byOutcome.get(3).outcome);
+        assertEquals(100, byOutcome.get(3).startedAt);
+        assertEquals("DEFEAT", byOutcome.get(4).outcome);
+
+        // Same-named loadouts stay grouped, each one's runs newest first
+        List<ArenaRepository.ArenaRunRecord> byLoadout = walkRunPages(repo, ArenaRepository.RunSort.LOADOUT, false);
+        assertEquals(encounters.length, byLoadout.size());
+        long[] expectedStarts = {106, 103, 100, 105, 102, 104, 101};
+        for (int i = 0; i < expectedStarts.length; i++) {
+            assertEquals("Run " + i + " by loadout name", expectedStarts[i], byLoadout.get(i).startedAt);
+        }
+
+        // Later pages seek an index rather than sorting the whole history
+        String select = "EXPLAIN QUERY PLAN SELECT r.id FROM arena_runs r JOIN loadouts l ON r.loadout_id = l.id " +
+                        "WHERE +r.outcome IN ('VICTORY', 'DEFEAT') ";
+        String[] pages = {
+            "AND (r.started_at, r.id) < (102, 3) ORDER BY r.started_at DESC, r.id DESC LIMIT 3",
+            "AND (r.encounter_id, r.started_at, r.id) > ('Cultist' COLLATE NOCASE, 102, 3) " +
+                "ORDER BY r.encounter_id COLLATE NOCASE ASC, r.started_at ASC, r.id ASC LIMIT 3",
+            "AND (l.name, l.id) <= ('beta' COLLATE NOCASE, 1) AND (l.name, l.id, r.started_at, r.id) < ('beta' COLLATE NOCASE, 1, 102, 3) " +
+                "ORDER BY l.name COLLATE NOCASE DESC, l.id DESC, r.started_at DESC, r.id DESC LIMIT 3"
+        };
+        try (Statement stmt = db.getConnection().createStatement()) {
+            for (String page : pages) {
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rs = stmt.executeQuery(select + page)) {
+                    while (rs.next()) {
+                        plan.append(rs.getString("detail")).append('\n');
+                    }
+                }
+                assertFalse("No sort step:\n" + plan, plan.toString().contains("TEMP B-TREE"));
+                assertFalse("No full scan:\n" + plan, plan.toString().startsWith("SCAN"));
+            }
+        }
+    }
+
+    private List<ArenaRepository.ArenaRunRecord> walkRunPages(ArenaRepository repo,
+                                                                      ArenaRepository.RunSort sort,
+                                                                      boolean ascending) {
+        List<ArenaRepository.ArenaRunRecord> all = new ArrayList<>();
+        ArenaRepository.RunCursor cursor = null;
+        while (true) {
+            List<ArenaRepository.ArenaRunRecord> page = repo.getRunsPage(null, sort, cursor, ascending, 3);
+            all.addAll(page);
+            if (page.size() < 3) break;
+            cursor = page.get(page.size() - 1).cursor(sort);
+        }
+        return all;
+    }
+
+    @Test
+    public void testAbandonOrphanedRunsMarksIncompleteRuns() throws Exception {
+        ArenaRepository repo = new ArenaRepository(db);
+        long loadoutId = insertTestLoadout("orphan-uuid");
+        completeRun(repo, loadoutId, "Cultist", ArenaRepository.ArenaRunOutcome.RunResult.VICTORY, 5, 4);
+        long orphanId = repo.startArenaRun(loadoutId, "Cultist", 80);
+
+        // Reading history must not touch the incomplete run
+        assertEquals(1, repo.getRecentRuns(10).size());
+        assertEquals(2, countRuns());
+
+        assertEquals(1, repo.abandonOrphanedRuns());
+        assertEquals("Sweep is idempotent", 0, repo.abandonOrphanedRuns());
+        assertEquals("Orphaned runs are kept, not deleted", 2, countRuns());
+
+        try (Statement stmt = db.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT outcome, ended_at, started_at FROM arena_runs WHERE id = " + orphanId)) {
+            assertTrue(rs.next());
+            assertEquals("ABANDONED", rs.getString("outcome"));
+            assertEquals(rs.getLong("started_at"), rs.getLong("ended_at"));
+        }
+
+        // Abandoned runs are kept but not counted as played
+        ArenaRepository.LoadoutEncounterStats stats = repo.getLoadoutEncounterStats().get(0);
+        assertEquals(1, stats.totalRuns);
+        assertEquals(1, stats.wins);
+        assertEquals(0, stats.losses);
+    }
+
+    @Test
+    public void testAbandonedRunsDoNotChangeWinRate() throws Exception {
+        ArenaRepository repo = new ArenaRepository(db);
+        long loadoutId = insertTestLoadout("winrate-uuid");
+        completeRun(repo, loadoutId, "Cultist", ArenaRepository.ArenaRunOutcome.RunResult.VICTORY, 5, 4);
+        completeRun(repo, loadoutId, "Cultist", ArenaRepository.ArenaRunOutcome.RunResult.DEFEAT, 80, 2);
+        double winRate = repo.getStats().getWinRate();
+        assertEquals(0.5, winRate, 1e-9);
+
+        repo.startArenaRun(loadoutId, "Cultist", 80);
+        repo.startArenaRun(loadoutId, "Jaw Worm", 80);
+        assertEquals(2, repo.abandonOrphanedRuns());
+
+        assertEquals(winRate, repo.getStats().getWinRate(), 1e-9);
+        assertEquals(2, repo.getStats().totalRuns);
+        assertEquals(2, repo.getStatsForLoadout(loadoutId).totalRuns);
+        assertEquals("DEFEAT", repo.getEncounterOutcomes(loadoutId).outcomes.get("Cultist"));
+        assertFalse(repo.getEncounterOutcomes(loadoutId).outcomes.containsKey("Jaw Worm"));
+        assertEquals(2, repo.getRecentRuns(10).size());
+        assertEquals(2, repo.getRunsPage(loadoutId, null, false, 10).size());
+
+        // A rebuild from the run history agrees
+        assertEquals(1, repo.rebuildEncounterStats());
+        assertEquals(winRate, repo.getStats().getWinRate(), 1e-9);
+    }
+
+    private int countRuns() throws Exception {
+        try (Statement stmt = db.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM arena_runs")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    public void testContentTablesTrackLoadoutsAndRuns() throws Exception {
+        ArenaRepository repo = new ArenaRepository(db);
+        long snecko;
+        try (Statement stmt = db.getConnection().createStatement()) {
+            stmt.executeUpdate(
+                "INSERT INTO loadouts (uuid, name, character_class, max_hp, current_hp, " +
+                "deck_json, relics_json, potions_json, created_at) " +
+                "VALUES ('content-uuid', 'Content Loadout', 'IRONCLAD', 80, 80, " +
+                "'[{\"id\":\"Demon Form\",\"upgrades\":1,\"inBottleFlame\":true}, {\"id\":\"Strike_R\",\"upgrades\":0}]', " +
+                "'[{\"id\":\"Snecko Eye\",\"counter\":-1}]', '[\"Fire Potion\"]', 0)");
+            try (ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+                rs.next();
+                snecko = rs.getLong(1);
+            }
+            // Rows written behind the repository's back are picked up by a rebuild
+            assertEquals(4, LoadoutContentTables.rebuildAll(stmt));
+
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT upgrades, bottle FROM loadout_cards WHERE card_id = 'Demon Form'")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt("upgrades"));
+                assertEquals("FLAME", rs.getString("bottle"));
+            }
+        }
+        long other = insertTestLoadout("content-other");
+
+        assertEquals(Collections.singletonList(snecko), repo.getLoadoutIdsWithCard("Demon Form"));
+
+        // Starting a run snapshots the loadout's contents
+        completeRun(repo, snecko, "Cultist", ArenaRepository.ArenaRunOutcome.RunResult.VICTORY, 5, 4);
+        completeRun(repo, snecko, "Cultist", ArenaRepository.ArenaRunOutcome.RunResult.DEFEAT, 80, 4);
+        completeRun(repo, other, "Cultist", ArenaRepository.ArenaRunOutcome.RunResult.VICTORY, 5, 4);
+
+        ArenaRepository.ArenaStats withSnecko = repo.getStatsForRunsWithRelic("Snecko Eye");
+        assertEquals(2, withSnecko.totalRuns);
+        assertEquals(1, withSnecko.wins);
+
+        // Deleting the loadout removes its rows and its runs' snapshot rows
+        assertTrue(repo.deleteLoadout(snecko));
+        assertTrue(repo.getLoadoutIdsWithCard("Demon Form").isEmpty());
+        assertEquals(0, repo.getStatsForRunsWithRelic("Snecko Eye").totalRuns);
+        try (Statement stmt = db.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM run_cards")) {
+            rs.next();
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    @Test
+    public void testRunSnapshotsAreSharedByContentHash() throws Exception {
+        ArenaRepository repo = new ArenaRepository(db);
+        long loadoutId;
+        try (Statement stmt = db.getConnection().createStatement()) {
+            stmt.executeUpdate(
+                "INSERT INTO loadouts (uuid, name, character_class, max_hp, current_hp, " +
+                "deck_json, relics_json, created_at, content_hash) " +
+                "VALUES ('snapshot-uuid', 'Snapshot Loadout', 'IRONCLAD', 80, 80, " +
+                "'[{\"id\":\"Bash\"}]', '[]', 0, 'hash-live')");
+            try (ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+                rs.next();
+                loadoutId = rs.getLong(1);
+            }
+            LoadoutContentTables.rebuildAll(stmt);
+
+            // Runs from before V12 carried their own copies, one with a stale hash
+            for (String deck : new String[] {"[{\"id\":\"Anger\"}]", "[{\"id\":\"Anger\"}]", "[{\"id\":\"Clash\"}]"}) {
+                stmt.executeUpdate(
+                    "INSERT INTO arena_runs (loadout_id, encounter_id, started_at, starting_hp, " +
+                    "deck_json, relics_json, content_hash) " +
+                    "VALUES (" + loadoutId + ", 'Cultist', 0, 80, '" + deck + "', '[]', 'hash-old')");
+            }
+            stmt.executeUpdate("DROP TABLE loadout_snapshots");
+            stmt.executeUpdate("DELETE FROM schema_version");
+            stmt.executeUpdate("INSERT INTO schema_version (version) VALUES (11)");
+        }
+
+        String path = tempDbFile.getAbsolutePath();
+        db.close();
+        db = ArenaDatabase.createTestInstance(path);
+        repo = new ArenaRepository(db);
+
+        assertEquals(1, countSnapshots());
+        try (Statement stmt = db.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT deck_json FROM arena_runs WHERE deck_json IS NOT NULL")) {
+            assertTrue(rs.next());
+            assertEquals("Only the run whose JSON differs keeps a copy", "[{\"id\":\"Clash\"}]", rs.getString(1));
+            assertFalse(rs.next());
+        }
+
+        // New runs of the same loadout share one snapshot but still get their card rows
+        assertTrue(repo.startArenaRun(loadoutId, "Cultist", 80) > 0);
+        assertTrue(repo.startArenaRun(loadoutId, "Jaw Worm", 80) > 0);
+        assertEquals(2, countSnapshots());
+        try (Statement stmt = db.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM run_cards WHERE card_id = 'Bash'")) {
+            rs.next();
+            assertEquals(2, rs.getInt(1));
+        }
+
+        assertTrue(repo.deleteLoadout(loadoutId));
+        assertEquals(0, countSnapshots());
+        assertTrue(db.vacuum());
+    }
+
+    @Test
+    public void testSearchLoadoutsByNameAndContents() throws Exception {
+        ArenaRepository repo = new ArenaRepository(db);
+        long demon;
+        long silent;
+        try (Statement stmt = db.getConnection().createStatement()) {
+            stmt.executeUpdate(
+                "INSERT INTO loadouts (uuid, name, character_class, max_hp, current_hp, deck_json, relics_json, created_at) " +
+                "VALUES ('search-a', 'Strength Build', 'IRONCLAD', 80, 80, " +
+                "'[{\"id\":\"Demon Form\"}, {\"id\":\"Strike_R\"}]', '[{\"id\":\"Vajra\"}]', 0)");
+            insertTestLoadout("search-b");
+            stmt.executeUpdate(
+                "INSERT INTO loadouts (uuid, name, character_class, max_hp, current_hp, deck_json, relics_json, created_at) " +
+                "VALUES ('search-c', 'Demonic Poison', 'THE_SILENT', 70, 70, '[{\"id\":\"Noxious Fumes\"}]', '[]', 0)");
+            try (ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+                rs.next();
+                silent = rs.getLong(1);
+            }
+            LoadoutContentTables.rebuildAll(stmt);
+            assertEquals(3, LoadoutSearchIndex.rebuildAll(stmt));
+            try (ResultSet rs = stmt.executeQuery("SELECT id FROM loadouts WHERE uuid = 'search-a'")) {
+                rs.next();
+                demon = rs.getLong(1);
+            }
+        }
+
+        // A name match outranks a card match; every word must match as a prefix
+        List<ArenaRepository.LoadoutRecord> results = repo.searchLoadouts("demon", null, 10);
+        assertEquals(2, results.size());
+        assertEquals(silent, results.get(0).dbId);
+        assertEquals(demon, results.get(1).dbId);
+        assertEquals(1, repo.searchLoadouts("dem for", null, 10).size());
+        assertEquals(1, repo.searchLoadouts("vaj", null, 10).size());
+        assertEquals(1, repo.searchLoadouts("demon", "IRONCLAD", 10).size());
+        assertTrue("FTS syntax in user input is ignored", repo.searchLoadouts("\"*(", null, 10).isEmpty());
+
+        assertTrue(repo.renameLoadout(demon, "Vampire Deck"));
+        assertEquals(1, repo.searchLoadouts("vampire", null, 10).size());
+        assertTrue(repo.deleteLoadout(silent));
+        assertTrue(repo.searchLoadouts("poison", null, 10).isEmpty());
+    }
+
+    @Test
+    public void testSearchLoadoutsByDisplayName() throws Exception {
+        ArenaRepository repo = new ArenaRepository(db);
+        long loadoutId;
+        try (Statement stmt = db.getConnection().createStatement()) {
+            stmt.executeUpdate(
+                "INSERT INTO loadouts (uuid, name, character_class, max_hp, current_hp, deck_json, relics_json, created_at) " +
+                "VALUES ('names-a', 'Strength Build', 'IRONCLAD', 80, 80, " +
+                "'[{\"id\":\"Demon Form\"}, {\"id\":\"Strike_R\"}]', '[{\"id\":\"Vajra\"}]', 0)");
+            try (ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+                rs.next();
+                loadoutId = rs.getLong(1);
+            }
+            LoadoutContentTables.rebuildAll(stmt);
+            LoadoutSearchIndex.rebuildAll(stmt);
+        }
+        assertTrue(repo.searchLoadouts("frappe", null, 10).isEmpty());
+
+        Map<String, String> cardNames = new HashMap<>();
+        cardNames.put("Strike_R", "Frappe");
+        cardNames.put("Demon Form", "Forme d\u00e9moniaque");
+        Map<String, String> relicNames = new HashMap<>();
+        relicNames.put("Vajra", "Vajra");
+        assertEquals(3, repo.updateDisplayNames(cardNames, relicNames));
+
+        // Display names match, accents optional, and IDs still do
+        assertEquals(1, repo.searchLoadouts("frappe", null, 10).size());
+        assertEquals(1, repo.searchLoadouts("forme demon", null, 10).size());
+        assertEquals(1, repo.searchLoadouts("strike", null, 10).size());
+
+        // The same names again change nothing; a renamed card re-indexes
+        assertEquals(0, repo.updateDisplayNames(cardNames, relicNames));
+        cardNames.put("Strike_R", "Schlag");
+        assertEquals(1, repo.updateDisplayNames(cardNames, relicNames));
+        assertTrue(repo.searchLoadouts("frappe", null, 10).isEmpty());
+        assertEquals(1, repo.searchLoadouts("schlag", null, 10).size());
+
+        // Documents re-synced after a write pick the names up too
+        assertTrue(repo.renameLoadout(loadoutId, "Vampire Deck"));
+        assertEquals(1, repo.searchLoadouts("vampire schlag", null, 10).size());
+    }
+
+    @Test
+    public void testLoadoutPagesWalkWholeList() throws Exception {
+        ArenaRepository repo = new ArenaRepository(db);
+        try (PreparedStatement stmt = db.getConnection().prepareStatement(
+                "INSERT INTO loadouts (uuid, name, character_class, max_hp, current_hp, deck_json, relics_json, " +
+                "created_at, is_favorite) VALUES (?, ?, ?, 80, 80, '[]', '[]', ?, ?)")) {
+            for (int i = 0; i < 130; i++) {
+                stmt.setString(1, "page-" + i);
+                stmt.setString(2, "Loadout " + i);
+                stmt.setString(3, i % 2 == 0 ? "IRONCLAD" : "DEFECT");
+                stmt.setLong(4, i / 3);  // Ties on created_at are broken by id
+                stmt.setInt(5, i % 10 == 0 ? 1 : 0);
+                stmt.executeUpdate();
+            }
+        }
+
+        List<ArenaRepository.LoadoutRecord> expected = repo.getLoadouts(1000);
+        assertEquals(130, repo.countLoadouts(null));
+        assertEquals(65, repo.countLoadouts("IRONCLAD"));
+
+        for (String characterClass : new String[] {null, "IRONCLAD"}) {
+            List<Long> walked = new ArrayList<>();
+            ArenaRepository.LoadoutCursor cursor = null;
+            while (true) {
+                List<ArenaRepository.LoadoutRecord> page = repo.getLoadoutsPage(characterClass, cursor, 50);
+                for (ArenaRepository.LoadoutRecord loadout : page) {
+                    walked.add(loadout.dbId);
+                }
+                if (page.size() < 50) {
+                    break;
+                }
+                cursor = page.get(page.size() - 1).cursor();
+            }
+
+            List<Long> expectedIds = new ArrayList<>();
+            for (ArenaRepository.LoadoutRecord loadout : expected) {
+                if (characterClass == null || characterClass.equals(loadout.characterClass)) {
+                    expectedIds.add(loadout.dbId);
+                }
+            }
+            assertEquals(expectedIds.size(), walked.size());
+            // Favorites first, then newest first; getLoadouts leaves created_at ties unordered
+            for (int i = 0; i < walked.size(); i++) {
+                ArenaRepository.LoadoutRecord a = repo.getLoadoutById(walked.get(i));
+                ArenaRepository.LoadoutRecord b = repo.getLoadoutById(expectedIds.get(i));
+                assertEquals(b.isFavorite, a.isFavorite);
+                assertEquals(b.createdAt, a.createdAt);
+            }
+            assertEquals(new HashSet<>(expectedIds), new HashSet<>(walked));
+        }
+    }
+
+    @Test
+    public void testBatchGenerationSavesToDatabase() throws Exception {
+        ArenaRepository repo = new ArenaRepository(db);
+        int saved = LoadoutBatchGenerator.generate(42, 300, "DEFECT", 2,
+            LoadoutBatchGenerator.toDatabase(repo, "Seed 42"));
+        assertEquals(300, saved);
+        assertEquals(300, repo.countLoadouts("DEFECT"));
+        assertEquals(1, repo.searchLoadouts("Seed 42 300", null, 10).size());
+    }
+
+    @Test
+    public void testLoadoutCodecReadsBothRelicFormats() throws Exception {
+        LoadoutCodec.RelicList current = LoadoutCodec.readRelics(
+            "[{\"id\":\"Pen Nib\",\"counter\":7,\"extra\":{\"a\":[1]}},{\"id\":\"Anchor\",\"counter\":-1}]");
+        assertEquals(LoadoutCodec.RelicFormat.RELIC_DATA, current.format);
+        assertEquals(2, current.relics.size());
+        assertEquals("Pen Nib", current.relics.get(0).id);
+        assertEquals(7, current.relics.get(0).counter);
+
+        LoadoutCodec.RelicList legacy = LoadoutCodec.readRelics("[\"Vajra\",\"Anchor\"]");
+        assertEquals(LoadoutCodec.RelicFormat.IDS, legacy.format);
+        assertEquals("Anchor", legacy.relics.get(1).id);
+
+        List<ArenaRepository.CardData> deck = LoadoutCodec.readDeck(
+            "[{\"id\":\"Bash\",\"upgrades\":1,\"inBottleFlame\":true},{\"id\":\"Anger\"}]");
+        assertEquals(2, deck.size());
+        assertEquals(1, deck.get(0).upgrades);
+        assertTrue(deck.get(0).inBottleFlame);
+        assertEquals(0, deck.get(1).upgrades);
+
+        assertTrue(LoadoutCodec.readDeck(null).isEmpty());
+        assertTrue(LoadoutCodec.readIds("").isEmpty());
+        assertTrue(LoadoutCodec.readIdsOrEmpty("{not a list").isEmpty());
+        try {
+            LoadoutCodec.readDeck("[\"Bash\"]");
+            fail("A deck of bare IDs should be rejected");
+        } catch (java.io.IOException expected) {
+        }
+    }
+
+    @Test
+    public void testPotionUseCountIsStoredAndBackfilled() throws Exception {
+        ArenaRepository repo = new ArenaRepository(db);
+        long loadoutId = insertTestLoadout("potions-uuid");
+
+        long runId = repo.startArenaRun(loadoutId, "Cultist", 80);
+        ArenaRepository.ArenaRunOutcome outcome = new ArenaRepository.ArenaRunOutcome();
+        outcome.result = ArenaRepository.ArenaRunOutcome.RunResult.VICTORY;
+        outcome.endingHp = 70;
+        outcome.potionsUsed.add("Fire Potion");
+        outcome.potionsUsed.add("Block Potion");
+        repo.completeArenaRun(runId, outcome);
+
+        List<ArenaRepository.VictoryRecord> victories = repo.getVictoriesForLoadoutEncounter(loadoutId, "Cultist");
+        assertEquals(1, victories.size());
+        assertEquals(2, victories.get(0).potionsUsed);
+
+        // Runs recorded before V15 only have the JSON list
+        try (Statement stmt = db.getConnection().createStatement()) {
+            stmt.executeUpdate(
+                "INSERT INTO arena_runs (loadout_id, encounter_id, started_at, starting_hp, outcome, " +
+                "potions_used_json) VALUES (" + loadoutId + ", 'Jaw Worm', 1, 80, 'VICTORY', " +
+                "'[\"Fire Potion\",\"Fear Potion\",\"Fairy in a Bottle\"]')");
+            stmt.executeUpdate("DELETE FROM schema_version");
+            stmt.executeUpdate("INSERT INTO schema_version (version) VALUES (14)");
+        }
+
+        String path = tempDbFile.getAbsolutePath();
+        db.close();
+        db = ArenaDatabase.createTestInstance(path);
+        repo = new ArenaRepository(db);
+
+        victories = repo.getVictoriesForLoadoutEncounter(loadoutId, "Jaw Worm");
+        assertEquals(1, victories.size());
+        assertEquals(3, victories.get(0).potionsUsed);
+    }
+
+    @Test
+    public void testParetoVictoriesMatchPairwiseScan() throws Exception {
+        ArenaRepository repo = new ArenaRepository(db);
+        long loadoutId = insertTestLoadout("pareto-uuid");
+        Random random = new Random(7);
+        for (int i = 0; i < 150; i++) {
+            long runId = repo.startArenaRun(loadoutId, "Cultist", 80);
+            ArenaRepository.ArenaRunOutcome outcome = new ArenaRepository.ArenaRunOutcome();
+            outcome.result = random.nextInt(5) == 0
+                ? ArenaRepository.ArenaRunOutcome.RunResult.DEFEAT
+                : ArenaRepository.ArenaRunOutcome.RunResult.VICTORY;
+            outcome.damageTaken = random.nextInt(30);
+            outcome.turnsTaken = 3 + random.nextInt(8);
+            for (int p = random.nextInt(3); p > 0; p--) {
+                outcome.potionsUsed.add("Fire Potion");
+            }
+            repo.completeArenaRun(runId, outcome);
+        }
+
+        assertEquals(paretoByPairwiseScan(repo.getVictoriesForLoadoutEncounter(loadoutId, "Cultist")),
+            runIds(repo.getParetoVictories(loadoutId, "Cultist")));
+        assertTrue(repo.getParetoVictories(loadoutId, "Cultist").size() <
+            repo.getVictoriesForLoadoutEncounter(loadoutId, "Cultist").size());
+
+        // Overwriting a frontier victory recomputes the whole matchup
+        ArenaRepository.ArenaRunOutcome overwrite = new ArenaRepository.ArenaRunOutcome();
+        overwrite.result = ArenaRepository.ArenaRunOutcome.RunResult.DEFEAT;
+        repo.completeArenaRun(repo.getParetoVictories(loadoutId, "Cultist").get(0).runId, overwrite);
+        assertEquals(paretoByPairwiseScan(repo.getVictoriesForLoadoutEncounter(loadoutId, "Cultist")),
+            runIds(repo.getParetoVictories(loadoutId, "Cultist")));
+
+        assertTrue(repo.rebuildEncounterStats() > 0);
+        assertEquals(paretoByPairwiseScan(repo.getVictoriesForLoadoutEncounter(loadoutId, "Cultist")),
+            runIds(repo.getParetoVictories(loadoutId, "Cultist")));
+        assertTrue(repo.getParetoVictories(loadoutId, "Jaw Worm").isEmpty());
+    }
+
+    @Test
+    public void testEncounterOutcomesArePatchedByCompletedRuns() throws Exception {
+        ArenaRepository repo = new ArenaRepository(db);
+        long loadoutId = insertTestLoadout("outcomes-uuid");
+        completeRun(repo, loadoutId, "Cultist", ArenaRepository.ArenaRunOutcome.RunResult.DEFEAT, 80, 3);
+
+        ArenaRepository.EncounterOutcomes first = repo.getEncounterOutcomes(loadoutId);
+        assertEquals("DEFEAT", first.outcomes.get("Cultist"));
+        assertSame("Unchanged outcomes come from the cache", first, repo.getEncounterOutcomes(loadoutId));
+
+        completeRun(repo, loadoutId, "Cultist", ArenaRepository.ArenaRunOutcome.RunResult.VICTORY, 5, 4);
+        completeRun(repo, loadoutId, "Jaw Worm", ArenaRepository.ArenaRunOutcome.RunResult.DEFEAT, 80, 2);
+        ArenaRepository.EncounterOutcomes patched = repo.getEncounterOutcomes(loadoutId);
+        assertTrue(patched.version > first.version);
+        assertEquals(repo.getOutcomeVersion(), patched.version);
+        assertEquals("VICTORY", patched.outcomes.get("Cultist"));
+        assertEquals("DEFEAT", patched.outcomes.get("Jaw Worm"));
+
+        // A fresh repository reads the same thing from loadout_encounter_stats
+        assertEquals(patched.outcomes, new ArenaRepository(db).getEncounterOutcomes(loadoutId).outcomes);
+
+        assertTrue(repo.deleteLoadout(loadoutId));
+        assertTrue(repo.getEncounterOutcomes(loadoutId).outcomes.isEmpty());
+    }
+
+    @Test
+    public void testOutcomeLoadDuringCompletionIsNotCachedStale() throws Exception {
+        ArenaRepository repo = new ArenaRepository(db);
+        long loadoutId = insertTestLoadout("interleave-uuid");
+        long runId = repo.startArenaRun(loadoutId, "Cultist", 80);
+
+        // Load outcomes through the read pool while the completion is about to commit:
+        // that load can only see the snapshot from before the new outcome.
+        org.sqlite.SQLiteConnection writer = db.getConnection().unwrap(org.sqlite.SQLiteConnection.class);
+        AtomicReference<ArenaRepository.EncounterOutcomes> during =
+            new AtomicReference<>();
+        org.sqlite.SQLiteCommitListener listener = new org.sqlite.SQLiteCommitListener() {
+            @Override
+            public void onCommit() {
+                if (during.get() == null) {
+                    during.set(CompletableFuture.supplyAsync(
+                        () -> repo.getEncounterOutcomes(loadoutId)).join());
+                }
+            }
+
+            @Override
+            public void onRollback() {
+            }
+        };
+        writer.addCommitListener(listener);
+        try {
+            ArenaRepository.ArenaRunOutcome outcome = new ArenaRepository.ArenaRunOutcome();
+            outcome.result = ArenaRepository.ArenaRunOutcome.RunResult.VICTORY;
+            outcome.endingHp = 80;
+            outcome.turnsTaken = 3;
+            repo.completeArenaRun(runId, outcome);
+        } finally {
+            writer.removeCommitListener(listener);
+        }
+
+        assertNotNull("The load should have run before the commit", during.get());
+        assertFalse(during.get().outcomes.containsKey("Cultist"));
+        assertEquals("The cache must not keep the pre-commit load",
+            "VICTORY", repo.getEncounterOutcomes(loadoutId).outcomes.get("Cultist"));
+    }
+
+    @Test
+    public void testUpsertLoadoutKeepsOneRowPerUuid() throws Exception {
+        ArenaRepository repo = new ArenaRepository(db);
+        long id = repo.upsertLoadout(upsertLoadout(80));
+        assertTrue("Loadout should be saved", id > 0);
+        assertEquals("Replaying should reuse the row", id, repo.upsertLoadout(upsertLoadout(80)));
+
+        // A rename in the history screen survives a replay with changed contents
+        assertTrue(repo.renameLoadout(id, "Renamed"));
+        assertEquals(id, repo.upsertLoadout(upsertLoadout(60)));
+
+        try (Statement stmt = db.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT COUNT(*), MAX(name), MAX(current_hp) FROM loadouts WHERE uuid = 'upsert-uuid'")) {
+            assertTrue(rs.next());
+            assertEquals(1, rs.getInt(1));
+            assertEquals("Renamed", rs.getString(2));
+            assertEquals(60, rs.getInt(3));
+        }
+    }
+
+    @Test
+    public void testRestartingRebuiltSavedLoadoutKeepsRow() throws Exception {
+        ArenaRepository repo = new ArenaRepository(db);
+        // A saved loadout with a card in Bottled Flame
+        String deckJson = "[{\"id\":\"Bash\",\"upgrades\":1,\"inBottleFlame\":true," +
+                          "\"inBottleLightning\":false,\"inBottleTornado\":false}]";
+        String relicsJson = "[{\"id\":\"Bottled Flame\",\"counter\":-1}]";
+        String contentHash = ArenaRepository.computeContentHash(deckJson, relicsJson, "[]");
+        long id;
+        try (Statement stmt = db.getConnection().createStatement()) {
+            stmt.executeUpdate(
+                "INSERT INTO loadouts (uuid, name, character_class, max_hp, current_hp, deck_json, relics_json, " +
+                "potions_json, potion_slots, ascension_level, content_hash, created_at) " +
+                "VALUES ('upsert-uuid', 'Bottled', 'IRONCLAD', 80, 80, '" + deckJson + "', '" + relicsJson + "', " +
+                "'[]', 3, 0, '" + contentHash + "', 0)");
+            try (ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+                rs.next();
+                id = rs.getLong(1);
+            }
+        }
+
+        // The rebuild the restart starts from serializes differently (here: nothing resolved)
+        RandomLoadoutGenerator.GeneratedLoadout rebuilt =
+            new RandomLoadoutGenerator.GeneratedLoadout(
+                "upsert-uuid", "Bottled", 0, AbstractPlayer.PlayerClass.IRONCLAD,
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>(),
+                3, false, 80, 80, 0, true);
+        assertEquals(id, repo.upsertLoadout(rebuilt));
+        assertEquals("Restarting again still reuses the row", id, repo.upsertLoadout(rebuilt));
+
+        try (Statement stmt = db.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT deck_json, relics_json, content_hash FROM loadouts WHERE id = " + id)) {
+            assertTrue(rs.next());
+            assertEquals("Bottle choice kept", deckJson, rs.getString("deck_json"));
+            assertEquals(relicsJson, rs.getString("relics_json"));
+            assertEquals(contentHash, rs.getString("content_hash"));
+        }
+    }
+
+    private static RandomLoadoutGenerator.GeneratedLoadout upsertLoadout(int currentHp) {
+        return new RandomLoadoutGenerator.GeneratedLoadout(
+            "upsert-uuid", "Upsert", 0, AbstractPlayer.PlayerClass.IRONCLAD,
+            new ArrayList<>(), new ArrayList<>(), new ArrayList<>(),
+            3, false, 80, currentHp, 0);
+    }
+
+    private static Set<Long> paretoByPairwiseScan(List<ArenaRepository.VictoryRecord> victories) {
+        Set<Long> best = new HashSet<>();
+        for (ArenaRepository.VictoryRecord candidate : victories) {
+            boolean dominated = false;
+            for (ArenaRepository.VictoryRecord other : victories) {
+                dominated |= candidate.isDominatedBy(other);
+            }
+            if (!dominated) {
+                best.add(candidate.runId);
+            }
+        }
+        return best;
+    }
+
+    private static Set<Long> runIds(List<ArenaRepository.VictoryRecord> victories) {
+        Set<Long> ids = new HashSet<>();
+        for (ArenaRepository.VictoryRecord victory : victories) {
+            ids.add(victory.runId);
+        }
+        return ids;
+    }
+
+    private int countSnapshots() throws Exception {
+        try (Statement stmt = db.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM loadout_snapshots")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private long insertTestLoadout(String uuid) throws Exception {
+        try (Statement stmt = db.getConnection().createStatement()) {
+            stmt.executeUpdate(
+                "INSERT INTO loadouts (uuid, name, character_class, max_hp, current_hp, " +
+                "deck_json, relics_json, created_at) " +
+                "VALUES ('" + uuid + "', 'Stats Loadout', 'IRONCLAD', 80, 80, '[]', '[]', 0)");
+            try (ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+                assertTrue(rs.next());
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private void completeRun(ArenaRepository repo, long loadoutId, String encounter,
+                             ArenaRepository.ArenaRunOutcome.RunResult result,
+                             int damageTaken, int turns) {
+        long runId = repo.startArenaRun(loadoutId, encounter, 80);
+        assertTrue("Run should be recorded", runId > 0);
+
+        ArenaRepository.ArenaRunOutcome outcome = new ArenaRepository.ArenaRunOutcome();
+        outcome.result = result;
+        outcome.endingHp = 80 - damageTaken;
+        outcome.damageTaken = damageTaken;
+        outcome.turnsTaken = turns;
+        repo.completeArenaRun(runId, outcome);
+    }
 }
@@ -80,6 +80,7 @@ public class PatchValidationTest {
             "stsarena.patches.ArenaMenuButton",
             "stsarena.patches.ArenaPauseButtonPatch",
             "stsarena.patches.ArenaPauseMenuPatch",
+            "stsarena.patches.ArenaSaveLoadPatch",
             "stsarena.patches.ArenaSkipRewardsPatch",
             "stsarena.patches.ArenaVictoryPatch",
             "stsarena.patches.ArenaVictoryScreenPatch",